@@ -3,6 +3,7 @@ package ccm.admin.audit.entity;
 import ccm.admin.user.entity.User;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import io.swagger.v3.oas.annotations.Hidden;
+import ccm.common.id.PooledId;
 import jakarta.persistence.*;
 import org.hibernate.annotations.CreationTimestamp;
 
@@ -18,7 +19,7 @@ import org.hibernate.annotations.CreationTimestamp;
 public class AuditLog {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -1,5 +1,6 @@
 package ccm.admin.audit.entity;
 
+import ccm.common.id.PooledId;
 import jakarta.persistence.*;
 import java.time.Instant;
 
@@ -14,7 +15,7 @@ import java.time.Instant;
 public class HttpAuditLog {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     private Long id;
 
     @Column(nullable = false, length = 100)
@@ -1,10 +1,14 @@
 package ccm.admin.auth.config;
 
+import ccm.admin.auth.security.BoundedPasswordEncoder;
 import ccm.admin.auth.security.CustomAccessDeniedHandler;
 import ccm.admin.auth.security.JwtAuthenticationEntryPoint;
 import ccm.admin.auth.security.JwtAuthenticationFilter;
 import ccm.admin.auth.security.CustomUserDetailsService;
 import ccm.admin.security.RateLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -47,9 +51,19 @@ public class SecurityConfig {
     @Value("${app.frontend.origins:http://localhost:3000}")
     private String frontendOrigins;
 
+    /**
+     * BCrypt runs on a dedicated pool sized to CPU cores so login bursts cannot
+     * occupy every request thread; overflow is rejected with 503.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${app.security.password-hash.threads:0}") int threads,
+            @Value("${app.security.password-hash.queue-capacity:64}") int queueCapacity,
+            @Value("${app.security.password-hash.max-wait:5s}") java.time.Duration maxWait) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), poolSize, queueCapacity, maxWait,
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
     }
 
     /** Provider DAO dùng CustomUserDetailsService từ DB */
@@ -6,6 +6,7 @@ import ccm.admin.auth.dto.response.AuthResponse;
 import ccm.admin.auth.entity.RefreshToken;
 import ccm.admin.auth.security.JwtService;
 import ccm.admin.auth.service.RefreshTokenService;
+import ccm.admin.common.exception.ServiceBusyException;
 import ccm.admin.user.entity.User;
 import ccm.admin.user.repository.UserRepository;
 import ccm.admin.auth.dto.request.RegisterRequest;
@@ -152,6 +153,12 @@ public class AuthController {
                     "{\"email\":\"" + req.getEmail() + "\",\"reason\":\"User not found\"}", 
                     401);
             throw new BadCredentialsException("Invalid email or password");
+        } catch (ServiceBusyException e) {
+            
+            httpAuditService.logFromRequest(request, "LOGIN_THROTTLED", 
+                    "{\"email\":\"" + req.getEmail() + "\"}", 
+                    503);
+            throw e; 
         } catch (Exception e) {
             
             log.error("Unexpected error during login for user: {}", req.getEmail(), e);
@@ -226,21 +233,11 @@ public class AuthController {
             String oldRefreshTokenString = authHeader.substring(7); 
             
             
-            RefreshToken oldRefreshToken = refreshTokenService.validateRefreshToken(oldRefreshTokenString)
+            RefreshToken newRefreshToken = refreshTokenService.rotateRefreshToken(oldRefreshTokenString)
                     .orElseThrow(() -> new IllegalArgumentException("Invalid or expired refresh token"));
             
             
-            Long userId = oldRefreshToken.getUser().getId();
-            
-            
-            refreshTokenService.revokeToken(oldRefreshTokenString);
-            
-            
-            User user = userRepository.findById(userId)
-                    .orElseThrow(() -> new IllegalArgumentException("User not found"));
-            
-            
-            RefreshToken newRefreshToken = refreshTokenService.createRefreshToken(user);
+            User user = newRefreshToken.getUser();
             
             
             UserDetails userDetails = userDetailsService.loadUserByUsername(user.getEmail());
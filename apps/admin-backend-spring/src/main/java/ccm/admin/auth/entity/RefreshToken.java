@@ -1,6 +1,7 @@
 package ccm.admin.auth.entity;
 
 import ccm.admin.user.entity.User;
+import ccm.common.id.PooledId;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -12,9 +13,10 @@ import java.time.Instant;
 
 @Entity
 @Table(name = "refresh_tokens", indexes = {
-    @Index(name = "idx_token", columnList = "token"),
-    @Index(name = "idx_user_id", columnList = "user_id"),
-    @Index(name = "idx_expires_at", columnList = "expires_at")
+    @Index(name = "uk_refresh_tokens_token_hash", columnList = "token_hash", unique = true),
+    @Index(name = "idx_refresh_tokens_user_revoked", columnList = "user_id, revoked"),
+    @Index(name = "idx_refresh_tokens_expires_at", columnList = "expires_at"),
+    @Index(name = "idx_refresh_tokens_revoked", columnList = "revoked")
 })
 @Data
 @NoArgsConstructor
@@ -25,11 +27,15 @@ import java.time.Instant;
 public class RefreshToken {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     private Long id;
 
-    
-    @Column(name = "token", nullable = false, unique = true, length = 500)
+    /** SHA-256 hex of the raw token; the raw value is never persisted */
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    /** Raw token, only populated on the instance returned when the token is issued */
+    @Transient
     private String token;
 
     
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.Optional;
@@ -16,7 +17,9 @@ import java.util.Optional;
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
 
     
-    Optional<RefreshToken> findByToken(String token);
+    /** Single lookup on uk_refresh_tokens_token_hash; the owning user is fetched in the same query */
+    @Query("SELECT rt FROM RefreshToken rt JOIN FETCH rt.user WHERE rt.tokenHash = :tokenHash")
+    Optional<RefreshToken> findByTokenHash(@Param("tokenHash") String tokenHash);
 
     
     @Query("SELECT rt FROM RefreshToken rt WHERE rt.user.id = :userId " +
@@ -29,9 +32,23 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long
     int revokeAllByUserId(@Param("userId") Long userId);
 
     
+    /** Conditional revoke by id - returns 0 if another request already rotated this token */
     @Modifying
-    @Query("DELETE FROM RefreshToken rt WHERE rt.expiresAt < :expiredBefore OR rt.revoked = true")
-    int deleteExpiredAndRevoked(@Param("expiredBefore") Instant expiredBefore);
+    @Query("UPDATE RefreshToken rt SET rt.revoked = true WHERE rt.id = :id AND rt.revoked = false")
+    int revokeById(@Param("id") Long id);
+
+    
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM refresh_tokens WHERE expires_at < :expiredBefore LIMIT :batchSize",
+           nativeQuery = true)
+    int deleteExpiredBatch(@Param("expiredBefore") Instant expiredBefore, @Param("batchSize") int batchSize);
+
+    
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM refresh_tokens WHERE revoked = TRUE LIMIT :batchSize", nativeQuery = true)
+    int deleteRevokedBatch(@Param("batchSize") int batchSize);
 
     
     @Query("SELECT COUNT(rt) > 0 FROM RefreshToken rt WHERE rt.user.id = :userId " +
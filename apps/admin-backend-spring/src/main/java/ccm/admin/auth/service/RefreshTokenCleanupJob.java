@@ -0,0 +1,33 @@
+package ccm.admin.auth.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@Slf4j
+/** service - Component - Scheduled batched purge of expired and revoked refresh tokens */
+
+public class RefreshTokenCleanupJob {
+
+    private final RefreshTokenService refreshTokenService;
+    
+    @Value("${app.security.refresh-token.cleanup-batch-size:1000}")
+    private int batchSize;
+
+    public RefreshTokenCleanupJob(RefreshTokenService refreshTokenService) {
+        this.refreshTokenService = refreshTokenService;
+    }
+
+    
+    @Scheduled(fixedDelayString = "${app.security.refresh-token.cleanup-interval:PT1H}",
+               initialDelayString = "${app.security.refresh-token.cleanup-initial-delay:PT5M}")
+    public void purgeRefreshTokens() {
+        try {
+            refreshTokenService.cleanupExpiredTokens(batchSize);
+        } catch (Exception e) {
+            log.error("Failed to purge refresh tokens", e);
+        }
+    }
+}
@@ -3,23 +3,38 @@ package ccm.admin.auth.service;
 import ccm.admin.auth.entity.RefreshToken;
 import ccm.admin.auth.repository.RefreshTokenRepository;
 import ccm.admin.user.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
 import java.util.Optional;
-import java.util.UUID;
 
 @Service
 @Slf4j
-/** service - Service Implementation - Manage refresh tokens lifecycle */
+/** service - Service Implementation - Manage refresh tokens lifecycle (hashed storage, rotation, purge) */
 
 public class RefreshTokenService {
 
+    private static final int TOKEN_BYTES = 32;
+    private static final int REVOKED_CACHE_SIZE = 10_000;
+
     private final RefreshTokenRepository refreshTokenRepository;
     private final long refreshTokenExpirationMs;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    /** Hashes of tokens revoked by this instance; replays are rejected without touching the DB */
+    private final Cache<String, Boolean> recentlyRevoked;
 
     public RefreshTokenService(
             RefreshTokenRepository refreshTokenRepository,
@@ -27,49 +42,67 @@ public class RefreshTokenService {
     ) {
         this.refreshTokenRepository = refreshTokenRepository;
         this.refreshTokenExpirationMs = refreshTokenExpirationMs;
-        
-        log.info("RefreshTokenService initialized - Token expiration: {} ms ({} days)", 
+        this.recentlyRevoked = Caffeine.newBuilder()
+                .maximumSize(REVOKED_CACHE_SIZE)
+                .expireAfterWrite(Duration.ofMillis(refreshTokenExpirationMs))
+                .build();
+
+        log.info("RefreshTokenService initialized - Token expiration: {} ms ({} days)",
                  refreshTokenExpirationMs, refreshTokenExpirationMs / (24 * 60 * 60 * 1000));
     }
 
     
-    /** Create new record - transactional */
+    /**
+     * Create new record (login) - a single insert. Tokens from other sessions stay valid until
+     * they expire or are purged; {@link #revokeAllUserTokens(Long)} (logout) revokes them all.
+     */
     @Transactional
     public RefreshToken createRefreshToken(User user) {
-        
-        int revokedCount = refreshTokenRepository.revokeAllByUserId(user.getId());
-        if (revokedCount > 0) {
-            log.debug("Revoked {} existing refresh token(s) for user: {}", revokedCount, user.getEmail());
-        }
+        return issue(user);
+    }
 
-        
-        String tokenString = UUID.randomUUID().toString();
-        Instant expiresAt = Instant.now().plusMillis(refreshTokenExpirationMs);
+    
+    /**
+     * Rotate a refresh token: one indexed lookup on the hash, a conditional revoke by id,
+     * and an insert for the replacement. Returns empty if the token is unknown, expired,
+     * revoked, or was rotated concurrently by another request.
+     */
+    @Transactional
+    public Optional<RefreshToken> rotateRefreshToken(String tokenString) {
+        Optional<RefreshToken> current = validateRefreshToken(tokenString);
+        if (current.isEmpty()) {
+            return Optional.empty();
+        }
 
-        RefreshToken refreshToken = RefreshToken.builder()
-                .token(tokenString)
-                .user(user)
-                .expiresAt(expiresAt)
-                .revoked(false)
-                .build();
+        RefreshToken old = current.get();
+        if (refreshTokenRepository.revokeById(old.getId()) == 0) {
+            log.warn("Refresh token already rotated: {}", mask(tokenString));
+            recentlyRevoked.put(old.getTokenHash(), Boolean.TRUE);
+            return Optional.empty();
+        }
+        recentlyRevoked.put(old.getTokenHash(), Boolean.TRUE);
 
-        RefreshToken saved = refreshTokenRepository.save(refreshToken);
-        log.info("Created refresh token for user: {} (expires at: {})", user.getEmail(), expiresAt);
-        
-        return saved;
+        return Optional.of(issue(old.getUser()));
     }
 
     
-    /** Validate JWT token - modifies data */
+    /** Validate refresh token - at most one indexed lookup, none for recently revoked tokens */
     public Optional<RefreshToken> validateRefreshToken(String tokenString) {
-        return refreshTokenRepository.findByToken(tokenString)
+        String tokenHash = hash(tokenString);
+        if (recentlyRevoked.getIfPresent(tokenHash) != null) {
+            log.warn("Attempted to use revoked refresh token: {}", mask(tokenString));
+            return Optional.empty();
+        }
+
+        return refreshTokenRepository.findByTokenHash(tokenHash)
                 .filter(token -> {
                     if (Boolean.TRUE.equals(token.getRevoked())) {
-                        log.warn("Attempted to use revoked refresh token: {}", tokenString.substring(0, 8) + "...");
+                        recentlyRevoked.put(tokenHash, Boolean.TRUE);
+                        log.warn("Attempted to use revoked refresh token: {}", mask(tokenString));
                         return false;
                     }
                     if (token.isExpired()) {
-                        log.warn("Attempted to use expired refresh token: {}", tokenString.substring(0, 8) + "...");
+                        log.warn("Attempted to use expired refresh token: {}", mask(tokenString));
                         return false;
                     }
                     return true;
@@ -80,15 +113,12 @@ public class RefreshTokenService {
     /** Process business logic - transactional */
     @Transactional
     public boolean revokeToken(String tokenString) {
-        Optional<RefreshToken> tokenOpt = refreshTokenRepository.findByToken(tokenString);
-        if (tokenOpt.isPresent()) {
-            RefreshToken token = tokenOpt.get();
-            if (!Boolean.TRUE.equals(token.getRevoked())) {
-                token.setRevoked(true);
-                refreshTokenRepository.save(token);
-                log.info("Revoked refresh token for user: {}", token.getUser().getEmail());
-                return true;
-            }
+        String tokenHash = hash(tokenString);
+        Optional<RefreshToken> tokenOpt = refreshTokenRepository.findByTokenHash(tokenHash);
+        recentlyRevoked.put(tokenHash, Boolean.TRUE);
+        if (tokenOpt.isPresent() && refreshTokenRepository.revokeById(tokenOpt.get().getId()) > 0) {
+            log.info("Revoked refresh token for user: {}", tokenOpt.get().getUser().getEmail());
+            return true;
         }
         return false;
     }
@@ -103,13 +133,25 @@ public class RefreshTokenService {
     }
 
     
-    /** Clean up old records - transactional */
-    @Transactional
-    public int cleanupExpiredTokens() {
+    /**
+     * Delete expired and revoked tokens in batches of {@code batchSize} rows.
+     * Each batch commits on its own so the purge never holds long locks on refresh_tokens.
+     */
+    public int cleanupExpiredTokens(int batchSize) {
         Instant now = Instant.now();
-        int count = refreshTokenRepository.deleteExpiredAndRevoked(now);
-        log.info("Cleaned up {} expired/revoked refresh tokens", count);
-        return count;
+        int total = 0;
+        int deleted;
+        do {
+            deleted = refreshTokenRepository.deleteExpiredBatch(now, batchSize);
+            total += deleted;
+        } while (deleted == batchSize);
+        do {
+            deleted = refreshTokenRepository.deleteRevokedBatch(batchSize);
+            total += deleted;
+        } while (deleted == batchSize);
+
+        log.info("Cleaned up {} expired/revoked refresh tokens", total);
+        return total;
     }
 
     
@@ -117,4 +159,41 @@ public class RefreshTokenService {
     public long getRefreshTokenExpirationSeconds() {
         return refreshTokenExpirationMs / 1000;
     }
+
+    
+    private RefreshToken issue(User user) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String tokenString = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        Instant expiresAt = Instant.now().plusMillis(refreshTokenExpirationMs);
+
+        RefreshToken refreshToken = RefreshToken.builder()
+                .tokenHash(hash(tokenString))
+                .user(user)
+                .expiresAt(expiresAt)
+                .revoked(false)
+                .build();
+
+        RefreshToken saved = refreshTokenRepository.save(refreshToken);
+        saved.setToken(tokenString);
+        log.info("Created refresh token for user: {} (expires at: {})", user.getEmail(), expiresAt);
+
+        return saved;
+    }
+
+    
+    /** SHA-256 hex - tokens carry 256 bits of entropy so an unsalted fast hash is sufficient */
+    static String hash(String tokenString) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(tokenString.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    
+    private static String mask(String tokenString) {
+        return tokenString.length() > 8 ? tokenString.substring(0, 8) + "..." : "***";
+    }
 }
@@ -0,0 +1,17 @@
+package ccm.admin.common.exception;
+
+/** exception - Exception - Request shed because a bounded worker pool is saturated (HTTP 503) */
+
+public class ServiceBusyException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
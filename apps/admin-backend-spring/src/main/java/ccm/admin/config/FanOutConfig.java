@@ -0,0 +1,22 @@
+package ccm.admin.config;
+
+import ccm.common.concurrent.FanOut;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+
+@Configuration
+@Slf4j
+/** config - Configuration - Parallel dashboard queries on virtual threads, bounded to a share of the connection pool */
+
+public class FanOutConfig {
+
+    @Bean
+    public FanOut fanOut(@Value("${app.fan-out.max-concurrent:4}") int maxConcurrent) {
+        log.info("Dashboard fan-out limited to {} concurrent queries", maxConcurrent);
+        // Wrapping on the request thread captures its SecurityContext for the forked query
+        return new FanOut(maxConcurrent, DelegatingSecurityContextRunnable::new);
+    }
+}
@@ -0,0 +1,39 @@
+package ccm.admin.config;
+
+import ccm.common.ratelimit.InMemoryRateLimitStore;
+import ccm.common.ratelimit.JdbcRateLimitStore;
+import ccm.common.ratelimit.PrefetchingRateLimiter;
+import ccm.common.ratelimit.RateLimitStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+@Slf4j
+/** config - Configuration - Shared rate limit store (jdbc for clusters, local for tests) */
+
+public class RateLimitConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.rate-limit.store", havingValue = "jdbc")
+    public RateLimitStore jdbcRateLimitStore(JdbcTemplate jdbcTemplate) {
+        log.info("Rate limits shared across instances via table rate_limit_counters");
+        return new JdbcRateLimitStore(jdbcTemplate);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.rate-limit.store", havingValue = "local", matchIfMissing = true)
+    public RateLimitStore localRateLimitStore() {
+        log.info("Rate limits kept in local memory (per instance)");
+        return new InMemoryRateLimitStore();
+    }
+
+    @Bean
+    public PrefetchingRateLimiter prefetchingRateLimiter(RateLimitStore store,
+                                                         @Value("${app.rate-limit.prefetch:20}") int maxPrefetch) {
+        return new PrefetchingRateLimiter(store, maxPrefetch);
+    }
+}
@@ -0,0 +1,11 @@
+package ccm.admin.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+/** config - Configuration - Enables @Scheduled jobs (audit log and refresh token cleanup) */
+
+public class SchedulingConfig {
+}
@@ -1,6 +1,7 @@
 package ccm.admin.credit.entity;
 
 import ccm.admin.credit.entity.enums.CreditStatus;
+import ccm.common.id.PooledId;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -19,7 +20,7 @@ import java.time.LocalDateTime;
 public class CarbonCredit {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     private Long id;
 
     /** Owner of the carbon credit (EV owner) */
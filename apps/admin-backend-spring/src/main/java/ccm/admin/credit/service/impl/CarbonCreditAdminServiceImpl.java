@@ -12,6 +12,7 @@ import ccm.admin.journey.entity.Journey;
 import ccm.admin.journey.repository.JourneyRepository;
 import ccm.admin.user.entity.User;
 import ccm.admin.user.repository.UserRepository;
+import ccm.common.concurrent.FanOut;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -21,6 +22,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
@@ -30,6 +34,7 @@ public class CarbonCreditAdminServiceImpl implements CarbonCreditAdminService {
     private final CarbonCreditRepository creditRepository;
     private final UserRepository userRepository;
     private final JourneyRepository journeyRepository;
+    private final FanOut fanOut;
 
     @Override
     @Transactional(readOnly = true)
@@ -84,23 +89,39 @@ public class CarbonCreditAdminServiceImpl implements CarbonCreditAdminService {
     }
 
     @Override
-    @Transactional(readOnly = true)
     public CreditStatisticsResponse getCreditStatistics() {
         log.debug("Calculating credit statistics");
 
-        long total = creditRepository.getTotalCount();
-        long available = creditRepository.countByStatus(CreditStatus.AVAILABLE);
-        long listed = creditRepository.countByStatus(CreditStatus.LISTED);
-        long sold = creditRepository.countByStatus(CreditStatus.SOLD);
-        long reserved = creditRepository.countByStatus(CreditStatus.RESERVED);
+        // One count and one sum per status, forked in parallel (see FanOutConfig for the shared cap)
+        CreditStatus[] statuses = {CreditStatus.AVAILABLE, CreditStatus.LISTED, CreditStatus.SOLD, CreditStatus.RESERVED};
+        Map<CreditStatus, Long> counts = new EnumMap<>(CreditStatus.class);
+        Map<CreditStatus, BigDecimal> amounts = new EnumMap<>(CreditStatus.class);
+        long total;
+        BigDecimal revenue;
+        try (FanOut.Scope scope = fanOut.open()) {
+            Supplier<Long> totalCount = scope.fork(creditRepository::getTotalCount);
+            Supplier<BigDecimal> totalRevenue = scope.fork(creditRepository::calculateTotalRevenue);
+            Map<CreditStatus, Supplier<Long>> countTasks = new EnumMap<>(CreditStatus.class);
+            Map<CreditStatus, Supplier<BigDecimal>> amountTasks = new EnumMap<>(CreditStatus.class);
+            for (CreditStatus status : statuses) {
+                countTasks.put(status, scope.fork(() -> creditRepository.countByStatus(status)));
+                amountTasks.put(status, scope.fork(() -> creditRepository.calculateTotalAmountByStatus(status)));
+            }
+            scope.join();
+
+            total = totalCount.get();
+            revenue = totalRevenue.get();
+            countTasks.forEach((status, task) -> counts.put(status, task.get()));
+            amountTasks.forEach((status, task) -> amounts.put(status, task.get()));
+        }
 
-        BigDecimal totalAmount = creditRepository.calculateTotalAmountByStatus(CreditStatus.AVAILABLE)
-                .add(creditRepository.calculateTotalAmountByStatus(CreditStatus.LISTED))
-                .add(creditRepository.calculateTotalAmountByStatus(CreditStatus.SOLD))
-                .add(creditRepository.calculateTotalAmountByStatus(CreditStatus.RESERVED));
+        long available = counts.get(CreditStatus.AVAILABLE);
+        long listed = counts.get(CreditStatus.LISTED);
+        long sold = counts.get(CreditStatus.SOLD);
+        long reserved = counts.get(CreditStatus.RESERVED);
 
-        BigDecimal soldAmount = creditRepository.calculateTotalAmountByStatus(CreditStatus.SOLD);
-        BigDecimal revenue = creditRepository.calculateTotalRevenue();
+        BigDecimal totalAmount = amounts.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal soldAmount = amounts.get(CreditStatus.SOLD);
 
         double salesRate = total > 0 ? ((double) sold / total) * 100.0 : 0.0;
 
@@ -4,6 +4,7 @@ import ccm.admin.dispute.entity.enums.DisputeStatus;
 import ccm.admin.user.entity.User;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import io.swagger.v3.oas.annotations.Hidden;
+import ccm.common.id.PooledId;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -22,7 +23,7 @@ import java.time.LocalDateTime;
 public class Dispute {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     private Long id;
 
     
@@ -1,6 +1,7 @@
 package ccm.admin.journey.entity;
 
 import ccm.admin.journey.entity.enums.JourneyStatus;
+import ccm.common.id.PooledId;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -22,7 +23,7 @@ import java.time.LocalDateTime;
 public class Journey {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     private Long id;
 
     /**
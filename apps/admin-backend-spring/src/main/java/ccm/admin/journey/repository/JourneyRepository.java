@@ -2,6 +2,7 @@ package ccm.admin.journey.repository;
 
 import ccm.admin.journey.entity.Journey;
 import ccm.admin.journey.entity.enums.JourneyStatus;
+import ccm.admin.journey.repository.projection.JourneyMonthlyStatsProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
@@ -10,6 +11,8 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
 
 @Repository
 /**
@@ -62,4 +65,25 @@ public interface JourneyRepository extends JpaRepository<Journey, Long>, JpaSpec
      */
     @Query("SELECT COUNT(j) FROM Journey j WHERE j.userId = :userId AND j.status = :status")
     long countByUserIdAndStatus(@Param("userId") Long userId, @Param("status") JourneyStatus status);
+
+    /**
+     * Count verified journeys and sum their credits per month of [from, to) for one user
+     *
+     * @param userId The user ID
+     * @return One row per month that has verified journeys
+     */
+    @Query(value = """
+            SELECT
+                MONTH(journey_date)                  AS month,
+                COUNT(*)                             AS journeyCount,
+                COALESCE(SUM(credits_generated), 0)  AS credits
+            FROM journeys
+            WHERE user_id = :userId
+              AND status = 'VERIFIED'
+              AND journey_date >= :from AND journey_date < :to
+            GROUP BY MONTH(journey_date)
+            """, nativeQuery = true)
+    List<JourneyMonthlyStatsProjection> findVerifiedMonthlyStatsByUserId(@Param("userId") Long userId,
+                                                                         @Param("from") LocalDate from,
+                                                                         @Param("to") LocalDate to);
 }
@@ -0,0 +1,15 @@
+package ccm.admin.journey.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection for one owner's verified journeys grouped by month.
+ */
+public interface JourneyMonthlyStatsProjection {
+
+    Integer getMonth();
+
+    Long getJourneyCount();
+
+    BigDecimal getCredits();
+}
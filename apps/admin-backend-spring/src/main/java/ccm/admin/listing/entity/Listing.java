@@ -5,6 +5,7 @@ import ccm.admin.listing.entity.enums.ListingType;
 import ccm.admin.user.entity.User;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import io.swagger.v3.oas.annotations.Hidden;
+import ccm.common.id.PooledId;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -24,7 +25,7 @@ import java.time.LocalDateTime;
 public class Listing {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     private Long id;
 
     @Column(name = "carbon_credit_id", nullable = false)
@@ -10,6 +10,7 @@ import ccm.admin.listing.entity.enums.ListingStatus;
 import ccm.admin.listing.repository.ListingRepository;
 import ccm.admin.listing.service.ListingAdminService;
 import ccm.admin.listing.spec.ListingSpecification;
+import ccm.admin.wallet.service.OwnerWalletProjection;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -29,6 +30,7 @@ public class ListingAdminServiceImpl implements ListingAdminService {
 
     private final ListingRepository listingRepo;
     private final UserRepository userRepository;
+    private final OwnerWalletProjection ownerWallets;
 
     /** Get all records - transactional */
     @Override
@@ -140,6 +142,7 @@ public class ListingAdminServiceImpl implements ListingAdminService {
         listing.setRejectReason(request != null ? request.getReason() : "Rejected by admin");
         
         listingRepo.save(listing);
+        ownerWallets.creditsUnlisted(listing.getOwner().getId(), listing.getQuantity());
         
         log.info("Listing {} rejected by admin {}", id, adminId);
         
@@ -168,6 +171,7 @@ public class ListingAdminServiceImpl implements ListingAdminService {
         listing.setRejectReason(request != null ? request.getReason() : "Delisted by admin");
         
         listingRepo.save(listing);
+        ownerWallets.creditsUnlisted(listing.getOwner().getId(), listing.getQuantity());
         
         log.info("Listing {} delisted by admin {}", id, adminId);
         
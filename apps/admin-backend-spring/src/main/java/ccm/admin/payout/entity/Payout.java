@@ -1,6 +1,7 @@
 package ccm.admin.payout.entity;
 
 import ccm.admin.payout.entity.enums.PayoutStatus;
+import ccm.common.id.PooledId;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -19,7 +20,7 @@ import java.time.LocalDateTime;
 public class Payout {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     private Long id;
 
     /** Owner who requested the payout */
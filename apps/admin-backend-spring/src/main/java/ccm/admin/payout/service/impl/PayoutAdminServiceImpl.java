@@ -11,6 +11,8 @@ import ccm.admin.payout.service.PayoutAdminService;
 import ccm.admin.payout.spec.PayoutSpecification;
 import ccm.admin.user.entity.User;
 import ccm.admin.user.repository.UserRepository;
+import ccm.admin.wallet.service.OwnerWalletProjection;
+import ccm.common.concurrent.FanOut;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -21,6 +23,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
@@ -29,6 +32,8 @@ public class PayoutAdminServiceImpl implements PayoutAdminService {
 
     private final PayoutRepository payoutRepository;
     private final UserRepository userRepository;
+    private final OwnerWalletProjection ownerWallets;
+    private final FanOut fanOut;
 
     @Override
     @Transactional(readOnly = true)
@@ -78,21 +83,38 @@ public class PayoutAdminServiceImpl implements PayoutAdminService {
     }
 
     @Override
-    @Transactional(readOnly = true)
     public PayoutStatisticsResponse getPayoutStatistics() {
         log.debug("Calculating payout statistics");
 
-        long total = payoutRepository.getTotalCount();
-        long pending = payoutRepository.countByStatus(PayoutStatus.PENDING);
-        long approved = payoutRepository.countByStatus(PayoutStatus.APPROVED);
-        long rejected = payoutRepository.countByStatus(PayoutStatus.REJECTED);
-        long completed = payoutRepository.countByStatus(PayoutStatus.COMPLETED);
+        // Independent aggregates run in parallel, each in its own read; no outer transaction so this
+        // thread does not hold a connection while the forked queries wait for theirs
+        try (FanOut.Scope scope = fanOut.open()) {
+            Supplier<Long> totalCount = scope.fork(payoutRepository::getTotalCount);
+            Supplier<Long> pendingCount = scope.fork(() -> payoutRepository.countByStatus(PayoutStatus.PENDING));
+            Supplier<Long> approvedCount = scope.fork(() -> payoutRepository.countByStatus(PayoutStatus.APPROVED));
+            Supplier<Long> rejectedCount = scope.fork(() -> payoutRepository.countByStatus(PayoutStatus.REJECTED));
+            Supplier<Long> completedCount = scope.fork(() -> payoutRepository.countByStatus(PayoutStatus.COMPLETED));
+            Supplier<BigDecimal> requested = scope.fork(payoutRepository::calculateTotalAmountRequested);
+            Supplier<BigDecimal> pendingSum = scope.fork(
+                    () -> payoutRepository.calculateTotalAmountByStatus(PayoutStatus.PENDING));
+            Supplier<BigDecimal> approvedSum = scope.fork(
+                    () -> payoutRepository.calculateTotalAmountByStatus(PayoutStatus.APPROVED));
+            Supplier<BigDecimal> rejectedSum = scope.fork(
+                    () -> payoutRepository.calculateTotalAmountByStatus(PayoutStatus.REJECTED));
+            Supplier<BigDecimal> completedSum = scope.fork(
+                    () -> payoutRepository.calculateTotalAmountByStatus(PayoutStatus.COMPLETED));
+            scope.join();
+
+            return buildPayoutStatistics(totalCount.get(), pendingCount.get(), approvedCount.get(),
+                    rejectedCount.get(), completedCount.get(), requested.get(), pendingSum.get(),
+                    approvedSum.get(), rejectedSum.get(), completedSum.get());
+        }
+    }
 
-        BigDecimal totalAmount = payoutRepository.calculateTotalAmountRequested();
-        BigDecimal pendingAmount = payoutRepository.calculateTotalAmountByStatus(PayoutStatus.PENDING);
-        BigDecimal approvedAmount = payoutRepository.calculateTotalAmountByStatus(PayoutStatus.APPROVED);
-        BigDecimal rejectedAmount = payoutRepository.calculateTotalAmountByStatus(PayoutStatus.REJECTED);
-        BigDecimal completedAmount = payoutRepository.calculateTotalAmountByStatus(PayoutStatus.COMPLETED);
+    private PayoutStatisticsResponse buildPayoutStatistics(
+            long total, long pending, long approved, long rejected, long completed,
+            BigDecimal totalAmount, BigDecimal pendingAmount, BigDecimal approvedAmount,
+            BigDecimal rejectedAmount, BigDecimal completedAmount) {
 
         double approvalRate = total > 0 ? ((double) (approved + completed) / total) * 100.0 : 0.0;
 
@@ -132,6 +154,7 @@ public class PayoutAdminServiceImpl implements PayoutAdminService {
         payout.setNotes(request != null ? request.getNotes() : null);
 
         Payout savedPayout = payoutRepository.save(payout);
+        ownerWallets.payoutApproved(payout.getUserId(), payout.getAmount());
 
         log.info("Payout {} approved by admin {}", id, adminId);
         
@@ -160,6 +183,7 @@ public class PayoutAdminServiceImpl implements PayoutAdminService {
         payout.setNotes(request != null ? request.getNotes() : "Rejected by admin");
 
         Payout savedPayout = payoutRepository.save(payout);
+        ownerWallets.payoutRejected(payout.getUserId(), payout.getAmount());
 
         log.info("Payout {} rejected by admin {}", id, adminId);
         
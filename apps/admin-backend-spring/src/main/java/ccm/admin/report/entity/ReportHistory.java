@@ -1,5 +1,6 @@
 package ccm.admin.report.entity;
 
+import ccm.common.id.PooledId;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -18,7 +19,7 @@ import java.time.LocalDateTime;
 public class ReportHistory {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     private Long id;
 
     /** Type of report (e.g., TRANSACTION, USER, LISTING, CARBON_CREDIT) */
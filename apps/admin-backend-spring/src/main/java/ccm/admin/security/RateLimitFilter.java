@@ -1,8 +1,7 @@
 package ccm.admin.security;
 
+import ccm.common.ratelimit.PrefetchingRateLimiter;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -16,22 +15,22 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 import java.time.Duration;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 /** security - Filter - Request filter for security processing */
 
 public class RateLimitFilter extends OncePerRequestFilter {
 
-    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
     private final ObjectMapper objectMapper;
+    private final PrefetchingRateLimiter rateLimiter;
 
     
     private static final int CAPACITY = 5;
     private static final Duration REFILL_DURATION = Duration.ofMinutes(1);
 
-    public RateLimitFilter(ObjectMapper objectMapper) {
+    public RateLimitFilter(ObjectMapper objectMapper, PrefetchingRateLimiter rateLimiter) {
         this.objectMapper = objectMapper;
+        this.rateLimiter = rateLimiter;
     }
 
     @Override
@@ -46,10 +45,8 @@ public class RateLimitFilter extends OncePerRequestFilter {
             String clientIp = getClientIp(request);
             
             
-            Bucket bucket = buckets.computeIfAbsent(clientIp, k -> createNewBucket());
-            
-            
-            if (bucket.tryConsume(1)) {
+            // Quota is shared by all admin instances through the rate limit store
+            if (rateLimiter.tryConsume("auth:" + clientIp, CAPACITY, REFILL_DURATION)) {
                 
                 filterChain.doFilter(request, response);
             } else {
@@ -72,16 +69,6 @@ public class RateLimitFilter extends OncePerRequestFilter {
     }
 
     
-    private Bucket createNewBucket() {
-        return Bucket.builder()
-                .addLimit(Bandwidth.builder()
-                        .capacity(CAPACITY)
-                        .refillGreedy(CAPACITY, REFILL_DURATION)
-                        .build())
-                .build();
-    }
-
-    
     private String getClientIp(HttpServletRequest request) {
         String xForwardedFor = request.getHeader("X-Forwarded-For");
         if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
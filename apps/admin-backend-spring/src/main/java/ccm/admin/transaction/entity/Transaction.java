@@ -3,6 +3,7 @@ package ccm.admin.transaction.entity;
 import ccm.admin.transaction.entity.enums.TransactionStatus;
 import ccm.admin.transaction.entity.enums.TransactionType;
 import io.swagger.v3.oas.annotations.Hidden;
+import ccm.common.id.PooledId;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -22,7 +23,7 @@ import java.time.LocalDateTime;
 public class Transaction {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     private Long id;
 
     @Column(name = "buyer_id", nullable = false)
@@ -40,6 +41,9 @@ public class Transaction {
     @Column(name = "seller_email", nullable = true)
     private String sellerEmail;
 
+    @Column(name = "seller_id")
+    private Long sellerId;
+
     @Column(name = "quantity", nullable = false, precision = 10, scale = 2)
     private BigDecimal amount;  
 
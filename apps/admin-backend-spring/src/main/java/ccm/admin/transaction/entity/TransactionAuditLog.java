@@ -1,6 +1,7 @@
 package ccm.admin.transaction.entity;
 
 import ccm.admin.transaction.entity.enums.TransactionStatus;
+import ccm.common.id.PooledId;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -18,7 +19,7 @@ import java.time.LocalDateTime;
 public class TransactionAuditLog {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     private Long id;
 
     @Column(name = "transaction_id", nullable = false)
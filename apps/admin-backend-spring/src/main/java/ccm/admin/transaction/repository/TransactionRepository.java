@@ -2,6 +2,7 @@ package ccm.admin.transaction.repository;
 
 import ccm.admin.transaction.entity.Transaction;
 import ccm.admin.transaction.entity.enums.TransactionStatus;
+import ccm.admin.transaction.repository.projection.SellerMonthlyEarningsProjection;
 import ccm.admin.transaction.repository.projection.TransactionMonthlyStatsProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
@@ -9,6 +10,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /** repository - Service Interface - repository business logic and data operations */
@@ -43,6 +45,26 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>,
             ORDER BY month
             """, nativeQuery = true)
     List<TransactionMonthlyStatsProjection> findMonthlyStatsByYear(@Param("year") int year);
+
+    /**
+     * Sum a seller's sales per month of [from, to), one row per month with sales.
+     * Counts what the owner wallet counts as earned: completed sales plus won auctions awaiting payment.
+     * @param sellerId The seller user ID
+     * @return Month (1-12) and revenue
+     */
+    @Query(value = """
+            SELECT
+                MONTH(created_at)                AS month,
+                COALESCE(SUM(total_amount), 0)   AS earnings
+            FROM transactions
+            WHERE seller_id = :sellerId
+              AND created_at >= :from AND created_at < :to
+              AND (status = 'COMPLETED' OR (type = 'AUCTION' AND status = 'PENDING'))
+            GROUP BY MONTH(created_at)
+            """, nativeQuery = true)
+    List<SellerMonthlyEarningsProjection> findMonthlyEarningsBySellerId(@Param("sellerId") Long sellerId,
+                                                                        @Param("from") LocalDateTime from,
+                                                                        @Param("to") LocalDateTime to);
     
     /**
      * Count transactions involving a specific user (as buyer or seller)
@@ -0,0 +1,13 @@
+package ccm.admin.transaction.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection for one seller's sales revenue grouped by month.
+ */
+public interface SellerMonthlyEarningsProjection {
+
+    Integer getMonth();
+
+    BigDecimal getEarnings();
+}
@@ -1,6 +1,7 @@
 package ccm.admin.user.entity;
 
 import io.swagger.v3.oas.annotations.Hidden;
+import ccm.common.id.PooledId;
 import jakarta.persistence.*;
 
 @Entity
@@ -11,7 +12,7 @@ import jakarta.persistence.*;
 public class Role {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     private Long id;
 
     @Column(name = "name", length = 50, nullable = false, unique = true)
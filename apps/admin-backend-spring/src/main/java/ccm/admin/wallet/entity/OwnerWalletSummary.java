@@ -0,0 +1,64 @@
+package ccm.admin.wallet.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "owner_wallet_summaries")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+/** OwnerWalletSummary - Entity - Per-owner wallet figures maintained as deltas by every service */
+
+public class OwnerWalletSummary {
+
+    /** Owner (users.id); one row per owner */
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    /** Credits from VERIFIED journeys */
+    @Column(name = "credits_generated", precision = 15, scale = 2, nullable = false)
+    private BigDecimal creditsGenerated;
+
+    /** Credits in PENDING/APPROVED/OPEN listings */
+    @Column(name = "locked_credits", precision = 15, scale = 2, nullable = false)
+    private BigDecimal lockedCredits;
+
+    /** Credits sold to buyers */
+    @Column(name = "sold_credits", precision = 15, scale = 2, nullable = false)
+    private BigDecimal soldCredits;
+
+    /** Money from sold credits */
+    @Column(name = "total_earnings", precision = 15, scale = 2, nullable = false)
+    private BigDecimal totalEarnings;
+
+    /** APPROVED + COMPLETED payouts */
+    @Column(name = "total_withdrawals", precision = 15, scale = 2, nullable = false)
+    private BigDecimal totalWithdrawals;
+
+    /** PENDING payouts */
+    @Column(name = "pending_withdrawals", precision = 15, scale = 2, nullable = false)
+    private BigDecimal pendingWithdrawals;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    /** All-zero figures for an owner without a row yet */
+    public static OwnerWalletSummary empty(Long userId) {
+        return OwnerWalletSummary.builder()
+                .userId(userId)
+                .creditsGenerated(BigDecimal.ZERO)
+                .lockedCredits(BigDecimal.ZERO)
+                .soldCredits(BigDecimal.ZERO)
+                .totalEarnings(BigDecimal.ZERO)
+                .totalWithdrawals(BigDecimal.ZERO)
+                .pendingWithdrawals(BigDecimal.ZERO)
+                .build();
+    }
+}
@@ -0,0 +1,42 @@
+package ccm.admin.wallet.repository;
+
+import ccm.admin.wallet.entity.OwnerWalletSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Repository
+public interface OwnerWalletSummaryRepository extends JpaRepository<OwnerWalletSummary, Long> {
+
+    /**
+     * Add signed deltas to an owner's row, creating it on first use. One statement, so concurrent
+     * writers for the same owner never lose an update.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO owner_wallet_summaries (user_id, credits_generated, locked_credits, sold_credits,
+                                                total_earnings, total_withdrawals, pending_withdrawals, updated_at)
+            VALUES (:userId, :generated, :locked, :sold, :earnings, :withdrawn, :pending, :now)
+            ON DUPLICATE KEY UPDATE
+                credits_generated = credits_generated + :generated,
+                locked_credits = locked_credits + :locked,
+                sold_credits = sold_credits + :sold,
+                total_earnings = total_earnings + :earnings,
+                total_withdrawals = total_withdrawals + :withdrawn,
+                pending_withdrawals = pending_withdrawals + :pending,
+                updated_at = :now
+            """, nativeQuery = true)
+    int addDeltas(@Param("userId") Long userId,
+                  @Param("generated") BigDecimal generated,
+                  @Param("locked") BigDecimal locked,
+                  @Param("sold") BigDecimal sold,
+                  @Param("earnings") BigDecimal earnings,
+                  @Param("withdrawn") BigDecimal withdrawn,
+                  @Param("pending") BigDecimal pending,
+                  @Param("now") LocalDateTime now);
+}
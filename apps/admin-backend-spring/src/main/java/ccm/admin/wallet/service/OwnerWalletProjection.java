@@ -0,0 +1,52 @@
+package ccm.admin.wallet.service;
+
+import ccm.admin.wallet.repository.OwnerWalletSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static java.math.BigDecimal.ZERO;
+
+/**
+ * Keeps owner_wallet_summaries in step with listing and payout changes made by the admin and owner
+ * services. Each call runs in the caller's transaction, so the summary commits or rolls back together
+ * with the change it describes. Journey verification (CVA) and sales (buyer) update the same row from
+ * their own services.
+ */
+@Component
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
+public class OwnerWalletProjection {
+
+    private final OwnerWalletSummaryRepository repository;
+
+    /** Owner put credits up for sale (PENDING listing) */
+    public void creditsListed(Long ownerId, BigDecimal qty) {
+        apply(ownerId, qty, ZERO, ZERO);
+    }
+
+    /** Listing rejected or delisted: its remaining credits are free again */
+    public void creditsUnlisted(Long ownerId, BigDecimal qty) {
+        apply(ownerId, qty.negate(), ZERO, ZERO);
+    }
+
+    public void payoutRequested(Long ownerId, BigDecimal amount) {
+        apply(ownerId, ZERO, ZERO, amount);
+    }
+
+    public void payoutApproved(Long ownerId, BigDecimal amount) {
+        apply(ownerId, ZERO, amount, amount.negate());
+    }
+
+    public void payoutRejected(Long ownerId, BigDecimal amount) {
+        apply(ownerId, ZERO, ZERO, amount.negate());
+    }
+
+    private void apply(Long ownerId, BigDecimal locked, BigDecimal withdrawn, BigDecimal pending) {
+        repository.addDeltas(ownerId, ZERO, locked, ZERO, ZERO, withdrawn, pending, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,11 @@
+-- ============================================================================
+-- BUYER NOTIFICATIONS: PAGED INBOX & UNREAD COUNT
+-- ============================================================================
+
+-- Inbox page: WHERE user_id = ? ORDER BY created_at DESC, id DESC with a (created_at, id) keyset cursor.
+-- Unread badge: COUNT(*) WHERE user_id = ? AND read_at IS NULL.
+-- Both new indexes start with user_id, so the single-column one is no longer needed by the FK.
+ALTER TABLE notifications
+    ADD INDEX idx_notifications_user_created (user_id, created_at, id),
+    ADD INDEX idx_notifications_user_unread (user_id, read_at),
+    DROP INDEX idx_notifications_user_id;
@@ -0,0 +1,20 @@
+-- ============================================================================
+-- BUYER OUTBOX: POST-PURCHASE SIDE EFFECTS
+-- ============================================================================
+
+-- Written in the purchase transaction (commits or rolls back with it); invoices and notifications
+-- are produced after commit by the buyer service's OutboxRelay, outside the listing/wallet row locks.
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT PRIMARY KEY,
+    event_type VARCHAR(32) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    payload VARCHAR(1000) NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at DATETIME(6) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    processed_at DATETIME(6) NULL,
+    last_error VARCHAR(500) NULL,
+
+    INDEX idx_outbox_status_next (status, next_attempt_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
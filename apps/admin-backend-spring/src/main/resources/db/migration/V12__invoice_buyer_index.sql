@@ -0,0 +1,15 @@
+-- ============================================================================
+-- BUYER INVOICES: PAGED LISTING PER BUYER
+-- ============================================================================
+
+-- Invoice list: WHERE buyer_id = ? ORDER BY issue_date DESC, id DESC with an (issue_date, id) keyset cursor.
+-- buyer_id is copied from the transaction when the invoice is issued, so the page does not scan transactions.
+ALTER TABLE invoices
+    ADD COLUMN buyer_id BIGINT NULL AFTER transaction_id;
+
+UPDATE invoices i
+    JOIN transactions t ON t.id = i.transaction_id
+SET i.buyer_id = t.buyer_id;
+
+ALTER TABLE invoices
+    ADD INDEX idx_invoices_buyer_issue (buyer_id, issue_date, id);
@@ -0,0 +1,10 @@
+-- ============================================================================
+-- BUYER DASHBOARD: COVERING INDEX FOR PER-STATUS TOTALS
+-- ============================================================================
+
+-- Dashboard: SELECT status, COUNT(*), SUM(total_amount) WHERE buyer_id = ? GROUP BY status
+-- is answered from the index alone (no row lookups). It also starts with buyer_id, so it
+-- serves fk_tx_buyer and the per-buyer history, replacing the single-column index.
+ALTER TABLE transactions
+    ADD INDEX idx_tx_buyer_status_amount (buyer_id, status, total_amount),
+    DROP INDEX idx_tx_buyer_id;
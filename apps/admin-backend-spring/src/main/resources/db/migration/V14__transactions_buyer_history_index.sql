@@ -0,0 +1,9 @@
+-- ============================================================================
+-- BUYER TRANSACTION HISTORY: KEYSET PAGING
+-- ============================================================================
+
+-- History page / NDJSON export: WHERE buyer_id = ? [AND status = ?] [AND created_at in range]
+-- ORDER BY created_at DESC, id DESC with a (created_at, id) cursor. Rows come out of the index already
+-- in page order, so the query stops after LIMIT rows instead of sorting the buyer's whole history.
+ALTER TABLE transactions
+    ADD INDEX idx_tx_buyer_created (buyer_id, created_at, id);
@@ -0,0 +1,20 @@
+-- ============================================================================
+-- BUYER IDEMPOTENCY KEYS
+-- ============================================================================
+
+-- One row per (buyer, endpoint, Idempotency-Key) written in the same transaction as the purchase,
+-- holding the response returned to the client. A retry finds the row and gets the stored response;
+-- a concurrent duplicate blocks on uk_idem_buyer_scope_key until the first request commits or rolls back.
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    id BIGINT PRIMARY KEY,
+    buyer_id BIGINT NOT NULL,
+    scope VARCHAR(64) NOT NULL,
+    idem_key VARCHAR(100) NOT NULL,
+    request_hash CHAR(64) NOT NULL,
+    response_body MEDIUMTEXT NULL,
+    created_at DATETIME(6) NOT NULL,
+
+    UNIQUE KEY uk_idem_buyer_scope_key (buyer_id, scope, idem_key),
+    -- Purge of expired keys
+    INDEX idx_idem_created (created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,32 @@
+-- ============================================================================
+-- WALLET LEDGER + BALANCE SNAPSHOTS
+-- ============================================================================
+
+-- Every wallet movement is one INSERT into wallet_ledger (signed amount: credits > 0, debits < 0).
+-- e_wallets.balance becomes the snapshot: all debits (applied immediately, so an overdraft check is
+-- one conditional UPDATE) plus credits with created_at <= snapshot_at. Credits after snapshot_at
+-- only exist in the ledger, so crediting a busy seller never waits on the wallet row:
+--   balance = e_wallets.balance + SUM(amount > 0 AND created_at > snapshot_at)
+-- The buyer service folds credits older than a grace window into the snapshot in the background.
+ALTER TABLE e_wallets
+    ADD COLUMN snapshot_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6);
+
+CREATE TABLE IF NOT EXISTS wallet_ledger (
+    id BIGINT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    entry_type VARCHAR(32) NOT NULL,
+    amount DECIMAL(15, 2) NOT NULL,
+    reference_id BIGINT NULL,
+    created_at DATETIME(6) NOT NULL,
+
+    -- Balance tail and history of one wallet
+    INDEX idx_wallet_ledger_user_created (user_id, created_at),
+    -- Compaction: wallets with credits in a time range
+    INDEX idx_wallet_ledger_created (created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Opening entries so the ledger explains current balances (already inside the snapshot)
+INSERT INTO wallet_ledger (id, user_id, entry_type, amount, reference_id, created_at)
+SELECT id, user_id, 'OPENING', balance, NULL, snapshot_at
+FROM e_wallets
+WHERE balance <> 0;
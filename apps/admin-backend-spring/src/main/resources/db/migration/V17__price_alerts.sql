@@ -0,0 +1,17 @@
+-- ============================================================================
+-- BUYER PRICE ALERTS
+-- ============================================================================
+
+-- A buyer asks to be notified when a listing at or below max_price with at least min_qty credits
+-- (optionally of one listing_type) is approved or repriced. The buyer service keeps every alert in an
+-- in-memory index rebuilt from this table at startup; the table is only read by buyer_id otherwise.
+CREATE TABLE IF NOT EXISTS price_alerts (
+    id BIGINT PRIMARY KEY,
+    buyer_id BIGINT NOT NULL,
+    max_price DECIMAL(15, 2) NOT NULL,
+    min_qty DECIMAL(10, 2) NOT NULL,
+    listing_type VARCHAR(32) NULL,
+    created_at DATETIME(6) NOT NULL,
+
+    INDEX idx_price_alerts_buyer (buyer_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,43 @@
+-- ============================================================================
+-- OWNER WALLET READ MODEL
+-- ============================================================================
+
+-- One row per owner with the figures of the owner wallet screen, so reading it (and the balance check
+-- before creating a listing) is a primary-key lookup instead of scanning journeys, listings,
+-- transactions and payouts. Every service adds signed deltas in the transaction that causes them:
+--   credits_generated   +journey credits          CVA approves a journey (VERIFIED)
+--   locked_credits      +qty / -qty               owner lists credits / admin rejects or delists, sale
+--   sold_credits        +qty                      buyer purchase, auction closed with a winner
+--   total_earnings      +total_amount             same as sold_credits
+--   pending_withdrawals +amount / -amount         owner requests payout / admin approves or rejects
+--   total_withdrawals   +amount                   admin approves payout (COMPLETED stays counted)
+-- A missing row means all zeros; the first delta creates it (INSERT ... ON DUPLICATE KEY UPDATE).
+CREATE TABLE IF NOT EXISTS owner_wallet_summaries (
+    user_id BIGINT PRIMARY KEY,
+    credits_generated DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    locked_credits DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    sold_credits DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    total_earnings DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    total_withdrawals DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    pending_withdrawals DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    updated_at DATETIME(6) NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Backfill from the source tables with the same rules
+INSERT INTO owner_wallet_summaries (user_id, credits_generated, locked_credits, sold_credits, total_earnings,
+                                    total_withdrawals, pending_withdrawals, updated_at)
+SELECT u.id,
+       (SELECT COALESCE(SUM(j.credits_generated), 0) FROM journeys j
+         WHERE j.user_id = u.id AND j.status = 'VERIFIED'),
+       (SELECT COALESCE(SUM(l.quantity), 0) FROM listings l
+         WHERE l.seller_id = u.id AND l.status IN ('PENDING', 'APPROVED', 'OPEN')),
+       (SELECT COALESCE(SUM(t.quantity), 0) FROM transactions t JOIN listings l ON l.id = t.listing_id
+         WHERE l.seller_id = u.id AND (t.status = 'COMPLETED' OR (t.type = 'AUCTION' AND t.status = 'PENDING'))),
+       (SELECT COALESCE(SUM(t.total_amount), 0) FROM transactions t JOIN listings l ON l.id = t.listing_id
+         WHERE l.seller_id = u.id AND (t.status = 'COMPLETED' OR (t.type = 'AUCTION' AND t.status = 'PENDING'))),
+       (SELECT COALESCE(SUM(p.amount), 0) FROM payouts p
+         WHERE p.user_id = u.id AND p.status IN ('APPROVED', 'COMPLETED')),
+       (SELECT COALESCE(SUM(p.amount), 0) FROM payouts p
+         WHERE p.user_id = u.id AND p.status = 'PENDING'),
+       CURRENT_TIMESTAMP(6)
+FROM users u;
@@ -0,0 +1,35 @@
+-- ============================================================================
+-- BULK JOURNEY IMPORT JOBS
+-- ============================================================================
+
+-- One row per NDJSON/CSV upload by an EV owner (owner service, POST /api/owner/journeys/import).
+-- Records are imported in chunks; each chunk's journeys, its rejected records and the new
+-- records_committed count commit together, so a failed upload resumes by skipping exactly
+-- records_committed records of the same file. version guards against two uploads resuming one job.
+CREATE TABLE IF NOT EXISTS journey_import_jobs (
+    id BIGINT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    file_name VARCHAR(255) NULL,
+    format VARCHAR(16) NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    records_committed BIGINT NOT NULL DEFAULT 0,
+    imported_count BIGINT NOT NULL DEFAULT 0,
+    failed_count BIGINT NOT NULL DEFAULT 0,
+    last_error VARCHAR(500) NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+
+    INDEX idx_journey_import_jobs_user (user_id, created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Per-record rejections of an import job (record = 1-based data record, header excluded).
+-- Capped per job by app.journey-import.max-stored-errors; failed_count still counts them all.
+CREATE TABLE IF NOT EXISTS journey_import_errors (
+    id BIGINT PRIMARY KEY,
+    job_id BIGINT NOT NULL,
+    record_no BIGINT NOT NULL,
+    message VARCHAR(500) NOT NULL,
+
+    INDEX idx_journey_import_errors_job (job_id, record_no)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,30 @@
+-- ============================================================================
+-- TRIP TELEMETRY
+-- ============================================================================
+
+-- One row per trip recorded from vehicle telemetry (owner service, /api/owner/trips).
+-- Samples are not stored: each ingested batch folds into the running totals below (haversine
+-- distance, cumulative energy meter deltas) and the last accepted position/time/meter reading,
+-- which is all the next batch needs. Closing the trip turns the totals into a PENDING journey.
+CREATE TABLE IF NOT EXISTS telemetry_trips (
+    id BIGINT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    sample_count BIGINT NOT NULL DEFAULT 0,
+    rejected_count BIGINT NOT NULL DEFAULT 0,
+    distance_m DOUBLE NOT NULL DEFAULT 0,
+    energy_used_kwh DOUBLE NOT NULL DEFAULT 0,
+    first_sample_ms BIGINT NULL,
+    first_lat DOUBLE NULL,
+    first_lon DOUBLE NULL,
+    last_sample_ms BIGINT NULL,
+    last_lat DOUBLE NULL,
+    last_lon DOUBLE NULL,
+    last_energy_kwh DOUBLE NULL,
+    journey_id BIGINT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    created_at DATETIME(6) NOT NULL,
+    closed_at DATETIME(6) NULL,
+
+    INDEX idx_telemetry_trips_user (user_id, status)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
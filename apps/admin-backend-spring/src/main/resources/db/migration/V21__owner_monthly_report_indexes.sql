@@ -0,0 +1,24 @@
+-- ============================================================================
+-- OWNER MONTHLY REPORT: GROUPED BY MONTH IN SQL
+-- ============================================================================
+
+-- Earnings per month: WHERE seller_id = ? AND created_at in [Jan 1, next Jan 1) GROUP BY MONTH(created_at).
+-- Transactions only carried seller_email, which buyer purchases never fill in, so the seller of the listing
+-- is copied onto the transaction when it is created. The (seller_id, created_at) range read touches one
+-- owner-year of rows whatever the size of the table.
+ALTER TABLE transactions
+    ADD COLUMN seller_id BIGINT NULL AFTER buyer_email;
+
+UPDATE transactions t
+    JOIN listings l ON l.id = t.listing_id
+SET t.seller_id = l.seller_id;
+
+ALTER TABLE transactions
+    ADD INDEX idx_tx_seller_created (seller_id, created_at);
+
+-- Journeys per month: WHERE user_id = ? AND status = 'VERIFIED' AND journey_date in the year.
+-- Extends idx_journey_user_status with the date so the year is a range scan; the old index is a prefix of
+-- the new one (and still covers fk_journey_user through it), so it is dropped in the same statement.
+ALTER TABLE journeys
+    ADD INDEX idx_journey_user_status_date (user_id, status, journey_date),
+    DROP INDEX idx_journey_user_status;
@@ -0,0 +1,25 @@
+-- ============================================================================
+-- WALLET LEDGER: COMPACTION BY FLAG INSTEAD OF TIMESTAMP
+-- ============================================================================
+
+-- Compaction used to fold credits with created_at <= snapshot_at and then move snapshot_at forward.
+-- A credit whose transaction committed after that (long checkout, lock wait, another service's clock)
+-- kept an old created_at and dropped out of the balance for good. Now each entry carries whether its
+-- amount is inside e_wallets.balance, and compaction flags credits in the same transaction that adds
+-- them to the balance:
+--   balance = e_wallets.balance + SUM(amount WHERE compacted = FALSE)
+-- Debits are written with compacted = TRUE (they update the snapshot directly). snapshot_at stays as
+-- the time of the last compaction.
+ALTER TABLE wallet_ledger
+    ADD COLUMN compacted BOOLEAN NOT NULL DEFAULT FALSE AFTER reference_id;
+
+-- Entries the old rule already counted in the snapshot
+UPDATE wallet_ledger l
+    JOIN e_wallets w ON w.user_id = l.user_id
+SET l.compacted = TRUE
+WHERE l.amount < 0 OR l.created_at <= w.snapshot_at;
+
+-- Balance tail of one wallet and the compaction scan both read (compacted = FALSE, user_id)
+ALTER TABLE wallet_ledger
+    ADD INDEX idx_wallet_ledger_pending (compacted, user_id),
+    DROP INDEX idx_wallet_ledger_created;
@@ -0,0 +1,17 @@
+-- ============================================================================
+-- BUYER PRICE ALERT FIRINGS
+-- ============================================================================
+
+-- Every buyer instance matches the same listing offers against its own in-memory alert index. Before
+-- notifying, an instance claims (buyer, listing, price) with INSERT IGNORE: only the instance whose row
+-- went in sends the notification. Rows are only needed while instances can still see the same offer and
+-- are purged after app.price-alerts.firing-retention.
+CREATE TABLE IF NOT EXISTS price_alert_firings (
+    buyer_id BIGINT NOT NULL,
+    listing_id BIGINT NOT NULL,
+    price DECIMAL(15, 2) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+
+    PRIMARY KEY (buyer_id, listing_id, price),
+    INDEX idx_price_alert_firings_created (created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,12 @@
+-- ============================================================================
+-- SHARED RATE LIMIT COUNTERS
+-- ============================================================================
+
+-- Table: rate_limit_counters (Fixed-window counters shared by all service instances)
+CREATE TABLE IF NOT EXISTS rate_limit_counters (
+    bucket_key VARCHAR(191) PRIMARY KEY,
+    counter BIGINT NOT NULL DEFAULT 0,
+    expires_at TIMESTAMP NOT NULL,
+
+    INDEX idx_rate_limit_expires_at (expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,20 @@
+-- ============================================================================
+-- REFRESH TOKENS: HASHED LOOKUP + PURGE INDEXES
+-- ============================================================================
+
+-- Store SHA-256(token) instead of the raw token; lookups go through a unique index on the hash
+ALTER TABLE refresh_tokens ADD COLUMN token_hash VARCHAR(64) NULL AFTER id;
+UPDATE refresh_tokens SET token_hash = SHA2(token, 256);
+ALTER TABLE refresh_tokens MODIFY token_hash VARCHAR(64) NOT NULL;
+ALTER TABLE refresh_tokens ADD UNIQUE INDEX uk_refresh_tokens_token_hash (token_hash);
+
+ALTER TABLE refresh_tokens DROP INDEX idx_token;
+ALTER TABLE refresh_tokens DROP COLUMN token;
+
+-- Login revokes only the user's active rows; the composite index also backs the FK on user_id
+ALTER TABLE refresh_tokens ADD INDEX idx_refresh_tokens_user_revoked (user_id, revoked);
+ALTER TABLE refresh_tokens DROP INDEX idx_user_id;
+
+-- Batched purge of expired and revoked rows (RefreshTokenCleanupJob)
+ALTER TABLE refresh_tokens ADD INDEX idx_refresh_tokens_expires_at (expires_at);
+ALTER TABLE refresh_tokens ADD INDEX idx_refresh_tokens_revoked (revoked);
@@ -0,0 +1,7 @@
+-- ============================================================================
+-- BUYER LISTING CATALOG: KEYSET PAGINATION INDEXES
+-- ============================================================================
+
+-- Catalog pages are ordered by (price, id) within a status; the cursor seeks on the same columns
+ALTER TABLE listings ADD INDEX idx_listings_status_price (status, price, id);
+ALTER TABLE listings ADD INDEX idx_listings_status_type_price (status, listing_type, price, id);
@@ -0,0 +1,6 @@
+-- ============================================================================
+-- BUYER ORDER BOOK: DELTA SYNC INDEX
+-- ============================================================================
+
+-- The buyer order book polls listings changed since its last sync (approvals/delists from other services)
+ALTER TABLE listings ADD INDEX idx_listings_updated_at (updated_at);
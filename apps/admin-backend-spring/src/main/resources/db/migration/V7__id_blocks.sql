@@ -0,0 +1,9 @@
+-- ============================================================================
+-- POOLED ID BLOCKS (ccm.common.id.PooledIdGenerator)
+-- ============================================================================
+
+-- Sequence emulation: each INSERT reserves the next block of 100 ids (AUTO_INCREMENT is never reused).
+-- Rows are deleted right after the insert, the table stays empty; only its AUTO_INCREMENT matters.
+CREATE TABLE IF NOT EXISTS id_blocks (
+    block BIGINT AUTO_INCREMENT PRIMARY KEY
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,6 @@
+-- ============================================================================
+-- BUYER AUCTION ENGINE: HIGHEST BID LOOKUP
+-- ============================================================================
+
+-- Loading a live auction reads its highest bid (ORDER BY bid_price DESC LIMIT 1)
+ALTER TABLE bids ADD INDEX idx_bids_auction_price (auction_id, bid_price);
@@ -0,0 +1,9 @@
+-- ============================================================================
+-- BUYER AUCTION ENGINE: CLOSE & SETTLEMENT
+-- ============================================================================
+
+-- OPEN until the close scheduler settles the auction (winner bid -> PENDING transaction), then CLOSED.
+-- The scheduler loads only OPEN auctions at startup, ordered by their end time.
+ALTER TABLE auctions
+    ADD COLUMN status VARCHAR(20) NOT NULL DEFAULT 'OPEN' AFTER end_time,
+    ADD INDEX idx_auctions_status_end (status, end_time);
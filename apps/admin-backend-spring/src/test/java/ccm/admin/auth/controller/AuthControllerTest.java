@@ -147,17 +147,13 @@ when(refreshTokenService.createRefreshToken(any(ccm.admin.user.entity.User.class
                 .authorities(new SimpleGrantedAuthority("ROLE_ADMIN"))
                 .build();
         
-        // 4. Dạy mock: Khi service validate token giả, trả về token thật
-        when(refreshTokenService.validateRefreshToken(eq(fakeRefreshTokenString)))
-                .thenReturn(Optional.of(validMockToken));
-        
-        // 5. Dạy mock: Khi service tìm user bằng ID, trả về user giả
-        when(userRepository.findById(eq(1L))).thenReturn(Optional.of(mockUser));
-        
-        // 6. Dạy mock: Khi service tạo Refresh Token MỚI, trả về token mới
-        RefreshToken newMockRefreshToken = RefreshToken.builder().token("new-refreshed-token-67890").build();
-        when(refreshTokenService.createRefreshToken(any(User.class)))
-                .thenReturn(newMockRefreshToken);
+        // 4. Dạy mock: Khi service xoay vòng token giả, trả về token MỚI (đã gắn user)
+        RefreshToken newMockRefreshToken = RefreshToken.builder()
+                .token("new-refreshed-token-67890")
+                .user(mockUser)
+                .build();
+        when(refreshTokenService.rotateRefreshToken(eq(fakeRefreshTokenString)))
+                .thenReturn(Optional.of(newMockRefreshToken));
                 
         // 7. Dạy mock: Khi service load user (để tạo Access Token), trả về userDetails
         when(userDetailsService.loadUserByUsername(eq("admin@carbon.local")))
@@ -166,10 +162,6 @@ when(refreshTokenService.createRefreshToken(any(ccm.admin.user.entity.User.class
         when(jwtService.generateToken(any(UserDetails.class)))
                 .thenReturn("new.mocked.access.token.string");
 
-        // 9. Dạy mock: revokeToken phải trả về true (vì nó trả về boolean)
-        when(refreshTokenService.revokeToken(eq(fakeRefreshTokenString)))
-                .thenReturn(true);
-
         // Act & Assert
         mockMvc.perform(post("/api/auth/refresh")
                         .with(csrf())
@@ -180,9 +172,8 @@ when(refreshTokenService.createRefreshToken(any(ccm.admin.user.entity.User.class
                 .andExpect(jsonPath("$.refreshToken").value("new-refreshed-token-67890")); // Mong đợi có refresh token mới
 
         // Verify
-        verify(refreshTokenService, times(1)).validateRefreshToken(eq(fakeRefreshTokenString));
-        verify(refreshTokenService, times(1)).revokeToken(eq(fakeRefreshTokenString)); // Đảm bảo token cũ bị thu hồi
-        verify(refreshTokenService, times(1)).createRefreshToken(eq(mockUser)); // Đảm bảo token mới được tạo
+        verify(refreshTokenService, times(1)).rotateRefreshToken(eq(fakeRefreshTokenString)); // Token cũ bị thu hồi, token mới được tạo
+        verify(refreshTokenService, never()).createRefreshToken(any(User.class));
         verify(httpAuditService, times(1))
                 .logFromRequest(any(), eq("TOKEN_REFRESH_SUCCESS"), any(), eq(200));
     }
@@ -204,7 +195,7 @@ when(refreshTokenService.createRefreshToken(any(ccm.admin.user.entity.User.class
     @DisplayName("POST /api/auth/refresh - Failure with completely invalid token")
     void testRefresh_InvalidToken() throws Exception {
         // Act & Assert
-        when(refreshTokenService.validateRefreshToken(anyString()))
+        when(refreshTokenService.rotateRefreshToken(anyString()))
                 .thenReturn(Optional.empty());
         mockMvc.perform(post("/api/auth/refresh")
                         .with(csrf())
@@ -0,0 +1,164 @@
+package ccm.admin.auth.security;
+
+import ccm.admin.common.exception.ServiceBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for BoundedPasswordEncoder.
+ *
+ * Verifies:
+ * - Hashing and verification still work through the pool
+ * - Requests beyond pool + queue capacity are rejected fast (503)
+ * - Queue-time and rejection metrics are recorded
+ *
+ * The login-storm benchmark is opt-in: mvn test -Dtest=BoundedPasswordEncoderTest -Dbenchmark=true
+ */
+class BoundedPasswordEncoderTest {
+
+    @Test
+    @DisplayName("Should encode and match passwords on the hashing pool")
+    void testEncodeAndMatch() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(
+                new BCryptPasswordEncoder(4), 2, 8, Duration.ofSeconds(5), registry);
+
+        String hash = encoder.encode("Admin@1234");
+
+        assertThat(encoder.matches("Admin@1234", hash)).isTrue();
+        assertThat(encoder.matches("wrong", hash)).isFalse();
+        assertThat(registry.get("auth.password.hash.queue").timer().count()).isEqualTo(3);
+        encoder.destroy();
+    }
+
+    @Test
+    @DisplayName("Should reject with ServiceBusyException when the queue is full")
+    void testRejectsWhenQueueFull() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encode(rawPassword).equals(encodedPassword);
+            }
+        };
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(
+                blocking, 1, 1, Duration.ofSeconds(5), registry);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+
+        // Given: one task running and one queued
+        Future<String> running = callers.submit(() -> encoder.encode("a"));
+        Future<String> queued = callers.submit(() -> encoder.encode("b"));
+        while (registry.get("auth.password.hash.queue.size").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        // Then: the third caller is rejected immediately
+        assertThatThrownBy(() -> encoder.encode("c"))
+                .isInstanceOf(ServiceBusyException.class);
+        assertThat(registry.get("auth.password.hash.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get()).isEqualTo("a");
+        assertThat(queued.get()).isEqualTo("b");
+        callers.shutdownNow();
+        encoder.destroy();
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("Benchmark: login throughput and non-login p99 during a login storm")
+    void benchmarkLoginStorm() throws Exception {
+        PasswordEncoder bcrypt = new BCryptPasswordEncoder();
+        String hash = bcrypt.encode("Admin@1234");
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        for (String mode : List.of("request-thread", "bounded-pool")) {
+            PasswordEncoder encoder = mode.equals("request-thread")
+                    ? bcrypt
+                    : new BoundedPasswordEncoder(bcrypt, cores, 64, Duration.ofSeconds(5), new SimpleMeterRegistry());
+            report(mode, runStorm(encoder, hash));
+            if (encoder instanceof BoundedPasswordEncoder bounded) {
+                bounded.destroy();
+            }
+        }
+    }
+
+    /** 200 "Tomcat" threads; 300 logins and 300 light requests (~1 ms of work) interleaved. */
+    private StormResult runStorm(PasswordEncoder encoder, String hash) throws Exception {
+        ExecutorService tomcat = Executors.newFixedThreadPool(200);
+        List<Long> otherLatencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger logins = new AtomicInteger();
+        AtomicInteger shed = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 300; i++) {
+            futures.add(tomcat.submit(() -> {
+                try {
+                    if (encoder.matches("Admin@1234", hash)) {
+                        logins.incrementAndGet();
+                    }
+                } catch (ServiceBusyException e) {
+                    shed.incrementAndGet();
+                }
+            }));
+            long submitted = System.nanoTime();
+            futures.add(tomcat.submit(() -> {
+                long spin = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(1);
+                while (System.nanoTime() < spin) {
+                    Thread.onSpinWait();
+                }
+                otherLatencies.add(System.nanoTime() - submitted);
+            }));
+        }
+        for (Future<?> f : futures) {
+            f.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        tomcat.shutdown();
+
+        List<Long> sorted = new ArrayList<>(otherLatencies);
+        Collections.sort(sorted);
+        long p99 = sorted.get((int) (sorted.size() * 0.99) - 1);
+        return new StormResult(logins.get(), shed.get(), elapsed, p99);
+    }
+
+    private void report(String mode, StormResult r) {
+        System.out.printf("[%s] logins/s=%.0f shed=%d non-login p99=%.1f ms%n",
+                mode,
+                r.logins() / (r.elapsedNanos() / 1e9),
+                r.shed(),
+                r.otherP99Nanos() / 1e6);
+    }
+
+    private record StormResult(int logins, int shed, long elapsedNanos, long otherP99Nanos) {}
+}
@@ -0,0 +1,165 @@
+package ccm.admin.auth.service;
+
+import ccm.admin.auth.entity.RefreshToken;
+import ccm.admin.auth.repository.RefreshTokenRepository;
+import ccm.admin.user.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RefreshTokenService
+ *
+ * Verifies:
+ * - Only the SHA-256 hash of a token is persisted, and login does not revoke other sessions
+ * - Rotation uses one hash lookup plus a conditional revoke by id
+ * - Recently revoked tokens are rejected from the negative cache without a DB lookup
+ * - The purge deletes in batches until a short batch is returned
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RefreshTokenService Tests")
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private RefreshTokenService refreshTokenService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, 604_800_000L);
+        user = User.builder().id(1L).email("admin@carbon.local").build();
+    }
+
+    @Test
+    @DisplayName("Should persist only the token hash and return the raw token once")
+    void testCreateStoresHashOnly() {
+        // Given
+        when(refreshTokenRepository.save(any(RefreshToken.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // When
+        RefreshToken issued = refreshTokenService.createRefreshToken(user);
+
+        // Then
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertThat(issued.getToken()).isNotBlank();
+        assertThat(saved.getValue().getTokenHash())
+                .hasSize(64)
+                .isEqualTo(RefreshTokenService.hash(issued.getToken()))
+                .isNotEqualTo(issued.getToken());
+        verify(refreshTokenRepository, never()).revokeAllByUserId(any());
+    }
+
+    @Test
+    @DisplayName("Should rotate with one hash lookup and a conditional revoke")
+    void testRotateSingleLookup() {
+        // Given
+        String raw = "old-refresh-token-value";
+        RefreshToken stored = storedToken(10L, raw, false);
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash(raw))).thenReturn(Optional.of(stored));
+        when(refreshTokenRepository.revokeById(10L)).thenReturn(1);
+        when(refreshTokenRepository.save(any(RefreshToken.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // When
+        Optional<RefreshToken> rotated = refreshTokenService.rotateRefreshToken(raw);
+
+        // Then
+        assertThat(rotated).isPresent();
+        assertThat(rotated.get().getUser()).isSameAs(user);
+        assertThat(rotated.get().getToken()).isNotEqualTo(raw);
+        verify(refreshTokenRepository, times(1)).findByTokenHash(anyString());
+        verify(refreshTokenRepository, never()).revokeAllByUserId(any());
+    }
+
+    @Test
+    @DisplayName("Should reject a replayed token from the negative cache without a DB lookup")
+    void testReplayRejectedFromCache() {
+        // Given: token was rotated once
+        String raw = "old-refresh-token-value";
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash(raw)))
+                .thenReturn(Optional.of(storedToken(10L, raw, false)));
+        when(refreshTokenRepository.revokeById(10L)).thenReturn(1);
+        when(refreshTokenRepository.save(any(RefreshToken.class))).thenAnswer(inv -> inv.getArgument(0));
+        refreshTokenService.rotateRefreshToken(raw);
+
+        // When: the same token is presented again
+        Optional<RefreshToken> replay = refreshTokenService.rotateRefreshToken(raw);
+
+        // Then
+        assertThat(replay).isEmpty();
+        verify(refreshTokenRepository, times(1)).findByTokenHash(anyString());
+    }
+
+    @Test
+    @DisplayName("Should fail rotation when another request revoked the token first")
+    void testConcurrentRotationLoses() {
+        // Given
+        String raw = "old-refresh-token-value";
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash(raw)))
+                .thenReturn(Optional.of(storedToken(10L, raw, false)));
+        when(refreshTokenRepository.revokeById(10L)).thenReturn(0);
+
+        // When / Then
+        assertThat(refreshTokenService.rotateRefreshToken(raw)).isEmpty();
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should reject revoked and expired tokens")
+    void testRejectsRevokedAndExpired() {
+        // Given
+        RefreshToken expired = storedToken(11L, "expired-token-value", false);
+        expired.setExpiresAt(Instant.now().minusSeconds(60));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("expired-token-value")))
+                .thenReturn(Optional.of(expired));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("revoked-token-value")))
+                .thenReturn(Optional.of(storedToken(12L, "revoked-token-value", true)));
+
+        // When / Then
+        assertThat(refreshTokenService.validateRefreshToken("expired-token-value")).isEmpty();
+        assertThat(refreshTokenService.validateRefreshToken("revoked-token-value")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should purge in batches until a short batch is returned")
+    void testBatchedPurge() {
+        // Given: 2 full batches + 1 partial of expired rows, 1 partial of revoked rows
+        when(refreshTokenRepository.deleteExpiredBatch(any(Instant.class), eq(100))).thenReturn(100, 100, 7);
+        when(refreshTokenRepository.deleteRevokedBatch(anyInt())).thenReturn(3);
+
+        // When
+        int deleted = refreshTokenService.cleanupExpiredTokens(100);
+
+        // Then
+        assertThat(deleted).isEqualTo(210);
+        verify(refreshTokenRepository, times(3)).deleteExpiredBatch(any(Instant.class), eq(100));
+        verify(refreshTokenRepository, times(1)).deleteRevokedBatch(100);
+    }
+
+    private RefreshToken storedToken(Long id, String raw, boolean revoked) {
+        return RefreshToken.builder()
+                .id(id)
+                .tokenHash(RefreshTokenService.hash(raw))
+                .user(user)
+                .expiresAt(Instant.now().plusSeconds(600))
+                .revoked(revoked)
+                .build();
+    }
+}
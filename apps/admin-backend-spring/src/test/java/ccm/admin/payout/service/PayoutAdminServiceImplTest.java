@@ -0,0 +1,135 @@
+package ccm.admin.payout.service;
+
+import ccm.admin.config.FanOutConfig;
+import ccm.admin.payout.dto.response.PayoutStatisticsResponse;
+import ccm.admin.payout.entity.enums.PayoutStatus;
+import ccm.admin.payout.repository.PayoutRepository;
+import ccm.admin.payout.service.impl.PayoutAdminServiceImpl;
+import ccm.admin.user.repository.UserRepository;
+import ccm.admin.wallet.service.OwnerWalletProjection;
+import ccm.common.concurrent.FanOut;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for PayoutAdminServiceImpl.getPayoutStatistics on the shared FanOut.
+ *
+ * Verifies:
+ * - Aggregates run in parallel but never more than the configured cap at once
+ * - Forked queries see the caller's SecurityContext
+ * - A failing query fails the whole request and frees every permit
+ */
+@ExtendWith(MockitoExtension.class)
+class PayoutAdminServiceImplTest {
+
+    private static final int MAX_CONCURRENT = 3;
+
+    @Mock
+    private PayoutRepository payoutRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private OwnerWalletProjection ownerWallets;
+
+    private FanOut fanOut;
+    private PayoutAdminServiceImpl payoutService;
+
+    @BeforeEach
+    void setUp() {
+        fanOut = new FanOutConfig().fanOut(MAX_CONCURRENT);
+        payoutService = new PayoutAdminServiceImpl(payoutRepository, userRepository, ownerWallets, fanOut);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("admin@example.com", null, Collections.emptyList()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should run statistics queries in parallel under the caller's security context")
+    void testStatisticsFanOut() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        Set<String> principals = ConcurrentHashMap.newKeySet();
+        // The first MAX_CONCURRENT queries only get past the latch if they are in flight together
+        CountDownLatch together = new CountDownLatch(MAX_CONCURRENT);
+
+        when(payoutRepository.getTotalCount()).thenAnswer(inv -> query(running, peak, principals, together, 10L));
+        when(payoutRepository.countByStatus(any())).thenAnswer(inv -> query(running, peak, principals, together,
+                (long) ((PayoutStatus) inv.getArgument(0)).ordinal() + 1));
+        when(payoutRepository.calculateTotalAmountRequested())
+                .thenAnswer(inv -> query(running, peak, principals, together, new BigDecimal("1000")));
+        when(payoutRepository.calculateTotalAmountByStatus(any())).thenAnswer(inv -> query(running, peak,
+                principals, together, BigDecimal.valueOf(100L * (((PayoutStatus) inv.getArgument(0)).ordinal() + 1))));
+
+        PayoutStatisticsResponse stats = payoutService.getPayoutStatistics();
+
+        assertThat(stats.getTotalCount()).isEqualTo(10L);
+        assertThat(stats.getPendingCount()).isEqualTo(PayoutStatus.PENDING.ordinal() + 1L);
+        assertThat(stats.getCompletedCount()).isEqualTo(PayoutStatus.COMPLETED.ordinal() + 1L);
+        assertThat(stats.getTotalAmount()).isEqualByComparingTo("1000");
+        assertThat(stats.getApprovedAmount())
+                .isEqualByComparingTo(BigDecimal.valueOf(100L * (PayoutStatus.APPROVED.ordinal() + 1)));
+        assertThat(peak.get()).isEqualTo(MAX_CONCURRENT);
+        assertThat(principals).containsExactly("admin@example.com");
+        assertThat(fanOut.availablePermits()).isEqualTo(MAX_CONCURRENT);
+    }
+
+    @Test
+    @DisplayName("Should fail the request when one query fails and release all permits")
+    void testStatisticsFailure() {
+        when(payoutRepository.getTotalCount()).thenThrow(new IllegalStateException("db down"));
+        // Siblings may be cancelled before they ever reach the repository
+        lenient().when(payoutRepository.countByStatus(any())).thenAnswer(inv -> {
+            Thread.sleep(5_000);
+            return 0L;
+        });
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> payoutService.getPayoutStatistics())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("db down");
+
+        // Slow siblings were interrupted instead of awaited
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(4_000);
+        assertThat(fanOut.availablePermits()).isEqualTo(MAX_CONCURRENT);
+    }
+
+    private static <T> T query(AtomicInteger running, AtomicInteger peak, Set<String> principals,
+                               CountDownLatch together, T result) throws InterruptedException {
+        int now = running.incrementAndGet();
+        peak.accumulateAndGet(now, Math::max);
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        principals.add(auth != null ? auth.getName() : "<none>");
+        together.countDown();
+        together.await(5, TimeUnit.SECONDS);
+        running.decrementAndGet();
+        return result;
+    }
+}
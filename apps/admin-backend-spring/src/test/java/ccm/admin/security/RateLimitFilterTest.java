@@ -1,5 +1,8 @@
 package ccm.admin.security;
 
+import ccm.common.ratelimit.InMemoryRateLimitStore;
+import ccm.common.ratelimit.PrefetchingRateLimiter;
+import ccm.common.ratelimit.RateLimitStore;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -11,6 +14,8 @@ import org.springframework.mock.web.MockFilterChain;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
@@ -22,6 +27,8 @@ import static org.assertj.core.api.Assertions.assertThat;
  * - Rate limiting is per-IP (different IPs have separate limits)
  * - 429 status code returned when limit exceeded
  * - X-Forwarded-For header honored for proxied requests
+ * - Quota is shared by instances backed by the same store
+ * - A failing store degrades to a per-instance limit instead of failing the request
  */
 @ExtendWith(MockitoExtension.class)
 class RateLimitFilterTest {
@@ -35,7 +42,7 @@ class RateLimitFilterTest {
     @BeforeEach
     void setUp() {
         objectMapper = new ObjectMapper();
-        rateLimitFilter = new RateLimitFilter(objectMapper);
+        rateLimitFilter = newFilter(new InMemoryRateLimitStore());
         request = new MockHttpServletRequest();
         response = new MockHttpServletResponse();
         filterChain = new MockFilterChain();
@@ -204,4 +211,70 @@ class RateLimitFilterTest {
         assertThat(responseBody).contains("429");
         assertThat(response.getContentType()).isEqualTo("application/json");
     }
+
+    @Test
+    @DisplayName("Should share the rate limit across instances using the same store")
+    void testRateLimitSharedAcrossInstances() throws Exception {
+        // Given: Two filter instances (two nodes) backed by one store
+        RateLimitStore sharedStore = new InMemoryRateLimitStore();
+        RateLimitFilter nodeA = newFilter(sharedStore);
+        RateLimitFilter nodeB = newFilter(sharedStore);
+        request.setRequestURI("/api/auth/login");
+        request.setRemoteAddr("192.168.1.100");
+
+        // When: 3 requests hit node A and 2 hit node B (5 total = limit)
+        for (int i = 0; i < 5; i++) {
+            response = new MockHttpServletResponse();
+            filterChain = new MockFilterChain();
+            (i < 3 ? nodeA : nodeB).doFilter(request, response, filterChain);
+            assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        }
+
+        // Then: The next request is blocked on either node
+        response = new MockHttpServletResponse();
+        nodeB.doFilter(request, response, new MockFilterChain());
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+
+        response = new MockHttpServletResponse();
+        nodeA.doFilter(request, response, new MockFilterChain());
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+    }
+
+    @Test
+    @DisplayName("Should keep limiting on this instance when the store is unavailable")
+    void testFallsBackWhenStoreFails() throws Exception {
+        // Given: A store that throws on every call (database down)
+        AtomicInteger storeCalls = new AtomicInteger();
+        RateLimitFilter filter = newFilter((key, delta, ttl) -> {
+            storeCalls.incrementAndGet();
+            throw new IllegalStateException("connection refused");
+        });
+        request.setRequestURI("/api/auth/login");
+        request.setRemoteAddr("192.168.1.100");
+
+        // When/Then: The first 5 requests pass instead of failing with 500
+        for (int i = 0; i < 5; i++) {
+            response = new MockHttpServletResponse();
+            filterChain = new MockFilterChain();
+            filter.doFilter(request, response, filterChain);
+            assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+            assertThat(filterChain.getRequest()).isNotNull();
+        }
+
+        // And: The 6th is still limited by the local fallback counter
+        response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+
+        // And: Once the window is known to be full, later requests skip the store
+        int callsWhenExhausted = storeCalls.get();
+        response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(storeCalls.get()).isEqualTo(callsWhenExhausted);
+    }
+
+    private RateLimitFilter newFilter(RateLimitStore store) {
+        return new RateLimitFilter(objectMapper, new PrefetchingRateLimiter(store, 20));
+    }
 }
@@ -0,0 +1,194 @@
+package ccm.admin.wallet.service;
+
+import ccm.admin.config.FanOutConfig;
+import ccm.admin.listing.entity.Listing;
+import ccm.admin.listing.repository.ListingRepository;
+import ccm.admin.listing.service.ListingAdminService;
+import ccm.admin.listing.service.impl.ListingAdminServiceImpl;
+import ccm.admin.payout.entity.Payout;
+import ccm.admin.payout.entity.enums.PayoutStatus;
+import ccm.admin.payout.repository.PayoutRepository;
+import ccm.admin.payout.service.PayoutAdminService;
+import ccm.admin.payout.service.impl.PayoutAdminServiceImpl;
+import ccm.admin.user.entity.Role;
+import ccm.admin.user.entity.User;
+import ccm.admin.user.repository.UserRepository;
+import ccm.admin.wallet.entity.OwnerWalletSummary;
+import ccm.admin.wallet.repository.OwnerWalletSummaryRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for OwnerWalletProjection against H2 (MySQL mode)
+ *
+ * Verifies that the deltas applied by the listing and payout write paths leave owner_wallet_summaries
+ * equal to what the V18 backfill query computes from the source tables:
+ * - Rejecting a PENDING listing or delisting an APPROVED one gives its credits back
+ * - A payout request followed by approve moves the amount from pending to withdrawn
+ * - A payout request followed by reject nets out to zero
+ * Owner-side actions (creating a listing, requesting a payout) live in the owner service; the test
+ * applies the same projection call that service makes.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:admin-wallet;MODE=MySQL;DB_CLOSE_DELAY=-1;NON_KEYWORDS=VALUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false"
+})
+@Import({OwnerWalletProjection.class, ListingAdminServiceImpl.class, PayoutAdminServiceImpl.class, FanOutConfig.class})
+@DisplayName("OwnerWalletProjection Tests")
+class OwnerWalletProjectionTest {
+
+    private static final String BACKFILL = backfillQuery();
+    private static final Long ADMIN_ID = 1L;
+
+    @Autowired private OwnerWalletProjection ownerWallets;
+    @Autowired private OwnerWalletSummaryRepository summaryRepository;
+    @Autowired private ListingAdminService listingService;
+    @Autowired private PayoutAdminService payoutService;
+    @Autowired private ListingRepository listingRepository;
+    @Autowired private PayoutRepository payoutRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private EntityManager entityManager;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        // V1 stores these as VARCHAR; the generated H2 ENUMs would reject values such as 'OPEN' in the backfill
+        for (String column : new String[] {"listings.status", "transactions.status", "transactions.type",
+                "journeys.status", "payouts.status"}) {
+            String[] tableAndColumn = column.split("\\.");
+            entityManager.createNativeQuery("ALTER TABLE " + tableAndColumn[0] + " MODIFY COLUMN "
+                    + tableAndColumn[1] + " VARCHAR(30) NOT NULL").executeUpdate();
+        }
+        Role role = new Role(null, "EV_OWNER", null, LocalDateTime.now());
+        entityManager.persist(role);
+        owner = userRepository.save(User.builder()
+                .email("owner@carbon.local")
+                .passwordHash("x")
+                .role(role)
+                .build());
+    }
+
+    @Test
+    @DisplayName("Should give credits back when a listing is rejected or delisted")
+    void testRejectAndDelistReleaseLockedCredits() {
+        // Given: three listings put up for sale
+        Listing kept = list("10");
+        Listing rejected = list("4");
+        Listing delisted = list("6");
+        assertMatchesBackfill("20");
+
+        // When
+        listingService.rejectListing(rejected.getId(), ADMIN_ID, null);
+        assertMatchesBackfill("16");
+        listingService.approveListing(delisted.getId(), ADMIN_ID);
+        listingService.approveListing(kept.getId(), ADMIN_ID);
+        assertMatchesBackfill("16");
+        listingService.delistListing(delisted.getId(), ADMIN_ID, null);
+
+        // Then
+        assertMatchesBackfill("10");
+    }
+
+    @Test
+    @DisplayName("Should net out payout request + approve and request + reject")
+    void testPayoutRequestApproveAndReject() {
+        // Given
+        Payout approved = requestPayout("100");
+        Payout rejected = requestPayout("40");
+        OwnerWalletSummary requested = assertMatchesBackfill("0");
+        assertThat(requested.getPendingWithdrawals()).isEqualByComparingTo("140");
+
+        // When
+        payoutService.approvePayout(approved.getId(), ADMIN_ID, null);
+        payoutService.rejectPayout(rejected.getId(), ADMIN_ID, null);
+        requestPayout("25");
+
+        // Then
+        OwnerWalletSummary settled = assertMatchesBackfill("0");
+        assertThat(settled.getTotalWithdrawals()).isEqualByComparingTo("100");
+        assertThat(settled.getPendingWithdrawals()).isEqualByComparingTo("25");
+    }
+
+    /** What OwnerListingController does: save a PENDING listing and lock its credits */
+    private Listing list(String qty) {
+        Listing listing = listingRepository.save(Listing.builder()
+                .carbonCreditId(1L)
+                .title("Credits")
+                .price(new BigDecimal("12.50"))
+                .quantity(new BigDecimal(qty))
+                .owner(owner)
+                .build());
+        ownerWallets.creditsListed(owner.getId(), listing.getQuantity());
+        return listing;
+    }
+
+    /** What OwnerWalletService does on a withdrawal request */
+    private Payout requestPayout(String amount) {
+        Payout payout = payoutRepository.save(Payout.builder()
+                .userId(owner.getId())
+                .eWalletId(1L)
+                .amount(new BigDecimal(amount))
+                .status(PayoutStatus.PENDING)
+                .build());
+        ownerWallets.payoutRequested(owner.getId(), payout.getAmount());
+        return payout;
+    }
+
+    /** Compare every column of the maintained row with the V18 backfill for the owner */
+    private OwnerWalletSummary assertMatchesBackfill(String expectedLocked) {
+        entityManager.flush();
+        entityManager.clear();
+        OwnerWalletSummary summary = summaryRepository.findById(owner.getId())
+                .orElse(OwnerWalletSummary.empty(owner.getId()));
+        Object[] expected = (Object[]) entityManager.createNativeQuery(BACKFILL)
+                .setParameter("userId", owner.getId())
+                .getSingleResult();
+
+        assertThat(summary.getCreditsGenerated()).isEqualByComparingTo(decimal(expected[1]));
+        assertThat(summary.getLockedCredits()).isEqualByComparingTo(decimal(expected[2]))
+                .isEqualByComparingTo(expectedLocked);
+        assertThat(summary.getSoldCredits()).isEqualByComparingTo(decimal(expected[3]));
+        assertThat(summary.getTotalEarnings()).isEqualByComparingTo(decimal(expected[4]));
+        assertThat(summary.getTotalWithdrawals()).isEqualByComparingTo(decimal(expected[5]));
+        assertThat(summary.getPendingWithdrawals()).isEqualByComparingTo(decimal(expected[6]));
+        return summary;
+    }
+
+    private static BigDecimal decimal(Object value) {
+        return new BigDecimal(value.toString());
+    }
+
+    /** The SELECT of the V18 backfill, restricted to one owner */
+    private static String backfillQuery() {
+        try {
+            String migration = new ClassPathResource("db/migration/V18__owner_wallet_summaries.sql")
+                    .getContentAsString(StandardCharsets.UTF_8);
+            int start = migration.indexOf("SELECT u.id");
+            int end = migration.indexOf("FROM users u", start) + "FROM users u".length();
+            return migration.substring(start, end) + " WHERE u.id = :userId";
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package ccm.buyer.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String LISTING_CATALOG = "listings:catalog";
+
+    // TTL ngắn: listing do admin/owner (service khác) duyệt hoặc sửa chỉ xuất hiện sau tối đa 1 TTL.
+    // Thay đổi số lượng/trạng thái trong buyer service thì xoá cache ngay sau commit.
+    @Bean
+    public CacheManager cacheManager(@Value("${app.catalog.cache-ttl:30s}") Duration ttl,
+                                     @Value("${app.catalog.cache-size:1000}") long maxSize) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(LISTING_CATALOG);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats());
+        return cacheManager;
+    }
+}
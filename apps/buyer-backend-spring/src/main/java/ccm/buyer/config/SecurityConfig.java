@@ -1,5 +1,7 @@
 package ccm.buyer.config;
 
+import ccm.buyer.controller.ListingController;
+import ccm.buyer.controller.NotificationController;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -50,6 +52,8 @@ public class SecurityConfig {
         cfg.setAllowedOrigins(origins);
         cfg.setAllowedMethods(List.of("GET","POST","PUT","PATCH","DELETE","OPTIONS"));
         cfg.setAllowedHeaders(List.of("*"));
+        // FE trên origin khác chỉ đọc được header trả về nếu được liệt kê ở đây
+        cfg.setExposedHeaders(List.of(ListingController.NEXT_CURSOR_HEADER, NotificationController.UNREAD_COUNT_HEADER));
         cfg.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource src = new UrlBasedCorsConfigurationSource();
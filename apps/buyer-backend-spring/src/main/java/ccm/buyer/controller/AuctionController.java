@@ -1,13 +1,16 @@
 package ccm.buyer.controller;
 
-import ccm.buyer.entity.Bid;
+import ccm.buyer.dto.response.AuctionStateResponse;
+import ccm.buyer.dto.response.BidResponse;
 import ccm.buyer.service.AuctionService;
 import lombok.RequiredArgsConstructor;
 
 import java.math.BigDecimal;
 
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/buyer/bid")
@@ -17,11 +20,23 @@ public class AuctionController {
     private final AuctionService service;
 
     @PostMapping
-    public ResponseEntity<Bid> placeBid(
+    public ResponseEntity<BidResponse> placeBid(
             @RequestParam Long buyerId,
             @RequestParam Long auctionId,
             @RequestParam BigDecimal bidPrice
     ) {
         return ResponseEntity.ok(service.placeBid(buyerId, auctionId, bidPrice));
     }
+
+    @GetMapping("/{auctionId}")
+    public ResponseEntity<AuctionStateResponse> getState(@PathVariable Long auctionId) {
+        return ResponseEntity.ok(service.getState(auctionId));
+    }
+
+    // SSE: "leading" / "outbid" / "price", mỗi sự kiện mang trạng thái mới nhất của phiên
+    @GetMapping(value = "/{auctionId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@PathVariable Long auctionId,
+                             @RequestParam(required = false) Long buyerId) {
+        return service.subscribe(auctionId, buyerId);
+    }
 }
@@ -1,11 +1,25 @@
 package ccm.buyer.controller;
 
-import ccm.buyer.entity.Invoice;
+import ccm.buyer.dto.request.InvoicePageQuery;
+import ccm.buyer.dto.response.InvoicePageResponse;
+import ccm.buyer.dto.response.InvoiceResponse;
 import ccm.buyer.service.InvoiceService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 
 @RestController
@@ -13,10 +27,55 @@ import java.util.List;
 @RequiredArgsConstructor
 public class InvoiceController {
 
+    // Tomcat NIO: đặt các attribute này thì connector gửi file bằng sendfile (kernel copy thẳng ra socket)
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
     private final InvoiceService service;
 
+    // Vẫn trả về mảng (tương thích FE); trang kế tiếp: gửi lại header X-Next-Cursor vào ?cursor=
     @GetMapping
-    public ResponseEntity<List<Invoice>> list(@RequestParam Long buyerId) {
-        return ResponseEntity.ok(service.listInvoicesByBuyer(buyerId));
+    public ResponseEntity<List<InvoiceResponse>> list(@RequestParam Long buyerId,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(required = false) Integer limit) {
+        InvoicePageResponse page = service.listInvoices(InvoicePageQuery.of(buyerId, cursor, limit));
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(ListingController.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+
+    @GetMapping("/{invoiceId}/pdf")
+    public void download(@PathVariable Long invoiceId,
+                         @RequestParam Long buyerId,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        Path file = service.invoiceFile(buyerId, invoiceId);
+        long size = Files.size(file);
+
+        response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+        response.setContentLengthLong(size);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(file.getFileName().toString()).build().toString());
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, size);
+            return;
+        }
+
+        // Connector không hỗ trợ sendfile (TLS, test): copy theo kênh, không nạp cả file vào bộ nhớ
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < size) {
+                position += in.transferTo(position, size - position, out);
+            }
+        }
     }
 }
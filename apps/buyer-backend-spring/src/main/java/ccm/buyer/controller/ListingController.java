@@ -1,11 +1,20 @@
 package ccm.buyer.controller;
 
+import ccm.buyer.dto.request.ListingCatalogQuery;
+import ccm.buyer.dto.response.ListingHoldResponse;
+import ccm.buyer.dto.response.ListingPageResponse;
+import ccm.buyer.dto.response.ListingResponse;
+import ccm.buyer.dto.response.MarketDepthResponse;
 import ccm.buyer.entity.Listing;
+import ccm.buyer.enums.ListingStatus;
+import ccm.buyer.enums.ListingType;
 import ccm.buyer.service.ListingService;
+import ccm.buyer.service.OrderBookService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @RestController
@@ -14,10 +23,53 @@ import java.util.List;
 public class ListingController {
 
     private final ListingService service;
+    private final OrderBookService orderBookService;
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    // Vẫn trả về mảng (tương thích FE); trang kế tiếp: gửi lại giá trị header X-Next-Cursor vào ?cursor=
     @GetMapping
-    public ResponseEntity<List<Listing>> listAll() {
-        return ResponseEntity.ok(service.getAll());
+    public ResponseEntity<List<ListingResponse>> listAll(
+            @RequestParam(required = false) ListingStatus status,
+            @RequestParam(required = false) ListingType type,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        ListingPageResponse page = service.search(
+                ListingCatalogQuery.of(status, type, minPrice, maxPrice, cursor, limit));
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+
+    // Độ sâu thị trường: tổng số lượng theo từng mức giá (rẻ nhất trước), đọc từ sổ lệnh trong bộ nhớ
+    @GetMapping("/depth")
+    public ResponseEntity<MarketDepthResponse> depth(@RequestParam(defaultValue = "20") int levels) {
+        return ResponseEntity.ok(orderBookService.depth(Math.max(1, Math.min(levels, 500))));
+    }
+
+    // Giữ chỗ trong lúc thanh toán: hết app.reservations.ttl mà chưa mua thì tự nhả
+    @PostMapping("/{id}/holds")
+    public ResponseEntity<ListingHoldResponse> reserve(@PathVariable Long id,
+                                                       @RequestParam Long buyerId,
+                                                       @RequestParam BigDecimal qty) {
+        return ResponseEntity.ok(service.reserve(id, buyerId, qty));
+    }
+
+    @DeleteMapping("/holds/{holdId}")
+    public ResponseEntity<Void> release(@PathVariable Long holdId, @RequestParam Long buyerId) {
+        service.release(holdId, buyerId);
+        return ResponseEntity.noContent().build();
+    }
+
+    // Số lượng còn mua được = qty - phần đang được giữ
+    @GetMapping("/{id}/available")
+    public ResponseEntity<BigDecimal> available(@PathVariable Long id) {
+        return ResponseEntity.ok(service.available(id));
     }
 
     @GetMapping("/{id}")
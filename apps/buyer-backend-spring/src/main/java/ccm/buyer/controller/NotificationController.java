@@ -1,10 +1,14 @@
 package ccm.buyer.controller;
 
-import ccm.buyer.entity.Notification;
+import ccm.buyer.dto.request.NotificationPageQuery;
+import ccm.buyer.dto.response.NotificationPageResponse;
+import ccm.buyer.dto.response.NotificationResponse;
 import ccm.buyer.service.NotificationService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -15,8 +19,41 @@ public class NotificationController {
 
     private final NotificationService service;
 
+    public static final String UNREAD_COUNT_HEADER = "X-Unread-Count";
+
+    // Vẫn trả về mảng (tương thích FE); trang kế tiếp: gửi lại header X-Next-Cursor vào ?cursor=
     @GetMapping
-    public ResponseEntity<List<Notification>> list(@RequestParam Long buyerId) {
-        return ResponseEntity.ok(service.listNotifications(buyerId));
+    public ResponseEntity<List<NotificationResponse>> list(
+            @RequestParam Long buyerId,
+            @RequestParam(defaultValue = "false") boolean unreadOnly,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        NotificationPageResponse page = service.listNotifications(
+                NotificationPageQuery.of(buyerId, unreadOnly, cursor, limit));
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(UNREAD_COUNT_HEADER, String.valueOf(page.getUnreadCount()));
+        if (page.getNextCursor() != null) {
+            response.header(ListingController.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+
+    @GetMapping("/unread-count")
+    public ResponseEntity<Long> unreadCount(@RequestParam Long buyerId) {
+        return ResponseEntity.ok(service.countUnread(buyerId));
+    }
+
+    // Body rỗng: đánh dấu đã đọc tất cả
+    @PostMapping("/read")
+    public ResponseEntity<Integer> markRead(@RequestParam Long buyerId,
+                                            @RequestBody(required = false) List<Long> ids) {
+        return ResponseEntity.ok(service.markRead(buyerId, ids));
+    }
+
+    // SSE thay cho polling: "unread" khi kết nối, sau đó "notification" / "resync"
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam Long buyerId) {
+        return service.subscribe(buyerId);
     }
 }
@@ -0,0 +1,35 @@
+package ccm.buyer.controller;
+
+import ccm.buyer.dto.request.CreatePriceAlertRequest;
+import ccm.buyer.dto.response.PriceAlertResponse;
+import ccm.buyer.service.PriceAlertService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/buyer/price-alerts")
+@RequiredArgsConstructor
+public class PriceAlertController {
+
+    private final PriceAlertService service;
+
+    // listingType bỏ trống: khớp mọi loại listing
+    @PostMapping
+    public ResponseEntity<PriceAlertResponse> create(@RequestBody CreatePriceAlertRequest req) {
+        return ResponseEntity.ok(service.create(req));
+    }
+
+    @GetMapping
+    public ResponseEntity<List<PriceAlertResponse>> list(@RequestParam Long buyerId) {
+        return ResponseEntity.ok(service.list(buyerId));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable Long id, @RequestParam Long buyerId) {
+        service.delete(buyerId, id);
+        return ResponseEntity.noContent().build();
+    }
+}
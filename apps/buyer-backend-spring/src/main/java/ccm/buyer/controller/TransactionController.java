@@ -1,17 +1,30 @@
 package ccm.buyer.controller;
 
+import ccm.buyer.dto.request.CartCheckoutRequest;
 import ccm.buyer.dto.request.CreateTransactionRequest;
+import ccm.buyer.dto.request.TransactionHistoryQuery;
 import ccm.buyer.dto.request.UpdateTransactionStatusRequest;
+import ccm.buyer.dto.response.CartCheckoutResponse;
+import ccm.buyer.dto.response.TransactionPageResponse;
 import ccm.buyer.dto.response.TransactionResponse;
 import ccm.buyer.enums.TrStatus;
 import ccm.buyer.service.TransactionService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ccm.buyer.dto.response.BuyerDashboardResponse;
 import ccm.buyer.service.impl.BuyerDashboardServiceImpl;
+import ccm.buyer.service.impl.IdempotencyGuard;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -21,15 +34,69 @@ public class TransactionController {
 
   private final TransactionService transactionService;
   private final BuyerDashboardServiceImpl dashboardService;
+  private final ObjectMapper objectMapper;
+  private final IdempotencyGuard idempotency;
 
+  // Vẫn trả về mảng (tương thích FE); trang kế tiếp: gửi lại header X-Next-Cursor vào ?cursor=
   @GetMapping
-  public ResponseEntity<List<TransactionResponse>> list(@RequestParam(required = false) Long buyerId) {
-    return ResponseEntity.ok(transactionService.list(buyerId));
+  public ResponseEntity<List<TransactionResponse>> list(
+      @RequestParam Long buyerId,
+      @RequestParam(required = false) TrStatus status,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false) Integer limit) {
+    TransactionPageResponse page = transactionService.history(
+        TransactionHistoryQuery.of(buyerId, status, from, to, cursor, limit));
+
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+    if (page.getNextCursor() != null) {
+      response.header(ListingController.NEXT_CURSOR_HEADER, page.getNextCursor());
+    }
+    return response.body(page.getItems());
   }
 
+  // Tài khoản lớn: NDJSON, mỗi dòng một giao dịch, ghi ra theo lô nên bộ nhớ không tăng theo số giao dịch.
+  // Kết nối đứt giữa chừng: gửi cursor của dòng cuối đã nhận để tải tiếp.
+  @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> export(
+      @RequestParam Long buyerId,
+      @RequestParam(required = false) TrStatus status,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+      @RequestParam(required = false) String cursor) {
+    TransactionHistoryQuery query = TransactionHistoryQuery.of(buyerId, status, from, to, cursor, null);
+
+    StreamingResponseBody body = out -> transactionService.exportHistory(query, batch -> {
+      try {
+        for (TransactionResponse item : batch) {
+          out.write(objectMapper.writeValueAsBytes(item));
+          out.write('\n');
+        }
+        out.flush();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+  }
+
+  // Idempotency-Key (tùy chọn): gửi lại cùng key thì nhận lại response lần đầu, không mua lần hai
   @PostMapping
-  public ResponseEntity<TransactionResponse> create(@RequestBody CreateTransactionRequest req) {
-    return ResponseEntity.ok(transactionService.create(req));
+  public ResponseEntity<TransactionResponse> create(
+      @RequestHeader(value = IdempotencyGuard.HEADER, required = false) String idempotencyKey,
+      @RequestBody CreateTransactionRequest req) {
+    return ResponseEntity.ok(idempotency.execute(req.getBuyerId(), "transactions.create", idempotencyKey, req,
+        TransactionResponse.class, () -> transactionService.create(req)));
+  }
+
+  // Giỏ hàng: mua nhiều listing trong một transaction, kết quả từng dòng (dòng lỗi không làm hỏng cả giỏ)
+  @PostMapping("/cart")
+  public ResponseEntity<CartCheckoutResponse> checkoutCart(
+      @RequestHeader(value = IdempotencyGuard.HEADER, required = false) String idempotencyKey,
+      @RequestBody CartCheckoutRequest req) {
+    return ResponseEntity.ok(idempotency.execute(req.getBuyerId(), "transactions.cart", idempotencyKey, req,
+        CartCheckoutResponse.class, () -> transactionService.checkoutCart(req)));
   }
 
   @PutMapping("/{id}/status")
@@ -49,7 +116,11 @@ public class TransactionController {
     public record QuickBuyRequest(Long buyerId, java.math.BigDecimal qty) {}
 
     @PostMapping("/quick-buy")
-    public ResponseEntity<List<TransactionResponse>> quickBuy(@RequestBody QuickBuyRequest req) {
-        return ResponseEntity.ok(transactionService.createBulk(req.buyerId(), req.qty()));
+    public ResponseEntity<List<TransactionResponse>> quickBuy(
+            @RequestHeader(value = IdempotencyGuard.HEADER, required = false) String idempotencyKey,
+            @RequestBody QuickBuyRequest req) {
+        return ResponseEntity.ok(idempotency.execute(req.buyerId(), "transactions.quick-buy", idempotencyKey, req,
+            new TypeReference<List<TransactionResponse>>() {},
+            () -> transactionService.createBulk(req.buyerId(), req.qty())));
     }
 }
@@ -0,0 +1,21 @@
+package ccm.buyer.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+public class CartCheckoutRequest {
+  private Long buyerId;
+  private List<Line> lines; // Mỗi listing tối đa một dòng
+
+  @Data @NoArgsConstructor @AllArgsConstructor
+  public static class Line {
+    private Long listingId;
+    private BigDecimal qty;
+    private Long holdId; // Hold từ POST /api/buyer/listings/{id}/holds (tuỳ chọn)
+  }
+}
@@ -0,0 +1,14 @@
+package ccm.buyer.dto.request;
+
+import ccm.buyer.enums.ListingType;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class CreatePriceAlertRequest {
+  private Long buyerId;
+  private BigDecimal maxPrice;
+  private BigDecimal minQty;        // Mặc định: mọi số lượng
+  private ListingType listingType;  // null = mọi loại
+}
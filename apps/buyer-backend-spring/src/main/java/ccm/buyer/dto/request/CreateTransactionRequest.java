@@ -11,4 +11,5 @@ public class CreateTransactionRequest {
   private Long listingId;
   private BigDecimal qty;
   private BigDecimal amount;
+  private Long holdId; // Hold từ POST /api/buyer/listings/{id}/holds (tuỳ chọn)
 }
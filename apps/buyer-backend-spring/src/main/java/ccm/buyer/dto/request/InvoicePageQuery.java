@@ -0,0 +1,48 @@
+package ccm.buyer.dto.request;
+
+import ccm.buyer.dto.response.InvoiceResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Trang hóa đơn của một buyer, mới nhất trước.
+ * Cursor là vị trí (issueDate, id) của hóa đơn cuối trang trước, mã hoá base64url.
+ */
+public record InvoicePageQuery(
+    Long buyerId,
+    LocalDateTime afterIssueDate,
+    Long afterId,
+    int limit
+) {
+
+  public static final int DEFAULT_LIMIT = 20;
+  public static final int MAX_LIMIT = 100;
+
+  public static InvoicePageQuery of(Long buyerId, String cursor, Integer limit) {
+    if (buyerId == null) {
+      throw new IllegalArgumentException("buyerId is required");
+    }
+
+    LocalDateTime afterIssueDate = null;
+    Long afterId = null;
+    if (cursor != null && !cursor.isBlank()) {
+      try {
+        String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+        afterIssueDate = LocalDateTime.parse(parts[0]);
+        afterId = Long.parseLong(parts[1]);
+      } catch (RuntimeException e) {
+        throw new IllegalArgumentException("Invalid cursor");
+      }
+    }
+
+    int size = (limit == null || limit <= 0) ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+    return new InvoicePageQuery(buyerId, afterIssueDate, afterId, size);
+  }
+
+  public static String cursorOf(InvoiceResponse last) {
+    String raw = last.issueDate() + "|" + last.id();
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,75 @@
+package ccm.buyer.dto.request;
+
+import ccm.buyer.dto.response.ListingResponse;
+import ccm.buyer.enums.ListingStatus;
+import ccm.buyer.enums.ListingType;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Bộ lọc catalog (đồng thời là key của catalog cache nên phải bất biến).
+ * Cursor là vị trí (price, id) của dòng cuối trang trước, mã hoá base64url.
+ */
+public record ListingCatalogQuery(
+    Set<ListingStatus> statuses,
+    ListingType type,
+    BigDecimal minPrice,
+    BigDecimal maxPrice,
+    BigDecimal afterPrice,
+    Long afterId,
+    int limit
+) {
+
+  public static final int DEFAULT_LIMIT = 50;
+  public static final int MAX_LIMIT = 200;
+
+  // Buyer chỉ được xem listing đang bán
+  private static final Set<ListingStatus> BUYABLE = EnumSet.of(ListingStatus.APPROVED, ListingStatus.OPEN);
+
+  public static ListingCatalogQuery of(ListingStatus status, ListingType type,
+                                       BigDecimal minPrice, BigDecimal maxPrice,
+                                       String cursor, Integer limit) {
+    if (status != null && !BUYABLE.contains(status)) {
+      throw new IllegalArgumentException("Status filter must be one of " + BUYABLE);
+    }
+    if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+      throw new IllegalArgumentException("minPrice must not exceed maxPrice");
+    }
+
+    BigDecimal afterPrice = null;
+    Long afterId = null;
+    if (cursor != null && !cursor.isBlank()) {
+      try {
+        String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 2);
+        afterPrice = new BigDecimal(parts[0]);
+        afterId = Long.parseLong(parts[1]);
+      } catch (RuntimeException e) {
+        throw new IllegalArgumentException("Invalid cursor");
+      }
+    }
+
+    int size = (limit == null || limit <= 0) ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+    return new ListingCatalogQuery(
+        status == null ? BUYABLE : Set.of(status),
+        type,
+        normalize(minPrice),
+        normalize(maxPrice),
+        afterPrice,
+        afterId,
+        size);
+  }
+
+  public static String cursorOf(ListingResponse last) {
+    String raw = last.getPricePerUnit().toPlainString() + ":" + last.getId();
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  // 10 và 10.00 phải cho cùng một cache key
+  private static BigDecimal normalize(BigDecimal value) {
+    return value == null ? null : value.stripTrailingZeros();
+  }
+}
@@ -0,0 +1,49 @@
+package ccm.buyer.dto.request;
+
+import ccm.buyer.dto.response.NotificationResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Trang thông báo của một buyer, mới nhất trước.
+ * Cursor là vị trí (createdAt, id) của dòng cuối trang trước, mã hoá base64url.
+ */
+public record NotificationPageQuery(
+    Long buyerId,
+    boolean unreadOnly,
+    LocalDateTime afterCreatedAt,
+    Long afterId,
+    int limit
+) {
+
+  public static final int DEFAULT_LIMIT = 20;
+  public static final int MAX_LIMIT = 100;
+
+  public static NotificationPageQuery of(Long buyerId, boolean unreadOnly, String cursor, Integer limit) {
+    if (buyerId == null) {
+      throw new IllegalArgumentException("buyerId is required");
+    }
+
+    LocalDateTime afterCreatedAt = null;
+    Long afterId = null;
+    if (cursor != null && !cursor.isBlank()) {
+      try {
+        String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+        afterCreatedAt = LocalDateTime.parse(parts[0]);
+        afterId = Long.parseLong(parts[1]);
+      } catch (RuntimeException e) {
+        throw new IllegalArgumentException("Invalid cursor");
+      }
+    }
+
+    int size = (limit == null || limit <= 0) ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+    return new NotificationPageQuery(buyerId, unreadOnly, afterCreatedAt, afterId, size);
+  }
+
+  public static String cursorOf(NotificationResponse last) {
+    String raw = last.createdAt() + "|" + last.id();
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,61 @@
+package ccm.buyer.dto.request;
+
+import ccm.buyer.dto.response.TransactionResponse;
+import ccm.buyer.enums.TrStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Lịch sử giao dịch của một buyer, mới nhất trước; lọc theo trạng thái và khoảng createdAt [from, to).
+ * Cursor là vị trí (createdAt, id) của dòng cuối trang trước, mã hoá base64url.
+ */
+public record TransactionHistoryQuery(
+    Long buyerId,
+    TrStatus status,
+    LocalDateTime from,
+    LocalDateTime to,
+    LocalDateTime afterCreatedAt,
+    Long afterId,
+    int limit
+) {
+
+  public static final int DEFAULT_LIMIT = 50;
+  public static final int MAX_LIMIT = 200;
+
+  public static TransactionHistoryQuery of(Long buyerId, TrStatus status, LocalDateTime from, LocalDateTime to,
+                                           String cursor, Integer limit) {
+    if (buyerId == null) {
+      throw new IllegalArgumentException("buyerId is required");
+    }
+    if (from != null && to != null && !from.isBefore(to)) {
+      throw new IllegalArgumentException("from must be before to");
+    }
+
+    LocalDateTime afterCreatedAt = null;
+    Long afterId = null;
+    if (cursor != null && !cursor.isBlank()) {
+      try {
+        String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+        afterCreatedAt = LocalDateTime.parse(parts[0]);
+        afterId = Long.parseLong(parts[1]);
+      } catch (RuntimeException e) {
+        throw new IllegalArgumentException("Invalid cursor");
+      }
+    }
+
+    int size = (limit == null || limit <= 0) ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+    return new TransactionHistoryQuery(buyerId, status, from, to, afterCreatedAt, afterId, size);
+  }
+
+  // Cùng bộ lọc, bắt đầu sau dòng last
+  public TransactionHistoryQuery after(TransactionResponse last) {
+    return new TransactionHistoryQuery(buyerId, status, from, to, last.getCreatedAt(), last.getId(), limit);
+  }
+
+  public static String cursorOf(TransactionResponse last) {
+    String raw = last.getCreatedAt() + "|" + last.getId();
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+}
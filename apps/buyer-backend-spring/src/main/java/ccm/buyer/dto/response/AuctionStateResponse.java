@@ -0,0 +1,18 @@
+package ccm.buyer.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Trạng thái hiện tại của một phiên đấu giá (REST + payload của các sự kiện SSE)
+@Data @Builder
+public class AuctionStateResponse {
+  private Long auctionId;
+  private BigDecimal currentPrice;  // null khi chưa có lượt trả giá nào
+  private Long leaderBuyerId;
+  private BigDecimal minNextBid;    // currentPrice + stepPrice (hoặc startPrice)
+  private long bidCount;
+  private LocalDateTime endTime;
+}
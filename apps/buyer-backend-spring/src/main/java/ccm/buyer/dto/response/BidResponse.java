@@ -0,0 +1,18 @@
+package ccm.buyer.dto.response;
+
+import ccm.buyer.enums.BidStatus;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data @Builder
+public class BidResponse {
+  private Long id;
+  private Long auctionId;
+  private Long buyerId;
+  private BigDecimal amount;
+  private BidStatus status;
+  private LocalDateTime createdAt;
+}
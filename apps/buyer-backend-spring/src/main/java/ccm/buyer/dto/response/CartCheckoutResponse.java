@@ -0,0 +1,25 @@
+package ccm.buyer.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data @Builder
+@NoArgsConstructor @AllArgsConstructor
+public class CartCheckoutResponse {
+  private int completed;
+  private BigDecimal totalAmount;   // Tổng tiền các dòng COMPLETED
+  private List<LineResult> lines;   // Cùng thứ tự với request
+
+  @Data @NoArgsConstructor @AllArgsConstructor
+  public static class LineResult {
+    private Long listingId;
+    private BigDecimal qty;
+    private TransactionResponse transaction; // null khi dòng bị từ chối
+    private String error;
+  }
+}
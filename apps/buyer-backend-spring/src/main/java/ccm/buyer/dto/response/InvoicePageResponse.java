@@ -0,0 +1,13 @@
+package ccm.buyer.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data @Builder
+public class InvoicePageResponse {
+  private List<InvoiceResponse> items;
+  // null khi đã hết dữ liệu
+  private String nextCursor;
+}
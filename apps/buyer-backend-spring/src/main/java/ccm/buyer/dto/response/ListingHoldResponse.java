@@ -0,0 +1,17 @@
+package ccm.buyer.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data @Builder
+public class ListingHoldResponse {
+  private Long holdId;           // Gửi kèm CreateTransactionRequest.holdId khi thanh toán
+  private Long listingId;
+  private Long buyerId;
+  private BigDecimal qty;
+  private LocalDateTime expiresAt;
+  private BigDecimal available;  // Số lượng còn mua được sau khi giữ
+}
@@ -0,0 +1,13 @@
+package ccm.buyer.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data @Builder
+public class ListingPageResponse {
+  private List<ListingResponse> items;
+  // null khi đã hết dữ liệu
+  private String nextCursor;
+}
@@ -4,10 +4,14 @@ import java.math.BigDecimal;
 
 import ccm.buyer.enums.ListingStatus;
 import ccm.buyer.enums.ListingType;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
+// Projection: JPQL "select new" dùng constructor đủ tham số (thứ tự field bên dưới)
 @Data @Builder
+@NoArgsConstructor @AllArgsConstructor
 public class ListingResponse {
   private Long id;
   private Long sellerId;
@@ -0,0 +1,22 @@
+package ccm.buyer.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data @Builder
+public class MarketDepthResponse {
+  private BigDecimal totalQty;     // Tổng tín chỉ đang bán (toàn sổ lệnh)
+  private int listingCount;
+  private List<PriceLevel> levels; // Giá tăng dần
+
+  @Data @AllArgsConstructor
+  public static class PriceLevel {
+    private BigDecimal price;
+    private BigDecimal qty;
+    private int listings;
+  }
+}
@@ -0,0 +1,14 @@
+package ccm.buyer.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data @Builder
+public class NotificationPageResponse {
+  private List<NotificationResponse> items;
+  // null khi đã hết dữ liệu
+  private String nextCursor;
+  private long unreadCount;
+}
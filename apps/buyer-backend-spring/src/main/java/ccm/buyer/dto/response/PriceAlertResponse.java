@@ -0,0 +1,18 @@
+package ccm.buyer.dto.response;
+
+import ccm.buyer.enums.ListingType;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data @Builder
+public class PriceAlertResponse {
+  private Long id;
+  private Long buyerId;
+  private BigDecimal maxPrice;
+  private BigDecimal minQty;
+  private ListingType listingType;
+  private LocalDateTime createdAt;
+}
@@ -1,5 +1,7 @@
 package ccm.buyer.entity;
 
+import ccm.buyer.enums.AuctionStatus;
+import ccm.common.id.PooledId;
 import jakarta.persistence.*;
 import lombok.*;
 import java.time.LocalDateTime;
@@ -10,7 +12,7 @@ import java.math.BigDecimal;
 @Getter @Setter
 @NoArgsConstructor @AllArgsConstructor @Builder
 public class Auction {
-  @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Id @PooledId
   private Long id;
 
   @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -28,5 +30,11 @@ public class Auction {
 
   @Column(name = "end_time", nullable = false)
   private LocalDateTime endTime;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private AuctionStatus status;
+
+  @PrePersist void onCreate(){ if(status==null) status = AuctionStatus.OPEN; }
   
 }
@@ -1,6 +1,7 @@
 package ccm.buyer.entity;
 
 import ccm.buyer.enums.BidStatus;
+import ccm.common.id.PooledId;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -12,7 +13,7 @@ import java.time.LocalDateTime;
 @Getter @Setter
 @NoArgsConstructor @AllArgsConstructor @Builder
 public class Bid {
-  @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Id @PooledId
   private Long id;
 
   @ManyToOne(fetch = FetchType.LAZY, optional = false)
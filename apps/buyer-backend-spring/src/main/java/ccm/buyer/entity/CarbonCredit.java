@@ -1,5 +1,6 @@
 package ccm.buyer.entity;
 
+import ccm.common.id.PooledId;
 import jakarta.persistence.*;
 import lombok.*;
 import java.math.BigDecimal;
@@ -11,7 +12,7 @@ import java.time.LocalDateTime;
 public class CarbonCredit {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     private Long id;
 
     @Column(name = "owner_id")
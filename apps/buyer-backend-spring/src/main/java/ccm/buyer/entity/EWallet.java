@@ -1,5 +1,6 @@
 package ccm.buyer.entity;
 
+import ccm.common.id.PooledId;
 import jakarta.persistence.*;
 import lombok.*;
 import java.math.BigDecimal;
@@ -11,7 +12,7 @@ import java.time.LocalDateTime;
 @NoArgsConstructor @AllArgsConstructor @Builder
 public class EWallet {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     private Long id;
 
     @Column(name = "user_id", nullable = false, unique = true)
@@ -22,4 +23,10 @@ public class EWallet {
 
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    // balance gồm mọi bút toán wallet_ledger có compacted = true; snapshot_at = lần gộp gần nhất
+    @Column(name = "snapshot_at", nullable = false)
+    private LocalDateTime snapshotAt;
+
+    @PrePersist void onCreate(){ if(snapshotAt==null) snapshotAt = LocalDateTime.now(); }
 }
@@ -0,0 +1,39 @@
+package ccm.buyer.entity;
+
+import ccm.common.id.PooledId;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "idempotency_keys",
+    uniqueConstraints = @UniqueConstraint(name = "uk_idem_buyer_scope_key", columnNames = {"buyer_id", "scope", "idem_key"}))
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor @Builder
+public class IdempotencyRecord {
+  @Id @PooledId
+  private Long id;
+
+  @Column(name = "buyer_id", nullable = false)
+  private Long buyerId;
+
+  // Endpoint nhận key, vd "transactions.create"
+  @Column(nullable = false, length = 64)
+  private String scope;
+
+  @Column(name = "idem_key", nullable = false, length = 100)
+  private String key;
+
+  // SHA-256 (hex) của body request: cùng key nhưng body khác -> từ chối
+  @Column(name = "request_hash", nullable = false, length = 64)
+  private String requestHash;
+
+  // JSON response đã trả cho client
+  @Column(name = "response_body", columnDefinition = "MEDIUMTEXT")
+  private String responseBody;
+
+  @Column(name = "created_at", nullable = false, updatable = false)
+  private LocalDateTime createdAt;
+
+  @PrePersist void onCreate(){ if(createdAt==null) createdAt = LocalDateTime.now(); }
+}
@@ -1,5 +1,6 @@
 package ccm.buyer.entity;
 
+import ccm.common.id.PooledId;
 import jakarta.persistence.*;
 import lombok.*;
 import java.time.LocalDateTime;
@@ -10,12 +11,16 @@ import java.time.LocalDateTime;
 public class Invoice {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     private Long id;
 
     @Column(name = "transaction_id", nullable = false, unique = true) // Map trId -> transaction_id
     private Long trId;
 
+    // Sao từ transaction khi xuất hóa đơn; idx_invoices_buyer_issue
+    @Column(name = "buyer_id")
+    private Long buyerId;
+
     @Column(name = "issue_date", nullable = false)
     private LocalDateTime issueDate;
 
@@ -23,5 +28,5 @@ public class Invoice {
     private String filePath;
 
     @PrePersist
-    void onCreate() { issueDate = LocalDateTime.now(); }
+    void onCreate() { if (issueDate == null) issueDate = LocalDateTime.now(); }
 }
\ No newline at end of file
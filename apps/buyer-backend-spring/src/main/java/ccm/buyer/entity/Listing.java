@@ -2,6 +2,7 @@ package ccm.buyer.entity;
 
 import ccm.buyer.enums.ListingStatus;
 import ccm.buyer.enums.ListingType;
+import ccm.common.id.PooledId;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -15,7 +16,7 @@ import java.time.LocalDateTime;
 public class Listing {
 
   @Id 
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @PooledId
   private Long id;
 
   @Column(name = "carbon_credit_id")
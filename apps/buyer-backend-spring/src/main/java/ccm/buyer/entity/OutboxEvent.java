@@ -0,0 +1,53 @@
+package ccm.buyer.entity;
+
+import ccm.buyer.enums.OutboxEventType;
+import ccm.buyer.enums.OutboxStatus;
+import ccm.common.id.PooledId;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "outbox_events")
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor @Builder
+public class OutboxEvent {
+  @Id @PooledId
+  private Long id;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "event_type", nullable = false)
+  private OutboxEventType type;
+
+  // INVOICE_ISSUE, OWNER_SALE: transaction id; BUYER_NOTIFY: buyer id
+  @Column(name = "aggregate_id", nullable = false)
+  private Long aggregateId;
+
+  @Column(length = 1000)
+  private String payload;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private OutboxStatus status;
+
+  @Column(nullable = false)
+  private int attempts;
+
+  @Column(name = "next_attempt_at", nullable = false)
+  private LocalDateTime nextAttemptAt;
+
+  @Column(name = "created_at", nullable = false, updatable = false)
+  private LocalDateTime createdAt;
+
+  @Column(name = "processed_at")
+  private LocalDateTime processedAt;
+
+  @Column(name = "last_error", length = 500)
+  private String lastError;
+
+  @PrePersist void onCreate(){
+    createdAt = LocalDateTime.now();
+    if(nextAttemptAt==null) nextAttemptAt = createdAt;
+    if(status==null) status = OutboxStatus.PENDING;
+  }
+}
@@ -0,0 +1,38 @@
+package ccm.buyer.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Bảng đọc ví owner (owner_wallet_summaries). Buyer service chỉ cộng phần bán được, qua OutboxRelay
+@Entity
+@Table(name = "owner_wallet_summaries")
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor @Builder
+public class OwnerWalletSummary {
+  @Id
+  @Column(name = "user_id")
+  private Long userId;
+
+  @Column(name = "credits_generated", nullable = false, precision = 15, scale = 2)
+  private BigDecimal creditsGenerated;
+
+  @Column(name = "locked_credits", nullable = false, precision = 15, scale = 2)
+  private BigDecimal lockedCredits;
+
+  @Column(name = "sold_credits", nullable = false, precision = 15, scale = 2)
+  private BigDecimal soldCredits;
+
+  @Column(name = "total_earnings", nullable = false, precision = 15, scale = 2)
+  private BigDecimal totalEarnings;
+
+  @Column(name = "total_withdrawals", nullable = false, precision = 15, scale = 2)
+  private BigDecimal totalWithdrawals;
+
+  @Column(name = "pending_withdrawals", nullable = false, precision = 15, scale = 2)
+  private BigDecimal pendingWithdrawals;
+
+  @Column(name = "updated_at", nullable = false)
+  private LocalDateTime updatedAt;
+}
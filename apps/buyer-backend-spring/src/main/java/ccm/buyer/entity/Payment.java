@@ -1,6 +1,7 @@
 package ccm.buyer.entity;
 
 import ccm.buyer.enums.PayStatus;
+import ccm.common.id.PooledId;
 import jakarta.persistence.*;
 import lombok.*;
 import java.math.BigDecimal;
@@ -11,7 +12,7 @@ import java.time.LocalDateTime;
 @Getter @Setter
 @NoArgsConstructor @AllArgsConstructor @Builder
 public class Payment {
-  @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Id @PooledId
   private Long id;
 
   @Column(name = "transaction_id", nullable = false, unique = true) // Map trId -> transaction_id
@@ -0,0 +1,39 @@
+package ccm.buyer.entity;
+
+import ccm.buyer.enums.ListingType;
+import ccm.common.id.PooledId;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "price_alerts")
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor @Builder
+public class PriceAlert {
+  @Id @PooledId
+  private Long id;
+
+  @Column(name = "buyer_id", nullable = false, updatable = false)
+  private Long buyerId;
+
+  // Báo khi có listing giá <= maxPrice ...
+  @Column(name = "max_price", nullable = false, precision = 15, scale = 2)
+  private BigDecimal maxPrice;
+
+  // ... còn ít nhất minQty tín chỉ ...
+  @Column(name = "min_qty", nullable = false, precision = 10, scale = 2)
+  private BigDecimal minQty;
+
+  // ... và đúng loại listing (null = mọi loại)
+  @Enumerated(EnumType.STRING)
+  @Column(name = "listing_type", length = 32)
+  private ListingType listingType;
+
+  @Column(name = "created_at", nullable = false, updatable = false)
+  private LocalDateTime createdAt;
+
+  @PrePersist void onCreate(){ if(createdAt==null) createdAt = LocalDateTime.now(); }
+}
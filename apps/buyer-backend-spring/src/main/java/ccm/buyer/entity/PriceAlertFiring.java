@@ -0,0 +1,39 @@
+package ccm.buyer.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Một buyer đã được báo về một lần chào bán (listing, giá): instance nào ghi được dòng này thì instance đó gửi
+@Entity
+@Table(name = "price_alert_firings")
+@IdClass(PriceAlertFiring.Key.class)
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor @Builder
+public class PriceAlertFiring {
+  @Id
+  @Column(name = "buyer_id")
+  private Long buyerId;
+
+  @Id
+  @Column(name = "listing_id")
+  private Long listingId;
+
+  @Id
+  @Column(name = "price", precision = 15, scale = 2)
+  private BigDecimal price;
+
+  @Column(name = "created_at", nullable = false)
+  private LocalDateTime createdAt;
+
+  @Data
+  @NoArgsConstructor @AllArgsConstructor
+  public static class Key implements Serializable {
+    private Long buyerId;
+    private Long listingId;
+    private BigDecimal price;
+  }
+}
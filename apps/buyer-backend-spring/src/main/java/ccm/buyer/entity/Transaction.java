@@ -1,10 +1,12 @@
 package ccm.buyer.entity;
 
 import ccm.buyer.enums.TrStatus;
+import ccm.common.id.PooledId;
 import jakarta.persistence.*;
 import lombok.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Entity
 @Table(name = "transactions")
@@ -12,7 +14,7 @@ import java.time.LocalDateTime;
 @NoArgsConstructor @AllArgsConstructor @Builder
 public class Transaction {
     @Id 
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     private Long id;
 
     @Column(name = "transaction_code", unique = true)
@@ -24,6 +26,10 @@ public class Transaction {
     @Column(name = "listing_id", nullable = false)
     private Long listingId;
 
+    // Người bán của listing tại thời điểm mua, để báo cáo doanh thu theo seller không phải join listings
+    @Column(name = "seller_id")
+    private Long sellerId;
+
     @Column(name = "quantity", nullable = false)
     private BigDecimal qty;
 
@@ -50,7 +56,9 @@ public class Transaction {
         
         // Tự sinh mã giao dịch nếu chưa có (để tránh lỗi null transaction_code nếu có unique constraint)
         if(transactionCode == null) {
-            transactionCode = "TRX-" + System.currentTimeMillis(); 
+            // Hậu tố UUID: bulk/cart ghi hàng trăm giao dịch trong cùng 1 ms, id pooled chưa có ở @PrePersist
+            transactionCode = "TRX-" + System.currentTimeMillis() + "-"
+                    + UUID.randomUUID().toString().replace("-", "");
         }
     }
 
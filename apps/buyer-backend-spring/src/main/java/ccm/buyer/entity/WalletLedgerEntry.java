@@ -0,0 +1,45 @@
+package ccm.buyer.entity;
+
+import ccm.buyer.enums.WalletEntryType;
+import ccm.common.id.PooledId;
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "wallet_ledger", indexes = {
+    @Index(name = "idx_wallet_ledger_user_created", columnList = "user_id, created_at"),
+    @Index(name = "idx_wallet_ledger_pending", columnList = "compacted, user_id")
+})
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor @Builder
+public class WalletLedgerEntry {
+  @Id @PooledId
+  private Long id;
+
+  @Column(name = "user_id", nullable = false, updatable = false)
+  private Long userId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "entry_type", nullable = false, updatable = false, length = 32)
+  private WalletEntryType type;
+
+  // Có dấu: cộng > 0, trừ < 0
+  @Column(nullable = false, updatable = false, precision = 15, scale = 2)
+  private BigDecimal amount;
+
+  // Giao dịch / payout gây ra bút toán
+  @Column(name = "reference_id", updatable = false)
+  private Long referenceId;
+
+  // true = số tiền đã nằm trong e_wallets.balance: khoản trừ ngay khi ghi, khoản cộng khi được gộp.
+  // Cột duy nhất được sửa, và chỉ trong cùng transaction cộng khoản đó vào balance
+  @Column(nullable = false)
+  private boolean compacted;
+
+  @Column(name = "created_at", nullable = false, updatable = false)
+  private LocalDateTime createdAt;
+
+  @PrePersist void onCreate(){ if(createdAt==null) createdAt = LocalDateTime.now(); }
+}
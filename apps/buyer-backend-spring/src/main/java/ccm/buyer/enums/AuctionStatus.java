@@ -0,0 +1,3 @@
+package ccm.buyer.enums;
+// CLOSED: đã hết giờ và đã chốt (người thắng -> transaction PENDING)
+public enum AuctionStatus { OPEN, CLOSED }
@@ -1,2 +1,3 @@
 package ccm.buyer.enums;
-public enum BidStatus { OPEN, WON, LOST, CANCELLED }
+// LEADING/OUTBID: trạng thái trong lúc đấu giá (khớp dữ liệu bảng bids); WON/LOST khi kết thúc
+public enum BidStatus { OPEN, LEADING, OUTBID, WON, LOST, CANCELLED }
@@ -0,0 +1,3 @@
+package ccm.buyer.enums;
+// Tác vụ phụ sau khi mua: chạy ngoài transaction mua, sau commit
+public enum OutboxEventType { INVOICE_ISSUE, BUYER_NOTIFY, OWNER_SALE }
@@ -0,0 +1,3 @@
+package ccm.buyer.enums;
+// FAILED: hết số lần thử, cần xử lý tay
+public enum OutboxStatus { PENDING, DONE, FAILED }
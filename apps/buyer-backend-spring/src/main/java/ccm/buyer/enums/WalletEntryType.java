@@ -0,0 +1,3 @@
+package ccm.buyer.enums;
+// Loại bút toán ví (bảng wallet_ledger dùng chung với owner service)
+public enum WalletEntryType { OPENING, SALE, PURCHASE, CVA_CREDIT, WITHDRAWAL }
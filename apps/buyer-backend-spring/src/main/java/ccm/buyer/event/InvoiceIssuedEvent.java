@@ -0,0 +1,6 @@
+package ccm.buyer.event;
+
+/**
+ * Hóa đơn vừa được ghi; file PDF được render sau khi transaction commit.
+ */
+public record InvoiceIssuedEvent(Long invoiceId) {}
@@ -0,0 +1,13 @@
+package ccm.buyer.event;
+
+import ccm.buyer.enums.ListingStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Phát ra khi số lượng hoặc trạng thái của một listing thay đổi.
+ * Listener chạy sau khi transaction commit (catalog cache, ...).
+ * updatedAt là giá trị listings.updated_at mà thay đổi này ghi: sổ lệnh dùng nó để bỏ qua dòng cũ hơn.
+ */
+public record ListingChangedEvent(Long listingId, BigDecimal qty, ListingStatus status, LocalDateTime updatedAt) {}
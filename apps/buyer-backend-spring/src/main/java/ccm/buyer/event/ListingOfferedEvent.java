@@ -0,0 +1,10 @@
+package ccm.buyer.event;
+
+import ccm.buyer.enums.ListingType;
+
+import java.math.BigDecimal;
+
+/**
+ * Phát ra khi một listing vừa vào sổ lệnh (được duyệt) hoặc đổi giá, tức là lúc có thể khớp cảnh báo giá.
+ */
+public record ListingOfferedEvent(Long listingId, ListingType type, BigDecimal price, BigDecimal qty) {}
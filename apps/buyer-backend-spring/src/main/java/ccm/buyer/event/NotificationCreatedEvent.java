@@ -0,0 +1,9 @@
+package ccm.buyer.event;
+
+import ccm.buyer.dto.response.NotificationResponse;
+
+/**
+ * Phát ra khi lưu một thông báo mới.
+ * Listener chạy sau khi transaction commit (đẩy SSE cho buyer đang kết nối).
+ */
+public record NotificationCreatedEvent(NotificationResponse notification) {}
@@ -0,0 +1,7 @@
+package ccm.buyer.event;
+
+/**
+ * Phát ra khi ghi một dòng outbox trong transaction nghiệp vụ.
+ * Listener chạy sau khi transaction commit (giao cho worker xử lý ngay, không chờ lượt quét).
+ */
+public record OutboxEnqueuedEvent(Long outboxId) {}
@@ -1,6 +1,44 @@
 package ccm.buyer.repository;
 
 import ccm.buyer.entity.Auction;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface AuctionRepository extends JpaRepository<Auction, Long> {}
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface AuctionRepository extends JpaRepository<Auction, Long> {
+
+  interface Deadline {
+    Long getId();
+    LocalDateTime getEndTime();
+  }
+
+  // Nạp lịch đóng phiên lúc khởi động (idx_auctions_status_end), chỉ lấy id + end_time
+  @Query("SELECT a.id AS id, a.endTime AS endTime FROM Auction a " +
+         "WHERE a.status = ccm.buyer.enums.AuctionStatus.OPEN ORDER BY a.endTime")
+  List<Deadline> findOpenDeadlines();
+
+  @Query("SELECT a.id AS id, a.endTime AS endTime FROM Auction a " +
+         "WHERE a.id IN :ids AND a.status = ccm.buyer.enums.AuctionStatus.OPEN")
+  List<Deadline> findOpenDeadlines(@Param("ids") Collection<Long> ids);
+
+  // Phiên đến hạn chốt trong lô; kiểm tra lại status/end_time trên DB phòng lịch cũ.
+  // Khóa dòng (theo id tăng dần): instance khác / tick lặp lại cùng chốt một phiên phải chờ, rồi đọc lại
+  // thấy CLOSED nên bỏ qua thay vì tạo transaction + addSale lần hai
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT a FROM Auction a JOIN FETCH a.listing " +
+         "WHERE a.id IN :ids AND a.status = ccm.buyer.enums.AuctionStatus.OPEN AND a.endTime <= :now " +
+         "ORDER BY a.id")
+  List<Auction> findDue(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+  // Chống bid phút chót: chỉ kéo dài, không bao giờ rút ngắn
+  @Modifying
+  @Query("UPDATE Auction a SET a.endTime = :endTime WHERE a.id = :id AND a.endTime < :endTime")
+  int extendEndTime(@Param("id") Long id, @Param("endTime") LocalDateTime endTime);
+}
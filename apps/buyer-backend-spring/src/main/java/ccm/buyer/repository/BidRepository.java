@@ -1,6 +1,34 @@
 package ccm.buyer.repository;
 
 import ccm.buyer.entity.Bid;
+import ccm.buyer.enums.BidStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface BidRepository extends JpaRepository<Bid, Long> {}
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface BidRepository extends JpaRepository<Bid, Long> {
+
+  // Giá cao nhất hiện tại (idx_bids_auction_price); dùng khi nạp phiên vào bộ nhớ
+  Optional<Bid> findTopByAuction_IdOrderByAmountDescIdDesc(Long auctionId);
+
+  long countByAuction_Id(Long auctionId);
+
+  // Các lượt đang dẫn đầu trước đó của phiên -> OUTBID (chỉ lượt leaderId giữ LEADING)
+  @Modifying
+  @Query("UPDATE Bid b SET b.status = ccm.buyer.enums.BidStatus.OUTBID " +
+         "WHERE b.auction.id = :auctionId AND b.status = ccm.buyer.enums.BidStatus.LEADING AND b.id <> :leaderId")
+  int markOutbid(@Param("auctionId") Long auctionId, @Param("leaderId") Long leaderId);
+
+  // Người thắng của các phiên đang chốt: mỗi phiên còn đúng một bid LEADING
+  List<Bid> findByAuction_IdInAndStatus(Collection<Long> auctionIds, BidStatus status);
+
+  @Modifying
+  @Query("UPDATE Bid b SET b.status = ccm.buyer.enums.BidStatus.LOST " +
+         "WHERE b.auction.id IN :auctionIds AND b.status IN (ccm.buyer.enums.BidStatus.LEADING, ccm.buyer.enums.BidStatus.OUTBID)")
+  int markLost(@Param("auctionIds") Collection<Long> auctionIds);
+}
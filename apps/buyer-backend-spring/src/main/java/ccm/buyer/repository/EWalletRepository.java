@@ -1,9 +1,50 @@
 package ccm.buyer.repository;
 
 import ccm.buyer.entity.EWallet;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface EWalletRepository extends JpaRepository<EWallet, Long> {
     Optional<EWallet> findByUserId(Long userId);
+
+    boolean existsByUserId(Long userId);
+
+    @Query("SELECT w.userId FROM EWallet w WHERE w.userId IN :userIds")
+    List<Long> findExistingUserIds(@Param("userIds") Collection<Long> userIds);
+
+    // Số dư thật = snapshot + các khoản cộng trong ledger chưa gộp. null = ví không tồn tại
+    @Query("SELECT w.balance + COALESCE((SELECT SUM(l.amount) FROM WalletLedgerEntry l " +
+           "WHERE l.userId = w.userId AND l.compacted = false), 0) " +
+           "FROM EWallet w WHERE w.userId = :userId")
+    BigDecimal balanceOf(@Param("userId") Long userId);
+
+    // Trừ tiền nguyên tử vào snapshot, chỉ khi snapshot + khoản cộng chưa gộp đủ. 0 dòng = không đủ tiền
+    // hoặc ví không tồn tại. Snapshot có thể âm tạm thời, lần gộp sau bù lại.
+    // Không auto-flush (như ListingRepository.decrementQty): ví chỉ được sửa qua các câu UPDATE này
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query("UPDATE EWallet w SET w.balance = w.balance - :amount, w.updatedAt = :now " +
+           "WHERE w.userId = :userId AND w.balance + COALESCE((SELECT SUM(l.amount) FROM WalletLedgerEntry l " +
+           "WHERE l.userId = :userId AND l.compacted = false), 0) >= :amount")
+    int debit(@Param("userId") Long userId, @Param("amount") BigDecimal amount, @Param("now") LocalDateTime now);
+
+    // Bước đầu của một lượt gộp: khóa dòng ví (xếp hàng với debit và lượt gộp khác). 0 = ví không tồn tại
+    @Modifying
+    @Query("UPDATE EWallet w SET w.snapshotAt = :now WHERE w.userId = :userId")
+    int lockForCompaction(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE EWallet w SET w.balance = w.balance + :amount WHERE w.userId = :userId")
+    int addToSnapshot(@Param("userId") Long userId, @Param("amount") BigDecimal amount);
 }
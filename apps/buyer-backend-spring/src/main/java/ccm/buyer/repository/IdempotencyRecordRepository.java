@@ -0,0 +1,21 @@
+package ccm.buyer.repository;
+
+import ccm.buyer.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+  // Tra theo uk_idem_buyer_scope_key
+  Optional<IdempotencyRecord> findByBuyerIdAndScopeAndKey(Long buyerId, String scope, String key);
+
+  // Dọn key hết hạn trên idx_idem_created
+  @Modifying
+  @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :cutoff")
+  int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,10 +1,33 @@
 package ccm.buyer.repository;
 
+import ccm.buyer.dto.response.InvoiceResponse;
 import ccm.buyer.entity.Invoice;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
 public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
-    
+
+    // transaction_id là UNIQUE: mỗi giao dịch tối đa một hóa đơn
+    Optional<Invoice> findByTrId(Long trId);
+
+    // Keyset (issueDate, id) giảm dần trên idx_invoices_buyer_issue; amount lấy theo khóa chính transactions
+    @Query("""
+        SELECT new ccm.buyer.dto.response.InvoiceResponse(i.id, i.trId, i.issueDate, i.filePath, t.amount)
+        FROM Invoice i JOIN Transaction t ON t.id = i.trId
+        WHERE i.buyerId = :buyerId
+          AND (:afterIssueDate IS NULL
+               OR i.issueDate < :afterIssueDate
+               OR (i.issueDate = :afterIssueDate AND i.id < :afterId))
+        ORDER BY i.issueDate DESC, i.id DESC
+        """)
+    List<InvoiceResponse> findPage(@Param("buyerId") Long buyerId,
+                                   @Param("afterIssueDate") LocalDateTime afterIssueDate,
+                                   @Param("afterId") Long afterId,
+                                   Limit limit);
 }
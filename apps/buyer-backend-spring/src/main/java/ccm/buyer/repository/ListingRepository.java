@@ -1,11 +1,82 @@
 package ccm.buyer.repository;
 
+import ccm.buyer.dto.response.ListingResponse;
 import ccm.buyer.entity.Listing;
 import ccm.buyer.enums.ListingStatus;
+import ccm.buyer.enums.ListingType;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 public interface ListingRepository extends JpaRepository<Listing, Long> {
     List<Listing> findByStatusOrderByPricePerUnitAsc(ListingStatus status);
+
+    // Order book delta sync (idx_listings_updated_at)
+    List<Listing> findByUpdatedAtGreaterThanEqual(LocalDateTime since);
+
+    // Trừ kho nguyên tử: chỉ thành công khi listing còn mở và đủ hàng (0 dòng = hết hàng/đã bị mua).
+    // status được gán trước qty nên CASE luôn so với số lượng cũ (MySQL gán SET theo thứ tự).
+    // Không auto-flush: câu lệnh chỉ đụng cột listings do chính nó cập nhật, nên các INSERT đang chờ
+    // (transaction, payment, invoice...) được gom batch thay vì dirty-check cả persistence context mỗi lần.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query("""
+        UPDATE Listing l
+        SET l.status = CASE WHEN l.qty = :qty THEN ccm.buyer.enums.ListingStatus.SOLD
+                            ELSE ccm.buyer.enums.ListingStatus.APPROVED END,
+            l.qty = l.qty - :qty,
+            l.updatedAt = :now
+        WHERE l.id = :id
+          AND l.status IN (ccm.buyer.enums.ListingStatus.APPROVED, ccm.buyer.enums.ListingStatus.OPEN)
+          AND l.qty >= :qty
+        """)
+    int decrementQty(@Param("id") Long id, @Param("qty") BigDecimal qty, @Param("now") LocalDateTime now);
+
+    // Giỏ hàng: khóa mọi listing trong giỏ bằng một câu, theo id tăng dần. Mọi giỏ khóa cùng một thứ tự
+    // (lượt mua lẻ chỉ khóa một dòng) nên không thể chờ vòng tròn.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM Listing l WHERE l.id IN :ids ORDER BY l.id")
+    List<Listing> lockAllByIdOrderById(@Param("ids") Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query("SELECT l.qty FROM Listing l WHERE l.id = :id")
+    BigDecimal findQtyById(@Param("id") Long id);
+
+    @Query("SELECT MAX(l.updatedAt) FROM Listing l")
+    LocalDateTime findMaxUpdatedAt();
+
+    // Catalog: projection + keyset (price, id) trên idx_listings_status_price / idx_listings_status_type_price
+    @Query("""
+        SELECT new ccm.buyer.dto.response.ListingResponse(
+            l.id, l.sellerId, l.type, l.qty, l.pricePerUnit, l.status)
+        FROM Listing l
+        WHERE l.status IN :statuses
+          AND l.qty > 0
+          AND (:type IS NULL OR l.type = :type)
+          AND (:minPrice IS NULL OR l.pricePerUnit >= :minPrice)
+          AND (:maxPrice IS NULL OR l.pricePerUnit <= :maxPrice)
+          AND (:afterPrice IS NULL
+               OR l.pricePerUnit > :afterPrice
+               OR (l.pricePerUnit = :afterPrice AND l.id > :afterId))
+        ORDER BY l.pricePerUnit ASC, l.id ASC
+        """)
+    List<ListingResponse> findCatalogPage(@Param("statuses") Collection<ListingStatus> statuses,
+                                          @Param("type") ListingType type,
+                                          @Param("minPrice") BigDecimal minPrice,
+                                          @Param("maxPrice") BigDecimal maxPrice,
+                                          @Param("afterPrice") BigDecimal afterPrice,
+                                          @Param("afterId") Long afterId,
+                                          Limit limit);
 }
@@ -1,6 +1,45 @@
 package ccm.buyer.repository;
 
+import ccm.buyer.dto.response.NotificationResponse;
 import ccm.buyer.entity.Notification;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface NotificationRepository extends JpaRepository<Notification, Long> {}
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface NotificationRepository extends JpaRepository<Notification, Long> {
+
+    // Keyset (createdAt, id) giảm dần trên idx_notifications_user_created: chi phí theo kích thước trang
+    @Query("""
+        SELECT new ccm.buyer.dto.response.NotificationResponse(
+            n.id, n.buyerId, n.message, n.createdAt, n.readAt)
+        FROM Notification n
+        WHERE n.buyerId = :buyerId
+          AND (:unreadOnly = false OR n.readAt IS NULL)
+          AND (:afterCreatedAt IS NULL
+               OR n.createdAt < :afterCreatedAt
+               OR (n.createdAt = :afterCreatedAt AND n.id < :afterId))
+        ORDER BY n.createdAt DESC, n.id DESC
+        """)
+    List<NotificationResponse> findPage(@Param("buyerId") Long buyerId,
+                                        @Param("unreadOnly") boolean unreadOnly,
+                                        @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                        @Param("afterId") Long afterId,
+                                        Limit limit);
+
+    // idx_notifications_user_unread
+    long countByBuyerIdAndReadAtIsNull(Long buyerId);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.readAt = :now WHERE n.buyerId = :buyerId AND n.readAt IS NULL AND n.id IN :ids")
+    int markRead(@Param("buyerId") Long buyerId, @Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.readAt = :now WHERE n.buyerId = :buyerId AND n.readAt IS NULL")
+    int markAllRead(@Param("buyerId") Long buyerId, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,28 @@
+package ccm.buyer.repository;
+
+import ccm.buyer.entity.OutboxEvent;
+import ccm.buyer.enums.OutboxStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+  // Nhận xử lý: khóa dòng tới khi transaction xử lý commit; 0 dòng = đã có worker khác làm xong
+  @Modifying
+  @Query("UPDATE OutboxEvent e SET e.status = ccm.buyer.enums.OutboxStatus.DONE, e.processedAt = :now " +
+         "WHERE e.id = :id AND e.status = ccm.buyer.enums.OutboxStatus.PENDING")
+  int markDone(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+  // Quét bù (sau restart, hàng đợi đầy, retry) trên idx_outbox_status_next
+  @Query("SELECT e.id FROM OutboxEvent e " +
+         "WHERE e.status = ccm.buyer.enums.OutboxStatus.PENDING AND e.nextAttemptAt <= :now ORDER BY e.id")
+  List<Long> findDueIds(@Param("now") LocalDateTime now, Limit limit);
+
+  long countByStatus(OutboxStatus status);
+}
@@ -0,0 +1,44 @@
+package ccm.buyer.repository;
+
+import ccm.buyer.entity.OwnerWalletSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface OwnerWalletSummaryRepository extends JpaRepository<OwnerWalletSummary, Long> {
+
+  interface Sale {
+    Long getSellerId();
+    BigDecimal getQty();
+    BigDecimal getAmount();
+  }
+
+  @Query("SELECT l.sellerId AS sellerId, t.qty AS qty, t.amount AS amount " +
+         "FROM Transaction t, Listing l WHERE l.id = t.listingId AND t.id = :transactionId")
+  Optional<Sale> findSale(@Param("transactionId") Long transactionId);
+
+  // Một lượt bán: tín chỉ rời phần đang rao (locked) sang đã bán, cộng tiền thu được.
+  // Một câu upsert: chưa có dòng thì tạo, nhiều worker cùng người bán không mất cập nhật
+  @Modifying
+  @Query(value = """
+      INSERT INTO owner_wallet_summaries (user_id, credits_generated, locked_credits, sold_credits,
+                                          total_earnings, total_withdrawals, pending_withdrawals, updated_at)
+      VALUES (:sellerId, 0, -:qty, :qty, :amount, 0, 0, :now)
+      ON DUPLICATE KEY UPDATE
+          locked_credits = locked_credits - :qty,
+          sold_credits = sold_credits + :qty,
+          total_earnings = total_earnings + :amount,
+          updated_at = :now
+      """, nativeQuery = true)
+  int addSale(@Param("sellerId") Long sellerId, @Param("qty") BigDecimal qty,
+              @Param("amount") BigDecimal amount, @Param("now") LocalDateTime now);
+
+  default void recordSale(Long transactionId, LocalDateTime now) {
+    findSale(transactionId).ifPresent(s -> addSale(s.getSellerId(), s.getQty(), s.getAmount(), now));
+  }
+}
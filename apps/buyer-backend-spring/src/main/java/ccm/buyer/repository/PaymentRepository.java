@@ -4,5 +4,4 @@ import ccm.buyer.entity.Payment;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
-    boolean existsByRef(String ref);
 }
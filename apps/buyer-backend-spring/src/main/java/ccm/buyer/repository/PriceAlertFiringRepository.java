@@ -0,0 +1,27 @@
+package ccm.buyer.repository;
+
+import ccm.buyer.entity.PriceAlertFiring;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public interface PriceAlertFiringRepository extends JpaRepository<PriceAlertFiring, PriceAlertFiring.Key> {
+
+  // 1 = instance này giành được lượt báo; 0 = instance khác đã báo (hoặc đang báo) cho buyer này
+  @Modifying
+  @Query(value = """
+      INSERT IGNORE INTO price_alert_firings (buyer_id, listing_id, price, created_at)
+      VALUES (:buyerId, :listingId, :price, :now)
+      """, nativeQuery = true)
+  int claim(@Param("buyerId") Long buyerId, @Param("listingId") Long listingId,
+            @Param("price") BigDecimal price, @Param("now") LocalDateTime now);
+
+  // Dọn trên idx_price_alert_firings_created
+  @Modifying
+  @Query("DELETE FROM PriceAlertFiring f WHERE f.createdAt < :cutoff")
+  int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
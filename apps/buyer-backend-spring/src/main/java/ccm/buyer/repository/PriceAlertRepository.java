@@ -0,0 +1,14 @@
+package ccm.buyer.repository;
+
+import ccm.buyer.entity.PriceAlert;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface PriceAlertRepository extends JpaRepository<PriceAlert, Long> {
+
+  // idx_price_alerts_buyer
+  List<PriceAlert> findByBuyerIdOrderByIdDesc(Long buyerId);
+
+  long countByBuyerId(Long buyerId);
+}
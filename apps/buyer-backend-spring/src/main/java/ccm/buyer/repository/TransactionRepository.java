@@ -2,12 +2,15 @@ package ccm.buyer.repository;
 
 import ccm.buyer.entity.Transaction;
 import ccm.buyer.enums.TrStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page; // Thêm import
 import org.springframework.data.domain.Pageable; // Thêm import
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query; // Thêm import
 import org.springframework.data.repository.query.Param; // Thêm import
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
@@ -18,11 +21,38 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     // Phân trang (Thay thế list orders)
     Page<Transaction> findByBuyerId(Long buyerId, Pageable pageable);
     
-    // Đếm theo trạng thái để làm Dashboard
-    long countByBuyerIdAndStatus(Long buyerId, TrStatus status);
-    long countByBuyerId(Long buyerId);
-    
-    // Tính tổng tiền đã chi tiêu (Thay thế totalSpent trong dashboard)
-    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.buyerId = :buyerId AND t.status = 'COMPLETED'")
-    java.math.BigDecimal sumAmountByBuyerId(@Param("buyerId") Long buyerId);
+    // Keyset (createdAt, id) giảm dần trên idx_tx_buyer_created: chi phí theo kích thước trang
+    @Query("""
+        SELECT t FROM Transaction t
+        WHERE t.buyerId = :buyerId
+          AND (:status IS NULL OR t.status = :status)
+          AND (:from IS NULL OR t.createdAt >= :from)
+          AND (:to IS NULL OR t.createdAt < :to)
+          AND (:afterCreatedAt IS NULL
+               OR t.createdAt < :afterCreatedAt
+               OR (t.createdAt = :afterCreatedAt AND t.id < :afterId))
+        ORDER BY t.createdAt DESC, t.id DESC
+        """)
+    List<Transaction> findHistory(@Param("buyerId") Long buyerId,
+                                  @Param("status") TrStatus status,
+                                  @Param("from") LocalDateTime from,
+                                  @Param("to") LocalDateTime to,
+                                  @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                  @Param("afterId") Long afterId,
+                                  Limit limit);
+
+    // Dashboard: một câu GROUP BY, đọc hết từ idx_tx_buyer_status_amount (không chạm dòng dữ liệu)
+    @Query("""
+        SELECT t.status AS status, COUNT(t) AS count, COALESCE(SUM(t.amount), 0) AS amount
+        FROM Transaction t
+        WHERE t.buyerId = :buyerId
+        GROUP BY t.status
+        """)
+    List<StatusTotal> sumByStatus(@Param("buyerId") Long buyerId);
+
+    interface StatusTotal {
+        TrStatus getStatus();
+        long getCount();
+        BigDecimal getAmount();
+    }
 }
\ No newline at end of file
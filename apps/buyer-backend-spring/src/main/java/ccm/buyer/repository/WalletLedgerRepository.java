@@ -0,0 +1,25 @@
+package ccm.buyer.repository;
+
+import ccm.buyer.entity.WalletLedgerEntry;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface WalletLedgerRepository extends JpaRepository<WalletLedgerEntry, Long> {
+
+  // Ví còn khoản cộng chưa gộp, theo trang user_id (idx_wallet_ledger_pending)
+  @Query("SELECT DISTINCT l.userId FROM WalletLedgerEntry l " +
+         "WHERE l.compacted = false AND l.userId > :afterUserId ORDER BY l.userId")
+  List<Long> findUserIdsWithPendingCredits(@Param("afterUserId") Long afterUserId, Limit limit);
+
+  List<WalletLedgerEntry> findByUserIdAndCompactedFalseOrderByIdAsc(Long userId, Limit limit);
+
+  @Modifying
+  @Query("UPDATE WalletLedgerEntry l SET l.compacted = true WHERE l.id IN :ids AND l.compacted = false")
+  int markCompacted(@Param("ids") Collection<Long> ids);
+}
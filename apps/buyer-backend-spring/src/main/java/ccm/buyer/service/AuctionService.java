@@ -2,8 +2,14 @@ package ccm.buyer.service;
 
 import java.math.BigDecimal;
 
-import ccm.buyer.entity.Bid;
+import ccm.buyer.dto.response.AuctionStateResponse;
+import ccm.buyer.dto.response.BidResponse;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 public interface AuctionService {
-    Bid placeBid(Long buyerId, Long auctionId, BigDecimal amount);
+    BidResponse placeBid(Long buyerId, Long auctionId, BigDecimal amount);
+
+    AuctionStateResponse getState(Long auctionId);
+
+    SseEmitter subscribe(Long auctionId, Long buyerId);
 }
@@ -1,9 +1,16 @@
 package ccm.buyer.service;
 
+import ccm.buyer.dto.request.InvoicePageQuery;
+import ccm.buyer.dto.response.InvoicePageResponse;
 import ccm.buyer.entity.Invoice;
-import java.util.List;
+
+import java.nio.file.Path;
 
 public interface InvoiceService {
     Invoice issueInvoice(Long trId);
-    List<Invoice> listInvoicesByBuyer(Long buyerId);
+
+    InvoicePageResponse listInvoices(InvoicePageQuery query);
+
+    // File PDF đã render của hóa đơn thuộc buyer (render ngay nếu chưa có)
+    Path invoiceFile(Long buyerId, Long invoiceId);
 }
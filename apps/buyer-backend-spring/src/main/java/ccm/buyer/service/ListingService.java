@@ -1,13 +1,19 @@
 package ccm.buyer.service;
 
+import ccm.buyer.dto.request.ListingCatalogQuery;
+import ccm.buyer.dto.response.ListingHoldResponse;
+import ccm.buyer.dto.response.ListingPageResponse;
 import ccm.buyer.entity.Listing;
 
 import java.math.BigDecimal;
-import java.util.List;
 
 public interface ListingService {
-    List<Listing> getAll();
+    ListingPageResponse search(ListingCatalogQuery query);
     Listing validateOpen(Long id);
-    void reserve(Long id, BigDecimal qty);
-    void release(Long id, BigDecimal qty);
+    ListingHoldResponse reserve(Long id, Long buyerId, BigDecimal qty);
+    void release(Long holdId, Long buyerId);
+    BigDecimal available(Long id);
+    // Gọi khi transaction mua đang khóa dòng listing; remaining = qty còn lại sau lượt mua.
+    // false: phần còn lại không đủ cho hold của người khác
+    boolean claimReserved(Long id, Long buyerId, BigDecimal qty, Long holdId, BigDecimal remaining);
 }
@@ -1,9 +1,16 @@
 package ccm.buyer.service;
 
-import ccm.buyer.entity.Notification;
+import ccm.buyer.dto.request.NotificationPageQuery;
+import ccm.buyer.dto.response.NotificationPageResponse;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
 import java.util.List;
 
 public interface NotificationService {
     void notifyBuyer(Long buyerId, String message);
-    List<Notification> listNotifications(Long buyerId);
+    NotificationPageResponse listNotifications(NotificationPageQuery query);
+    long countUnread(Long buyerId);
+    // ids rỗng/null: đánh dấu tất cả
+    int markRead(Long buyerId, List<Long> ids);
+    SseEmitter subscribe(Long buyerId);
 }
@@ -0,0 +1,25 @@
+package ccm.buyer.service;
+
+import ccm.buyer.dto.response.MarketDepthResponse;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Sổ lệnh bán trong bộ nhớ (listing APPROVED còn hàng), sắp theo giá rồi thời gian.
+ */
+public interface OrderBookService {
+
+  /** Một phần khớp: mua {@code qty} từ listing {@code listingId} */
+  record Fill(Long listingId, BigDecimal qty) {}
+
+  /**
+   * Duyệt các mức giá từ rẻ nhất cho tới khi đủ {@code totalQty}.
+   * @throws IllegalArgumentException nếu tổng cung không đủ
+   */
+  List<Fill> plan(BigDecimal totalQty);
+
+  MarketDepthResponse depth(int levels);
+
+  void rebuild();
+}
@@ -0,0 +1,17 @@
+package ccm.buyer.service;
+
+import ccm.buyer.dto.request.CreatePriceAlertRequest;
+import ccm.buyer.dto.response.PriceAlertResponse;
+
+import java.util.List;
+
+/**
+ * Cảnh báo giá: buyer được báo qua NotificationService khi có listing đủ rẻ, đủ số lượng được duyệt/đổi giá.
+ */
+public interface PriceAlertService {
+  PriceAlertResponse create(CreatePriceAlertRequest req);
+
+  List<PriceAlertResponse> list(Long buyerId);
+
+  void delete(Long buyerId, Long alertId);
+}
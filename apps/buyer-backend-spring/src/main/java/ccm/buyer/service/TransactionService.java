@@ -1,16 +1,25 @@
 package ccm.buyer.service;
 
+import ccm.buyer.dto.request.CartCheckoutRequest;
 import ccm.buyer.dto.request.CreateTransactionRequest;
+import ccm.buyer.dto.request.TransactionHistoryQuery;
+import ccm.buyer.dto.response.CartCheckoutResponse;
+import ccm.buyer.dto.response.TransactionPageResponse;
 import ccm.buyer.dto.response.TransactionResponse;
 import ccm.buyer.enums.TrStatus;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface TransactionService {
-  List<TransactionResponse> list(Long buyerId);
+  TransactionPageResponse history(TransactionHistoryQuery query);
+  // Toàn bộ lịch sử khớp bộ lọc (bỏ qua limit; có cursor thì tiếp tục từ đó), giao từng lô cho sink
+  void exportHistory(TransactionHistoryQuery query, Consumer<List<TransactionResponse>> sink);
   TransactionResponse create(CreateTransactionRequest req);
   TransactionResponse updateStatus(Long id, TrStatus status);
   TransactionResponse buyListing(Long buyerId, Long listingId, BigDecimal qtyRequested) ;
  List<TransactionResponse> createBulk(Long buyerId, BigDecimal totalQty);
+  // Mua nhiều listing trong một transaction; dòng không mua được được trả lỗi riêng, không làm hỏng cả giỏ
+  CartCheckoutResponse checkoutCart(CartCheckoutRequest req);
 }
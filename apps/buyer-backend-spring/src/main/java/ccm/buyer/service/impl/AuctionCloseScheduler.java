@@ -0,0 +1,99 @@
+package ccm.buyer.service.impl;
+
+import ccm.buyer.repository.AuctionRepository;
+import ccm.common.time.TimingWheel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Lịch đóng phiên đấu giá trên timing wheel (ccm.common.time.TimingWheel).
+ *
+ * - Khởi động: nạp id + end_time của các phiên OPEN một lần, sau đó không quét bảng auctions nữa.
+ * - Gia hạn (chống bid phút chót) và phiên mới nạp vào bộ nhớ gọi schedule(): ghi đè hạn cũ, O(1).
+ * - Một luồng "auction-close" quay bánh xe mỗi tick; các phiên đến hạn trong cùng tick (hoặc trong
+ *   lúc lô trước đang chốt) được giao cho listener thành một lô.
+ */
+@Slf4j
+@Component
+public class AuctionCloseScheduler implements DisposableBean {
+
+  private static final int WHEEL_SIZE = 64;
+
+  private final AuctionRepository auctionRepository;
+  private final TimingWheel<Long> wheel;
+  private final long tickMs;
+  private volatile Consumer<List<Long>> onDue = ids -> { };
+  private volatile Thread ticker;
+
+  public AuctionCloseScheduler(AuctionRepository auctionRepository,
+                               @Value("${app.auction.close-tick:PT0.1S}") Duration tick) {
+    this.auctionRepository = auctionRepository;
+    this.tickMs = tick.toMillis();
+    this.wheel = new TimingWheel<>(tick, WHEEL_SIZE, System.currentTimeMillis());
+  }
+
+  // Listener chạy trên luồng auction-close, tuần tự theo lô
+  public void onDue(Consumer<List<Long>> listener) {
+    this.onDue = listener;
+  }
+
+  public void schedule(Long auctionId, LocalDateTime endTime) {
+    wheel.schedule(auctionId, endTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+  }
+
+  public int pending() {
+    return wheel.size();
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public synchronized void start() {
+    if (ticker != null) {
+      return;
+    }
+    List<AuctionRepository.Deadline> open = auctionRepository.findOpenDeadlines();
+    open.forEach(d -> schedule(d.getId(), d.getEndTime()));
+    log.info("Auction close scheduler started: {} open auctions", open.size());
+    ticker = Thread.ofPlatform().name("auction-close").daemon().start(this::run);
+  }
+
+  private void run() {
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        Thread.sleep(tickMs);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+      List<Long> due = wheel.advance(System.currentTimeMillis());
+      if (due.isEmpty()) {
+        continue;
+      }
+      try {
+        onDue.accept(due);
+      } catch (RuntimeException e) {
+        // Không mất phiên: lên lịch lại để thử ở tick sau
+        log.error("Failed to close auctions {}", due, e);
+        long retryAt = System.currentTimeMillis() + Math.max(tickMs, 1000);
+        due.forEach(id -> wheel.schedule(id, retryAt));
+      }
+    }
+  }
+
+  @Override
+  public void destroy() {
+    Thread t = ticker;
+    if (t != null) {
+      t.interrupt();
+    }
+  }
+}
@@ -1,49 +1,327 @@
 package ccm.buyer.service.impl;
 
+import ccm.buyer.dto.response.AuctionStateResponse;
+import ccm.buyer.dto.response.BidResponse;
 import ccm.buyer.entity.Auction;
 import ccm.buyer.entity.Bid;
-
-import ccm.buyer.enums.BidStatus;
+import ccm.buyer.enums.AuctionStatus;
+import ccm.buyer.exception.NotFoundException;
 import ccm.buyer.repository.AuctionRepository;
 import ccm.buyer.repository.BidRepository;
-
 import ccm.buyer.service.AuctionService;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.time.LocalDateTime;
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Đấu giá thời gian thực.
+ *
+ * - Giá cao nhất của mỗi phiên đang diễn ra nằm trong bộ nhớ (nạp từ DB ở lần đặt giá đầu tiên).
+ * - Mỗi phiên có khóa riêng: kiểm tra thời gian, bước giá và giá hiện tại rồi xếp bid vào hàng đợi ghi
+ *   trong cùng khóa, nên các phiên khác nhau không chặn nhau và thứ tự trong một phiên là tuyệt đối.
+ * - BidBatchWriter ghi theo lô; người đặt giá nhận phản hồi sau khi bid đã commit.
+ * - Sau mỗi lô, AuctionStreamHub đẩy "leading"/"outbid"/"price" qua SSE.
+ * - Bid trong antiSnipeWindow cuối phiên đẩy giờ kết thúc ra now + antiSnipeWindow và lên lịch lại
+ *   AuctionCloseScheduler; đến hạn thì khóa phiên, chờ bid cuối ghi xong rồi AuctionSettler chốt theo lô.
+ */
 @Service
-@RequiredArgsConstructor
-
-@Transactional
-
 public class AuctionServiceImpl implements AuctionService {
 
   private final AuctionRepository auctionRepository;
   private final BidRepository bidRepository;
-  
+  private final BidBatchWriter writer;
+  private final AuctionStreamHub streamHub;
+  private final AuctionCloseScheduler closeScheduler;
+  private final AuctionSettler settler;
+  private final Duration antiSnipeWindow;
+  private final int settleBatchSize;
 
-  @Override
-  public Bid placeBid(Long auctionId, Long buyerId, BigDecimal amount) {
+  private final Map<Long, LiveAuction> live = new ConcurrentHashMap<>();
 
-    if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+  public AuctionServiceImpl(AuctionRepository auctionRepository,
+                            BidRepository bidRepository,
+                            BidBatchWriter writer,
+                            AuctionStreamHub streamHub,
+                            AuctionCloseScheduler closeScheduler,
+                            AuctionSettler settler,
+                            @Value("${app.auction.anti-snipe-window:PT30S}") Duration antiSnipeWindow,
+                            @Value("${app.auction.settle-batch-size:100}") int settleBatchSize) {
+    this.auctionRepository = auctionRepository;
+    this.bidRepository = bidRepository;
+    this.writer = writer;
+    this.streamHub = streamHub;
+    this.closeScheduler = closeScheduler;
+    this.settler = settler;
+    this.antiSnipeWindow = antiSnipeWindow;
+    this.settleBatchSize = settleBatchSize;
+    writer.onCommitted(this::onCommitted);
+    closeScheduler.onDue(this::closeDue);
+  }
+
+  @Override
+  public BidResponse placeBid(Long buyerId, Long auctionId, BigDecimal amount) {
+    if (buyerId == null) {
+      throw new IllegalArgumentException("buyerId is required");
+    }
+    if (amount == null || amount.signum() <= 0) {
       throw new IllegalArgumentException("Bid amount must be > 0");
     }
+    if (amount.stripTrailingZeros().scale() > 2) {
+      throw new IllegalArgumentException("Bid amount supports at most 2 decimal places");
+    }
+
+    LiveAuction auction = live(auctionId);
+    CompletableFuture<Bid> persisted;
+    auction.lock.lock();
+    try {
+      LocalDateTime now = LocalDateTime.now();
+      if (auction.closed) {
+        throw new IllegalStateException("Auction has ended");
+      }
+      if (now.isBefore(auction.startTime)) {
+        throw new IllegalStateException("Auction has not started yet");
+      }
+      if (!now.isBefore(auction.endTime)) {
+        throw new IllegalStateException("Auction has ended");
+      }
+      if (buyerId.equals(auction.leader)) {
+        throw new IllegalStateException("You are already the highest bidder");
+      }
+      BigDecimal minBid = auction.minNextBid();
+      if (amount.compareTo(minBid) < 0) {
+        throw new IllegalStateException("Bid must be at least " + minBid);
+      }
+
+      LocalDateTime extendTo = now.plus(antiSnipeWindow);
+      if (!extendTo.isAfter(auction.endTime)) {
+        extendTo = null;
+      }
+
+      // Xếp hàng ghi trước, chỉ cập nhật giá trong bộ nhớ khi hàng đợi đã nhận
+      persisted = writer.submit(auctionId, buyerId, amount, now, extendTo);
+      auction.best = amount;
+      auction.leader = buyerId;
+      auction.lastWrite = persisted;
+      if (extendTo != null) {
+        auction.endTime = extendTo;
+        closeScheduler.schedule(auctionId, extendTo);
+      }
+    } finally {
+      auction.lock.unlock();
+    }
+
+    try {
+      return map(persisted.join(), auctionId);
+    } catch (CompletionException e) {
+      // Lô ghi lỗi: bỏ trạng thái trong bộ nhớ, lần sau nạp lại từ DB
+      live.remove(auctionId, auction);
+      throw new IllegalStateException("Bid could not be recorded, please retry", e.getCause());
+    }
+  }
+
+  @Override
+  public AuctionStateResponse getState(Long auctionId) {
+    LiveAuction auction = live(auctionId);
+    auction.lock.lock();
+    try {
+      return auction.snapshot();
+    } finally {
+      auction.lock.unlock();
+    }
+  }
+
+  @Override
+  public SseEmitter subscribe(Long auctionId, Long buyerId) {
+    return streamHub.subscribe(auctionId, buyerId, getState(auctionId));
+  }
+
+  // Phiên đã kết thúc quá 1 phút thì không còn nhận bid: giải phóng bộ nhớ
+  @Scheduled(fixedDelayString = "${app.auction.evict-interval:PT1M}")
+  public void evictEnded() {
+    LocalDateTime cutoff = LocalDateTime.now().minusMinutes(1);
+    live.values().removeIf(a -> a.endTime.isBefore(cutoff));
+  }
+
+  private LiveAuction live(Long auctionId) {
+    LiveAuction auction = live.get(auctionId);
+    if (auction != null) {
+      return auction;
+    }
+    LiveAuction loaded = load(auctionId);
+    auction = live.putIfAbsent(auctionId, loaded);
+    return auction != null ? auction : loaded;
+  }
 
+  // Luồng auction-close: khóa từng phiên đến hạn, chờ các bid đã nhận trước giờ đóng được ghi,
+  // rồi chốt theo lô settleBatchSize phiên/transaction
+  private void closeDue(List<Long> auctionIds) {
+    LocalDateTime now = LocalDateTime.now();
+    List<Long> due = new ArrayList<>(auctionIds.size());
+    List<CompletableFuture<Bid>> writes = new ArrayList<>();
+    for (Long auctionId : auctionIds) {
+      LiveAuction auction = live.get(auctionId);
+      if (auction != null) {
+        auction.lock.lock();
+        try {
+          if (now.isBefore(auction.endTime)) {
+            // Đã được gia hạn sau khi bánh xe lấy ra
+            closeScheduler.schedule(auctionId, auction.endTime);
+            continue;
+          }
+          auction.closed = true;
+          if (auction.lastWrite != null) {
+            writes.add(auction.lastWrite);
+          }
+        } finally {
+          auction.lock.unlock();
+        }
+      }
+      due.add(auctionId);
+    }
+    for (CompletableFuture<Bid> write : writes) {
+      try {
+        write.join();
+      } catch (CompletionException ignored) {
+        // Bid ghi lỗi không có trên DB, không ảnh hưởng người thắng
+      }
+    }
+    for (int i = 0; i < due.size(); i += settleBatchSize) {
+      List<Long> batch = due.subList(i, Math.min(i + settleBatchSize, due.size()));
+      List<Long> settled = settler.settle(batch, now);
+      settled.forEach(live::remove);
+      if (settled.size() < batch.size()) {
+        // end_time trên DB muộn hơn hạn trong bộ nhớ (TIMESTAMP làm tròn giây): chốt lại theo DB,
+        // phiên vẫn closed trong bộ nhớ nên không nhận thêm bid
+        List<Long> pending = batch.stream().filter(id -> !settled.contains(id)).toList();
+        auctionRepository.findOpenDeadlines(pending)
+            .forEach(d -> closeScheduler.schedule(d.getId(), d.getEndTime()));
+      }
+    }
+  }
+
+  private LiveAuction load(Long auctionId) {
     Auction auction = auctionRepository.findById(auctionId)
-        .orElseThrow(() -> new RuntimeException("Auction not found"));
-    
-
-    Bid bid = Bid.builder()
-    .auction(auction)
-    .buyerId(buyerId) // Dùng thẳng ID truyền vào
-    .amount(amount) // Nhớ là bạn đã map cột này là 'bid_price' ở bước trước
-    .status(BidStatus.OPEN)
-    .build();
-    
-    return bidRepository.save(bid);
+        .orElseThrow(() -> new NotFoundException("Auction not found: " + auctionId));
+    Optional<Bid> top = bidRepository.findTopByAuction_IdOrderByAmountDescIdDesc(auctionId);
+    LiveAuction state = new LiveAuction(auctionId, auction.getStartPrice(), auction.getStepPrice(),
+        auction.getStartTime(), auction.getEndTime(), auction.getStatus() != AuctionStatus.OPEN);
+    top.ifPresent(bid -> {
+      state.best = bid.getAmount();
+      state.leader = bid.getBuyerId();
+      state.committedLeader = bid.getBuyerId();
+    });
+    state.committedBids = bidRepository.countByAuction_Id(auctionId);
+    if (!state.closed) {
+      // Phiên tạo sau khi khởi động (admin/owner) chưa có trong lịch đóng
+      closeScheduler.schedule(auctionId, state.endTime);
+    }
+    return state;
+  }
+
+  // Chạy trên luồng ghi (tuần tự): đẩy trạng thái đã commit, gộp theo phiên
+  private void onCommitted(List<Bid> bids) {
+    Map<Long, Set<Long>> outbid = new LinkedHashMap<>();
+    Map<Long, Bid> last = new LinkedHashMap<>();
+    for (Bid bid : bids) {
+      Long auctionId = bid.getAuction().getId();
+      LiveAuction auction = live.get(auctionId);
+      Set<Long> losers = outbid.computeIfAbsent(auctionId, id -> new HashSet<>());
+      Bid previous = last.put(auctionId, bid);
+      if (previous != null) {
+        losers.add(previous.getBuyerId());
+      } else if (auction != null && auction.committedLeader != null) {
+        losers.add(auction.committedLeader);
+      }
+    }
+    last.forEach((auctionId, leader) -> {
+      LiveAuction auction = live.get(auctionId);
+      if (auction == null) {
+        return;
+      }
+      long count = bids.stream().filter(b -> b.getAuction().getId().equals(auctionId)).count();
+      auction.committedBids += count;
+      auction.committedLeader = leader.getBuyerId();
+      Set<Long> losers = outbid.get(auctionId);
+      losers.remove(leader.getBuyerId());
+      streamHub.publish(AuctionStateResponse.builder()
+          .auctionId(auctionId)
+          .currentPrice(leader.getAmount())
+          .leaderBuyerId(leader.getBuyerId())
+          .minNextBid(leader.getAmount().add(auction.stepPrice))
+          .bidCount(auction.committedBids)
+          .endTime(auction.endTime)
+          .build(), losers);
+    });
+  }
+
+  private BidResponse map(Bid bid, Long auctionId) {
+    return BidResponse.builder()
+        .id(bid.getId())
+        .auctionId(auctionId)
+        .buyerId(bid.getBuyerId())
+        .amount(bid.getAmount())
+        .status(bid.getStatus())
+        .createdAt(bid.getCreatedAt())
+        .build();
+  }
+
+  private static final class LiveAuction {
+    private final Long id;
+    private final BigDecimal startPrice;
+    private final BigDecimal stepPrice;
+    private final LocalDateTime startTime;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Giữ khóa khi ghi; endTime còn được đọc không khóa (evict, SSE)
+    private volatile LocalDateTime endTime;
+    private BigDecimal best;
+    private Long leader;
+    private boolean closed;
+    private CompletableFuture<Bid> lastWrite;
+
+    // Chỉ luồng ghi cập nhật
+    private volatile long committedBids;
+    private volatile Long committedLeader;
+
+    private LiveAuction(Long id, BigDecimal startPrice, BigDecimal stepPrice,
+                        LocalDateTime startTime, LocalDateTime endTime, boolean closed) {
+      this.id = id;
+      this.startPrice = startPrice;
+      this.stepPrice = stepPrice;
+      this.startTime = startTime;
+      this.endTime = endTime;
+      this.closed = closed;
+    }
+
+    private BigDecimal minNextBid() {
+      return best == null ? startPrice : best.add(stepPrice);
+    }
+
+    private AuctionStateResponse snapshot() {
+      return AuctionStateResponse.builder()
+          .auctionId(id)
+          .currentPrice(best)
+          .leaderBuyerId(leader)
+          .minNextBid(minNextBid())
+          .bidCount(committedBids)
+          .endTime(endTime)
+          .build();
+    }
   }
 }
@@ -0,0 +1,102 @@
+package ccm.buyer.service.impl;
+
+import ccm.buyer.entity.Auction;
+import ccm.buyer.entity.Bid;
+import ccm.buyer.entity.Listing;
+import ccm.buyer.entity.Transaction;
+import ccm.buyer.enums.AuctionStatus;
+import ccm.buyer.enums.BidStatus;
+import ccm.buyer.enums.ListingStatus;
+import ccm.buyer.enums.TrStatus;
+import ccm.buyer.repository.AuctionRepository;
+import ccm.buyer.repository.BidRepository;
+import ccm.buyer.repository.OwnerWalletSummaryRepository;
+import ccm.buyer.repository.TransactionRepository;
+import ccm.buyer.service.NotificationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Chốt một lô phiên đấu giá đã hết giờ trong một transaction.
+ *
+ * Số câu lệnh không phụ thuộc số bid: 1 SELECT ... FOR UPDATE phiên (kèm listing), 1 SELECT người thắng, 1 UPDATE
+ * bid -> LOST, rồi UPDATE/INSERT theo lô cho người thắng (WON), listing (SOLD), phiên (CLOSED) và
+ * transaction PENDING để người thắng thanh toán.
+ * Buyer chạy nhiều instance, mỗi instance có timing wheel riêng: khóa dòng ở findDue bảo đảm mỗi phiên
+ * chỉ được chốt một lần.
+ * Phiên có người thắng tính là đã bán ngay khi chốt (owner_wallet_summaries), để phần tín chỉ này không
+ * quay lại "khả dụng" của người bán trong lúc chờ thanh toán.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuctionSettler {
+
+  static final String AUCTION_TX_TYPE = "AUCTION";
+
+  private final AuctionRepository auctionRepository;
+  private final BidRepository bidRepository;
+  private final TransactionRepository transactionRepository;
+  private final OwnerWalletSummaryRepository ownerWallets;
+  private final NotificationService notificationService;
+  private final BuyerDashboardCounters dashboardCounters;
+
+  // Trả về id các phiên đã chốt; phiên đã CLOSED hoặc đã được gia hạn trên DB thì bỏ qua
+  @Transactional
+  public List<Long> settle(Collection<Long> auctionIds, LocalDateTime now) {
+    List<Auction> due = auctionRepository.findDue(auctionIds, now);
+    if (due.isEmpty()) {
+      return List.of();
+    }
+    List<Long> dueIds = due.stream().map(Auction::getId).toList();
+    Map<Long, Bid> winners = bidRepository.findByAuction_IdInAndStatus(dueIds, BidStatus.LEADING).stream()
+        .collect(Collectors.toMap(b -> b.getAuction().getId(), Function.identity(), (a, b) -> a.getId() > b.getId() ? a : b));
+    bidRepository.markLost(dueIds);
+
+    List<Transaction> transactions = new ArrayList<>();
+    for (Auction auction : due) {
+      auction.setStatus(AuctionStatus.CLOSED);
+      Bid winner = winners.get(auction.getId());
+      if (winner == null) {
+        continue;
+      }
+      // markLost không cập nhật entity đã nạp: gán WON sau để lần flush ghi đè LOST
+      winner.setStatus(BidStatus.WON);
+      Listing listing = auction.getListing();
+      listing.setStatus(ListingStatus.SOLD);
+      transactions.add(Transaction.builder()
+          .buyerId(winner.getBuyerId())
+          .listingId(listing.getId())
+          .sellerId(listing.getSellerId())
+          .qty(listing.getQty())
+          .amount(winner.getAmount())
+          .status(TrStatus.PENDING)
+          .type(AUCTION_TX_TYPE)
+          .build());
+      notificationService.notifyBuyer(winner.getBuyerId(),
+          "You won auction #" + auction.getId() + " at " + winner.getAmount() + ". Please complete the payment.");
+    }
+    transactionRepository.saveAll(transactions);
+    // Sau saveAll: câu native flush các UPDATE theo lô một lần, không flush giữa vòng lặp
+    for (Auction auction : due) {
+      Bid winner = winners.get(auction.getId());
+      if (winner != null) {
+        Listing listing = auction.getListing();
+        ownerWallets.addSale(listing.getSellerId(), listing.getQty(), winner.getAmount(), now);
+      }
+    }
+    transactions.forEach(t -> dashboardCounters.recordNew(t.getBuyerId(), t.getStatus(), t.getAmount()));
+    log.info("Settled {} auctions ({} with a winner)", due.size(), transactions.size());
+    return dueIds;
+  }
+}
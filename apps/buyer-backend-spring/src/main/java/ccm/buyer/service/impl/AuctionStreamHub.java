@@ -0,0 +1,137 @@
+package ccm.buyer.service.impl;
+
+import ccm.buyer.dto.response.AuctionStateResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Đẩy cập nhật đấu giá qua SSE.
+ *
+ * Mỗi sự kiện mang toàn bộ trạng thái phiên, nên mỗi subscriber chỉ cần giữ bản mới nhất chưa gửi
+ * (buffer 1 phần tử, ghi đè): client chậm không làm đầy bộ nhớ và không chặn luồng ghi bid.
+ * Tên sự kiện tính theo từng người: "leading" (đang dẫn đầu), "outbid" (vừa bị vượt giá), "price".
+ */
+@Slf4j
+@Component
+public class AuctionStreamHub implements DisposableBean {
+
+  private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+  private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+  private final long timeoutMs;
+
+  public AuctionStreamHub(@Value("${app.auction.sse-timeout:PT30M}") Duration timeout) {
+    this.timeoutMs = timeout.toMillis();
+  }
+
+  public SseEmitter subscribe(Long auctionId, Long buyerId, AuctionStateResponse snapshot) {
+    SseEmitter emitter = new SseEmitter(timeoutMs);
+    Subscriber sub = new Subscriber(auctionId, buyerId, emitter);
+    subscribers.computeIfAbsent(auctionId, id -> ConcurrentHashMap.newKeySet()).add(sub);
+
+    emitter.onCompletion(() -> remove(sub));
+    emitter.onTimeout(() -> remove(sub));
+    emitter.onError(e -> remove(sub));
+
+    sub.offer(snapshot, false);
+    return emitter;
+  }
+
+  // Gọi sau khi lô bid đã commit, theo đúng thứ tự chấp nhận
+  public void publish(AuctionStateResponse state, Collection<Long> outbidBuyerIds) {
+    Set<Subscriber> subs = subscribers.get(state.getAuctionId());
+    if (subs == null) {
+      return;
+    }
+    for (Subscriber sub : subs) {
+      sub.offer(state, sub.buyerId != null && outbidBuyerIds.contains(sub.buyerId));
+    }
+  }
+
+  public int subscriberCount(Long auctionId) {
+    Set<Subscriber> subs = subscribers.get(auctionId);
+    return subs == null ? 0 : subs.size();
+  }
+
+  private void remove(Subscriber sub) {
+    subscribers.computeIfPresent(sub.auctionId, (id, subs) -> {
+      subs.remove(sub);
+      return subs.isEmpty() ? null : subs;
+    });
+  }
+
+  @Override
+  public void destroy() {
+    subscribers.values().forEach(subs -> subs.forEach(s -> s.emitter.complete()));
+    sender.shutdownNow();
+  }
+
+  private final class Subscriber {
+    private final Long auctionId;
+    private final Long buyerId;
+    private final SseEmitter emitter;
+    private final AtomicReference<AuctionStateResponse> pending = new AtomicReference<>();
+    private final AtomicBoolean outbid = new AtomicBoolean();
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    private Subscriber(Long auctionId, Long buyerId, SseEmitter emitter) {
+      this.auctionId = auctionId;
+      this.buyerId = buyerId;
+      this.emitter = emitter;
+    }
+
+    private void offer(AuctionStateResponse state, boolean wasOutbid) {
+      if (wasOutbid) {
+        outbid.set(true);
+      }
+      pending.set(state);
+      if (draining.compareAndSet(false, true)) {
+        sender.execute(this::drain);
+      }
+    }
+
+    private void drain() {
+      do {
+        AuctionStateResponse state;
+        while ((state = pending.getAndSet(null)) != null) {
+          if (!send(state)) {
+            return;
+          }
+        }
+        draining.set(false);
+        // Có bản mới đến sau lần getAndSet cuối nhưng trước khi nhả cờ -> tự xử lý tiếp
+      } while (pending.get() != null && draining.compareAndSet(false, true));
+    }
+
+    private boolean send(AuctionStateResponse state) {
+      String name;
+      if (buyerId != null && buyerId.equals(state.getLeaderBuyerId())) {
+        outbid.set(false);
+        name = "leading";
+      } else {
+        name = outbid.getAndSet(false) ? "outbid" : "price";
+      }
+      try {
+        emitter.send(SseEmitter.event().name(name).data(state));
+        return true;
+      } catch (IOException | IllegalStateException e) {
+        log.debug("Dropping auction {} subscriber {}: {}", auctionId, buyerId, e.getMessage());
+        remove(this);
+        return false;
+      }
+    }
+  }
+}
@@ -0,0 +1,144 @@
+package ccm.buyer.service.impl;
+
+import ccm.buyer.entity.Bid;
+import ccm.buyer.enums.BidStatus;
+import ccm.buyer.repository.AuctionRepository;
+import ccm.buyer.repository.BidRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Một luồng duy nhất ghi các bid đã được chấp nhận (group commit).
+ *
+ * Bid được đưa vào hàng đợi khi đang giữ khóa của phiên, nên thứ tự trong hàng đợi là thứ tự chấp nhận.
+ * Luồng ghi gom tối đa MAX_BATCH bid vào một transaction (INSERT theo lô nhờ PooledId), chuyển các lượt
+ * dẫn đầu cũ sang OUTBID, ghi giờ kết thúc đã gia hạn, rồi mới hoàn tất future của từng người đặt giá.
+ */
+@Slf4j
+@Component
+public class BidBatchWriter implements DisposableBean {
+
+  private static final int MAX_BATCH = 500;
+
+  // extendedEndTime != null: bid rơi vào cửa sổ chống bid phút chót, phiên được gia hạn tới thời điểm đó
+  public record PendingBid(Long auctionId, Long buyerId, BigDecimal amount, LocalDateTime createdAt,
+                           LocalDateTime extendedEndTime, CompletableFuture<Bid> result) {}
+
+  private final BidRepository bidRepository;
+  private final AuctionRepository auctionRepository;
+  private final TransactionTemplate tx;
+  private final BlockingQueue<PendingBid> queue;
+  private final Thread worker;
+  private volatile Consumer<List<Bid>> afterCommit = bids -> { };
+
+  public BidBatchWriter(BidRepository bidRepository,
+                        AuctionRepository auctionRepository,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${app.auction.write-queue-capacity:10000}") int capacity) {
+    this.bidRepository = bidRepository;
+    this.auctionRepository = auctionRepository;
+    this.tx = new TransactionTemplate(transactionManager);
+    this.queue = new ArrayBlockingQueue<>(capacity);
+    this.worker = Thread.ofPlatform().name("bid-writer").daemon().start(this::run);
+  }
+
+  // Callback chạy trên luồng ghi sau mỗi lô đã commit (đẩy SSE)
+  public void onCommitted(Consumer<List<Bid>> listener) {
+    this.afterCommit = listener;
+  }
+
+  // Không chặn: hàng đợi đầy -> từ chối ngay để không giữ khóa phiên
+  public CompletableFuture<Bid> submit(Long auctionId, Long buyerId, BigDecimal amount, LocalDateTime createdAt,
+                                     LocalDateTime extendedEndTime) {
+    CompletableFuture<Bid> result = new CompletableFuture<>();
+    if (!queue.offer(new PendingBid(auctionId, buyerId, amount, createdAt, extendedEndTime, result))) {
+      throw new IllegalStateException("Auction service is busy, please retry");
+    }
+    return result;
+  }
+
+  private void run() {
+    List<PendingBid> batch = new ArrayList<>(MAX_BATCH);
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        batch.add(queue.take());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+      queue.drainTo(batch, MAX_BATCH - 1);
+      write(batch);
+      batch.clear();
+    }
+    List<PendingBid> rest = new ArrayList<>();
+    queue.drainTo(rest);
+    rest.forEach(p -> p.result().completeExceptionally(new IllegalStateException("Auction service is shutting down")));
+  }
+
+  private void write(List<PendingBid> batch) {
+    List<Bid> bids;
+    try {
+      bids = tx.execute(status -> persist(batch));
+    } catch (RuntimeException e) {
+      log.error("Failed to persist {} bids", batch.size(), e);
+      batch.forEach(p -> p.result().completeExceptionally(e));
+      return;
+    }
+    for (int i = 0; i < batch.size(); i++) {
+      batch.get(i).result().complete(bids.get(i));
+    }
+    try {
+      afterCommit.accept(bids);
+    } catch (RuntimeException e) {
+      log.warn("Bid commit listener failed", e);
+    }
+  }
+
+  private List<Bid> persist(List<PendingBid> batch) {
+    List<Bid> bids = new ArrayList<>(batch.size());
+    Map<Long, Bid> leaders = new LinkedHashMap<>();
+    Map<Long, LocalDateTime> extensions = new LinkedHashMap<>();
+    for (PendingBid p : batch) {
+      Bid bid = Bid.builder()
+          .auction(auctionRepository.getReferenceById(p.auctionId()))
+          .buyerId(p.buyerId())
+          .amount(p.amount())
+          .status(BidStatus.LEADING)
+          .createdAt(p.createdAt())
+          .build();
+      // Trong cùng lô, chỉ bid cuối của mỗi phiên còn dẫn đầu
+      Bid previous = leaders.put(p.auctionId(), bid);
+      if (previous != null) {
+        previous.setStatus(BidStatus.OUTBID);
+      }
+      if (p.extendedEndTime() != null) {
+        extensions.merge(p.auctionId(), p.extendedEndTime(), (a, b) -> a.isAfter(b) ? a : b);
+      }
+      bids.add(bid);
+    }
+    bidRepository.saveAll(bids);
+    leaders.forEach((auctionId, leader) -> bidRepository.markOutbid(auctionId, leader.getId()));
+    extensions.forEach(auctionRepository::extendEndTime);
+    return bids;
+  }
+
+  @Override
+  public void destroy() {
+    worker.interrupt();
+  }
+}
@@ -0,0 +1,194 @@
+package ccm.buyer.service.impl;
+
+import ccm.buyer.enums.TrStatus;
+import ccm.buyer.repository.TransactionRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bộ đếm dashboard theo buyer (số giao dịch + tổng tiền theo trạng thái), giữ trong Caffeine.
+ *
+ * - Lần đọc đầu nạp bằng một câu GROUP BY (TransactionRepository.sumByStatus).
+ * - Các luồng mua trong buyer service gọi recordNew / recordStatusChange trong transaction của chúng;
+ *   delta được cộng vào bộ đếm sau commit, rollback thì bỏ.
+ * - Một lần nạp chạy song song với giao dịch chưa kết thúc của cùng stripe thì không được lưu cache
+ *   (không biết kết quả đọc đã gồm giao dịch đó hay chưa, cộng delta sẽ bị đếm hai lần).
+ * - Admin đổi trạng thái ở service khác: bộ đếm chỉ lệch tối đa app.dashboard.counter-ttl.
+ */
+@Component
+public class BuyerDashboardCounters {
+
+  private static final int STRIPES = 1024;
+
+  private final TransactionRepository transactionRepository;
+  private final Cache<Long, Totals> cache;
+  // Tăng mỗi khi một giao dịch của stripe kết thúc; lần nạp đọc trước và so sánh trước khi lưu
+  private final AtomicLongArray versions = new AtomicLongArray(STRIPES);
+  // Số giao dịch đang mở có thay đổi bộ đếm của stripe
+  private final AtomicIntegerArray inFlight = new AtomicIntegerArray(STRIPES);
+
+  public BuyerDashboardCounters(TransactionRepository transactionRepository,
+                                @Value("${app.dashboard.counter-ttl:PT10M}") Duration ttl,
+                                @Value("${app.dashboard.counter-cache-size:100000}") long maxSize) {
+    this.transactionRepository = transactionRepository;
+    this.cache = Caffeine.newBuilder()
+        .expireAfterWrite(ttl)
+        .maximumSize(maxSize)
+        .build();
+  }
+
+  public Totals get(Long buyerId) {
+    Totals cached = cache.getIfPresent(buyerId);
+    if (cached != null) {
+      return cached;
+    }
+    int stripe = stripe(buyerId);
+    long version = versions.get(stripe);
+    Totals loaded = Totals.EMPTY;
+    for (TransactionRepository.StatusTotal row : transactionRepository.sumByStatus(buyerId)) {
+      if (row.getStatus() != null) {
+        loaded = loaded.plus(row.getStatus(), row.getCount(), row.getAmount());
+      }
+    }
+    Totals result = loaded;
+    cache.asMap().compute(buyerId, (id, current) -> {
+      if (current != null) {
+        return current;
+      }
+      return inFlight.get(stripe) == 0 && versions.get(stripe) == version ? result : null;
+    });
+    return result;
+  }
+
+  // Giao dịch mới của buyer (gọi trong transaction ghi dòng đó)
+  public void recordNew(Long buyerId, TrStatus status, BigDecimal amount) {
+    record(buyerId, Totals.EMPTY.plus(status, 1, amount));
+  }
+
+  // Đổi trạng thái một giao dịch của buyer (gọi trong transaction cập nhật dòng đó)
+  public void recordStatusChange(Long buyerId, TrStatus from, TrStatus to, BigDecimal amount) {
+    if (from == to) {
+      return;
+    }
+    Totals delta = Totals.EMPTY;
+    if (from != null) {
+      delta = delta.plus(from, -1, amount.negate());
+    }
+    if (to != null) {
+      delta = delta.plus(to, 1, amount);
+    }
+    record(buyerId, delta);
+  }
+
+  private void record(Long buyerId, Totals delta) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      // Không có transaction để chờ commit: bỏ bộ đếm, lần đọc sau nạp lại
+      versions.incrementAndGet(stripe(buyerId));
+      cache.invalidate(buyerId);
+      return;
+    }
+    @SuppressWarnings("unchecked")
+    Map<Long, Totals> pending = (Map<Long, Totals>) TransactionSynchronizationManager.getResource(this);
+    if (pending == null) {
+      pending = new HashMap<>();
+      TransactionSynchronizationManager.bindResource(this, pending);
+      TransactionSynchronizationManager.registerSynchronization(new Flush(pending));
+    }
+    if (!pending.containsKey(buyerId)) {
+      inFlight.incrementAndGet(stripe(buyerId));
+    }
+    pending.merge(buyerId, delta, Totals::plus);
+  }
+
+  private static int stripe(Long buyerId) {
+    return Long.hashCode(buyerId) & (STRIPES - 1);
+  }
+
+  private final class Flush implements TransactionSynchronization {
+    private final Map<Long, Totals> pending;
+
+    private Flush(Map<Long, Totals> pending) {
+      this.pending = pending;
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+      TransactionSynchronizationManager.unbindResourceIfPossible(BuyerDashboardCounters.this);
+      boolean committed = status == STATUS_COMMITTED;
+      pending.forEach((buyerId, delta) -> {
+        if (committed) {
+          // compute, không phải computeIfPresent: computeIfPresent đọc map không khóa nên không thấy giá trị
+          // get() vừa kiểm tra xong nhưng chưa ghi vào map, delta bị mất; compute chờ lần ghi đó
+          cache.asMap().compute(buyerId, (id, current) -> current == null ? null : current.plus(delta));
+        }
+        // Thứ tự: cộng delta -> tăng version -> giảm inFlight (xem get)
+        int stripe = stripe(buyerId);
+        versions.incrementAndGet(stripe);
+        inFlight.decrementAndGet(stripe);
+      });
+    }
+  }
+
+  /**
+   * Số giao dịch và tổng tiền theo trạng thái (bất biến).
+   */
+  public static final class Totals {
+    static final Totals EMPTY = new Totals(new long[TrStatus.values().length], zeros());
+
+    private final long[] counts;
+    private final BigDecimal[] amounts;
+
+    private Totals(long[] counts, BigDecimal[] amounts) {
+      this.counts = counts;
+      this.amounts = amounts;
+    }
+
+    public long count(TrStatus status) {
+      return counts[status.ordinal()];
+    }
+
+    public BigDecimal amount(TrStatus status) {
+      return amounts[status.ordinal()];
+    }
+
+    public long totalCount() {
+      return Arrays.stream(counts).sum();
+    }
+
+    Totals plus(TrStatus status, long count, BigDecimal amount) {
+      long[] c = counts.clone();
+      BigDecimal[] a = amounts.clone();
+      c[status.ordinal()] += count;
+      a[status.ordinal()] = a[status.ordinal()].add(amount);
+      return new Totals(c, a);
+    }
+
+    Totals plus(Totals other) {
+      long[] c = counts.clone();
+      BigDecimal[] a = amounts.clone();
+      for (int i = 0; i < c.length; i++) {
+        c[i] += other.counts[i];
+        a[i] = a[i].add(other.amounts[i]);
+      }
+      return new Totals(c, a);
+    }
+
+    private static BigDecimal[] zeros() {
+      BigDecimal[] a = new BigDecimal[TrStatus.values().length];
+      Arrays.fill(a, BigDecimal.ZERO);
+      return a;
+    }
+  }
+}
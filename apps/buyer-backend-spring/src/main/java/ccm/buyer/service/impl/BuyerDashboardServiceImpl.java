@@ -2,28 +2,24 @@ package ccm.buyer.service.impl;
 
 import ccm.buyer.dto.response.BuyerDashboardResponse; // Bạn cần tạo lại file DTO này (xem bước 4)
 import ccm.buyer.enums.TrStatus;
-import ccm.buyer.repository.TransactionRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import java.math.BigDecimal;
 
 @Service
 @RequiredArgsConstructor
 public class BuyerDashboardServiceImpl { // Có thể tạo Interface nếu muốn chuẩn chỉ
 
-    private final TransactionRepository transactionRepository;
+    private final BuyerDashboardCounters counters;
 
     public BuyerDashboardResponse getDashboardStats(Long buyerId) {
-        long total = transactionRepository.countByBuyerId(buyerId);
-        long pending = transactionRepository.countByBuyerIdAndStatus(buyerId, TrStatus.PENDING);
-        long completed = transactionRepository.countByBuyerIdAndStatus(buyerId, TrStatus.COMPLETED);
-        BigDecimal spent = transactionRepository.sumAmountByBuyerId(buyerId);
+        // Một câu GROUP BY khi chưa có trong cache, sau đó đọc từ bộ đếm do các luồng mua cập nhật
+        BuyerDashboardCounters.Totals totals = counters.get(buyerId);
 
         return BuyerDashboardResponse.builder()
-                .totalOrders(total)
-                .pendingTransactions(pending)
-                .completedTransactions(completed)
-                .totalSpent(spent)
+                .totalOrders(totals.totalCount())
+                .pendingTransactions(totals.count(TrStatus.PENDING))
+                .completedTransactions(totals.count(TrStatus.COMPLETED))
+                .totalSpent(totals.amount(TrStatus.COMPLETED))
                 .build();
     }
-}
\ No newline at end of file
+}
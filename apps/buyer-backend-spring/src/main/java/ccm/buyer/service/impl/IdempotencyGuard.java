@@ -0,0 +1,176 @@
+package ccm.buyer.service.impl;
+
+import ccm.buyer.entity.IdempotencyRecord;
+import ccm.buyer.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key cho các endpoint mua: client gửi lại cùng key thì nhận lại đúng response lần đầu,
+ * không trừ kho, không chuyển tiền lần hai.
+ *
+ * - Dòng idempotency_keys được INSERT đầu transaction nghiệp vụ và commit/rollback cùng nó:
+ *   mua lỗi thì key cũng mất, client thử lại được.
+ * - Hai request cùng key chạy song song: INSERT thứ hai chờ trên unique index tới khi cái đầu commit,
+ *   rồi đọc response đã lưu. Cái đầu chưa xong trước lock timeout -> 409.
+ * - Retry gần đây trả thẳng từ Caffeine (app.idempotency.cache-ttl), không chạm DB.
+ * - Key giữ trên DB app.idempotency.retention; sau đó gửi lại cùng key được coi là request mới.
+ */
+@Component
+public class IdempotencyGuard {
+
+  public static final String HEADER = "Idempotency-Key";
+  private static final int MAX_KEY_LENGTH = 100;
+
+  private final IdempotencyRecordRepository repo;
+  private final ObjectMapper objectMapper;
+  private final TransactionTemplate tx;
+  private final Duration retention;
+  private final Cache<String, Stored> recent;
+
+  public IdempotencyGuard(IdempotencyRecordRepository repo,
+                          ObjectMapper objectMapper,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${app.idempotency.retention:P1D}") Duration retention,
+                          @Value("${app.idempotency.cache-ttl:PT10M}") Duration cacheTtl,
+                          @Value("${app.idempotency.cache-size:100000}") long cacheSize) {
+    this.repo = repo;
+    this.objectMapper = objectMapper;
+    this.tx = new TransactionTemplate(transactionManager);
+    this.retention = retention;
+    this.recent = Caffeine.newBuilder()
+        .expireAfterWrite(cacheTtl)
+        .maximumSize(cacheSize)
+        .build();
+  }
+
+  public <T> T execute(Long buyerId, String scope, String key, Object request,
+                       Class<T> responseType, Supplier<T> action) {
+    return execute(buyerId, scope, key, request, objectMapper.constructType(responseType), action);
+  }
+
+  public <T> T execute(Long buyerId, String scope, String key, Object request,
+                       TypeReference<T> responseType, Supplier<T> action) {
+    return execute(buyerId, scope, key, request, objectMapper.constructType(responseType), action);
+  }
+
+  private <T> T execute(Long buyerId, String scope, String key, Object request,
+                        JavaType responseType, Supplier<T> action) {
+    // Không có header: giữ hành vi cũ
+    if (key == null) {
+      return action.get();
+    }
+    if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+      throw new IllegalArgumentException("Invalid " + HEADER);
+    }
+    if (buyerId == null) {
+      throw new IllegalArgumentException("buyerId is required");
+    }
+    String requestHash = hash(request);
+    String cacheKey = buyerId + ":" + scope + ":" + key;
+
+    Stored stored = recent.getIfPresent(cacheKey);
+    if (stored == null) {
+      // Cache hết hạn, restart hoặc request trước đi vào instance khác
+      stored = find(buyerId, scope, key);
+    }
+    if (stored != null) {
+      return replay(cacheKey, stored, requestHash, responseType);
+    }
+
+    boolean[] claimed = new boolean[1];
+    Outcome<T> outcome;
+    try {
+      outcome = tx.execute(status -> {
+        IdempotencyRecord record = repo.saveAndFlush(IdempotencyRecord.builder()
+            .buyerId(buyerId)
+            .scope(scope)
+            .key(key)
+            .requestHash(requestHash)
+            .build());
+        claimed[0] = true;
+        T value = action.get();
+        record.setResponseBody(write(value));
+        return new Outcome<>(value, record.getResponseBody());
+      });
+    } catch (DataIntegrityViolationException | PessimisticLockingFailureException e) {
+      if (claimed[0]) {
+        // Lỗi của chính nghiệp vụ, không phải trùng key
+        throw e;
+      }
+      Stored winner = find(buyerId, scope, key);
+      if (winner == null) {
+        throw new IllegalStateException("A request with this " + HEADER + " is still in progress");
+      }
+      return replay(cacheKey, winner, requestHash, responseType);
+    }
+    recent.put(cacheKey, new Stored(requestHash, outcome.body()));
+    return outcome.value();
+  }
+
+  @Scheduled(fixedDelayString = "${app.idempotency.purge-interval:PT1H}",
+             initialDelayString = "${app.idempotency.purge-interval:PT1H}")
+  public void purgeExpired() {
+    tx.executeWithoutResult(status -> repo.deleteCreatedBefore(LocalDateTime.now().minus(retention)));
+  }
+
+  private Stored find(Long buyerId, String scope, String key) {
+    return repo.findByBuyerIdAndScopeAndKey(buyerId, scope, key)
+        .map(r -> new Stored(r.getRequestHash(), r.getResponseBody()))
+        .orElse(null);
+  }
+
+  private <T> T replay(String cacheKey, Stored stored, String requestHash, JavaType responseType) {
+    if (!stored.requestHash().equals(requestHash)) {
+      throw new IllegalArgumentException(HEADER + " was already used with a different request");
+    }
+    recent.put(cacheKey, stored);
+    try {
+      return objectMapper.readValue(stored.body(), responseType);
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private String hash(Object request) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+      return HexFormat.of().formatHex(digest);
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private String write(Object value) {
+    try {
+      return objectMapper.writeValueAsString(value);
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private record Stored(String requestHash, String body) {}
+
+  private record Outcome<T>(T value, String body) {}
+}
@@ -0,0 +1,241 @@
+package ccm.buyer.service.impl;
+
+import ccm.buyer.entity.Invoice;
+import ccm.buyer.entity.Transaction;
+import ccm.buyer.event.InvoiceIssuedEvent;
+import ccm.buyer.repository.InvoiceRepository;
+import ccm.buyer.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Render hóa đơn PDF ra thư mục lưu trữ cục bộ (app.invoices.storage-dir).
+ *
+ * - Pool worker cố định + hàng đợi giới hạn: PDF tốn CPU/bộ nhớ, không để đợt mua lớn tạo render không giới hạn.
+ *   Hàng đợi đầy sau commit thì bỏ qua; lần tải đầu tiên sẽ render lại.
+ * - Phần tĩnh (tiêu đề, nhãn, chân trang) được dựng một lần thành template; mỗi hóa đơn chỉ nạp template
+ *   và ghi thêm các giá trị. Font chuẩn Helvetica dùng chung một instance cho mọi tài liệu.
+ * - Ghi ra file tạm rồi rename: người tải không bao giờ thấy file ghi dở.
+ * - Cùng một hóa đơn chỉ render một lần dù sự kiện sau commit và lượt tải đến cùng lúc.
+ */
+@Slf4j
+@Component
+public class InvoiceRenderer implements DisposableBean {
+
+  private static final PDFont FONT = PDType1Font.HELVETICA;
+  private static final PDFont FONT_BOLD = PDType1Font.HELVETICA_BOLD;
+  private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+  private static final float LEFT = 60;
+  private static final float VALUE_X = 220;
+  private static final float FIRST_ROW_Y = 640;
+  private static final float ROW_HEIGHT = 24;
+  private static final List<String> LABELS = List.of(
+      "Invoice No.", "Transaction", "Buyer ID", "Listing ID", "Quantity (tCO2)", "Unit price", "Total amount",
+      "Issue date");
+
+  private final InvoiceRepository invoiceRepository;
+  private final TransactionRepository transactionRepository;
+  private final Path storageDir;
+  private final long waitMs;
+  private final byte[] template;
+  private final ThreadPoolExecutor workers;
+  private final Map<Long, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+  public InvoiceRenderer(InvoiceRepository invoiceRepository,
+                         TransactionRepository transactionRepository,
+                         @Value("${app.invoices.storage-dir:${java.io.tmpdir}/ccm-invoices}") Path storageDir,
+                         @Value("${app.invoices.render-workers:2}") int workerCount,
+                         @Value("${app.invoices.render-queue:256}") int queueCapacity,
+                         @Value("${app.invoices.render-wait:PT10S}") Duration renderWait) throws IOException {
+    this.invoiceRepository = invoiceRepository;
+    this.transactionRepository = transactionRepository;
+    this.storageDir = Files.createDirectories(storageDir);
+    this.waitMs = renderWait.toMillis();
+    this.template = buildTemplate();
+    AtomicInteger seq = new AtomicInteger();
+    this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity),
+        r -> Thread.ofPlatform().name("invoice-render-" + seq.incrementAndGet()).daemon().unstarted(r));
+  }
+
+  // Sau commit: hóa đơn của transaction bị rollback không được render
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onIssued(InvoiceIssuedEvent event) {
+    submit(event.invoiceId()).exceptionally(e -> {
+      log.debug("Invoice {} not rendered ahead of download: {}", event.invoiceId(), e.getMessage());
+      return null;
+    });
+  }
+
+  /**
+   * File PDF của hóa đơn; render (qua pool) nếu chưa có.
+   *
+   * @throws IllegalStateException nếu pool đang quá tải hoặc render không xong trong app.invoices.render-wait
+   */
+  public Path ensureRendered(Invoice invoice) {
+    Path file = fileOf(invoice);
+    if (Files.exists(file)) {
+      return file;
+    }
+    try {
+      return submit(invoice.getId()).get(waitMs, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      throw new IllegalStateException("Invoice " + invoice.getId() + " is still rendering, retry later");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RejectedExecutionException) {
+        throw new IllegalStateException("Invoice renderer is busy, retry later");
+      }
+      throw new IllegalStateException("Could not render invoice " + invoice.getId(), e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while rendering invoice " + invoice.getId());
+    }
+  }
+
+  Path fileOf(Invoice invoice) {
+    // Chỉ lấy tên file: đường dẫn cũ ("/invoices/...") cũng được đặt trong storageDir
+    return storageDir.resolve(Path.of(invoice.getFilePath()).getFileName().toString());
+  }
+
+  private CompletableFuture<Path> submit(Long invoiceId) {
+    CompletableFuture<Path> created = new CompletableFuture<>();
+    CompletableFuture<Path> running = inFlight.putIfAbsent(invoiceId, created);
+    if (running != null) {
+      return running;
+    }
+    try {
+      workers.execute(() -> {
+        try {
+          created.complete(render(invoiceId));
+        } catch (Throwable t) {
+          created.completeExceptionally(t);
+        } finally {
+          inFlight.remove(invoiceId, created);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      inFlight.remove(invoiceId, created);
+      created.completeExceptionally(e);
+    }
+    return created;
+  }
+
+  private Path render(Long invoiceId) throws IOException {
+    Invoice invoice = invoiceRepository.findById(invoiceId).orElseThrow();
+    Path file = fileOf(invoice);
+    if (Files.exists(file)) {
+      return file;
+    }
+    Transaction tr = transactionRepository.findById(invoice.getTrId()).orElseThrow();
+
+    Path tmp = Files.createTempFile(storageDir, "render-", ".tmp");
+    try {
+      try (OutputStream out = Files.newOutputStream(tmp)) {
+        write(invoice, tr, out);
+      }
+      Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+    return file;
+  }
+
+  private void write(Invoice invoice, Transaction tr, OutputStream out) throws IOException {
+    String unitPrice = tr.getQty() == null || tr.getQty().signum() == 0
+        ? "-"
+        : tr.getAmount().divide(tr.getQty(), 2, RoundingMode.HALF_UP).toPlainString();
+    List<String> values = List.of(
+        "INV-" + invoice.getId(),
+        tr.getTransactionCode() != null ? tr.getTransactionCode() : String.valueOf(tr.getId()),
+        String.valueOf(tr.getBuyerId()),
+        String.valueOf(tr.getListingId()),
+        tr.getQty().stripTrailingZeros().toPlainString(),
+        unitPrice,
+        tr.getAmount().toPlainString(),
+        invoice.getIssueDate().format(DATE_FORMAT));
+
+    try (PDDocument doc = PDDocument.load(template)) {
+      PDPage page = doc.getPage(0);
+      try (PDPageContentStream cs = new PDPageContentStream(doc, page, PDPageContentStream.AppendMode.APPEND, true)) {
+        cs.setFont(FONT, 11);
+        for (int i = 0; i < values.size(); i++) {
+          text(cs, VALUE_X, FIRST_ROW_Y - i * ROW_HEIGHT, values.get(i));
+        }
+      }
+      doc.save(out);
+    }
+  }
+
+  private static byte[] buildTemplate() {
+    try (PDDocument doc = new PDDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+      PDPage page = new PDPage(PDRectangle.A4);
+      doc.addPage(page);
+      try (PDPageContentStream cs = new PDPageContentStream(doc, page)) {
+        cs.setFont(FONT_BOLD, 18);
+        text(cs, LEFT, 760, "Carbon Credit Marketplace");
+        cs.setFont(FONT_BOLD, 14);
+        text(cs, LEFT, 720, "INVOICE");
+
+        cs.setFont(FONT_BOLD, 11);
+        for (int i = 0; i < LABELS.size(); i++) {
+          text(cs, LEFT, FIRST_ROW_Y - i * ROW_HEIGHT, LABELS.get(i) + ":");
+        }
+
+        cs.moveTo(LEFT, 660);
+        cs.lineTo(PDRectangle.A4.getWidth() - LEFT, 660);
+        cs.stroke();
+
+        cs.setFont(FONT, 8);
+        text(cs, LEFT, 60, "This invoice was generated electronically and is valid without a signature.");
+      }
+      doc.save(out);
+      return out.toByteArray();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not build invoice template", e);
+    }
+  }
+
+  private static void text(PDPageContentStream cs, float x, float y, String value) throws IOException {
+    cs.beginText();
+    cs.newLineAtOffset(x, y);
+    cs.showText(value);
+    cs.endText();
+  }
+
+  @Override
+  public void destroy() {
+    workers.shutdownNow();
+  }
+}
@@ -1,15 +1,25 @@
 package ccm.buyer.service.impl;
 
+import ccm.buyer.dto.request.InvoicePageQuery;
+import ccm.buyer.dto.response.InvoicePageResponse;
+import ccm.buyer.dto.response.InvoiceResponse;
 import ccm.buyer.entity.Invoice;
 import ccm.buyer.entity.Transaction;
+import ccm.buyer.event.InvoiceIssuedEvent;
+import ccm.buyer.exception.NotFoundException;
 import ccm.buyer.repository.InvoiceRepository;
 import ccm.buyer.repository.TransactionRepository;
 import ccm.buyer.service.InvoiceService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -17,20 +27,54 @@ public class InvoiceServiceImpl implements InvoiceService {
 
     private final InvoiceRepository repo;
     private final TransactionRepository trRepo;
+    private final InvoiceRenderer renderer;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
+    @Transactional
     public Invoice issueInvoice(Long trId) {
+        // Idempotent: outbox có thể giao lại cùng một giao dịch (retry sau lỗi)
+        Optional<Invoice> existing = repo.findByTrId(trId);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
         Transaction tr = trRepo.findById(trId).orElseThrow();
-        Invoice inv = Invoice.builder()
+        Invoice inv = repo.save(Invoice.builder()
                 .trId(trId)
-                .filePath("/invoices/inv_" + trId + ".pdf")
+                .buyerId(tr.getBuyerId())
+                .filePath("inv_" + trId + ".pdf")
                 .issueDate(LocalDateTime.now())
+                .build());
+        // PDF render sau commit trên pool của InvoiceRenderer, không trong transaction này
+        eventPublisher.publishEvent(new InvoiceIssuedEvent(inv.getId()));
+        return inv;
+    }
+
+    @Override
+    public InvoicePageResponse listInvoices(InvoicePageQuery query) {
+        // Lấy dư một dòng để biết còn trang sau mà không cần COUNT(*)
+        List<InvoiceResponse> rows = repo.findPage(query.buyerId(), query.afterIssueDate(), query.afterId(),
+                Limit.of(query.limit() + 1));
+        boolean hasMore = rows.size() > query.limit();
+        List<InvoiceResponse> items = (hasMore ? rows.subList(0, query.limit()) : rows).stream()
+                .map(r -> new InvoiceResponse(r.id(), r.trId(), r.issueDate(), downloadPath(r.id()), r.amount()))
+                .toList();
+
+        return InvoicePageResponse.builder()
+                .items(items)
+                .nextCursor(hasMore ? InvoicePageQuery.cursorOf(items.get(items.size() - 1)) : null)
                 .build();
-        return repo.save(inv);
     }
 
     @Override
-    public List<Invoice> listInvoicesByBuyer(Long buyerId) {
-        return repo.findAll();
+    public Path invoiceFile(Long buyerId, Long invoiceId) {
+        Invoice invoice = repo.findById(invoiceId)
+                .filter(i -> i.getBuyerId() != null && i.getBuyerId().equals(buyerId))
+                .orElseThrow(() -> new NotFoundException("Invoice not found: " + invoiceId));
+        return renderer.ensureRendered(invoice);
+    }
+
+    private static String downloadPath(Long invoiceId) {
+        return "/api/buyer/invoices/" + invoiceId + "/pdf";
     }
 }
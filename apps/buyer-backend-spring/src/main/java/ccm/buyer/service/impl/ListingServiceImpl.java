@@ -1,13 +1,26 @@
 package ccm.buyer.service.impl;
 
+import ccm.buyer.config.CacheConfig;
+import ccm.buyer.dto.request.ListingCatalogQuery;
+import ccm.buyer.dto.response.ListingHoldResponse;
+import ccm.buyer.dto.response.ListingPageResponse;
+import ccm.buyer.dto.response.ListingResponse;
 import ccm.buyer.entity.Listing;
 import ccm.buyer.enums.ListingStatus;
+import ccm.buyer.event.ListingChangedEvent;
 import ccm.buyer.repository.ListingRepository;
 import ccm.buyer.service.ListingService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 
 @Service
@@ -15,14 +28,29 @@ import java.util.List;
 public class ListingServiceImpl implements ListingService {
 
     private final ListingRepository listingRepository;
+    private final ReservationLedger reservationLedger;
 
     @Override
-    public List<Listing> getAll() {
-        // Chỉ lấy các bài đăng có trạng thái APPROVED (đã duyệt bởi Admin)
-        // Hoặc trạng thái OPEN (nếu hệ thống cũ dùng)
-        return listingRepository.findAll().stream()
-                .filter(l -> l.getStatus() == ListingStatus.APPROVED || l.getStatus() == ListingStatus.OPEN)
-                .toList();
+    @Cacheable(cacheNames = CacheConfig.LISTING_CATALOG, key = "#query")
+    public ListingPageResponse search(ListingCatalogQuery query) {
+        // Lọc + phân trang ở DB (keyset theo price, id); lấy dư 1 dòng để biết còn trang sau hay không
+        List<ListingResponse> rows = listingRepository.findCatalogPage(
+                query.statuses(), query.type(), query.minPrice(), query.maxPrice(),
+                query.afterPrice(), query.afterId(), Limit.of(query.limit() + 1));
+
+        boolean hasMore = rows.size() > query.limit();
+        List<ListingResponse> items = hasMore ? List.copyOf(rows.subList(0, query.limit())) : List.copyOf(rows);
+        return ListingPageResponse.builder()
+                .items(items)
+                .nextCursor(hasMore ? ListingCatalogQuery.cursorOf(items.get(items.size() - 1)) : null)
+                .build();
+    }
+
+    // Số lượng/trạng thái đổi -> trang nào cũng có thể sai, xoá toàn bộ catalog cache sau commit
+    @TransactionalEventListener(fallbackExecution = true)
+    @CacheEvict(cacheNames = CacheConfig.LISTING_CATALOG, allEntries = true)
+    public void onListingChanged(ListingChangedEvent event) {
+        // chỉ cần evict
     }
 
     @Override
@@ -44,12 +72,36 @@ public class ListingServiceImpl implements ListingService {
     }
 
     @Override
-    public void reserve(Long listingId, BigDecimal qty) {
-        // Logic giữ chỗ (tạm thời để trống cho demo)
+    public ListingHoldResponse reserve(Long id, Long buyerId, BigDecimal qty) {
+        if (buyerId == null) {
+            throw new IllegalArgumentException("buyerId is required");
+        }
+        validateOpen(id);
+        ReservationLedger.Hold hold = reservationLedger.reserve(id, buyerId, qty);
+        return ListingHoldResponse.builder()
+                .holdId(hold.id())
+                .listingId(id)
+                .buyerId(buyerId)
+                .qty(hold.qty())
+                .expiresAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(hold.expiresAtMs()), ZoneId.systemDefault()))
+                .available(reservationLedger.available(id))
+                .build();
+    }
+
+    @Override
+    public void release(Long holdId, Long buyerId) {
+        if (!reservationLedger.release(holdId, buyerId)) {
+            throw new IllegalStateException("Reservation " + holdId + " is expired or already in checkout");
+        }
+    }
+
+    @Override
+    public BigDecimal available(Long id) {
+        return reservationLedger.available(id);
     }
 
     @Override
-    public void release(Long listingId, BigDecimal qty) {
-        // Logic nhả chỗ (tạm thời để trống cho demo)
+    public boolean claimReserved(Long id, Long buyerId, BigDecimal qty, Long holdId, BigDecimal remaining) {
+        return reservationLedger.claim(id, buyerId, qty, holdId, remaining);
     }
-}
\ No newline at end of file
+}
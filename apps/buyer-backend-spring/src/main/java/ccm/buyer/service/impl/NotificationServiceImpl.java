@@ -1,10 +1,18 @@
 package ccm.buyer.service.impl;
 
+import ccm.buyer.dto.request.NotificationPageQuery;
+import ccm.buyer.dto.response.NotificationPageResponse;
+import ccm.buyer.dto.response.NotificationResponse;
 import ccm.buyer.entity.Notification;
+import ccm.buyer.event.NotificationCreatedEvent;
 import ccm.buyer.repository.NotificationRepository;
 import ccm.buyer.service.NotificationService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -14,6 +22,8 @@ import java.util.List;
 public class NotificationServiceImpl implements NotificationService {
 
     private final NotificationRepository repo;
+    private final NotificationStreamHub streamHub;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public void notifyBuyer(Long buyerId, String message) {
@@ -23,12 +33,42 @@ public class NotificationServiceImpl implements NotificationService {
                 .createdAt(LocalDateTime.now())
                 .build();
         repo.save(n);
+        // Đẩy SSE sau khi transaction của người gọi commit
+        eventPublisher.publishEvent(new NotificationCreatedEvent(new NotificationResponse(
+                n.getId(), n.getBuyerId(), n.getMessage(), n.getCreatedAt(), null)));
     }
 
     @Override
-    public List<Notification> listNotifications(Long buyerId) {
-        return repo.findAll().stream()
-                .filter(n -> n.getBuyerId().equals(buyerId))
-                .toList();
+    public NotificationPageResponse listNotifications(NotificationPageQuery query) {
+        // Lấy dư 1 dòng để biết còn trang sau hay không
+        List<NotificationResponse> rows = repo.findPage(query.buyerId(), query.unreadOnly(),
+                query.afterCreatedAt(), query.afterId(), Limit.of(query.limit() + 1));
+
+        boolean hasMore = rows.size() > query.limit();
+        List<NotificationResponse> items = hasMore ? rows.subList(0, query.limit()) : rows;
+        return NotificationPageResponse.builder()
+                .items(items)
+                .nextCursor(hasMore ? NotificationPageQuery.cursorOf(items.get(items.size() - 1)) : null)
+                .unreadCount(repo.countByBuyerIdAndReadAtIsNull(query.buyerId()))
+                .build();
+    }
+
+    @Override
+    public long countUnread(Long buyerId) {
+        return repo.countByBuyerIdAndReadAtIsNull(buyerId);
+    }
+
+    @Override
+    @Transactional
+    public int markRead(Long buyerId, List<Long> ids) {
+        LocalDateTime now = LocalDateTime.now();
+        return (ids == null || ids.isEmpty())
+                ? repo.markAllRead(buyerId, now)
+                : repo.markRead(buyerId, ids, now);
+    }
+
+    @Override
+    public SseEmitter subscribe(Long buyerId) {
+        return streamHub.subscribe(buyerId, countUnread(buyerId));
     }
 }
@@ -0,0 +1,144 @@
+package ccm.buyer.service.impl;
+
+import ccm.buyer.dto.response.NotificationResponse;
+import ccm.buyer.event.NotificationCreatedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Đẩy thông báo mới qua SSE theo buyer (một buyer có thể mở nhiều tab).
+ *
+ * Mỗi kết nối có buffer giới hạn bufferSize. Client chậm làm đầy buffer thì các thông báo đang chờ bị bỏ
+ * và client nhận một sự kiện "resync" để tải lại trang đầu qua REST, thay vì giữ hàng đợi không giới hạn.
+ * Sự kiện: "unread" (số chưa đọc, gửi khi vừa kết nối), "notification", "resync".
+ */
+@Slf4j
+@Component
+public class NotificationStreamHub implements DisposableBean {
+
+  private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+  private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+  private final long timeoutMs;
+  private final int bufferSize;
+
+  public NotificationStreamHub(@Value("${app.notifications.sse-timeout:PT30M}") Duration timeout,
+                               @Value("${app.notifications.stream-buffer:64}") int bufferSize) {
+    this.timeoutMs = timeout.toMillis();
+    this.bufferSize = bufferSize;
+  }
+
+  public SseEmitter subscribe(Long buyerId, long unreadCount) {
+    SseEmitter emitter = new SseEmitter(timeoutMs);
+    Subscriber sub = new Subscriber(buyerId, emitter);
+    subscribers.computeIfAbsent(buyerId, id -> ConcurrentHashMap.newKeySet()).add(sub);
+
+    emitter.onCompletion(() -> remove(sub));
+    emitter.onTimeout(() -> remove(sub));
+    emitter.onError(e -> remove(sub));
+
+    try {
+      emitter.send(SseEmitter.event().name("unread").data(unreadCount));
+    } catch (IOException | IllegalStateException e) {
+      remove(sub);
+    }
+    return emitter;
+  }
+
+  // Sau commit: thông báo của transaction bị rollback không bao giờ được đẩy
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onCreated(NotificationCreatedEvent event) {
+    NotificationResponse notification = event.notification();
+    Set<Subscriber> subs = subscribers.get(notification.buyerId());
+    if (subs == null) {
+      return;
+    }
+    for (Subscriber sub : subs) {
+      sub.offer(notification);
+    }
+  }
+
+  public int subscriberCount(Long buyerId) {
+    Set<Subscriber> subs = subscribers.get(buyerId);
+    return subs == null ? 0 : subs.size();
+  }
+
+  private void remove(Subscriber sub) {
+    subscribers.computeIfPresent(sub.buyerId, (id, subs) -> {
+      subs.remove(sub);
+      return subs.isEmpty() ? null : subs;
+    });
+  }
+
+  @Override
+  public void destroy() {
+    subscribers.values().forEach(subs -> subs.forEach(s -> s.emitter.complete()));
+    sender.shutdownNow();
+  }
+
+  private final class Subscriber {
+    private final Long buyerId;
+    private final SseEmitter emitter;
+    private final BlockingQueue<NotificationResponse> buffer = new ArrayBlockingQueue<>(bufferSize);
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    private Subscriber(Long buyerId, SseEmitter emitter) {
+      this.buyerId = buyerId;
+      this.emitter = emitter;
+    }
+
+    private void offer(NotificationResponse notification) {
+      if (!buffer.offer(notification)) {
+        overflowed.set(true);
+      }
+      if (draining.compareAndSet(false, true)) {
+        sender.execute(this::drain);
+      }
+    }
+
+    private void drain() {
+      do {
+        if (overflowed.getAndSet(false)) {
+          buffer.clear();
+          if (!send("resync", "")) {
+            return;
+          }
+        }
+        NotificationResponse next;
+        while ((next = buffer.poll()) != null) {
+          if (!send("notification", next)) {
+            return;
+          }
+        }
+        draining.set(false);
+        // Có phần tử mới đến sau lần poll cuối nhưng trước khi nhả cờ -> tự xử lý tiếp
+      } while ((!buffer.isEmpty() || overflowed.get()) && draining.compareAndSet(false, true));
+    }
+
+    private boolean send(String name, Object data) {
+      try {
+        emitter.send(SseEmitter.event().name(name).data(data));
+        return true;
+      } catch (IOException | IllegalStateException e) {
+        log.debug("Dropping notification subscriber {}: {}", buyerId, e.getMessage());
+        remove(this);
+        return false;
+      }
+    }
+  }
+}
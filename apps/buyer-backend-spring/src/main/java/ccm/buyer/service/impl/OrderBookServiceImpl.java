@@ -0,0 +1,299 @@
+package ccm.buyer.service.impl;
+
+import ccm.buyer.dto.response.MarketDepthResponse;
+import ccm.buyer.entity.Listing;
+import ccm.buyer.enums.ListingStatus;
+import ccm.buyer.event.ListingChangedEvent;
+import ccm.buyer.event.ListingOfferedEvent;
+import ccm.buyer.repository.ListingRepository;
+import ccm.buyer.service.OrderBookService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Sổ lệnh bán: mức giá (TreeMap, tăng dần) -> các listing theo thứ tự thời gian.
+ *
+ * Nguồn cập nhật:
+ * - Khởi động: nạp lại toàn bộ listing APPROVED.
+ * - Bán trong buyer service: ListingChangedEvent sau commit.
+ * - Duyệt/gỡ listing ở admin/owner (service khác, chung DB): đồng bộ delta theo updated_at.
+ *
+ * Listing mới vào sổ hoặc đổi giá khi đồng bộ delta được phát ListingOfferedEvent (cảnh báo giá).
+ *
+ * Dòng đọc từ DB (đồng bộ delta, nạp listing mới) được áp dụng sau khi đã nhả lock, nên có thể cũ hơn một
+ * lượt bán/gỡ vừa áp dụng qua event. Mỗi entry giữ updated_at của phiên bản nó phản ánh, listing rời sổ để lại
+ * mốc gỡ: dòng có updated_at cũ hơn bị bỏ qua.
+ */
+@Slf4j
+@Service
+public class OrderBookServiceImpl implements OrderBookService {
+
+  private static final Comparator<Entry> TIME_PRIORITY =
+      Comparator.comparing(Entry::listedAt).thenComparing(Entry::listingId);
+
+  private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+  private final ListingRepository listingRepository;
+  private final ApplicationEventPublisher events;
+  private final Duration syncLookback;
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private final TreeMap<BigDecimal, Level> levels = new TreeMap<>();
+  private final Map<Long, Entry> byId = new HashMap<>();
+  // Listing đang được đọc DB để thêm vào sổ; bị gỡ trong lúc đó thì lượt đọc bị hủy
+  private final Set<Long> loading = new HashSet<>();
+  // Listing đã rời sổ -> updated_at lúc rời; dọn khi cũ hơn cửa sổ đồng bộ (không còn dòng nào cũ hơn được đọc)
+  private final Map<Long, LocalDateTime> removedAt = new HashMap<>();
+  private BigDecimal totalQty = BigDecimal.ZERO;
+  private volatile LocalDateTime watermark;
+
+  public OrderBookServiceImpl(ListingRepository listingRepository,
+                              ApplicationEventPublisher events,
+                              @Value("${app.order-book.sync-lookback:PT30S}") Duration syncLookback) {
+    this.listingRepository = listingRepository;
+    this.events = events;
+    this.syncLookback = syncLookback;
+  }
+
+  @Override
+  public List<Fill> plan(BigDecimal totalQty) {
+    if (totalQty == null || totalQty.signum() <= 0) {
+      throw new IllegalArgumentException("Quantity must be greater than 0");
+    }
+
+    lock.readLock().lock();
+    try {
+      if (this.totalQty.compareTo(totalQty) < 0) {
+        throw new IllegalArgumentException("Marketplace does not have enough credits. Available: " + this.totalQty);
+      }
+
+      // Chỉ duyệt k listing cần khớp, không quét cả sổ
+      List<Fill> fills = new ArrayList<>();
+      BigDecimal remaining = totalQty;
+      for (Level level : levels.values()) {
+        for (Entry entry : level.entries) {
+          BigDecimal take = entry.qty().min(remaining);
+          fills.add(new Fill(entry.listingId(), take));
+          remaining = remaining.subtract(take);
+          if (remaining.signum() == 0) {
+            return fills;
+          }
+        }
+      }
+      return fills;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public MarketDepthResponse depth(int maxLevels) {
+    lock.readLock().lock();
+    try {
+      List<MarketDepthResponse.PriceLevel> out = new ArrayList<>();
+      for (Map.Entry<BigDecimal, Level> e : levels.entrySet()) {
+        if (out.size() >= maxLevels) break;
+        out.add(new MarketDepthResponse.PriceLevel(e.getKey(), e.getValue().qty, e.getValue().entries.size()));
+      }
+      return MarketDepthResponse.builder()
+          .totalQty(totalQty)
+          .listingCount(byId.size())
+          .levels(out)
+          .build();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuild() {
+    // Lấy watermark trước khi nạp để không bỏ sót thay đổi xảy ra trong lúc nạp
+    LocalDateTime mark = listingRepository.findMaxUpdatedAt();
+    List<Listing> approved = listingRepository.findByStatusOrderByPricePerUnitAsc(ListingStatus.APPROVED);
+
+    lock.writeLock().lock();
+    try {
+      levels.clear();
+      byId.clear();
+      loading.clear();
+      removedAt.clear();
+      totalQty = BigDecimal.ZERO;
+      approved.forEach(this::apply);
+      watermark = mark != null ? mark : EPOCH;
+    } finally {
+      lock.writeLock().unlock();
+    }
+    log.info("Order book rebuilt: {} listings, {} price levels, total qty {}", byId.size(), levels.size(), totalQty);
+  }
+
+  // Listing bị duyệt/gỡ ở admin hoặc owner service không phát event sang đây -> poll theo updated_at.
+  // Quét lùi syncLookback để không sót transaction commit muộn hơn updated_at của nó.
+  @Scheduled(fixedDelayString = "${app.order-book.sync-interval:PT5S}",
+             initialDelayString = "${app.order-book.sync-interval:PT5S}")
+  public void syncChanges() {
+    LocalDateTime since = watermark;
+    if (since == null) {
+      return;
+    }
+    List<Listing> changed = listingRepository.findByUpdatedAtGreaterThanEqual(since.minus(syncLookback));
+    if (changed.isEmpty()) {
+      return;
+    }
+
+    LocalDateTime max = since;
+    List<ListingOfferedEvent> offered = new ArrayList<>();
+    lock.writeLock().lock();
+    try {
+      for (Listing listing : changed) {
+        if (apply(listing)) {
+          offered.add(new ListingOfferedEvent(listing.getId(), listing.getType(),
+              listing.getPricePerUnit(), listing.getQty()));
+        }
+        if (listing.getUpdatedAt() != null && listing.getUpdatedAt().isAfter(max)) {
+          max = listing.getUpdatedAt();
+        }
+      }
+      watermark = max;
+      LocalDateTime horizon = max.minus(syncLookback);
+      removedAt.values().removeIf(t -> t.isBefore(horizon));
+    } finally {
+      lock.writeLock().unlock();
+    }
+    // Phát ngoài lock: listener (cảnh báo giá) không giữ sổ lệnh
+    offered.forEach(events::publishEvent);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onListingChanged(ListingChangedEvent event) {
+    boolean available = event.status() == ListingStatus.APPROVED
+        && event.qty() != null && event.qty().signum() > 0;
+
+    lock.writeLock().lock();
+    try {
+      if (isStale(event.listingId(), event.updatedAt())) {
+        return;
+      }
+      Entry current = byId.get(event.listingId());
+      if (!available) {
+        drop(event.listingId(), event.updatedAt());
+        return;
+      }
+      if (current != null) {
+        put(new Entry(current.listingId(), current.price(), event.qty(), current.listedAt(), event.updatedAt()));
+        return;
+      }
+      loading.add(event.listingId());
+    } finally {
+      lock.writeLock().unlock();
+    }
+
+    // Listing chưa có trong sổ: đọc đủ thông tin (giá, thời gian) ngoài lock rồi thêm vào.
+    // Trong lúc đọc, event/sync khác có thể đã gỡ (hủy lượt đọc) hoặc đã thêm listing: khi đó dòng vừa đọc
+    // có thể cũ hơn trạng thái trong sổ nên bỏ qua.
+    Listing listing = listingRepository.findById(event.listingId()).orElse(null);
+    lock.writeLock().lock();
+    try {
+      boolean stillWanted = loading.remove(event.listingId());
+      if (listing != null && stillWanted && !byId.containsKey(event.listingId())) {
+        apply(listing);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  // Gọi khi đang giữ write lock; true nếu listing mới vào sổ hoặc đổi giá.
+  // Dòng cũ hơn phiên bản sổ đang giữ (đọc trước một lượt bán/gỡ đã áp dụng) bị bỏ qua.
+  private boolean apply(Listing listing) {
+    if (isStale(listing.getId(), listing.getUpdatedAt())) {
+      return false;
+    }
+    boolean available = listing.getStatus() == ListingStatus.APPROVED
+        && listing.getQty() != null && listing.getQty().signum() > 0
+        && listing.getPricePerUnit() != null;
+    if (!available) {
+      drop(listing.getId(), listing.getUpdatedAt());
+      return false;
+    }
+    Entry previous = byId.get(listing.getId());
+    LocalDateTime listedAt = listing.getCreatedAt() != null ? listing.getCreatedAt() : LocalDateTime.MIN;
+    put(new Entry(listing.getId(), listing.getPricePerUnit(), listing.getQty(), listedAt, listing.getUpdatedAt()));
+    return previous == null || previous.price().compareTo(listing.getPricePerUnit()) != 0;
+  }
+
+  // updated_at cũ hơn phiên bản trong sổ, hoặc không mới hơn lúc listing rời sổ. Không rõ updated_at: không chặn
+  private boolean isStale(Long listingId, LocalDateTime updatedAt) {
+    if (updatedAt == null) {
+      return false;
+    }
+    Entry current = byId.get(listingId);
+    if (current != null) {
+      return current.updatedAt() != null && updatedAt.isBefore(current.updatedAt());
+    }
+    LocalDateTime removed = removedAt.get(listingId);
+    return removed != null && !updatedAt.isAfter(removed);
+  }
+
+  private void put(Entry entry) {
+    remove(entry.listingId());
+    removedAt.remove(entry.listingId());
+    Level level = levels.computeIfAbsent(entry.price(), p -> new Level());
+    level.entries.add(entry);
+    level.qty = level.qty.add(entry.qty());
+    byId.put(entry.listingId(), entry);
+    totalQty = totalQty.add(entry.qty());
+  }
+
+  // Listing rời sổ (bán hết, bị gỡ): hủy luôn lượt đọc DB đang chờ thêm nó vào, nhớ mốc rời sổ
+  private void drop(Long listingId, LocalDateTime updatedAt) {
+    remove(listingId);
+    loading.remove(listingId);
+    if (updatedAt != null) {
+      removedAt.merge(listingId, updatedAt, (a, b) -> a.isAfter(b) ? a : b);
+    }
+  }
+
+  private void remove(Long listingId) {
+    Entry old = byId.remove(listingId);
+    if (old == null) {
+      return;
+    }
+    Level level = levels.get(old.price());
+    level.entries.remove(old);
+    level.qty = level.qty.subtract(old.qty());
+    if (level.entries.isEmpty()) {
+      levels.remove(old.price());
+    }
+    totalQty = totalQty.subtract(old.qty());
+  }
+
+  private record Entry(Long listingId, BigDecimal price, BigDecimal qty, LocalDateTime listedAt,
+                       LocalDateTime updatedAt) {}
+
+  private static final class Level {
+    private final NavigableSet<Entry> entries = new TreeSet<>(TIME_PRIORITY);
+    private BigDecimal qty = BigDecimal.ZERO;
+  }
+}
@@ -0,0 +1,48 @@
+package ccm.buyer.service.impl;
+
+import ccm.buyer.entity.OutboxEvent;
+import ccm.buyer.enums.OutboxEventType;
+import ccm.buyer.event.OutboxEnqueuedEvent;
+import ccm.buyer.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Ghi tác vụ phụ vào outbox trong transaction nghiệp vụ.
+ *
+ * Chỉ tốn một INSERT (gom batch nhờ PooledId) vào bảng riêng, không đụng dòng listing/ví đang bị khóa;
+ * OutboxRelay thực hiện tác vụ sau khi commit. Rollback thì dòng outbox cũng mất, không có hóa đơn ma.
+ */
+@Component
+@RequiredArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
+public class Outbox {
+
+  private final OutboxEventRepository repo;
+  private final ApplicationEventPublisher eventPublisher;
+
+  public void issueInvoice(Long transactionId) {
+    enqueue(OutboxEventType.INVOICE_ISSUE, transactionId, null);
+  }
+
+  public void notifyBuyer(Long buyerId, String message) {
+    enqueue(OutboxEventType.BUYER_NOTIFY, buyerId, message);
+  }
+
+  // Cộng lượt bán vào owner_wallet_summaries sau commit: dòng của người bán nóng không bị khóa trong lúc mua
+  public void recordSale(Long transactionId) {
+    enqueue(OutboxEventType.OWNER_SALE, transactionId, null);
+  }
+
+  public void enqueue(OutboxEventType type, Long aggregateId, String payload) {
+    OutboxEvent event = repo.save(OutboxEvent.builder()
+        .type(type)
+        .aggregateId(aggregateId)
+        .payload(payload)
+        .build());
+    eventPublisher.publishEvent(new OutboxEnqueuedEvent(event.getId()));
+  }
+}
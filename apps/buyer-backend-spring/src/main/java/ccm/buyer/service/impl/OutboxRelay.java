@@ -0,0 +1,141 @@
+package ccm.buyer.service.impl;
+
+import ccm.buyer.entity.OutboxEvent;
+import ccm.buyer.enums.OutboxStatus;
+import ccm.buyer.event.OutboxEnqueuedEvent;
+import ccm.buyer.repository.OutboxEventRepository;
+import ccm.buyer.repository.OwnerWalletSummaryRepository;
+import ccm.buyer.service.InvoiceService;
+import ccm.buyer.service.NotificationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thực hiện các dòng outbox sau khi transaction mua đã commit.
+ *
+ * - Sau commit: id được đưa ngay cho pool worker nhỏ (app.outbox.workers), để tác vụ phụ không chiếm hết
+ *   connection pool của các request mua. Hàng đợi đầy thì bỏ qua, lượt quét sẽ nhặt lại.
+ * - Quét định kỳ: các dòng PENDING đến hạn (restart giữa chừng, retry có backoff).
+ * - Mỗi dòng xử lý trong một transaction: UPDATE status = DONE (khóa dòng, chặn worker thứ hai) rồi tác vụ;
+ *   hóa đơn/thông báo/số liệu ví owner và trạng thái DONE commit cùng nhau nên không bị làm hai lần.
+ */
+@Slf4j
+@Component
+public class OutboxRelay implements DisposableBean {
+
+  private static final int SWEEP_BATCH = 500;
+  private static final int MAX_ATTEMPTS = 10;
+
+  private final OutboxEventRepository repo;
+  private final InvoiceService invoiceService;
+  private final NotificationService notificationService;
+  private final OwnerWalletSummaryRepository ownerWallets;
+  private final TransactionTemplate tx;
+  private final ThreadPoolExecutor workers;
+
+  public OutboxRelay(OutboxEventRepository repo,
+                     InvoiceService invoiceService,
+                     NotificationService notificationService,
+                     OwnerWalletSummaryRepository ownerWallets,
+                     PlatformTransactionManager transactionManager,
+                     @Value("${app.outbox.workers:2}") int workerCount,
+                     @Value("${app.outbox.queue-capacity:10000}") int queueCapacity) {
+    this.repo = repo;
+    this.invoiceService = invoiceService;
+    this.notificationService = notificationService;
+    this.ownerWallets = ownerWallets;
+    this.tx = new TransactionTemplate(transactionManager);
+    AtomicInteger seq = new AtomicInteger();
+    this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity),
+        r -> Thread.ofPlatform().name("outbox-" + seq.incrementAndGet()).daemon().unstarted(r),
+        new ThreadPoolExecutor.DiscardPolicy());
+  }
+
+  @TransactionalEventListener
+  public void onEnqueued(OutboxEnqueuedEvent event) {
+    dispatch(event.outboxId());
+  }
+
+  @Scheduled(fixedDelayString = "${app.outbox.sweep-interval:PT10S}",
+             initialDelayString = "${app.outbox.sweep-interval:PT10S}")
+  public void sweep() {
+    List<Long> due = repo.findDueIds(LocalDateTime.now(), Limit.of(SWEEP_BATCH));
+    due.forEach(this::dispatch);
+  }
+
+  // Số tác vụ đang chờ trong hàng đợi bộ nhớ (chưa tính các dòng chỉ có trên DB)
+  public int queued() {
+    return workers.getQueue().size() + workers.getActiveCount();
+  }
+
+  private void dispatch(Long id) {
+    try {
+      workers.execute(() -> process(id));
+    } catch (RejectedExecutionException e) {
+      // pool đã tắt; dòng vẫn PENDING trên DB
+    }
+  }
+
+  private void process(Long id) {
+    try {
+      tx.executeWithoutResult(status -> {
+        if (repo.markDone(id, LocalDateTime.now()) == 0) {
+          return;
+        }
+        OutboxEvent event = repo.findById(id).orElseThrow();
+        switch (event.getType()) {
+          case INVOICE_ISSUE -> invoiceService.issueInvoice(event.getAggregateId());
+          case BUYER_NOTIFY -> notificationService.notifyBuyer(event.getAggregateId(), event.getPayload());
+          case OWNER_SALE -> ownerWallets.recordSale(event.getAggregateId(), LocalDateTime.now());
+        }
+      });
+    } catch (RuntimeException e) {
+      recordFailure(id, e);
+    }
+  }
+
+  private void recordFailure(Long id, RuntimeException cause) {
+    try {
+      tx.executeWithoutResult(status -> repo.findById(id).ifPresent(event -> {
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        event.setLastError(truncate(String.valueOf(cause.getMessage())));
+        if (attempts >= MAX_ATTEMPTS) {
+          event.setStatus(OutboxStatus.FAILED);
+          log.error("Outbox event {} ({}) failed permanently", id, event.getType(), cause);
+        } else {
+          // Backoff 2^n giây, tối đa ~17 phút
+          event.setNextAttemptAt(LocalDateTime.now().plusSeconds(1L << Math.min(attempts, 10)));
+          log.warn("Outbox event {} ({}) failed, attempt {}: {}", id, event.getType(), attempts, cause.getMessage());
+        }
+      }));
+    } catch (RuntimeException e) {
+      log.error("Could not record failure of outbox event {}", id, e);
+    }
+  }
+
+  private static String truncate(String message) {
+    return message.length() <= 500 ? message : message.substring(0, 500);
+  }
+
+  @Override
+  public void destroy() {
+    workers.shutdownNow();
+  }
+}
@@ -21,11 +21,9 @@ public class PaymentServiceImpl implements PaymentService {
     @Override
     @Transactional
     public Payment processPayment(Long trId, String method, BigDecimal amount) {
+        // UUID ngẫu nhiên: không cần truy vấn kiểm tra trùng (truy vấn đó buộc flush mỗi lần, phá batch insert)
         String ref = "PMT-" + UUID.randomUUID();
 
-        if (repo.existsByRef(ref))
-            throw new IllegalStateException("Duplicate payment reference detected");
-
         Payment payment = Payment.builder()
                 .trId(trId)
                 .method(method)
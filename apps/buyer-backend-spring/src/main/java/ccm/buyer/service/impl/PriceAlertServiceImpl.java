@@ -0,0 +1,209 @@
+package ccm.buyer.service.impl;
+
+import ccm.buyer.dto.request.CreatePriceAlertRequest;
+import ccm.buyer.dto.response.PriceAlertResponse;
+import ccm.buyer.entity.PriceAlert;
+import ccm.buyer.enums.ListingType;
+import ccm.buyer.event.ListingOfferedEvent;
+import ccm.buyer.exception.NotFoundException;
+import ccm.buyer.repository.PriceAlertFiringRepository;
+import ccm.buyer.repository.PriceAlertRepository;
+import ccm.buyer.service.NotificationService;
+import ccm.buyer.service.PriceAlertService;
+import ccm.common.index.PrioritySearchTree;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cảnh báo giá trên chỉ mục trong bộ nhớ thay cho việc buyer F5 catalog chờ giá xuống.
+ *
+ * - Mỗi cảnh báo là một điểm (maxPrice, minQty) trong PrioritySearchTree (ccm.common.index); listing giá p,
+ *   số lượng q khớp mọi điểm maxPrice >= p, minQty <= q: O(log n + số cảnh báo khớp), không quét hết.
+ * - Một cây cho mỗi loại listing và một cây cho cảnh báo "mọi loại".
+ * - Cây bất biến: tạo/xoá cảnh báo chỉ đánh dấu dirty, lần khớp kế tiếp dựng lại một lần cho cả loạt thay đổi.
+ * - Khởi động: nạp lại toàn bộ price_alerts. Sự kiện đến từ OrderBookServiceImpl (listing mới duyệt hoặc
+ *   đổi giá); mỗi buyer nhận tối đa một thông báo cho mỗi lần listing được chào bán.
+ * - Mọi instance đều đồng bộ sổ lệnh và khớp cùng sự kiện: trước khi báo, giành (buyer, listing, giá) trong
+ *   price_alert_firings; chỉ instance ghi được dòng mới gửi thông báo.
+ */
+@Slf4j
+@Service
+public class PriceAlertServiceImpl implements PriceAlertService {
+
+  private final PriceAlertRepository repo;
+  private final PriceAlertFiringRepository firings;
+  private final NotificationService notificationService;
+  private final TransactionTemplate tx;
+  private final int maxPerBuyer;
+  private final Duration firingRetention;
+
+  private final Map<Long, PriceAlert> alerts = new HashMap<>();
+  // Ghi trong synchronized, đọc không khóa ở current(): phải volatile
+  private volatile boolean dirty = true;
+  private volatile Index index = new Index(new EnumMap<>(ListingType.class), PrioritySearchTree.empty());
+
+  public PriceAlertServiceImpl(PriceAlertRepository repo,
+                               PriceAlertFiringRepository firings,
+                               NotificationService notificationService,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.price-alerts.max-per-buyer:20}") int maxPerBuyer,
+                               @Value("${app.price-alerts.firing-retention:P1D}") Duration firingRetention) {
+    this.repo = repo;
+    this.firings = firings;
+    this.notificationService = notificationService;
+    this.tx = new TransactionTemplate(transactionManager);
+    this.maxPerBuyer = maxPerBuyer;
+    this.firingRetention = firingRetention;
+  }
+
+  @Override
+  public PriceAlertResponse create(CreatePriceAlertRequest req) {
+    if (req.getBuyerId() == null) {
+      throw new IllegalArgumentException("buyerId is required");
+    }
+    if (req.getMaxPrice() == null || req.getMaxPrice().signum() <= 0) {
+      throw new IllegalArgumentException("maxPrice must be greater than 0");
+    }
+    if (req.getMinQty() != null && req.getMinQty().signum() < 0) {
+      throw new IllegalArgumentException("minQty must not be negative");
+    }
+    if (repo.countByBuyerId(req.getBuyerId()) >= maxPerBuyer) {
+      throw new IllegalStateException("A buyer can have at most " + maxPerBuyer + " price alerts");
+    }
+    PriceAlert alert = repo.save(PriceAlert.builder()
+        .buyerId(req.getBuyerId())
+        .maxPrice(req.getMaxPrice())
+        .minQty(req.getMinQty() != null ? req.getMinQty() : BigDecimal.ZERO)
+        .listingType(req.getListingType())
+        .build());
+    synchronized (this) {
+      alerts.put(alert.getId(), alert);
+      dirty = true;
+    }
+    return map(alert);
+  }
+
+  @Override
+  public List<PriceAlertResponse> list(Long buyerId) {
+    return repo.findByBuyerIdOrderByIdDesc(buyerId).stream().map(this::map).toList();
+  }
+
+  @Override
+  public void delete(Long buyerId, Long alertId) {
+    PriceAlert alert = repo.findById(alertId)
+        .filter(a -> a.getBuyerId().equals(buyerId))
+        .orElseThrow(() -> new NotFoundException("Price alert not found: " + alertId));
+    repo.delete(alert);
+    synchronized (this) {
+      alerts.remove(alertId);
+      dirty = true;
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void reload() {
+    List<PriceAlert> all = repo.findAll();
+    synchronized (this) {
+      alerts.clear();
+      all.forEach(a -> alerts.put(a.getId(), a));
+      dirty = true;
+    }
+    log.info("Price alert index loaded: {} alerts", all.size());
+  }
+
+  @EventListener
+  public void onListingOffered(ListingOfferedEvent event) {
+    if (event.price() == null || event.qty() == null) {
+      return;
+    }
+    Set<Long> buyers = match(event.type(), event.price(), event.qty());
+    LocalDateTime now = LocalDateTime.now();
+    for (Long buyerId : buyers) {
+      Integer claimed = tx.execute(status -> firings.claim(buyerId, event.listingId(), event.price(), now));
+      if (claimed == null || claimed == 0) {
+        continue;
+      }
+      notificationService.notifyBuyer(buyerId, "Cảnh báo giá: listing #" + event.listingId() + " có "
+          + event.qty() + " tín chỉ giá " + event.price() + ", trong ngưỡng bạn đặt.");
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${app.price-alerts.purge-interval:PT1H}",
+             initialDelayString = "${app.price-alerts.purge-interval:PT1H}")
+  public void purgeFirings() {
+    tx.executeWithoutResult(status -> firings.deleteCreatedBefore(LocalDateTime.now().minus(firingRetention)));
+  }
+
+  // Buyer có ít nhất một cảnh báo khớp (maxPrice >= price, minQty <= qty, cùng loại hoặc mọi loại)
+  Set<Long> match(ListingType type, BigDecimal price, BigDecimal qty) {
+    Index current = current();
+    Set<Long> buyers = new LinkedHashSet<>();
+    current.any().query(price, qty, buyers::add);
+    PrioritySearchTree<BigDecimal, BigDecimal, Long> typed = current.byType().get(type);
+    if (typed != null) {
+      typed.query(price, qty, buyers::add);
+    }
+    return buyers;
+  }
+
+  private Index current() {
+    if (!dirty) {
+      return index;
+    }
+    synchronized (this) {
+      if (dirty) {
+        index = build();
+        dirty = false;
+      }
+      return index;
+    }
+  }
+
+  // Gọi khi đang giữ monitor
+  private Index build() {
+    Map<ListingType, List<PrioritySearchTree.Point<BigDecimal, BigDecimal, Long>>> typed = new EnumMap<>(ListingType.class);
+    List<PrioritySearchTree.Point<BigDecimal, BigDecimal, Long>> any = new ArrayList<>();
+    for (PriceAlert a : alerts.values()) {
+      var point = new PrioritySearchTree.Point<>(a.getMaxPrice(), a.getMinQty(), a.getBuyerId());
+      if (a.getListingType() == null) {
+        any.add(point);
+      } else {
+        typed.computeIfAbsent(a.getListingType(), t -> new ArrayList<>()).add(point);
+      }
+    }
+    Map<ListingType, PrioritySearchTree<BigDecimal, BigDecimal, Long>> trees = new EnumMap<>(ListingType.class);
+    typed.forEach((t, points) -> trees.put(t, PrioritySearchTree.of(points)));
+    return new Index(trees, PrioritySearchTree.of(any));
+  }
+
+  private PriceAlertResponse map(PriceAlert a) {
+    return PriceAlertResponse.builder()
+        .id(a.getId())
+        .buyerId(a.getBuyerId())
+        .maxPrice(a.getMaxPrice())
+        .minQty(a.getMinQty())
+        .listingType(a.getListingType())
+        .createdAt(a.getCreatedAt())
+        .build();
+  }
+
+  private record Index(Map<ListingType, PrioritySearchTree<BigDecimal, BigDecimal, Long>> byType,
+                       PrioritySearchTree<BigDecimal, BigDecimal, Long> any) {}
+}
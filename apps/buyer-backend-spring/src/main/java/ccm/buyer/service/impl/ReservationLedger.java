@@ -0,0 +1,306 @@
+package ccm.buyer.service.impl;
+
+import ccm.buyer.repository.ListingRepository;
+import ccm.common.time.TimingWheel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Sổ giữ chỗ theo listing trong bộ nhớ: checkout giữ số lượng trong lúc thanh toán, hết TTL thì tự nhả.
+ *
+ * - Mỗi listing có tổng held cập nhật cộng/trừ dần, nên available = qty trên DB - held là O(1).
+ * - Hạn của hold nằm trên TimingWheel (ccm.common.time.TimingWheel); luồng "reservation-expiry" quay
+ *   bánh xe mỗi tick, không quét bảng hay danh sách hold.
+ * - Giao dịch mua claim hold ngay sau khi trừ qty trên DB: commit thì hold tiêu hết, rollback thì hold
+ *   trở lại chờ TTL (client thử thanh toán lại được). Mua không có hold chỉ được lấy phần chưa bị giữ.
+ * - DB vẫn là nguồn sự thật: decrementQty có điều kiện chặn bán vượt kể cả khi nhiều instance giữ chỗ
+ *   riêng; sổ này chỉ đảm bảo trong một instance, phần đã giữ không bị người khác mua mất.
+ * - Stock của listing chỉ tồn tại khi còn hold / lượt mua đang chạy: rỗng thì bị gỡ khỏi map, map không lớn
+ *   dần theo số listing đã từng bán.
+ */
+@Slf4j
+@Component
+public class ReservationLedger implements DisposableBean {
+
+  private static final int WHEEL_SIZE = 64;
+
+  private final ListingRepository listingRepository;
+  private final Duration ttl;
+  private final long tickMs;
+  private final TimingWheel<Long> wheel;
+  private final AtomicLong sequence = new AtomicLong();
+  // Tăng mỗi lần một lượt mua commit (qty DB giảm rồi held mới giảm): reserve() biết qty đọc ngoài khóa đã cũ
+  private final AtomicLong settledPurchases = new AtomicLong();
+  private final Map<Long, Hold> holds = new ConcurrentHashMap<>();
+  private final Map<Long, Stock> stocks = new ConcurrentHashMap<>();
+  private volatile Thread ticker;
+
+  public ReservationLedger(ListingRepository listingRepository,
+                           @Value("${app.reservations.ttl:PT10M}") Duration ttl,
+                           @Value("${app.reservations.expiry-tick:PT1S}") Duration tick) {
+    this.listingRepository = listingRepository;
+    this.ttl = ttl;
+    this.tickMs = tick.toMillis();
+    this.wheel = new TimingWheel<>(tick, WHEEL_SIZE, System.currentTimeMillis());
+  }
+
+  public record Hold(long id, Long listingId, Long buyerId, BigDecimal qty, long expiresAtMs) {}
+
+  /** Giữ qty của listing cho buyer tới hết TTL; không đủ số lượng chưa bị giữ thì IllegalStateException. */
+  public Hold reserve(Long listingId, Long buyerId, BigDecimal qty) {
+    if (qty == null || qty.signum() <= 0) {
+      throw new IllegalArgumentException("Quantity must be greater than 0");
+    }
+    Hold hold = new Hold(sequence.incrementAndGet(), listingId, buyerId, qty,
+        System.currentTimeMillis() + ttl.toMillis());
+    // Đọc qty DB ngoài khóa: người mua cùng một listing nóng không xếp hàng sau một round-trip DB
+    long settledBefore = settledPurchases.get();
+    BigDecimal read = listingRepository.findQtyById(listingId);
+    withStock(listingId, stock -> {
+      // Một lượt mua commit sau lần đọc đã trừ phần của nó khỏi held: qty vừa đọc còn tính phần đó, đọc lại
+      BigDecimal onHand = stock.lastSettle > settledBefore ? listingRepository.findQtyById(listingId) : read;
+      if (onHand == null || onHand.subtract(stock.held).compareTo(qty) < 0) {
+        throw new IllegalStateException("Not enough credits available");
+      }
+      stock.held = stock.held.add(qty);
+      holds.put(hold.id(), hold);
+      return null;
+    });
+    wheel.schedule(hold.id(), hold.expiresAtMs());
+    return hold;
+  }
+
+  /** Nhả hold trước hạn; false nếu hold không còn, không phải của buyer, hoặc đang được thanh toán. */
+  public boolean release(long holdId, Long buyerId) {
+    Hold hold = holds.get(holdId);
+    if (hold == null || !hold.buyerId().equals(buyerId)) {
+      return false;
+    }
+    boolean released = withStock(hold.listingId(), stock -> {
+      if (stock.claimed.contains(holdId) || holds.remove(holdId) == null) {
+        return false;
+      }
+      stock.held = stock.held.subtract(hold.qty());
+      return true;
+    });
+    if (released) {
+      wheel.cancel(holdId);
+    }
+    return released;
+  }
+
+  public BigDecimal available(Long listingId) {
+    // held đọc trước qty: hold vừa rời held thì lượt trừ DB của nó đã thấy được, không đếm thừa
+    Stock stock = stocks.get(listingId);
+    BigDecimal held = stock == null ? BigDecimal.ZERO : stock.held;
+    BigDecimal onHand = listingRepository.findQtyById(listingId);
+    return onHand == null ? BigDecimal.ZERO : onHand.subtract(held).max(BigDecimal.ZERO);
+  }
+
+  /**
+   * Đối chiếu một lượt mua với sổ giữ chỗ. Gọi trong transaction mua khi đang giữ khóa dòng listing
+   * (sau decrementQty hoặc SELECT ... FOR UPDATE), remaining = số lượng còn lại thật sau lượt mua này.
+   * holdId != null: hold phải của buyer, đúng listing và qty, nếu không IllegalStateException.
+   * Trả về false (không đổi gì) nếu phần còn lại không đủ cho hold của người khác chưa vào thanh toán.
+   * Kết thúc transaction sẽ chốt hoặc trả hold lại.
+   */
+  public boolean claim(Long listingId, Long buyerId, BigDecimal qty, Long holdId, BigDecimal remaining) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      throw new IllegalStateException("Reservation claim requires an active transaction");
+    }
+    Hold hold;
+    if (holdId == null) {
+      hold = new Hold(0, listingId, buyerId, qty, 0);
+    } else {
+      hold = holds.get(holdId);
+      if (hold == null || !hold.listingId().equals(listingId) || !hold.buyerId().equals(buyerId)
+          || hold.qty().compareTo(qty) != 0) {
+        throw new IllegalStateException("Reservation " + holdId + " is expired or does not match this purchase");
+      }
+    }
+    boolean claimed = withStock(listingId, stock -> {
+      if (holdId != null && (!holds.containsKey(holdId) || stock.claimed.contains(holdId))) {
+        throw new IllegalStateException("Reservation " + holdId + " is expired or already in checkout");
+      }
+      // Hold đang thanh toán đã trừ DB trước lượt này (chúng giữ khóa dòng trước), không tính lại
+      BigDecimal reservedByOthers = stock.held.subtract(stock.inCheckout);
+      if (holdId != null) {
+        reservedByOthers = reservedByOthers.subtract(qty);
+      }
+      if (remaining.compareTo(reservedByOthers) < 0) {
+        return false;
+      }
+      if (holdId != null) {
+        stock.claimed.add(holdId);
+      } else {
+        stock.held = stock.held.add(qty);
+      }
+      stock.inCheckout = stock.inCheckout.add(qty);
+      return true;
+    });
+    if (!claimed) {
+      return false;
+    }
+    // Không để hold hết hạn giữa lúc thanh toán
+    if (holdId != null) {
+      wheel.cancel(holdId);
+    }
+    registerSettle(hold);
+    return true;
+  }
+
+  private void registerSettle(Hold hold) {
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        settle(hold, status == STATUS_COMMITTED);
+      }
+    });
+  }
+
+  // Quay bánh xe tới nowMs, nhả các hold đến hạn (trừ hold đang được thanh toán); trả về số hold đã nhả
+  int expire(long nowMs) {
+    List<Long> due = wheel.advance(nowMs);
+    int released = 0;
+    for (Long holdId : due) {
+      Hold hold = holds.get(holdId);
+      if (hold == null) {
+        continue;
+      }
+      boolean expired = withStock(hold.listingId(), stock -> {
+        if (stock.claimed.contains(holdId) || holds.remove(holdId) == null) {
+          return false;
+        }
+        stock.held = stock.held.subtract(hold.qty());
+        return true;
+      });
+      if (expired) {
+        released++;
+      }
+    }
+    return released;
+  }
+
+  public int activeHolds() {
+    return holds.size();
+  }
+
+  int trackedListings() {
+    return stocks.size();
+  }
+
+  private void settle(Hold hold, boolean committed) {
+    boolean transientHold = hold.id() == 0;
+    withStock(hold.listingId(), stock -> {
+      if (committed) {
+        stock.lastSettle = settledPurchases.incrementAndGet();
+      }
+      stock.inCheckout = stock.inCheckout.subtract(hold.qty());
+      if (transientHold) {
+        stock.held = stock.held.subtract(hold.qty());
+        return null;
+      }
+      stock.claimed.remove(hold.id());
+      if (!committed) {
+        // Rollback: hold vẫn thuộc buyer tới hạn cũ (đã quá hạn thì nhả ở tick kế tiếp)
+        wheel.schedule(hold.id(), hold.expiresAtMs());
+        return null;
+      }
+      if (holds.remove(hold.id()) != null) {
+        stock.held = stock.held.subtract(hold.qty());
+      }
+      return null;
+    });
+  }
+
+  // Chạy action khi giữ khóa Stock của listing. Stock rỗng sau đó thì bị gỡ khỏi map; luồng nào lấy được
+  // Stock đã gỡ (retired) thì lấy lại cái mới, nên mọi thay đổi của một listing luôn trên cùng một Stock.
+  private <T> T withStock(Long listingId, Function<Stock, T> action) {
+    while (true) {
+      Stock stock = stocks.computeIfAbsent(listingId, id -> new Stock(settledPurchases.get()));
+      synchronized (stock) {
+        if (stock.retired) {
+          continue;
+        }
+        try {
+          return action.apply(stock);
+        } finally {
+          if (stock.isEmpty()) {
+            stock.retired = true;
+            stocks.remove(listingId, stock);
+          }
+        }
+      }
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public synchronized void start() {
+    if (ticker != null) {
+      return;
+    }
+    ticker = Thread.ofPlatform().name("reservation-expiry").daemon().start(this::run);
+  }
+
+  private void run() {
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        Thread.sleep(tickMs);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+      try {
+        int released = expire(System.currentTimeMillis());
+        if (released > 0) {
+          log.debug("Released {} expired reservations", released);
+        }
+      } catch (RuntimeException e) {
+        log.error("Reservation expiry tick failed", e);
+      }
+    }
+  }
+
+  @Override
+  public void destroy() {
+    Thread t = ticker;
+    if (t != null) {
+      t.interrupt();
+    }
+  }
+
+  // held: mọi hold + lượt mua đang chạy; inCheckout: phần trong đó đã trừ DB, chờ commit.
+  // lastSettle: settledPurchases của lượt mua commit gần nhất (Stock mới: giá trị lúc tạo, coi như vừa có).
+  // Chỉ đổi trong synchronized(stock); held volatile để available() đọc không cần khóa
+  private static final class Stock {
+    private volatile BigDecimal held = BigDecimal.ZERO;
+    private BigDecimal inCheckout = BigDecimal.ZERO;
+    private final Set<Long> claimed = new HashSet<>();
+    private long lastSettle;
+    private boolean retired;
+
+    private Stock(long lastSettle) {
+      this.lastSettle = lastSettle;
+    }
+
+    private boolean isEmpty() {
+      return held.signum() == 0 && inCheckout.signum() == 0 && claimed.isEmpty();
+    }
+  }
+}
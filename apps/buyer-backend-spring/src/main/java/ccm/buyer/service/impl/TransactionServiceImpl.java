@@ -1,17 +1,21 @@
 package ccm.buyer.service.impl;
 
+import ccm.buyer.dto.request.CartCheckoutRequest;
 import ccm.buyer.dto.request.CreateTransactionRequest;
+import ccm.buyer.dto.request.TransactionHistoryQuery;
+import ccm.buyer.dto.response.CartCheckoutResponse;
+import ccm.buyer.dto.response.TransactionPageResponse;
 import ccm.buyer.dto.response.TransactionResponse;
 import ccm.buyer.entity.Listing;
 import ccm.buyer.entity.Payment;
 import ccm.buyer.entity.Transaction;
 import ccm.buyer.enums.PayStatus;
 import ccm.buyer.enums.TrStatus;
+import ccm.buyer.enums.WalletEntryType;
 import ccm.buyer.exception.NotFoundException;
 import ccm.buyer.repository.TransactionRepository;
-import ccm.buyer.service.InvoiceService;
 import ccm.buyer.service.ListingService;
-import ccm.buyer.service.NotificationService;
+import ccm.buyer.service.OrderBookService;
 import ccm.buyer.service.PaymentService;
 import ccm.buyer.service.TransactionService;
        
@@ -23,11 +27,14 @@ import ccm.buyer.repository.CarbonCreditRepository;
 import ccm.buyer.repository.EWalletRepository; // Import mới
 import ccm.buyer.repository.ListingRepository; // Import mới
 import ccm.buyer.enums.ListingStatus;
+import ccm.buyer.event.ListingChangedEvent;
 
 
 
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -35,34 +42,76 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 
 @Service
 @RequiredArgsConstructor
 public class TransactionServiceImpl implements TransactionService {
 
+private static final int EXPORT_BATCH = 500;
+private static final int MAX_CART_LINES = 100;
+
 private final TransactionRepository transactionRepository;
 private final ListingService listingService;
 private final PaymentService paymentService;
-private final InvoiceService invoiceService;
-private final NotificationService notifyService;
-private final EWalletRepository eWalletRepository;
+private final Outbox outbox;
+private final WalletLedger walletLedger;
     private final ListingRepository listingRepository;
     private final CarbonCreditRepository creditRepository; // Cần inject thêm cái này
     private final EWalletRepository walletRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OrderBookService orderBookService;
+    private final BuyerDashboardCounters dashboardCounters;
 
   @Override
-  public List<TransactionResponse> list(Long buyerId) {
-    List<Transaction> data = (buyerId == null)
-        ? transactionRepository.findAll()
-        : transactionRepository.findByBuyerId(buyerId);
-    return data.stream().map(this::map).toList();
+  public TransactionPageResponse history(TransactionHistoryQuery query) {
+    // Lấy dư một dòng để biết còn trang sau mà không cần COUNT(*)
+    List<TransactionResponse> rows = findHistory(query, query.limit() + 1);
+    boolean hasMore = rows.size() > query.limit();
+    List<TransactionResponse> items = hasMore ? rows.subList(0, query.limit()) : rows;
+
+    return TransactionPageResponse.builder()
+        .items(items)
+        .nextCursor(hasMore ? TransactionHistoryQuery.cursorOf(items.get(items.size() - 1)) : null)
+        .build();
+  }
+
+  @Override
+  public void exportHistory(TransactionHistoryQuery query, Consumer<List<TransactionResponse>> sink) {
+    // Mỗi lô một câu keyset ngắn: không giữ connection/transaction trong lúc ghi ra client chậm
+    TransactionHistoryQuery page = query;
+    while (true) {
+      List<TransactionResponse> batch = findHistory(page, EXPORT_BATCH);
+      if (batch.isEmpty()) {
+        return;
+      }
+      sink.accept(batch);
+      if (batch.size() < EXPORT_BATCH) {
+        return;
+      }
+      page = page.after(batch.get(batch.size() - 1));
+    }
+  }
+
+  private List<TransactionResponse> findHistory(TransactionHistoryQuery query, int limit) {
+    return transactionRepository.findHistory(query.buyerId(), query.status(), query.from(), query.to(),
+            query.afterCreatedAt(), query.afterId(), Limit.of(limit))
+        .stream().map(this::map).toList();
   }
 
   @Override
 @Transactional
 public TransactionResponse create(CreateTransactionRequest req) {
+    if (req.getQty() == null || req.getQty().signum() <= 0) {
+        throw new IllegalArgumentException("Quantity must be greater than 0");
+    }
+
     // 1. Validate Listing (Không cần check User nữa, tin tưởng ID từ Token gửi xuống)
     Listing listing = listingService.validateOpen(req.getListingId());
     
@@ -74,6 +123,7 @@ public TransactionResponse create(CreateTransactionRequest req) {
     Transaction tx = Transaction.builder()
             .buyerId(req.getBuyerId())
             .listingId(req.getListingId())
+            .sellerId(listing.getSellerId())
             .qty(req.getQty())
             .amount(total)
             .status(TrStatus.PENDING)
@@ -81,54 +131,52 @@ public TransactionResponse create(CreateTransactionRequest req) {
             .build();
 
     tx = transactionRepository.save(tx);
+    dashboardCounters.recordNew(tx.getBuyerId(), TrStatus.PENDING, total);
 
     // 4. Xử lý thanh toán (Giữ nguyên logic cũ)
     try {
         Payment pay = paymentService.processPayment(tx.getId(), "WALLET", total);
         if (pay.getStatus() == PayStatus.SUCCESS) {
-            // [LOGIC MỚI] Trừ số lượng
-            BigDecimal newQty = listing.getQty().subtract(req.getQty());
-            
-            // Validate lại lần cuối (dù Frontend đã chặn nhưng Backend phải chắc chắn)
-            if (newQty.compareTo(BigDecimal.ZERO) < 0) {
+            LocalDateTime now = LocalDateTime.now();
+
+            // A. Trừ kho nguyên tử (UPDATE ... WHERE qty >= ?): mua đồng thời không thể bán vượt số lượng,
+            //    chỉ khóa dòng của listing này nên mua các listing khác không bị chặn
+            if (listingRepository.decrementQty(listing.getId(), req.getQty(), now) == 0) {
                  throw new IllegalStateException("Not enough credits available");
             }
-
-            listing.setQty(newQty); // Cập nhật số còn lại
-                
-            // Nếu hết hàng (newQty == 0) -> Đổi trạng thái thành SOLD
-            if (newQty.compareTo(BigDecimal.ZERO) == 0) {
-                listing.setStatus(ListingStatus.SOLD);
-            } else {
-                // Nếu còn hàng -> Giữ nguyên trạng thái APPROVED
-                listing.setStatus(ListingStatus.APPROVED);
+            BigDecimal newQty = listingRepository.findQtyById(listing.getId());
+            // Phần còn lại phải đủ cho các hold của người khác; có holdId thì tiêu đúng hold đó
+            if (!listingService.claimReserved(
+                    listing.getId(), req.getBuyerId(), req.getQty(), req.getHoldId(), newQty)) {
+                throw new IllegalStateException("Not enough credits available");
             }
-            
-            listingRepository.save(listing);
-
-                // B. CỘNG TIỀN CHO NGƯỜI BÁN (Update Wallet)
-                EWallet sellerWallet = eWalletRepository.findByUserId(listing.getSellerId())
-                        .orElseThrow(() -> new RuntimeException("Ví người bán không tồn tại!"));
-                
-                sellerWallet.setBalance(sellerWallet.getBalance().add(total));
-                sellerWallet.setUpdatedAt(LocalDateTime.now());
-                eWalletRepository.save(sellerWallet);
-
-                // C. Hoàn tất giao dịch
+            ListingStatus newStatus = newQty.signum() == 0 ? ListingStatus.SOLD : ListingStatus.APPROVED;
+            eventPublisher.publishEvent(new ListingChangedEvent(listing.getId(), newQty, newStatus, now));
+
+                // B. Hoàn tất giao dịch
                 tx.setStatus(TrStatus.COMPLETED);
                 transactionRepository.save(tx);
-                
-                invoiceService.issueInvoice(tx.getId());
-                notifyService.notifyBuyer(req.getBuyerId(), "Mua thành công " + req.getQty() + " tCO2!");
+                dashboardCounters.recordStatusChange(tx.getBuyerId(), TrStatus.PENDING, TrStatus.COMPLETED, total);
+
+                // Hóa đơn + thông báo: chỉ ghi outbox, OutboxRelay làm sau commit (không giữ khóa listing/ví)
+                outbox.issueInvoice(tx.getId());
+                outbox.recordSale(tx.getId());
+                outbox.notifyBuyer(req.getBuyerId(), "Mua thành công " + req.getQty() + " tCO2!");
+
+                // C. CỘNG TIỀN CHO NGƯỜI BÁN: một bút toán wallet_ledger, không khóa dòng ví người bán
+                if (!walletLedger.credit(listing.getSellerId(), total, WalletEntryType.SALE, tx.getId())) {
+                    throw new RuntimeException("Ví người bán không tồn tại!");
+                }
         } else {
             tx.setStatus(TrStatus.FAILED);
             transactionRepository.save(tx);
-            notifyService.notifyBuyer(req.getBuyerId(), "Payment failed.");
+            dashboardCounters.recordStatusChange(tx.getBuyerId(), TrStatus.PENDING, TrStatus.FAILED, total);
+            outbox.notifyBuyer(req.getBuyerId(), "Payment failed.");
         }
     } catch (Exception ex) {
         tx.setStatus(TrStatus.FAILED);
             transactionRepository.save(tx);
-            notifyService.notifyBuyer(req.getBuyerId(), "ERROR: " + ex.getMessage());
+            outbox.notifyBuyer(req.getBuyerId(), "ERROR: " + ex.getMessage());
             throw ex;
     }
 
@@ -137,47 +185,164 @@ public TransactionResponse create(CreateTransactionRequest req) {
 @Override
     @Transactional(rollbackFor = Exception.class) // Đảm bảo tính toàn vẹn: Mua hết hoặc không mua gì
     public List<TransactionResponse> createBulk(Long buyerId, BigDecimal totalQty) {
-        // 1. Lấy nguồn cung (Ưu tiên giá rẻ)
-        List<Listing> listings = listingRepository.findByStatusOrderByPricePerUnitAsc(ListingStatus.APPROVED);
-        
-        // 2. Kiểm tra tổng cung có đủ không
-        BigDecimal totalAvailable = listings.stream()
-                .map(Listing::getQty)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-                
-        if (totalAvailable.compareTo(totalQty) < 0) {
-            throw new IllegalArgumentException("Marketplace does not have enough credits. Available: " + totalAvailable);
-        }
+        // 1. Khớp trên sổ lệnh trong bộ nhớ (giá rẻ trước, cùng giá thì listing cũ trước).
+        //    Sổ lệnh tự kiểm tra tổng cung và chỉ trả về các listing cần khớp.
+        List<OrderBookService.Fill> fills = orderBookService.plan(totalQty);
 
-        // 3. Thuật toán vét cạn
+        // 2. create() kiểm tra lại listing trong DB; nếu đã bị mua mất thì cả lô rollback
         List<TransactionResponse> results = new ArrayList<>();
-        BigDecimal remainingNeeded = totalQty;
-
-        for (Listing listing : listings) {
-            if (remainingNeeded.compareTo(BigDecimal.ZERO) <= 0) break; // Đã đủ hàng
-
-            // Tính số lượng mua từ listing này (Lấy Min giữa "Cần mua" và "Có sẵn")
-            BigDecimal buyQty = listing.getQty().min(remainingNeeded);
-
-            // Gọi lại logic tạo giao dịch đơn lẻ (đã có logic trừ tiền, trừ kho, xuất hóa đơn)
+        for (OrderBookService.Fill fill : fills) {
             CreateTransactionRequest subRequest = new CreateTransactionRequest();
             subRequest.setBuyerId(buyerId);
-            subRequest.setListingId(listing.getId());
-            subRequest.setQty(buyQty);
-            
+            subRequest.setListingId(fill.listingId());
+            subRequest.setQty(fill.qty());
+
             // Lưu ý: Hàm create() sẽ tự lo việc set SOLD nếu mua hết listing đó
-            results.add(this.create(subRequest)); 
-            
-            // Cập nhật số còn thiếu
-            remainingNeeded = remainingNeeded.subtract(buyQty);
+            results.add(this.create(subRequest));
         }
 
         return results;
     }
   @Override
+  @Transactional
+  public CartCheckoutResponse checkoutCart(CartCheckoutRequest req) {
+    List<CartCheckoutRequest.Line> lines = validateCart(req);
+    Long buyerId = req.getBuyerId();
+
+    // 1. Khóa mọi listing trong giỏ bằng một câu theo id tăng dần: hai giỏ chồng nhau khóa cùng thứ tự,
+    //    chờ nhau chứ không deadlock. Từ đây số lượng đọc được là số thật tới khi commit.
+    Map<Long, Listing> locked = new HashMap<>();
+    for (Listing l : listingRepository.lockAllByIdOrderById(
+        lines.stream().map(CartCheckoutRequest.Line::getListingId).toList())) {
+      locked.put(l.getId(), l);
+    }
+
+    // 2. Ví người bán không bị khóa (cộng tiền chỉ INSERT bút toán); kiểm tra tồn tại một câu cho cả giỏ
+    Set<Long> sellersWithWallet = new HashSet<>(walletRepository.findExistingUserIds(
+        locked.values().stream().map(Listing::getSellerId).distinct().toList()));
+
+    // 3. Từng dòng: INSERT transaction/payment/bút toán/outbox được gom batch tới lúc commit
+    LocalDateTime now = LocalDateTime.now();
+    List<CartCheckoutResponse.LineResult> results = new ArrayList<>(lines.size());
+    BigDecimal totalAmount = BigDecimal.ZERO;
+    int completed = 0;
+    for (CartCheckoutRequest.Line line : lines) {
+      CartCheckoutResponse.LineResult result =
+          checkoutLine(buyerId, line, locked.get(line.getListingId()), sellersWithWallet, now);
+      results.add(result);
+      if (result.getError() == null) {
+        completed++;
+        totalAmount = totalAmount.add(result.getTransaction().getAmount());
+      }
+    }
+    if (completed > 0) {
+      outbox.notifyBuyer(buyerId, "Mua thành công " + completed + "/" + lines.size() + " listing trong giỏ hàng!");
+    }
+
+    return CartCheckoutResponse.builder()
+        .completed(completed)
+        .totalAmount(totalAmount)
+        .lines(results)
+        .build();
+  }
+
+  private List<CartCheckoutRequest.Line> validateCart(CartCheckoutRequest req) {
+    if (req.getBuyerId() == null) {
+      throw new IllegalArgumentException("buyerId is required");
+    }
+    List<CartCheckoutRequest.Line> lines = req.getLines();
+    if (lines == null || lines.isEmpty() || lines.size() > MAX_CART_LINES) {
+      throw new IllegalArgumentException("Cart must have between 1 and " + MAX_CART_LINES + " lines");
+    }
+    Set<Long> listingIds = new HashSet<>();
+    for (CartCheckoutRequest.Line line : lines) {
+      if (line.getListingId() == null || line.getQty() == null || line.getQty().signum() <= 0) {
+        throw new IllegalArgumentException("Each cart line needs a listingId and a quantity greater than 0");
+      }
+      if (!listingIds.add(line.getListingId())) {
+        throw new IllegalArgumentException("Listing " + line.getListingId() + " appears more than once in the cart");
+      }
+    }
+    return lines;
+  }
+
+  private CartCheckoutResponse.LineResult checkoutLine(Long buyerId, CartCheckoutRequest.Line line, Listing listing,
+                                                       Set<Long> sellersWithWallet, LocalDateTime now) {
+    if (listing == null) {
+      return rejected(line, "Listing not found: " + line.getListingId());
+    }
+    if (listing.getStatus() != ListingStatus.APPROVED && listing.getStatus() != ListingStatus.OPEN) {
+      return rejected(line, "Listing is not available for purchase (Status: " + listing.getStatus() + ")");
+    }
+    if (!sellersWithWallet.contains(listing.getSellerId())) {
+      return rejected(line, "Seller wallet not found");
+    }
+    if (listing.getPrice() == null) {
+      return rejected(line, "Listing has no price");
+    }
+    BigDecimal remaining = listing.getQty().subtract(line.getQty());
+    if (remaining.signum() < 0) {
+      return rejected(line, "Not enough credits available");
+    }
+
+    BigDecimal total = listing.getPrice().multiply(line.getQty()).setScale(2, RoundingMode.HALF_UP);
+    Transaction tx = transactionRepository.save(Transaction.builder()
+        .buyerId(buyerId)
+        .listingId(listing.getId())
+        .sellerId(listing.getSellerId())
+        .qty(line.getQty())
+        .amount(total)
+        .status(TrStatus.COMPLETED)
+        .type("CREDIT_PURCHASE")
+        .build());
+
+    Payment pay = paymentService.processPayment(tx.getId(), "WALLET", total);
+    if (pay.getStatus() != PayStatus.SUCCESS) {
+      tx.setStatus(TrStatus.FAILED);
+      dashboardCounters.recordNew(buyerId, TrStatus.FAILED, total);
+      return new CartCheckoutResponse.LineResult(line.getListingId(), line.getQty(), map(tx), "Payment failed.");
+    }
+
+    // Chỉ tiêu hold khi đã thanh toán xong (như create()): dòng thanh toán lỗi không làm mất hold của buyer.
+    // Dòng vẫn đang bị khóa nên remaining là số thật; claim hỏng thì hoàn tiền, dòng này FAILED
+    String claimError;
+    try {
+      claimError = listingService.claimReserved(listing.getId(), buyerId, line.getQty(), line.getHoldId(), remaining)
+          ? null : "Not enough credits available";
+    } catch (IllegalStateException e) {
+      claimError = e.getMessage();
+    }
+    if (claimError != null) {
+      tx.setStatus(TrStatus.FAILED);
+      pay.setStatus(PayStatus.REFUNDED);
+      dashboardCounters.recordNew(buyerId, TrStatus.FAILED, total);
+      return new CartCheckoutResponse.LineResult(line.getListingId(), line.getQty(), map(tx), claimError);
+    }
+
+    // Dòng đã bị khóa ở bước 1 và đủ hàng nên câu trừ kho luôn khớp
+    if (listingRepository.decrementQty(listing.getId(), line.getQty(), now) == 0) {
+      throw new IllegalStateException("Listing " + listing.getId() + " changed while locked");
+    }
+    ListingStatus newStatus = remaining.signum() == 0 ? ListingStatus.SOLD : ListingStatus.APPROVED;
+    eventPublisher.publishEvent(new ListingChangedEvent(listing.getId(), remaining, newStatus, now));
+    dashboardCounters.recordNew(buyerId, TrStatus.COMPLETED, total);
+    outbox.issueInvoice(tx.getId());
+    outbox.recordSale(tx.getId());
+    walletLedger.creditExisting(listing.getSellerId(), total, WalletEntryType.SALE, tx.getId());
+
+    return new CartCheckoutResponse.LineResult(line.getListingId(), line.getQty(), map(tx), null);
+  }
+
+  private static CartCheckoutResponse.LineResult rejected(CartCheckoutRequest.Line line, String error) {
+    return new CartCheckoutResponse.LineResult(line.getListingId(), line.getQty(), null, error);
+  }
+
+  @Override
+  @Transactional
   public TransactionResponse updateStatus(Long id, TrStatus status) {
     Transaction tx = transactionRepository.findById(id)
         .orElseThrow(() -> new NotFoundException("Transaction not found: " + id));
+    dashboardCounters.recordStatusChange(tx.getBuyerId(), tx.getStatus(), status, tx.getAmount());
     tx.setStatus(status);
     tx = transactionRepository.save(tx);
     return map(tx);
@@ -194,13 +359,16 @@ public TransactionResponse create(CreateTransactionRequest req) {
         .createdAt(t.getCreatedAt())
         .build();
   }
+  @Override
+  @Transactional
   public TransactionResponse buyListing(Long buyerId, Long listingId, BigDecimal qtyRequested) { 
         // 1. Lấy thông tin Listing (Dùng Entity của Buyer)
         Listing listing = listingRepository.findById(listingId)
                 .orElseThrow(() -> new NotFoundException("Listing not found"));
 
         // Validate: Listing phải đang mở (APPROVED hoặc OPEN)
-        if (listing.getStatus() != ListingStatus.APPROVED && listing.getStatus() != ListingStatus.OPEN) {
+        if (listing.getStatus() != ListingStatus.APPROVED && listing.getStatus() != ListingStatus.OPEN
+                || listing.getQty().signum() <= 0) {
             throw new IllegalStateException("This listing is no longer available.");
         }
 
@@ -208,47 +376,23 @@ public TransactionResponse create(CreateTransactionRequest req) {
         // Lấy toàn bộ số lượng còn lại của Listing
         BigDecimal amountToBuy = listing.getQty(); 
         BigDecimal totalCost = amountToBuy.multiply(listing.getPrice());
+        LocalDateTime now = LocalDateTime.now();
 
-        // 3. Kiểm tra số dư Buyer (Ví dụ logic ví)
-        EWallet buyerWallet = walletRepository.findByUserId(buyerId)
-                .orElseThrow(() -> new RuntimeException("Wallet not found"));
-        
-        if (buyerWallet.getBalance().compareTo(totalCost) < 0) {
-             throw new IllegalStateException("Insufficient funds.");
+        // 3. Chốt kho nguyên tử trước: nếu người khác đã mua (một phần) thì 0 dòng -> dừng
+        //    (status = SOLD, qty = 0 trong cùng câu UPDATE)
+        if (listingRepository.decrementQty(listingId, amountToBuy, now) == 0) {
+            throw new IllegalStateException("This listing is no longer available.");
         }
-
-        // 4. Trừ tiền Buyer (Logic ví tiền)
-        buyerWallet.setBalance(buyerWallet.getBalance().subtract(totalCost));
-        walletRepository.save(buyerWallet);
-        
-        // Cộng tiền cho Seller (Cần tìm ví seller)
-        EWallet sellerWallet = walletRepository.findByUserId(listing.getSellerId())
-                .orElseThrow(() -> new RuntimeException("Seller wallet not found"));
-        sellerWallet.setBalance(sellerWallet.getBalance().add(totalCost));
-        walletRepository.save(sellerWallet);
-
-        // 5. [QUAN TRỌNG] Cập nhật trạng thái Listing thành ĐÃ BÁN (SOLD)
-        listing.setStatus(ListingStatus.SOLD); // Enum của Buyer [cite: 2546]
-        listing.setQty(BigDecimal.ZERO);       // Set về 0
-        listingRepository.save(listing);
-
-        // 6. Cập nhật trạng thái Carbon Credit gốc thành SOLD
-        if (listing.getCarbonCreditId() != null) {
-            CarbonCredit credit = creditRepository.findById(listing.getCarbonCreditId()).orElse(null);
-            if (credit != null) {
-                // Bên Buyer, status là String 
-                credit.setStatus("SOLD"); 
-                // credit.setBuyerId(buyerId); // Nếu Entity Buyer có trường này thì set, không thì bỏ qua
-                // credit.setSoldAt(LocalDateTime.now()); // Tương tự
-                creditRepository.save(credit);
-            }
+        // Mua đứt không được lấy phần đang có người giữ chỗ
+        if (!listingService.claimReserved(listingId, buyerId, amountToBuy, null, BigDecimal.ZERO)) {
+            throw new IllegalStateException("This listing is no longer available.");
         }
 
-        // 7. Tạo Transaction Log
+        // 4. Tạo Transaction Log trước để bút toán ví tham chiếu được id giao dịch
         Transaction transaction = Transaction.builder()
                 .buyerId(buyerId)
-                // .sellerId(...) // Entity Transaction bên Buyer chưa có sellerId, nếu cần hãy thêm vào Entity
                 .listingId(listing.getId())
+                .sellerId(listing.getSellerId())
                 .qty(amountToBuy)
                 .amount(totalCost) // Entity Transaction dùng 'amount' cho tổng tiền [cite: 2537]
                 .status(TrStatus.COMPLETED)
@@ -259,6 +403,29 @@ public TransactionResponse create(CreateTransactionRequest req) {
 
         transactionRepository.save(transaction);
 
+        // 5. Trừ tiền Buyer (UPDATE có điều kiện trên ví buyer) / cộng tiền Seller (chỉ INSERT bút toán).
+        //    Chỉ ví buyer bị khóa dòng nên A mua của B và B mua của A cùng lúc không deadlock.
+        debitBuyer(buyerId, totalCost, transaction.getId(), now);
+        creditSeller(listing.getSellerId(), totalCost, transaction.getId());
+        outbox.recordSale(transaction.getId());
+
+        // 6. [QUAN TRỌNG] Listing đã thành ĐÃ BÁN (SOLD), qty = 0
+        eventPublisher.publishEvent(new ListingChangedEvent(listing.getId(), BigDecimal.ZERO, ListingStatus.SOLD, now));
+
+        // 7. Cập nhật trạng thái Carbon Credit gốc thành SOLD
+        if (listing.getCarbonCreditId() != null) {
+            CarbonCredit credit = creditRepository.findById(listing.getCarbonCreditId()).orElse(null);
+            if (credit != null) {
+                // Bên Buyer, status là String 
+                credit.setStatus("SOLD"); 
+                // credit.setBuyerId(buyerId); // Nếu Entity Buyer có trường này thì set, không thì bỏ qua
+                // credit.setSoldAt(LocalDateTime.now()); // Tương tự
+                creditRepository.save(credit);
+            }
+        }
+
+        dashboardCounters.recordNew(buyerId, TrStatus.COMPLETED, totalCost);
+
         // Return response (Map từ entity sang DTO)
         return TransactionResponse.builder()
                 .id(transaction.getId())
@@ -270,5 +437,19 @@ public TransactionResponse create(CreateTransactionRequest req) {
                 .createdAt(transaction.getCreatedAt())
                 .build();
     }
-}
 
+    private void debitBuyer(Long buyerId, BigDecimal amount, Long transactionId, LocalDateTime now) {
+        if (!walletLedger.debit(buyerId, amount, WalletEntryType.PURCHASE, transactionId, now)) {
+            if (!walletRepository.existsByUserId(buyerId)) {
+                throw new RuntimeException("Wallet not found");
+            }
+            throw new IllegalStateException("Insufficient funds.");
+        }
+    }
+
+    private void creditSeller(Long sellerId, BigDecimal amount, Long transactionId) {
+        if (!walletLedger.credit(sellerId, amount, WalletEntryType.SALE, transactionId)) {
+            throw new RuntimeException("Seller wallet not found");
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package ccm.buyer.service.impl;
+
+import ccm.buyer.entity.WalletLedgerEntry;
+import ccm.buyer.enums.WalletEntryType;
+import ccm.buyer.repository.EWalletRepository;
+import ccm.buyer.repository.WalletLedgerRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ví qua sổ cái wallet_ledger: mỗi biến động là một INSERT, e_wallets.balance là snapshot.
+ *
+ * - Cộng tiền (người bán, CVA): chỉ INSERT bút toán, không đụng dòng ví -> nhiều giao dịch cộng cho cùng
+ *   một người bán không xếp hàng trên một khóa dòng.
+ * - Trừ tiền: UPDATE có điều kiện trên snapshot (snapshot + khoản cộng chưa gộp >= số tiền) rồi INSERT
+ *   bút toán âm; không thể âm quỹ kể cả khi hai lệnh trừ chạy song song.
+ * - Gộp nền: mỗi ví một transaction ngắn, khóa dòng ví rồi đánh dấu compacted các khoản cộng đã commit và
+ *   cộng đúng các khoản đó vào snapshot. Dấu và số dư đổi cùng commit nên không phụ thuộc created_at: khoản
+ *   cộng commit muộn, chờ khóa lâu hay do service khác (owner, CVA) ghi theo đồng hồ riêng vẫn được tính.
+ */
+@Slf4j
+@Component
+public class WalletLedger {
+
+  private static final int COMPACT_BATCH = 500;
+
+  private final EWalletRepository walletRepository;
+  private final WalletLedgerRepository ledgerRepository;
+  private final TransactionTemplate tx;
+
+  public WalletLedger(EWalletRepository walletRepository,
+                      WalletLedgerRepository ledgerRepository,
+                      PlatformTransactionManager transactionManager) {
+    this.walletRepository = walletRepository;
+    this.ledgerRepository = ledgerRepository;
+    this.tx = new TransactionTemplate(transactionManager);
+  }
+
+  // false = ví không tồn tại
+  public boolean credit(Long userId, BigDecimal amount, WalletEntryType type, Long referenceId) {
+    if (amount.signum() <= 0) {
+      throw new IllegalArgumentException("Credit amount must be positive");
+    }
+    if (!walletRepository.existsByUserId(userId)) {
+      return false;
+    }
+    append(userId, amount, type, referenceId, false);
+    return true;
+  }
+
+  // Ví đã được kiểm tra tồn tại từ trước (vd. giỏ hàng kiểm tra mọi người bán trong một câu): chỉ INSERT
+  public void creditExisting(Long userId, BigDecimal amount, WalletEntryType type, Long referenceId) {
+    if (amount.signum() <= 0) {
+      throw new IllegalArgumentException("Credit amount must be positive");
+    }
+    append(userId, amount, type, referenceId, false);
+  }
+
+  // false = không đủ tiền hoặc ví không tồn tại
+  public boolean debit(Long userId, BigDecimal amount, WalletEntryType type, Long referenceId, LocalDateTime now) {
+    if (amount.signum() <= 0) {
+      throw new IllegalArgumentException("Debit amount must be positive");
+    }
+    if (walletRepository.debit(userId, amount, now) == 0) {
+      return false;
+    }
+    // Đã trừ vào snapshot trong cùng transaction
+    append(userId, amount.negate(), type, referenceId, true);
+    return true;
+  }
+
+  // null = ví không tồn tại
+  public BigDecimal balanceOf(Long userId) {
+    return walletRepository.balanceOf(userId);
+  }
+
+  @Scheduled(fixedDelayString = "${app.wallet.compaction-interval:PT1M}",
+             initialDelayString = "${app.wallet.compaction-interval:PT1M}")
+  public int compact() {
+    int wallets = 0;
+    Long after = Long.MIN_VALUE;
+    while (true) {
+      List<Long> userIds = ledgerRepository.findUserIdsWithPendingCredits(after, Limit.of(COMPACT_BATCH));
+      for (Long userId : userIds) {
+        if (compactWallet(userId)) {
+          wallets++;
+        }
+      }
+      if (userIds.size() < COMPACT_BATCH) {
+        break;
+      }
+      after = userIds.get(userIds.size() - 1);
+    }
+    if (wallets > 0) {
+      log.debug("Compacted {} wallet snapshots", wallets);
+    }
+    return wallets;
+  }
+
+  // Gộp các khoản cộng đã commit của một ví, từng lô COMPACT_BATCH bút toán; false = không có gì để gộp
+  boolean compactWallet(Long userId) {
+    boolean folded = false;
+    while (true) {
+      Integer count = tx.execute(status -> {
+        // Khóa dòng ví trước khi đọc: lượt gộp khác phải chờ, nên không ai đánh dấu trùng các bút toán này
+        if (walletRepository.lockForCompaction(userId, LocalDateTime.now()) == 0) {
+          return 0;
+        }
+        List<WalletLedgerEntry> pending =
+            ledgerRepository.findByUserIdAndCompactedFalseOrderByIdAsc(userId, Limit.of(COMPACT_BATCH));
+        if (pending.isEmpty()) {
+          return 0;
+        }
+        List<Long> ids = new ArrayList<>(pending.size());
+        BigDecimal sum = BigDecimal.ZERO;
+        for (WalletLedgerEntry entry : pending) {
+          ids.add(entry.getId());
+          sum = sum.add(entry.getAmount());
+        }
+        if (ledgerRepository.markCompacted(ids) != ids.size()) {
+          throw new IllegalStateException("Ledger entries of wallet " + userId + " were compacted concurrently");
+        }
+        walletRepository.addToSnapshot(userId, sum);
+        return ids.size();
+      });
+      if (count == null || count == 0) {
+        return folded;
+      }
+      folded = true;
+      if (count < COMPACT_BATCH) {
+        return true;
+      }
+    }
+  }
+
+  private void append(Long userId, BigDecimal amount, WalletEntryType type, Long referenceId, boolean compacted) {
+    ledgerRepository.save(WalletLedgerEntry.builder()
+        .userId(userId)
+        .type(type)
+        .amount(amount)
+        .referenceId(referenceId)
+        .compacted(compacted)
+        .build());
+  }
+}
@@ -0,0 +1,278 @@
+package ccm.buyer.service.impl;
+
+import ccm.buyer.dto.response.AuctionStateResponse;
+import ccm.buyer.dto.response.BidResponse;
+import ccm.buyer.entity.Auction;
+import ccm.buyer.entity.Bid;
+import ccm.buyer.entity.Listing;
+import ccm.buyer.entity.Transaction;
+import ccm.buyer.enums.AuctionStatus;
+import ccm.buyer.enums.BidStatus;
+import ccm.buyer.enums.ListingStatus;
+import ccm.buyer.enums.ListingType;
+import ccm.buyer.repository.AuctionRepository;
+import ccm.buyer.repository.BidRepository;
+import ccm.buyer.repository.ListingRepository;
+import ccm.buyer.repository.TransactionRepository;
+import ccm.buyer.service.AuctionService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Đấu giá đồng thời trên DB thật (H2).
+ *
+ * Kiểm tra:
+ * - Nhiều người đặt giá cùng một phiên: giá đã lưu tăng dần đúng bước, chỉ một bid LEADING
+ * - Từ chối bid thấp hơn bước giá và bid sau giờ kết thúc
+ * - Đóng phiên trong vòng 1 giây sau end_time, chốt người thắng thành transaction
+ * - Bid phút chót gia hạn phiên
+ * - Hai instance chốt cùng một phiên cùng lúc: chỉ một lần chốt, một transaction
+ *
+ * Benchmark bids/s chạy thủ công: mvn test -pl apps/buyer-backend-spring -am -Dtest=AuctionServiceImplTest
+ *   -Dsurefire.failIfNoSpecifiedTests=false -Dbenchmark=true
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:buyer-auction;MODE=MySQL;LOCK_TIMEOUT=10000;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "spring.flyway.enabled=false",
+    "app.auction.anti-snipe-window=PT2S",
+    "app.auction.close-tick=PT0.05S"
+})
+@Import({AuctionServiceImpl.class, BidBatchWriter.class, AuctionStreamHub.class,
+         AuctionCloseScheduler.class, AuctionSettler.class, NotificationServiceImpl.class, NotificationStreamHub.class,
+         BuyerDashboardCounters.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AuctionServiceImplTest {
+
+  private static final int THREADS = 8;
+  private static final int BIDS_PER_THREAD = 50;
+  private static final int BENCH_THREADS = 32;
+  private static final int BENCH_BIDS_PER_THREAD = 200;
+  private static final BigDecimal STEP = new BigDecimal("1.00");
+
+  @Autowired private AuctionService auctionService;
+  @Autowired private AuctionRepository auctionRepository;
+  @Autowired private BidRepository bidRepository;
+  @Autowired private ListingRepository listingRepository;
+  @Autowired private TransactionRepository transactionRepository;
+  @Autowired private AuctionSettler settler;
+
+  @Test
+  @DisplayName("Đặt giá đồng thời trên một phiên: tăng dần đúng bước, một người dẫn đầu")
+  void concurrentBidsOnHotAuction() throws Exception {
+    Auction auction = openAuction(LocalDateTime.now().plusHours(1));
+
+    int accepted = bidConcurrently(auction, THREADS, BIDS_PER_THREAD);
+
+    List<Bid> bids = bidRepository.findAll().stream()
+        .filter(b -> b.getAuction().getId().equals(auction.getId()))
+        .sorted(Comparator.comparing(Bid::getId))
+        .toList();
+    assertThat(bids).hasSize(accepted);
+    for (int i = 1; i < bids.size(); i++) {
+      assertThat(bids.get(i).getAmount().subtract(bids.get(i - 1).getAmount()))
+          .isGreaterThanOrEqualTo(STEP);
+    }
+    assertThat(bids).filteredOn(b -> b.getStatus() == BidStatus.LEADING).hasSize(1);
+
+    Bid last = bids.get(bids.size() - 1);
+    assertThat(last.getStatus()).isEqualTo(BidStatus.LEADING);
+    AuctionStateResponse state = auctionService.getState(auction.getId());
+    assertThat(state.getCurrentPrice()).isEqualByComparingTo(last.getAmount());
+    assertThat(state.getLeaderBuyerId()).isEqualTo(last.getBuyerId());
+  }
+
+  @Test
+  @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+  @DisplayName("Benchmark: bids/s on one hot auction")
+  void benchmarkHotAuction() throws Exception {
+    Auction auction = openAuction(LocalDateTime.now().plusHours(1));
+
+    long began = System.nanoTime();
+    int accepted = bidConcurrently(auction, BENCH_THREADS, BENCH_BIDS_PER_THREAD);
+    double seconds = (System.nanoTime() - began) / 1e9;
+
+    System.out.printf("auction: %d bids accepted in %.2fs (%.0f bids/s)%n", accepted, seconds, accepted / seconds);
+  }
+
+  @Test
+  @DisplayName("Từ chối bid thấp hơn bước giá và bid sau giờ kết thúc")
+  void rejectsBelowStepAndAfterEnd() {
+    Auction auction = openAuction(LocalDateTime.now().plusHours(1));
+    BidResponse first = auctionService.placeBid(1L, auction.getId(), new BigDecimal("100.00"));
+    assertThat(first.getStatus()).isEqualTo(BidStatus.LEADING);
+
+    assertThatThrownBy(() -> auctionService.placeBid(2L, auction.getId(), new BigDecimal("100.50")))
+        .isInstanceOf(IllegalStateException.class);
+    assertThatThrownBy(() -> auctionService.placeBid(1L, auction.getId(), new BigDecimal("200.00")))
+        .isInstanceOf(IllegalStateException.class);
+    assertThat(auctionService.placeBid(2L, auction.getId(), new BigDecimal("101.00")).getId())
+        .isGreaterThan(first.getId());
+    assertThat(bidRepository.findById(first.getId()).orElseThrow().getStatus()).isEqualTo(BidStatus.OUTBID);
+
+    Auction ended = openAuction(LocalDateTime.now().minusSeconds(1));
+    assertThatThrownBy(() -> auctionService.placeBid(1L, ended.getId(), new BigDecimal("500.00")))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("ended");
+    assertThat(bidRepository.countByAuction_Id(ended.getId())).isZero();
+  }
+
+  @Test
+  @DisplayName("Hết giờ: đóng phiên trong 1 giây, người thắng WON + transaction PENDING, còn lại LOST")
+  void closesAndSettlesWinner() throws Exception {
+    Auction auction = openAuction(LocalDateTime.now().plusSeconds(3));
+    BidResponse loser = auctionService.placeBid(2001L, auction.getId(), new BigDecimal("100.00"));
+    BidResponse winner = auctionService.placeBid(2002L, auction.getId(), new BigDecimal("105.00"));
+
+    LocalDateTime closedAt = awaitClosed(auction.getId(), Duration.ofSeconds(6));
+    assertThat(Duration.between(auction.getEndTime(), closedAt)).isLessThan(Duration.ofSeconds(1));
+
+    assertThat(bidRepository.findById(winner.getId()).orElseThrow().getStatus()).isEqualTo(BidStatus.WON);
+    assertThat(bidRepository.findById(loser.getId()).orElseThrow().getStatus()).isEqualTo(BidStatus.LOST);
+    List<Transaction> won = transactionRepository.findByBuyerId(2002L);
+    assertThat(won).hasSize(1);
+    assertThat(won.get(0).getAmount()).isEqualByComparingTo("105.00");
+    assertThat(won.get(0).getListingId()).isEqualTo(auction.getListing().getId());
+    assertThat(transactionRepository.findByBuyerId(2001L)).isEmpty();
+
+    assertThatThrownBy(() -> auctionService.placeBid(2001L, auction.getId(), new BigDecimal("200.00")))
+        .isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  @DisplayName("Bid trong cửa sổ chống bid phút chót: gia hạn, phiên chưa đóng ở giờ cũ")
+  void lateBidExtendsAuction() throws Exception {
+    LocalDateTime originalEnd = LocalDateTime.now().plusSeconds(1);
+    Auction auction = openAuction(originalEnd);
+    auctionService.placeBid(3001L, auction.getId(), new BigDecimal("100.00"));
+
+    LocalDateTime extendedEnd = auctionService.getState(auction.getId()).getEndTime();
+    assertThat(extendedEnd).isAfter(originalEnd);
+    assertThat(auctionRepository.findById(auction.getId()).orElseThrow().getEndTime()).isAfter(originalEnd);
+
+    Thread.sleep(Duration.between(LocalDateTime.now(), originalEnd).toMillis() + 300);
+    assertThat(auctionRepository.findById(auction.getId()).orElseThrow().getStatus()).isEqualTo(AuctionStatus.OPEN);
+
+    LocalDateTime closedAt = awaitClosed(auction.getId(), Duration.ofSeconds(5));
+    assertThat(closedAt).isAfterOrEqualTo(extendedEnd);
+    assertThat(transactionRepository.findByBuyerId(3001L)).hasSize(1);
+  }
+
+  @Test
+  @DisplayName("Hai instance chốt cùng một phiên cùng lúc: chỉ chốt một lần")
+  void concurrentSettleClosesOnce() throws Exception {
+    // Phiên lưu thẳng vào DB nên timing wheel của test không biết tới: chỉ hai luồng dưới đây chốt nó
+    Auction auction = openAuction(LocalDateTime.now().minusSeconds(1));
+    bidRepository.save(Bid.builder()
+        .auction(auction)
+        .buyerId(4001L)
+        .amount(new BigDecimal("120.00"))
+        .status(BidStatus.LEADING)
+        .build());
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService pool = Executors.newFixedThreadPool(2);
+    List<Future<List<Long>>> results = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      results.add(pool.submit(() -> {
+        start.await();
+        return settler.settle(List.of(auction.getId()), LocalDateTime.now());
+      }));
+    }
+    start.countDown();
+    pool.shutdown();
+    assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+    int settled = 0;
+    for (Future<List<Long>> result : results) {
+      settled += result.get().size();
+    }
+    assertThat(settled).isEqualTo(1);
+    assertThat(transactionRepository.findByBuyerId(4001L)).hasSize(1);
+    assertThat(auctionRepository.findById(auction.getId()).orElseThrow().getStatus()).isEqualTo(AuctionStatus.CLOSED);
+  }
+
+  // Mỗi luồng luôn đặt đúng giá tối thiểu kế tiếp (tranh chấp tối đa); trả về số bid được nhận
+  private int bidConcurrently(Auction auction, int threads, int bidsPerThread) throws InterruptedException {
+    AtomicInteger accepted = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    for (int t = 0; t < threads; t++) {
+      long buyerId = 1000L + t;
+      pool.submit(() -> {
+        start.await();
+        for (int i = 0; i < bidsPerThread; i++) {
+          try {
+            AuctionStateResponse state = auctionService.getState(auction.getId());
+            auctionService.placeBid(buyerId, auction.getId(), state.getMinNextBid());
+            accepted.incrementAndGet();
+          } catch (IllegalStateException rejected) {
+            // bị người khác vượt trước hoặc đang dẫn đầu
+          }
+        }
+        return null;
+      });
+    }
+    start.countDown();
+    pool.shutdown();
+    assertThat(pool.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+    return accepted.get();
+  }
+
+  private LocalDateTime awaitClosed(Long auctionId, Duration timeout) throws InterruptedException {
+    long deadline = System.nanoTime() + timeout.toNanos();
+    while (System.nanoTime() < deadline) {
+      if (auctionRepository.findById(auctionId).orElseThrow().getStatus() == AuctionStatus.CLOSED) {
+        return LocalDateTime.now();
+      }
+      Thread.sleep(20);
+    }
+    throw new AssertionError("Auction " + auctionId + " was not closed within " + timeout);
+  }
+
+  private Auction openAuction(LocalDateTime endTime) {
+    Listing listing = listingRepository.save(Listing.builder()
+        .sellerId(1L)
+        .qty(new BigDecimal("10"))
+        .pricePerUnit(new BigDecimal("100.00"))
+        .type(ListingType.AUCTION)
+        .status(ListingStatus.OPEN)
+        .build());
+    return auctionRepository.save(Auction.builder()
+        .listing(listing)
+        .startPrice(new BigDecimal("100.00"))
+        .stepPrice(STEP)
+        .startTime(LocalDateTime.now().minusHours(1))
+        .endTime(endTime)
+        .build());
+  }
+}
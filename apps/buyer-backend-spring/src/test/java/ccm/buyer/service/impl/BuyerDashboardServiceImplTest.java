@@ -0,0 +1,164 @@
+package ccm.buyer.service.impl;
+
+import ccm.buyer.dto.response.BuyerDashboardResponse;
+import ccm.buyer.entity.Transaction;
+import ccm.buyer.enums.TrStatus;
+import ccm.buyer.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Dashboard buyer: một câu GROUP BY + bộ đếm theo buyer (H2).
+ *
+ * Kiểm tra:
+ * - Số liệu khớp dữ liệu, không lẫn của buyer khác
+ * - Sau khi nạp, giao dịch ghi nhận qua bộ đếm được cộng sau commit (không đọc lại DB); rollback thì không
+ * - Đọc dashboard song song với nhiều giao dịch mua: bộ đếm cuối cùng khớp DB
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:buyer-dashboard;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "spring.flyway.enabled=false"
+})
+@Import({BuyerDashboardServiceImpl.class, BuyerDashboardCounters.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BuyerDashboardServiceImplTest {
+
+  @Autowired private BuyerDashboardServiceImpl dashboardService;
+  @Autowired private BuyerDashboardCounters counters;
+  @Autowired private TransactionRepository transactionRepository;
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  private TransactionTemplate tx;
+
+  @BeforeEach
+  void setUp() {
+    tx = new TransactionTemplate(transactionManager);
+  }
+
+  @Test
+  @DisplayName("Số liệu dashboard khớp dữ liệu theo trạng thái")
+  void statsMatchData() {
+    long buyer = 100L;
+    transactionRepository.saveAll(List.of(
+        row(buyer, TrStatus.COMPLETED, "10.00"),
+        row(buyer, TrStatus.COMPLETED, "15.50"),
+        row(buyer, TrStatus.PENDING, "7.00"),
+        row(buyer, TrStatus.FAILED, "99.00"),
+        row(buyer + 1, TrStatus.COMPLETED, "1000.00")));
+
+    BuyerDashboardResponse stats = dashboardService.getDashboardStats(buyer);
+
+    assertThat(stats.getTotalOrders()).isEqualTo(4);
+    assertThat(stats.getPendingTransactions()).isEqualTo(1);
+    assertThat(stats.getCompletedTransactions()).isEqualTo(2);
+    assertThat(stats.getTotalSpent()).isEqualByComparingTo("25.50");
+  }
+
+  @Test
+  @DisplayName("Giao dịch ghi nhận qua bộ đếm được cộng sau commit, rollback thì bỏ")
+  void countersFollowCommittedPurchases() {
+    long buyer = 200L;
+    transactionRepository.save(row(buyer, TrStatus.COMPLETED, "10.00"));
+    assertThat(dashboardService.getDashboardStats(buyer).getTotalOrders()).isEqualTo(1);
+
+    // Ghi thẳng DB không qua bộ đếm (như service khác): cache vẫn giữ số cũ -> chứng tỏ không đọc lại
+    transactionRepository.save(row(buyer, TrStatus.COMPLETED, "500.00"));
+
+    // Mua: PENDING -> COMPLETED trong một transaction
+    tx.executeWithoutResult(s -> {
+      Transaction t = transactionRepository.save(row(buyer, TrStatus.PENDING, "20.00"));
+      counters.recordNew(buyer, TrStatus.PENDING, t.getAmount());
+      t.setStatus(TrStatus.COMPLETED);
+      counters.recordStatusChange(buyer, TrStatus.PENDING, TrStatus.COMPLETED, t.getAmount());
+    });
+    // Mua bị rollback
+    assertThatThrownBy(() -> tx.executeWithoutResult(s -> {
+      transactionRepository.save(row(buyer, TrStatus.PENDING, "30.00"));
+      counters.recordNew(buyer, TrStatus.PENDING, new BigDecimal("30.00"));
+      throw new IllegalStateException("Not enough credits available");
+    })).isInstanceOf(IllegalStateException.class);
+
+    BuyerDashboardResponse stats = dashboardService.getDashboardStats(buyer);
+    assertThat(stats.getTotalOrders()).isEqualTo(2);
+    assertThat(stats.getPendingTransactions()).isZero();
+    assertThat(stats.getCompletedTransactions()).isEqualTo(2);
+    assertThat(stats.getTotalSpent()).isEqualByComparingTo("30.00");
+  }
+
+  @Test
+  @DisplayName("Đọc dashboard song song với 400 giao dịch mua: bộ đếm cuối cùng khớp DB")
+  void concurrentReadsAndPurchasesConverge() throws Exception {
+    long buyer = 300L;
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < 400; i++) {
+      int index = i;
+      Callable<Void> purchase = () -> {
+        start.await();
+        tx.executeWithoutResult(s -> {
+          TrStatus status = index % 3 == 0 ? TrStatus.PENDING : TrStatus.COMPLETED;
+          transactionRepository.save(row(buyer, status, "1.00"));
+          counters.recordNew(buyer, status, BigDecimal.ONE);
+        });
+        return null;
+      };
+      futures.add(pool.submit(purchase));
+      futures.add(pool.submit(() -> {
+        start.await();
+        return dashboardService.getDashboardStats(buyer);
+      }));
+    }
+    start.countDown();
+    for (Future<?> f : futures) {
+      f.get(30, TimeUnit.SECONDS);
+    }
+    pool.shutdown();
+
+    BuyerDashboardResponse stats = dashboardService.getDashboardStats(buyer);
+    assertThat(stats.getTotalOrders()).isEqualTo(400);
+    assertThat(stats.getPendingTransactions()).isEqualTo(134);
+    assertThat(stats.getCompletedTransactions()).isEqualTo(266);
+    assertThat(stats.getTotalSpent()).isEqualByComparingTo("266");
+  }
+
+  private static Transaction row(long buyerId, TrStatus status, String amount) {
+    return Transaction.builder()
+        .buyerId(buyerId)
+        .listingId(1L)
+        .qty(BigDecimal.ONE)
+        .amount(new BigDecimal(amount))
+        .status(status)
+        .build();
+  }
+}
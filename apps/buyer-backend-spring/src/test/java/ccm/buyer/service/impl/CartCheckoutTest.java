@@ -0,0 +1,222 @@
+package ccm.buyer.service.impl;
+
+import ccm.buyer.dto.request.CartCheckoutRequest;
+import ccm.buyer.dto.response.CartCheckoutResponse;
+import ccm.buyer.entity.EWallet;
+import ccm.buyer.entity.Listing;
+import ccm.buyer.entity.Payment;
+import ccm.buyer.entity.Transaction;
+import ccm.buyer.enums.ListingStatus;
+import ccm.buyer.enums.ListingType;
+import ccm.buyer.enums.PayStatus;
+import ccm.buyer.enums.TrStatus;
+import ccm.buyer.repository.EWalletRepository;
+import ccm.buyer.repository.ListingRepository;
+import ccm.buyer.repository.OutboxEventRepository;
+import ccm.buyer.repository.TransactionRepository;
+import ccm.buyer.repository.WalletLedgerRepository;
+import ccm.buyer.service.ListingService;
+import ccm.buyer.service.PaymentService;
+import ccm.buyer.service.TransactionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Mua cả giỏ hàng trong một transaction (H2, khóa dòng như InnoDB).
+ *
+ * Kiểm tra:
+ * - Kết quả từng dòng: dòng hết hàng / đang bị giữ / không tồn tại bị từ chối, các dòng khác vẫn mua
+ * - Dòng có holdId tiêu đúng hold của buyer; dòng thanh toán lỗi không tiêu hold
+ * - Nhiều giỏ chồng nhau gửi theo thứ tự ngược nhau: không deadlock, không bán vượt, tiền người bán đủ
+ */
+@PurchaseStackJpaTest
+class CartCheckoutTest {
+
+  @Autowired private TransactionService transactionService;
+  @Autowired private ListingService listingService;
+  @Autowired private ListingRepository listingRepository;
+  @Autowired private EWalletRepository walletRepository;
+  @Autowired private TransactionRepository transactionRepository;
+  @Autowired private WalletLedgerRepository ledgerRepository;
+  @Autowired private OutboxEventRepository outboxRepository;
+
+  @Autowired private PaymentService paymentService;
+
+  @BeforeEach
+  void setUp() {
+    when(paymentService.processPayment(anyLong(), anyString(), any()))
+        .thenAnswer(inv -> Payment.builder().status(PayStatus.SUCCESS).build());
+  }
+
+  @AfterEach
+  void tearDown() {
+    outboxRepository.deleteAll();
+    transactionRepository.deleteAll();
+    listingRepository.deleteAll();
+    walletRepository.deleteAll();
+    ledgerRepository.deleteAll();
+  }
+
+  @Test
+  @DisplayName("Kết quả từng dòng: dòng lỗi bị từ chối, các dòng khác vẫn mua")
+  void reportsEachLine() {
+    wallet(10L);
+    wallet(11L);
+    Long ok = listing(10L, "5", "10");
+    Long scarce = listing(11L, "2", "20");
+    Long held = listing(11L, "4", "5");
+    Long noWallet = listing(12L, "4", "5");
+    listingService.reserve(held, 99L, new BigDecimal("3"));
+    Long mine = listing(10L, "6", "1");
+    Long myHold = listingService.reserve(mine, 1L, new BigDecimal("6")).getHoldId();
+
+    CartCheckoutResponse res = transactionService.checkoutCart(cart(1L,
+        line(ok, "3", null), line(scarce, "3", null), line(held, "2", null), line(-1L, "1", null),
+        line(noWallet, "1", null), line(mine, "6", myHold)));
+
+    assertThat(res.getLines()).extracting(CartCheckoutResponse.LineResult::getListingId)
+        .containsExactly(ok, scarce, held, -1L, noWallet, mine);
+    assertThat(res.getLines()).extracting(l -> l.getError() == null)
+        .containsExactly(true, false, false, false, false, true);
+    assertThat(res.getCompleted()).isEqualTo(2);
+    assertThat(res.getTotalAmount()).isEqualByComparingTo("36");
+    assertThat(res.getLines().get(0).getTransaction().getStatus()).isEqualTo(TrStatus.COMPLETED);
+    // Dòng đụng hold của người khác chỉ biết sau thanh toán: giao dịch FAILED, không trừ kho
+    assertThat(res.getLines().get(2).getTransaction().getStatus()).isEqualTo(TrStatus.FAILED);
+
+    assertThat(listingRepository.findQtyById(ok)).isEqualByComparingTo("2");
+    assertThat(listingRepository.findQtyById(scarce)).isEqualByComparingTo("2");
+    assertThat(listingRepository.findQtyById(held)).isEqualByComparingTo("4");
+    assertThat(listingRepository.findById(mine).orElseThrow().getStatus()).isEqualTo(ListingStatus.SOLD);
+    assertThat(listingService.available(mine)).isEqualByComparingTo("0");
+    assertThat(walletRepository.balanceOf(10L)).isEqualByComparingTo("36");
+    assertThat(walletRepository.balanceOf(11L)).isEqualByComparingTo("0");
+    assertThat(transactionRepository.findAll())
+        .filteredOn(t -> t.getStatus() == TrStatus.COMPLETED)
+        .extracting(Transaction::getSellerId).containsExactly(10L, 10L);
+
+    // Giỏ không hợp lệ bị từ chối cả giỏ
+    assertThatThrownBy(() -> transactionService.checkoutCart(cart(1L, line(ok, "1", null), line(ok, "1", null))))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> transactionService.checkoutCart(cart(1L, line(ok, "0", null))))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  @DisplayName("Thanh toán lỗi không tiêu hold: mua lại bằng đúng hold đó vẫn được")
+  void failedPaymentKeepsHold() {
+    wallet(30L);
+    Long id = listing(30L, "6", "2");
+    Long holdId = listingService.reserve(id, 1L, new BigDecimal("4")).getHoldId();
+    when(paymentService.processPayment(anyLong(), anyString(), any()))
+        .thenAnswer(inv -> Payment.builder().status(PayStatus.FAILED).build());
+
+    CartCheckoutResponse failed = transactionService.checkoutCart(cart(1L, line(id, "4", holdId)));
+
+    assertThat(failed.getCompleted()).isZero();
+    assertThat(failed.getLines().get(0).getError()).isEqualTo("Payment failed.");
+    assertThat(listingRepository.findQtyById(id)).isEqualByComparingTo("6");
+    assertThat(listingService.available(id)).isEqualByComparingTo("2");
+
+    when(paymentService.processPayment(anyLong(), anyString(), any()))
+        .thenAnswer(inv -> Payment.builder().status(PayStatus.SUCCESS).build());
+    CartCheckoutResponse retried = transactionService.checkoutCart(cart(1L, line(id, "4", holdId)));
+
+    assertThat(retried.getCompleted()).isEqualTo(1);
+    assertThat(listingRepository.findQtyById(id)).isEqualByComparingTo("2");
+    assertThat(listingService.available(id)).isEqualByComparingTo("2");
+    assertThat(walletRepository.balanceOf(30L)).isEqualByComparingTo("8");
+  }
+
+  @Test
+  @DisplayName("Giỏ chồng nhau theo thứ tự ngược nhau: không deadlock, không bán vượt")
+  void overlappingCartsDoNotDeadlock() throws Exception {
+    List<Long> listings = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      wallet(20L + i);
+      listings.add(listing(20L + i, "30", "10"));
+    }
+
+    // 48 giỏ, mỗi giỏ mua 1 từ cả 6 listing, nửa số giỏ liệt kê ngược thứ tự
+    AtomicInteger completedLines = new AtomicInteger();
+    ExecutorService pool = Executors.newFixedThreadPool(16);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<Void>> futures = new ArrayList<>();
+    for (int i = 0; i < 48; i++) {
+      List<Long> order = new ArrayList<>(listings);
+      if (i % 2 == 1) {
+        Collections.reverse(order);
+      }
+      long buyer = 1000L + i;
+      Callable<Void> call = () -> {
+        start.await();
+        CartCheckoutRequest req = new CartCheckoutRequest();
+        req.setBuyerId(buyer);
+        req.setLines(order.stream().map(id -> line(id, "1", null)).toList());
+        completedLines.addAndGet(transactionService.checkoutCart(req).getCompleted());
+        return null;
+      };
+      futures.add(pool.submit(call));
+    }
+    start.countDown();
+    for (Future<Void> f : futures) {
+      f.get(60, TimeUnit.SECONDS);
+    }
+    pool.shutdown();
+
+    // 6 listing x 30 = 180 tín chỉ: 30 giỏ đầu mua đủ, 18 giỏ sau bị từ chối từng dòng
+    assertThat(completedLines.get()).isEqualTo(180);
+    for (int i = 0; i < 6; i++) {
+      assertThat(listingRepository.findQtyById(listings.get(i))).isEqualByComparingTo("0");
+      assertThat(walletRepository.balanceOf(20L + i)).isEqualByComparingTo("300");
+    }
+    assertThat(transactionRepository.count()).isEqualTo(180);
+  }
+
+  private void wallet(long userId) {
+    walletRepository.save(EWallet.builder().userId(userId).balance(BigDecimal.ZERO).build());
+  }
+
+  private Long listing(Long sellerId, String qty, String price) {
+    return listingRepository.save(Listing.builder()
+        .sellerId(sellerId)
+        .qty(new BigDecimal(qty))
+        .pricePerUnit(new BigDecimal(price))
+        .type(ListingType.FIXED_PRICE)
+        .status(ListingStatus.APPROVED)
+        .build()).getId();
+  }
+
+  private static CartCheckoutRequest.Line line(Long listingId, String qty, Long holdId) {
+    return new CartCheckoutRequest.Line(listingId, new BigDecimal(qty), holdId);
+  }
+
+  private static CartCheckoutRequest cart(Long buyerId, CartCheckoutRequest.Line... lines) {
+    CartCheckoutRequest req = new CartCheckoutRequest();
+    req.setBuyerId(buyerId);
+    req.setLines(List.of(lines));
+    return req;
+  }
+}
@@ -0,0 +1,187 @@
+package ccm.buyer.service.impl;
+
+import ccm.buyer.dto.request.CreateTransactionRequest;
+import ccm.buyer.entity.EWallet;
+import ccm.buyer.entity.Listing;
+import ccm.buyer.entity.Payment;
+import ccm.buyer.enums.ListingStatus;
+import ccm.buyer.enums.ListingType;
+import ccm.buyer.enums.PayStatus;
+import ccm.buyer.repository.EWalletRepository;
+import ccm.buyer.repository.ListingRepository;
+import ccm.buyer.repository.OutboxEventRepository;
+import ccm.buyer.repository.TransactionRepository;
+import ccm.buyer.repository.WalletLedgerRepository;
+import ccm.buyer.service.PaymentService;
+import ccm.buyer.service.TransactionService;
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Benchmark thông lượng mua khi mọi giao dịch cùng cộng tiền cho một người bán (H2 TCP).
+ *
+ * Người bán có LISTINGS listing, mỗi lượt mua một listing khác nhau nên khóa dòng listing không trùng;
+ * chỉ còn ví người bán là điểm chung. So sánh:
+ * - row: cộng tiền bằng UPDATE e_wallets cuối transaction (như trước khi có wallet_ledger)
+ * - ledger: cộng tiền chỉ INSERT bút toán, không khóa dòng ví
+ *
+ * Chạy thủ công: mvn test -pl apps/buyer-backend-spring -am -Dtest=HotSellerWalletBenchmarkTest
+ *   -Dsurefire.failIfNoSpecifiedTests=false -Dbenchmark=true
+ */
+@PurchaseStackJpaTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class HotSellerWalletBenchmarkTest {
+
+  private static final int THREADS = 16;
+  private static final int LISTINGS = 64;
+  private static final int PURCHASES = 2_000;
+  private static final long SELLER = 1L;
+
+  private static Server server;
+
+  @Autowired private TransactionService transactionService;
+  @Autowired private ListingRepository listingRepository;
+  @Autowired private EWalletRepository walletRepository;
+  @Autowired private WalletLedgerRepository ledgerRepository;
+  @Autowired private TransactionRepository transactionRepository;
+  @Autowired private OutboxEventRepository outboxRepository;
+  @Autowired private PlatformTransactionManager transactionManager;
+  @Autowired private DataSource dataSource;
+
+  @Autowired private PaymentService paymentService;
+
+  @DynamicPropertySource
+  static void datasource(DynamicPropertyRegistry registry) throws SQLException {
+    server = Server.createTcpServer("-tcpPort", "0", "-tcpDaemon", "-ifNotExists").start();
+    registry.add("spring.datasource.url", () -> "jdbc:h2:tcp://localhost:" + server.getPort()
+        + "/mem:buyer-hot-seller-bench;MODE=MySQL;LOCK_TIMEOUT=30000;DB_CLOSE_DELAY=-1");
+    registry.add("spring.datasource.driver-class-name", () -> "org.h2.Driver");
+    registry.add("spring.datasource.hikari.maximum-pool-size", () -> "24");
+    registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+    registry.add("spring.jpa.show-sql", () -> "false");
+    registry.add("spring.flyway.enabled", () -> "false");
+  }
+
+  @AfterAll
+  static void stopServer() {
+    server.stop();
+  }
+
+  @Test
+  @DisplayName("Benchmark: purchase throughput for one hot seller, row credit vs ledger credit")
+  void benchmarkHotSeller() throws Exception {
+    when(paymentService.processPayment(anyLong(), anyString(), any()))
+        .thenAnswer(inv -> Payment.builder().status(PayStatus.SUCCESS).build());
+    TransactionTemplate tx = new TransactionTemplate(transactionManager);
+    JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+
+    // Cách cũ: create() chạy trong transaction ngoài, rồi UPDATE dòng ví người bán giữ khóa tới commit
+    Purchase rowCredit = req -> tx.executeWithoutResult(s -> {
+      var created = transactionService.create(req);
+      jdbc.update("UPDATE e_wallets SET balance = balance + ? WHERE user_id = ?", created.getAmount(), SELLER);
+    });
+    Purchase ledgerCredit = transactionService::create;
+
+    // Lượt đầu để JIT và connection pool ấm lên
+    run("row", 300, rowCredit, false);
+    run("ledger", 300, ledgerCredit, false);
+
+    run("row", PURCHASES, rowCredit, true);
+    run("ledger", PURCHASES, ledgerCredit, true);
+  }
+
+  private interface Purchase {
+    void buy(CreateTransactionRequest req) throws Exception;
+  }
+
+  private void run(String mode, int purchases, Purchase purchase, boolean print) throws Exception {
+    List<Long> listingIds = new ArrayList<>();
+    for (int i = 0; i < LISTINGS; i++) {
+      listingIds.add(listingRepository.save(Listing.builder()
+          .sellerId(SELLER)
+          .qty(BigDecimal.valueOf(purchases))
+          .pricePerUnit(BigDecimal.TEN)
+          .type(ListingType.FIXED_PRICE)
+          .status(ListingStatus.APPROVED)
+          .build()).getId());
+    }
+    walletRepository.save(EWallet.builder().userId(SELLER).balance(BigDecimal.ZERO).build());
+
+    Queue<Long> latencies = new ConcurrentLinkedQueue<>();
+    ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<Void>> futures = new ArrayList<>();
+    for (int i = 0; i < purchases; i++) {
+      CreateTransactionRequest req = new CreateTransactionRequest();
+      req.setBuyerId(10_000L + i);
+      req.setListingId(listingIds.get(i % LISTINGS));
+      req.setQty(BigDecimal.ONE);
+      Callable<Void> call = () -> {
+        start.await();
+        long begin = System.nanoTime();
+        purchase.buy(req);
+        latencies.add(System.nanoTime() - begin);
+        return null;
+      };
+      futures.add(pool.submit(call));
+    }
+    long begin = System.nanoTime();
+    start.countDown();
+    for (Future<Void> f : futures) {
+      f.get(120, TimeUnit.SECONDS);
+    }
+    long elapsed = System.nanoTime() - begin;
+    pool.shutdown();
+
+    BigDecimal expected = BigDecimal.TEN.multiply(BigDecimal.valueOf(purchases));
+    BigDecimal stored = walletRepository.findByUserId(SELLER).orElseThrow().getBalance();
+    // row: tiền nằm trên dòng ví; ledger: nằm trong bút toán chưa gộp
+    assertThat(mode.equals("row") ? stored : walletRepository.balanceOf(SELLER)).isEqualByComparingTo(expected);
+
+    if (print) {
+      long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+      System.out.printf("[hot-seller %s] purchases=%d threads=%d listings=%d throughput=%.0f tx/s "
+              + "latency p50=%.2f ms p99=%.2f ms%n",
+          mode, purchases, THREADS, LISTINGS, purchases / (elapsed / 1e9),
+          sorted[sorted.length / 2] / 1e6, sorted[(int) (sorted.length * 0.99)] / 1e6);
+    }
+    clear();
+  }
+
+  private void clear() {
+    outboxRepository.deleteAllInBatch();
+    transactionRepository.deleteAllInBatch();
+    listingRepository.deleteAllInBatch();
+    ledgerRepository.deleteAllInBatch();
+    walletRepository.deleteAllInBatch();
+  }
+}
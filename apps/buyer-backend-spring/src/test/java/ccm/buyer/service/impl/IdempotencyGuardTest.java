@@ -0,0 +1,187 @@
+package ccm.buyer.service.impl;
+
+import ccm.buyer.dto.request.CreateTransactionRequest;
+import ccm.buyer.dto.response.TransactionResponse;
+import ccm.buyer.entity.EWallet;
+import ccm.buyer.entity.Listing;
+import ccm.buyer.entity.Payment;
+import ccm.buyer.enums.ListingStatus;
+import ccm.buyer.enums.ListingType;
+import ccm.buyer.enums.PayStatus;
+import ccm.buyer.repository.EWalletRepository;
+import ccm.buyer.repository.IdempotencyRecordRepository;
+import ccm.buyer.repository.ListingRepository;
+import ccm.buyer.repository.TransactionRepository;
+import ccm.buyer.repository.WalletLedgerRepository;
+import ccm.buyer.service.PaymentService;
+import ccm.buyer.service.TransactionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Idempotency-Key trên luồng mua (H2).
+ *
+ * Kiểm tra:
+ * - Gửi lại cùng key: cùng response, kho và ví người bán chỉ đổi một lần (cả khi cache đã mất)
+ * - 8 request cùng key chạy song song: đúng một giao dịch, mọi response giống nhau
+ * - Cùng key nhưng body khác bị từ chối; mua lỗi thì không giữ key
+ */
+@PurchaseStackJpaTest
+@Import({IdempotencyGuard.class, JacksonAutoConfiguration.class})
+class IdempotencyGuardTest {
+
+  private static final String SCOPE = "transactions.create";
+  private static final long SELLER = 700L;
+  private static final long BUYER = 7000L;
+
+  @Autowired private IdempotencyGuard guard;
+  @Autowired private TransactionService transactionService;
+  @Autowired private ListingRepository listingRepository;
+  @Autowired private EWalletRepository walletRepository;
+  @Autowired private TransactionRepository transactionRepository;
+  @Autowired private WalletLedgerRepository ledgerRepository;
+  @Autowired private IdempotencyRecordRepository idempotencyRepository;
+  @Autowired private ObjectMapper objectMapper;
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  @Autowired private PaymentService paymentService;
+
+  @BeforeEach
+  void setUp() {
+    when(paymentService.processPayment(anyLong(), anyString(), any()))
+        .thenAnswer(inv -> Payment.builder().status(PayStatus.SUCCESS).build());
+  }
+
+  @AfterEach
+  void tearDown() {
+    idempotencyRepository.deleteAll();
+    transactionRepository.deleteAll();
+    listingRepository.deleteAll();
+    walletRepository.deleteAll();
+    ledgerRepository.deleteAll();
+  }
+
+  @Test
+  @DisplayName("Gửi lại cùng key: cùng response, kho và ví chỉ đổi một lần")
+  void retryReturnsStoredResponse() {
+    Long listingId = listing("10", "5");
+    CreateTransactionRequest req = request(listingId, "2");
+
+    TransactionResponse first = buy("key-1", req);
+    TransactionResponse retry = buy("key-1", req);
+    // Instance khác / sau restart: không có cache, đọc response từ DB
+    IdempotencyGuard coldGuard = new IdempotencyGuard(idempotencyRepository, objectMapper, transactionManager,
+        Duration.ofDays(1), Duration.ofMinutes(10), 100);
+    TransactionResponse afterRestart = coldGuard.execute(BUYER, SCOPE, "key-1", req,
+        TransactionResponse.class, () -> transactionService.create(req));
+
+    assertThat(retry).isEqualTo(first);
+    assertThat(afterRestart).isEqualTo(first);
+    assertThat(transactionRepository.count()).isEqualTo(1);
+    assertThat(listingRepository.findById(listingId).orElseThrow().getQty()).isEqualByComparingTo("8");
+    assertThat(walletRepository.balanceOf(SELLER)).isEqualByComparingTo("10");
+    verify(paymentService, times(1)).processPayment(anyLong(), anyString(), any());
+
+    // Key khác là lần mua mới
+    buy("key-2", req);
+    assertThat(transactionRepository.count()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("8 request cùng key song song: đúng một giao dịch, mọi response giống nhau")
+  void concurrentDuplicatesExecuteOnce() throws Exception {
+    Long listingId = listing("100", "1");
+    CreateTransactionRequest req = request(listingId, "1");
+
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<TransactionResponse>> futures = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      Callable<TransactionResponse> call = () -> {
+        start.await();
+        return buy("same-key", req);
+      };
+      futures.add(pool.submit(call));
+    }
+    start.countDown();
+    List<TransactionResponse> responses = new ArrayList<>();
+    for (Future<TransactionResponse> f : futures) {
+      responses.add(f.get(30, TimeUnit.SECONDS));
+    }
+    pool.shutdown();
+
+    assertThat(responses).allMatch(r -> r.equals(responses.get(0)));
+    assertThat(transactionRepository.count()).isEqualTo(1);
+    assertThat(listingRepository.findById(listingId).orElseThrow().getQty()).isEqualByComparingTo("99");
+  }
+
+  @Test
+  @DisplayName("Cùng key nhưng body khác bị từ chối; mua lỗi thì không giữ key")
+  void rejectsReuseAndForgetsFailures() {
+    Long listingId = listing("3", "5");
+    buy("reuse-1", request(listingId, "1"));
+
+    assertThatThrownBy(() -> buy("reuse-1", request(listingId, "2")))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThat(transactionRepository.count()).isEqualTo(1);
+
+    // Không đủ kho: giao dịch rollback cùng dòng key, thử lại cùng key vẫn chạy
+    assertThatThrownBy(() -> buy("fail-1", request(listingId, "5")))
+        .isInstanceOf(IllegalStateException.class);
+    assertThat(idempotencyRepository.findByBuyerIdAndScopeAndKey(BUYER, SCOPE, "fail-1")).isEmpty();
+    TransactionResponse retried = buy("fail-1", request(listingId, "2"));
+    assertThat(retried.getQty()).isEqualByComparingTo("2");
+    assertThat(listingRepository.findById(listingId).orElseThrow().getQty()).isEqualByComparingTo("0");
+  }
+
+  private TransactionResponse buy(String key, CreateTransactionRequest req) {
+    return guard.execute(req.getBuyerId(), SCOPE, key, req, TransactionResponse.class,
+        () -> transactionService.create(req));
+  }
+
+  private Long listing(String qty, String price) {
+    walletRepository.save(EWallet.builder().userId(SELLER).balance(BigDecimal.ZERO).build());
+    return listingRepository.save(Listing.builder()
+        .sellerId(SELLER)
+        .qty(new BigDecimal(qty))
+        .pricePerUnit(new BigDecimal(price))
+        .type(ListingType.FIXED_PRICE)
+        .status(ListingStatus.APPROVED)
+        .build()).getId();
+  }
+
+  private static CreateTransactionRequest request(Long listingId, String qty) {
+    CreateTransactionRequest req = new CreateTransactionRequest();
+    req.setBuyerId(BUYER);
+    req.setListingId(listingId);
+    req.setQty(new BigDecimal(qty));
+    return req;
+  }
+}
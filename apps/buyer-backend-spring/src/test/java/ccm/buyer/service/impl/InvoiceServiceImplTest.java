@@ -0,0 +1,167 @@
+package ccm.buyer.service.impl;
+
+import ccm.buyer.dto.request.InvoicePageQuery;
+import ccm.buyer.dto.response.InvoicePageResponse;
+import ccm.buyer.dto.response.InvoiceResponse;
+import ccm.buyer.entity.Invoice;
+import ccm.buyer.entity.Transaction;
+import ccm.buyer.enums.TrStatus;
+import ccm.buyer.exception.NotFoundException;
+import ccm.buyer.repository.InvoiceRepository;
+import ccm.buyer.repository.TransactionRepository;
+import ccm.buyer.service.InvoiceService;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Hóa đơn PDF và danh sách hóa đơn theo buyer (H2).
+ *
+ * Kiểm tra:
+ * - issueInvoice: idempotent theo giao dịch, file PDF đọc được và có đúng số liệu
+ * - Phân trang keyset: đi hết các trang không trùng, không sót, mới nhất trước, chỉ của buyer đó
+ * - Buyer khác không tải được hóa đơn
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({InvoiceServiceImpl.class, InvoiceRenderer.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InvoiceServiceImplTest {
+
+  private static final long BUYER = 20L;
+  private static final long OTHER_BUYER = 21L;
+
+  @Autowired private InvoiceService invoiceService;
+  @Autowired private InvoiceRepository invoiceRepository;
+  @Autowired private TransactionRepository transactionRepository;
+
+  @DynamicPropertySource
+  static void properties(DynamicPropertyRegistry registry) throws IOException {
+    Path storage = Files.createTempDirectory("invoices-test");
+    registry.add("app.invoices.storage-dir", storage::toString);
+    registry.add("spring.datasource.url", () -> "jdbc:h2:mem:buyer-invoices;MODE=MySQL;DB_CLOSE_DELAY=-1");
+    registry.add("spring.datasource.driver-class-name", () -> "org.h2.Driver");
+    registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+    registry.add("spring.jpa.show-sql", () -> "false");
+    registry.add("spring.flyway.enabled", () -> "false");
+  }
+
+  @BeforeEach
+  void setUp() {
+    invoiceRepository.deleteAllInBatch();
+    transactionRepository.deleteAllInBatch();
+  }
+
+  @Test
+  @DisplayName("Xuất hóa đơn: idempotent, PDF chứa số hóa đơn, số lượng và tổng tiền")
+  void issuesAndRendersPdf() throws IOException {
+    Transaction tr = transaction(BUYER, "3", "45.00");
+
+    Invoice first = invoiceService.issueInvoice(tr.getId());
+    Invoice again = invoiceService.issueInvoice(tr.getId());
+    assertThat(again.getId()).isEqualTo(first.getId());
+    assertThat(invoiceRepository.count()).isEqualTo(1);
+    assertThat(first.getBuyerId()).isEqualTo(BUYER);
+
+    Path file = invoiceService.invoiceFile(BUYER, first.getId());
+    try (PDDocument doc = PDDocument.load(file.toFile())) {
+      String text = new PDFTextStripper().getText(doc);
+      assertThat(text).contains("INVOICE", "INV-" + first.getId(), tr.getTransactionCode(), "45.00", "15.00");
+    }
+    // Lần tải sau dùng lại file đã render
+    assertThat(invoiceService.invoiceFile(BUYER, first.getId())).isEqualTo(file);
+  }
+
+  @Test
+  @DisplayName("Đi hết các trang: đủ 45 hóa đơn, mới nhất trước, không lẫn của buyer khác")
+  void pagesThroughInvoicesNewestFirst() {
+    // Nhiều hóa đơn cùng issue_date để kiểm tra tie-break theo id
+    LocalDateTime base = LocalDateTime.now().minusDays(1);
+    List<Invoice> rows = new ArrayList<>();
+    for (int i = 0; i < 45; i++) {
+      Transaction mine = transaction(BUYER, "1", "10");
+      Transaction other = transaction(OTHER_BUYER, "1", "10");
+      rows.add(invoice(mine, base.plusSeconds(i / 4)));
+      rows.add(invoice(other, base.plusSeconds(i)));
+    }
+    invoiceRepository.saveAll(rows);
+
+    List<InvoiceResponse> seen = new ArrayList<>();
+    String cursor = null;
+    int pages = 0;
+    do {
+      InvoicePageResponse page = invoiceService.listInvoices(InvoicePageQuery.of(BUYER, cursor, 20));
+      assertThat(page.getItems()).hasSizeLessThanOrEqualTo(20);
+      seen.addAll(page.getItems());
+      cursor = page.getNextCursor();
+      pages++;
+    } while (cursor != null);
+
+    assertThat(pages).isEqualTo(3);
+    assertThat(seen).hasSize(45);
+    Set<Long> ids = new HashSet<>();
+    seen.forEach(r -> ids.add(r.id()));
+    assertThat(ids).hasSize(45);
+    for (int i = 1; i < seen.size(); i++) {
+      InvoiceResponse prev = seen.get(i - 1);
+      InvoiceResponse cur = seen.get(i);
+      assertThat(prev.issueDate().isAfter(cur.issueDate())
+          || (prev.issueDate().isEqual(cur.issueDate()) && prev.id() > cur.id())).isTrue();
+    }
+    assertThat(seen).allMatch(r -> r.amount().compareTo(BigDecimal.TEN) == 0)
+        .allMatch(r -> r.filePath().equals("/api/buyer/invoices/" + r.id() + "/pdf"));
+  }
+
+  @Test
+  @DisplayName("Buyer khác không tải được hóa đơn")
+  void otherBuyerCannotDownload() {
+    Invoice invoice = invoiceService.issueInvoice(transaction(BUYER, "1", "10").getId());
+
+    assertThatThrownBy(() -> invoiceService.invoiceFile(OTHER_BUYER, invoice.getId()))
+        .isInstanceOf(NotFoundException.class);
+  }
+
+  private Transaction transaction(long buyerId, String qty, String amount) {
+    return transactionRepository.save(Transaction.builder()
+        .buyerId(buyerId)
+        .listingId(1L)
+        .qty(new BigDecimal(qty))
+        .amount(new BigDecimal(amount))
+        .status(TrStatus.COMPLETED)
+        .build());
+  }
+
+  private static Invoice invoice(Transaction tr, LocalDateTime issueDate) {
+    return Invoice.builder()
+        .trId(tr.getId())
+        .buyerId(tr.getBuyerId())
+        .issueDate(issueDate)
+        .filePath("inv_" + tr.getId() + ".pdf")
+        .build();
+  }
+}
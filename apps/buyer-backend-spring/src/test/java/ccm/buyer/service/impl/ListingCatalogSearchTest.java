@@ -0,0 +1,161 @@
+package ccm.buyer.service.impl;
+
+import ccm.buyer.config.CacheConfig;
+import ccm.buyer.controller.ListingController;
+import ccm.buyer.dto.request.ListingCatalogQuery;
+import ccm.buyer.dto.response.ListingPageResponse;
+import ccm.buyer.dto.response.ListingResponse;
+import ccm.buyer.entity.Listing;
+import ccm.buyer.enums.ListingStatus;
+import ccm.buyer.enums.ListingType;
+import ccm.buyer.event.ListingChangedEvent;
+import ccm.buyer.exception.GlobalExceptionHandler;
+import ccm.buyer.repository.ListingRepository;
+import ccm.buyer.service.ListingService;
+import ccm.buyer.service.OrderBookService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Catalog listing: phân trang keyset (price, id) và catalog cache (H2).
+ *
+ * Kiểm tra:
+ * - Đi hết các trang bằng cursor khi nhiều listing cùng giá: đủ, đúng thứ tự, không trùng (id phân định)
+ * - Cursor hỏng: GET /api/buyer/listings trả 400
+ * - 10 và 10.00 dùng chung một entry cache
+ * - ListingChangedEvent sau commit xoá catalog cache, lần tìm sau đọc lại DB
+ */
+@PurchaseStackJpaTest
+@Import(CacheConfig.class)
+class ListingCatalogSearchTest {
+
+  @Autowired private ListingService listingService;
+  @Autowired private ListingRepository listingRepository;
+  @Autowired private CacheManager cacheManager;
+  @Autowired private ApplicationEventPublisher events;
+  @Autowired private PlatformTransactionManager transactionManager;
+  @Autowired private OrderBookService orderBookService;
+
+  @BeforeEach
+  void setUp() {
+    cacheManager.getCache(CacheConfig.LISTING_CATALOG).clear();
+  }
+
+  @AfterEach
+  void tearDown() {
+    listingRepository.deleteAll();
+  }
+
+  @Test
+  @DisplayName("Cursor đi hết các trang khi nhiều listing cùng giá")
+  void cursorRoundTripAcrossEqualPrices() {
+    List<Listing> saved = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      saved.add(listing("10.00", "3"));
+    }
+    saved.add(listing("12.50", "3"));
+    saved.add(listing("9.00", "3"));
+    List<Long> expected = saved.stream()
+        .sorted(Comparator.comparing(Listing::getPricePerUnit).thenComparing(Listing::getId))
+        .map(Listing::getId)
+        .toList();
+
+    List<Long> seen = new ArrayList<>();
+    String cursor = null;
+    int pages = 0;
+    do {
+      ListingPageResponse page = listingService.search(ListingCatalogQuery.of(null, null, null, null, cursor, 2));
+      page.getItems().stream().map(ListingResponse::getId).forEach(seen::add);
+      cursor = page.getNextCursor();
+      pages++;
+    } while (cursor != null);
+
+    assertThat(seen).containsExactlyElementsOf(expected);
+    assertThat(pages).isEqualTo(4);
+  }
+
+  @Test
+  @DisplayName("Cursor hỏng: 400")
+  void badCursorIsBadRequest() throws Exception {
+    MockMvc mvc = MockMvcBuilders.standaloneSetup(new ListingController(listingService, orderBookService))
+        .setControllerAdvice(new GlobalExceptionHandler())
+        .build();
+    String notNumbers = Base64.getUrlEncoder().encodeToString("abc:xyz".getBytes(StandardCharsets.UTF_8));
+    String noId = Base64.getUrlEncoder().encodeToString("10".getBytes(StandardCharsets.UTF_8));
+
+    for (String cursor : List.of("%%%", notNumbers, noId)) {
+      mvc.perform(get("/api/buyer/listings").param("cursor", cursor))
+          .andExpect(status().isBadRequest())
+          .andExpect(jsonPath("$.message").value("Invalid cursor"));
+    }
+  }
+
+  @Test
+  @DisplayName("10 và 10.00 dùng chung một entry cache")
+  void equivalentPricesShareCacheEntry() {
+    listing("10.00", "3");
+    listing("20.00", "3");
+
+    ListingCatalogQuery plain = ListingCatalogQuery.of(null, null, new BigDecimal("10"), null, null, 10);
+    ListingCatalogQuery scaled = ListingCatalogQuery.of(null, null, new BigDecimal("10.00"), null, null, 10);
+    ListingPageResponse first = listingService.search(plain);
+    ListingPageResponse second = listingService.search(scaled);
+
+    assertThat(scaled).isEqualTo(plain);
+    assertThat(second).isSameAs(first);
+    assertThat(first.getItems()).hasSize(2);
+  }
+
+  @Test
+  @DisplayName("ListingChangedEvent sau commit xoá catalog cache")
+  void listingChangeEvictsCatalog() {
+    Listing listing = listing("10.00", "3");
+    ListingCatalogQuery query = ListingCatalogQuery.of(null, null, null, null, null, 10);
+    ListingPageResponse before = listingService.search(query);
+    assertThat(listingService.search(query)).isSameAs(before);
+
+    new TransactionTemplate(transactionManager).executeWithoutResult(s -> {
+      LocalDateTime now = LocalDateTime.now();
+      listingRepository.decrementQty(listing.getId(), new BigDecimal("3"), now);
+      events.publishEvent(new ListingChangedEvent(listing.getId(), BigDecimal.ZERO, ListingStatus.SOLD, now));
+    });
+
+    ListingPageResponse after = listingService.search(query);
+    assertThat(after).isNotSameAs(before);
+    assertThat(before.getItems()).hasSize(1);
+    assertThat(after.getItems()).isEmpty();
+  }
+
+  private Listing listing(String price, String qty) {
+    return listingRepository.save(Listing.builder()
+        .sellerId(1L)
+        .qty(new BigDecimal(qty))
+        .pricePerUnit(new BigDecimal(price))
+        .type(ListingType.FIXED_PRICE)
+        .status(ListingStatus.APPROVED)
+        .build());
+  }
+}
@@ -0,0 +1,129 @@
+package ccm.buyer.service.impl;
+
+import ccm.buyer.dto.request.NotificationPageQuery;
+import ccm.buyer.dto.response.NotificationPageResponse;
+import ccm.buyer.dto.response.NotificationResponse;
+import ccm.buyer.entity.Notification;
+import ccm.buyer.repository.NotificationRepository;
+import ccm.buyer.service.NotificationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Hộp thư thông báo trên DB thật (H2).
+ *
+ * Kiểm tra:
+ * - Phân trang keyset: đi hết các trang không trùng, không sót, mới nhất trước, chỉ của buyer đó
+ * - Đếm chưa đọc, lọc unreadOnly, đánh dấu đã đọc
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:buyer-notifications;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "spring.flyway.enabled=false"
+})
+@Import({NotificationServiceImpl.class, NotificationStreamHub.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class NotificationServiceImplTest {
+
+  private static final long BUYER = 10L;
+  private static final long OTHER_BUYER = 11L;
+
+  @Autowired private NotificationService notificationService;
+  @Autowired private NotificationRepository notificationRepository;
+
+  @BeforeEach
+  void setUp() {
+    notificationRepository.deleteAll();
+  }
+
+  @Test
+  @DisplayName("Đi hết các trang: đủ 125 thông báo, mới nhất trước, không lẫn của buyer khác")
+  void pagesThroughInboxNewestFirst() {
+    // Nhiều dòng cùng created_at để kiểm tra tie-break theo id
+    LocalDateTime base = LocalDateTime.now().minusDays(1);
+    List<Notification> rows = new ArrayList<>();
+    for (int i = 0; i < 125; i++) {
+      rows.add(Notification.builder().buyerId(BUYER).message("m" + i).createdAt(base.plusSeconds(i / 5)).build());
+      rows.add(Notification.builder().buyerId(OTHER_BUYER).message("x" + i).createdAt(base.plusSeconds(i)).build());
+    }
+    notificationRepository.saveAll(rows);
+
+    List<NotificationResponse> seen = new ArrayList<>();
+    String cursor = null;
+    int pages = 0;
+    do {
+      NotificationPageResponse page = notificationService.listNotifications(
+          NotificationPageQuery.of(BUYER, false, cursor, 20));
+      assertThat(page.getItems()).hasSizeLessThanOrEqualTo(20);
+      assertThat(page.getUnreadCount()).isEqualTo(125);
+      seen.addAll(page.getItems());
+      cursor = page.getNextCursor();
+      pages++;
+    } while (cursor != null);
+
+    assertThat(pages).isEqualTo(7);
+    assertThat(seen).hasSize(125).allMatch(n -> n.buyerId().equals(BUYER));
+    Set<Long> ids = new HashSet<>();
+    seen.forEach(n -> ids.add(n.id()));
+    assertThat(ids).hasSize(125);
+    for (int i = 1; i < seen.size(); i++) {
+      NotificationResponse prev = seen.get(i - 1);
+      NotificationResponse cur = seen.get(i);
+      assertThat(prev.createdAt().isAfter(cur.createdAt())
+          || (prev.createdAt().isEqual(cur.createdAt()) && prev.id() > cur.id())).isTrue();
+    }
+  }
+
+  @Test
+  @DisplayName("Đếm chưa đọc, lọc unreadOnly và đánh dấu đã đọc")
+  void unreadCountAndMarkRead() {
+    for (int i = 0; i < 5; i++) {
+      notificationService.notifyBuyer(BUYER, "n" + i);
+    }
+    notificationService.notifyBuyer(OTHER_BUYER, "other");
+    assertThat(notificationService.countUnread(BUYER)).isEqualTo(5);
+
+    List<NotificationResponse> all = notificationService.listNotifications(
+        NotificationPageQuery.of(BUYER, false, null, null)).getItems();
+    assertThat(notificationService.markRead(BUYER, List.of(all.get(0).id(), all.get(1).id()))).isEqualTo(2);
+    assertThat(notificationService.countUnread(BUYER)).isEqualTo(3);
+
+    NotificationPageResponse unread = notificationService.listNotifications(
+        NotificationPageQuery.of(BUYER, true, null, null));
+    assertThat(unread.getItems()).hasSize(3).allMatch(n -> n.readAt() == null);
+
+    assertThat(notificationService.markRead(BUYER, null)).isEqualTo(3);
+    assertThat(notificationService.countUnread(BUYER)).isZero();
+    assertThat(notificationService.countUnread(OTHER_BUYER)).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Cursor sai định dạng -> IllegalArgumentException (400)")
+  void rejectsInvalidCursor() {
+    assertThatThrownBy(() -> NotificationPageQuery.of(BUYER, false, "not-a-cursor", 10))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
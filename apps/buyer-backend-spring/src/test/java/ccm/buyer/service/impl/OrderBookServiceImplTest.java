@@ -0,0 +1,225 @@
+package ccm.buyer.service.impl;
+
+import ccm.buyer.dto.response.MarketDepthResponse;
+import ccm.buyer.entity.Listing;
+import ccm.buyer.enums.ListingStatus;
+import ccm.buyer.enums.ListingType;
+import ccm.buyer.event.ListingChangedEvent;
+import ccm.buyer.event.ListingOfferedEvent;
+import ccm.buyer.repository.ListingRepository;
+import ccm.buyer.service.OrderBookService.Fill;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Sổ lệnh trong bộ nhớ, repository giả lập.
+ *
+ * Kiểm tra:
+ * - plan() khớp theo giá rồi thời gian qua nhiều mức giá, thiếu cung thì IllegalArgumentException
+ * - Bán từng phần / bán hết: qty của mức giá và totalQty luôn khớp với các listing còn trong sổ
+ * - syncChanges() gỡ listing đã bị từ chối/gỡ (CANCELLED) hoặc SOLD, chỉ phát ListingOfferedEvent cho listing mới
+ * - onListingChanged(): listing bị gỡ trong lúc đang đọc DB thì không bị thêm lại từ dòng cũ
+ * - syncChanges(): dòng đọc trước một lượt bán/bán hết đã áp dụng không ghi đè sổ; dòng mới hơn thì có
+ */
+@ExtendWith(MockitoExtension.class)
+class OrderBookServiceImplTest {
+
+  private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 8, 0);
+  // Sau updated_at của mọi dòng seed (T0 + id giây)
+  private static final LocalDateTime T1 = T0.plusMinutes(1);
+
+  @Mock private ListingRepository listingRepository;
+  @Mock private ApplicationEventPublisher events;
+
+  private OrderBookServiceImpl orderBook;
+
+  @BeforeEach
+  void setUp() {
+    orderBook = new OrderBookServiceImpl(listingRepository, events, Duration.ofSeconds(30));
+  }
+
+  @Test
+  @DisplayName("plan(): rẻ trước, cùng giá thì listing đăng sớm trước; thiếu cung thì báo lỗi")
+  void planWalksPriceLevels() {
+    rebuild(
+        listing(1L, "10", "3", 5, ListingStatus.APPROVED),
+        listing(2L, "10", "2", 1, ListingStatus.APPROVED),
+        listing(3L, "12", "5", 0, ListingStatus.APPROVED),
+        listing(4L, "15", "4", 0, ListingStatus.APPROVED));
+
+    assertThat(orderBook.plan(new BigDecimal("7")))
+        .containsExactly(fill(2L, "2"), fill(1L, "3"), fill(3L, "2"));
+    assertThat(orderBook.plan(new BigDecimal("14")))
+        .containsExactly(fill(2L, "2"), fill(1L, "3"), fill(3L, "5"), fill(4L, "4"));
+
+    assertThatThrownBy(() -> orderBook.plan(new BigDecimal("14.01")))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Available: 14");
+    assertThatThrownBy(() -> orderBook.plan(BigDecimal.ZERO))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  @DisplayName("Bán từng phần rồi bán hết: qty mức giá và totalQty luôn khớp")
+  void partialSalesKeepTotalsConsistent() {
+    rebuild(
+        listing(1L, "10", "3", 0, ListingStatus.APPROVED),
+        listing(2L, "10", "2", 1, ListingStatus.APPROVED),
+        listing(3L, "12", "5", 0, ListingStatus.APPROVED));
+
+    orderBook.onListingChanged(new ListingChangedEvent(1L, new BigDecimal("1"), ListingStatus.APPROVED, T1));
+    assertDepth("8", level("10", "3", 2), level("12", "5", 1));
+
+    orderBook.onListingChanged(new ListingChangedEvent(3L, new BigDecimal("4.5"), ListingStatus.APPROVED, T1));
+    assertDepth("7.5", level("10", "3", 2), level("12", "4.5", 1));
+
+    orderBook.onListingChanged(new ListingChangedEvent(1L, BigDecimal.ZERO, ListingStatus.SOLD, T1));
+    assertDepth("6.5", level("10", "2", 1), level("12", "4.5", 1));
+
+    orderBook.onListingChanged(new ListingChangedEvent(2L, BigDecimal.ZERO, ListingStatus.SOLD, T1));
+    assertDepth("4.5", level("12", "4.5", 1));
+    assertThat(orderBook.plan(new BigDecimal("4.5"))).containsExactly(fill(3L, "4.5"));
+    assertThatThrownBy(() -> orderBook.plan(new BigDecimal("5")))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  @DisplayName("syncChanges(): listing CANCELLED / SOLD rời sổ, listing mới được duyệt vào sổ")
+  void syncDropsCancelledAndSold() {
+    rebuild(
+        listing(1L, "10", "3", 0, ListingStatus.APPROVED),
+        listing(2L, "11", "2", 0, ListingStatus.APPROVED),
+        listing(3L, "12", "5", 0, ListingStatus.APPROVED));
+    when(listingRepository.findByUpdatedAtGreaterThanEqual(any())).thenReturn(List.of(
+        listing(1L, "10", "3", 0, ListingStatus.CANCELLED),
+        listing(2L, "11", "0", 0, ListingStatus.SOLD),
+        listing(4L, "9", "6", 2, ListingStatus.APPROVED)));
+
+    orderBook.syncChanges();
+
+    assertDepth("11", level("9", "6", 1), level("12", "5", 1));
+    verify(events).publishEvent(new ListingOfferedEvent(4L, ListingType.FIXED_PRICE,
+        new BigDecimal("9"), new BigDecimal("6")));
+    verify(events, never()).publishEvent(new ListingOfferedEvent(1L, ListingType.FIXED_PRICE,
+        new BigDecimal("10"), new BigDecimal("3")));
+  }
+
+  @Test
+  @DisplayName("onListingChanged(): listing mới được đọc DB rồi thêm vào sổ")
+  void changedListingNotInBookIsLoaded() {
+    rebuild();
+    when(listingRepository.findById(5L))
+        .thenReturn(Optional.of(listing(5L, "8", "4", 0, ListingStatus.APPROVED)));
+
+    orderBook.onListingChanged(new ListingChangedEvent(5L, new BigDecimal("4"), ListingStatus.APPROVED, T1));
+
+    assertDepth("4", level("8", "4", 1));
+  }
+
+  @Test
+  @DisplayName("onListingChanged(): listing bán hết trong lúc đang đọc DB thì không bị thêm lại")
+  void listingSoldDuringLoadStaysOut() {
+    rebuild();
+    // Dòng đọc được là bản trước lượt bán; event SOLD tới trong lúc đọc (ngoài lock)
+    when(listingRepository.findById(5L)).thenAnswer(inv -> {
+      orderBook.onListingChanged(new ListingChangedEvent(5L, BigDecimal.ZERO, ListingStatus.SOLD, T1));
+      return Optional.of(listing(5L, "8", "4", 0, ListingStatus.APPROVED));
+    });
+
+    orderBook.onListingChanged(new ListingChangedEvent(5L, new BigDecimal("4"), ListingStatus.APPROVED, T1));
+
+    assertDepth("0");
+  }
+
+  @Test
+  @DisplayName("syncChanges(): dòng đọc trước lượt bán không ghi đè sổ, dòng mới hơn thì có")
+  void syncSkipsRowsOlderThanBook() {
+    rebuild(
+        listing(1L, "10", "3", 0, ListingStatus.APPROVED),
+        listing(2L, "11", "5", 0, ListingStatus.APPROVED));
+    // Dòng đọc (ngoài lock) là bản trước các lượt bán; lượt bán áp dụng trong lúc đọc
+    when(listingRepository.findByUpdatedAtGreaterThanEqual(any())).thenAnswer(inv -> {
+      orderBook.onListingChanged(new ListingChangedEvent(1L, BigDecimal.ZERO, ListingStatus.SOLD, T1));
+      orderBook.onListingChanged(new ListingChangedEvent(2L, new BigDecimal("2"), ListingStatus.APPROVED, T1));
+      return List.of(
+          listing(1L, "10", "3", 0, ListingStatus.APPROVED),
+          listing(2L, "11", "5", 0, ListingStatus.APPROVED));
+    });
+
+    orderBook.syncChanges();
+
+    assertDepth("2", level("11", "2", 1));
+    verify(events, never()).publishEvent(any(ListingOfferedEvent.class));
+
+    // Sau đó admin đổi giá listing 2: dòng mới hơn lượt bán nên được áp dụng
+    Listing repriced = listing(2L, "9", "2", 0, ListingStatus.APPROVED);
+    repriced.setUpdatedAt(T1.plusSeconds(5));
+    when(listingRepository.findByUpdatedAtGreaterThanEqual(any())).thenReturn(List.of(
+        listing(1L, "10", "3", 0, ListingStatus.APPROVED), repriced));
+
+    orderBook.syncChanges();
+
+    assertDepth("2", level("9", "2", 1));
+  }
+
+  private void rebuild(Listing... listings) {
+    when(listingRepository.findMaxUpdatedAt()).thenReturn(T0);
+    when(listingRepository.findByStatusOrderByPricePerUnitAsc(ListingStatus.APPROVED))
+        .thenReturn(List.of(listings));
+    orderBook.rebuild();
+  }
+
+  private void assertDepth(String totalQty, MarketDepthResponse.PriceLevel... levels) {
+    MarketDepthResponse depth = orderBook.depth(10);
+    assertThat(depth.getTotalQty()).isEqualByComparingTo(totalQty);
+    assertThat(depth.getLevels()).hasSize(levels.length);
+    int listings = 0;
+    for (int i = 0; i < levels.length; i++) {
+      MarketDepthResponse.PriceLevel actual = depth.getLevels().get(i);
+      assertThat(actual.getPrice()).isEqualByComparingTo(levels[i].getPrice());
+      assertThat(actual.getQty()).isEqualByComparingTo(levels[i].getQty());
+      assertThat(actual.getListings()).isEqualTo(levels[i].getListings());
+      listings += actual.getListings();
+    }
+    assertThat(depth.getListingCount()).isEqualTo(listings);
+  }
+
+  private static Listing listing(Long id, String price, String qty, int minutesAfterT0, ListingStatus status) {
+    return Listing.builder()
+        .id(id)
+        .sellerId(100L + id)
+        .pricePerUnit(new BigDecimal(price))
+        .qty(new BigDecimal(qty))
+        .type(ListingType.FIXED_PRICE)
+        .status(status)
+        .createdAt(T0.minusDays(1).plusMinutes(minutesAfterT0))
+        .updatedAt(T0.plusSeconds(id))
+        .build();
+  }
+
+  private static MarketDepthResponse.PriceLevel level(String price, String qty, int listings) {
+    return new MarketDepthResponse.PriceLevel(new BigDecimal(price), new BigDecimal(qty), listings);
+  }
+
+  private static Fill fill(Long listingId, String qty) {
+    return new Fill(listingId, new BigDecimal(qty));
+  }
+}
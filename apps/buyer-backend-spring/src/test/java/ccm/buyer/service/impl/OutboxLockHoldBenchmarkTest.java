@@ -0,0 +1,256 @@
+package ccm.buyer.service.impl;
+
+import ccm.buyer.dto.request.CreateTransactionRequest;
+import ccm.buyer.entity.EWallet;
+import ccm.buyer.entity.Listing;
+import ccm.buyer.entity.Payment;
+import ccm.buyer.enums.ListingStatus;
+import ccm.buyer.enums.ListingType;
+import ccm.buyer.enums.OutboxStatus;
+import ccm.buyer.enums.PayStatus;
+import ccm.buyer.repository.EWalletRepository;
+import ccm.buyer.repository.InvoiceRepository;
+import ccm.buyer.repository.ListingRepository;
+import ccm.buyer.repository.NotificationRepository;
+import ccm.buyer.repository.OutboxEventRepository;
+import ccm.buyer.repository.TransactionRepository;
+import ccm.buyer.service.InvoiceService;
+import ccm.buyer.service.NotificationService;
+import ccm.buyer.service.OrderBookService;
+import ccm.buyer.service.PaymentService;
+import ccm.buyer.service.TransactionService;
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Benchmark thời gian giữ khóa dòng listing khi nhiều người cùng mua một listing (H2 TCP).
+ *
+ * So sánh:
+ * - inline: hóa đơn + thông báo chạy trong transaction mua (như trước khi có outbox)
+ * - outbox: transaction mua chỉ ghi outbox, OutboxRelay làm sau commit
+ * Thời gian giữ khóa = từ lúc decrementQty khóa dòng listing đến khi transaction kết thúc.
+ *
+ * Chạy thủ công: mvn test -pl apps/buyer-backend-spring -am -Dtest=OutboxLockHoldBenchmarkTest
+ *   -Dsurefire.failIfNoSpecifiedTests=false -Dbenchmark=true
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Import({PurchaseStackConfig.class, InvoiceServiceImpl.class, InvoiceRenderer.class, NotificationServiceImpl.class,
+    NotificationStreamHub.class, OutboxLockHoldBenchmarkTest.LockTimer.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxLockHoldBenchmarkTest {
+
+  private static final int THREADS = 16;
+  private static final int PURCHASES = 800;
+
+  private static final Queue<Long> HOLDS = new ConcurrentLinkedQueue<>();
+  private static Server server;
+
+  @Autowired private TransactionService transactionService;
+  @Autowired private InvoiceService invoiceService;
+  @Autowired private NotificationService notificationService;
+  @Autowired private ListingRepository listingRepository;
+  @Autowired private EWalletRepository walletRepository;
+  @Autowired private TransactionRepository transactionRepository;
+  @Autowired private InvoiceRepository invoiceRepository;
+  @Autowired private NotificationRepository notificationRepository;
+  @Autowired private OutboxEventRepository outboxRepository;
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  @MockitoBean private PaymentService paymentService;
+  @MockitoBean private OrderBookService orderBookService;
+
+  @DynamicPropertySource
+  static void datasource(DynamicPropertyRegistry registry) throws SQLException {
+    server = Server.createTcpServer("-tcpPort", "0", "-tcpDaemon", "-ifNotExists").start();
+    registry.add("spring.datasource.url", () -> "jdbc:h2:tcp://localhost:" + server.getPort()
+        + "/mem:buyer-outbox-bench;MODE=MySQL;LOCK_TIMEOUT=30000;DB_CLOSE_DELAY=-1");
+    registry.add("spring.datasource.driver-class-name", () -> "org.h2.Driver");
+    registry.add("spring.datasource.hikari.maximum-pool-size", () -> "24");
+    registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+    registry.add("spring.jpa.show-sql", () -> "false");
+    registry.add("spring.flyway.enabled", () -> "false");
+  }
+
+  @AfterAll
+  static void stopServer() {
+    server.stop();
+  }
+
+  @Test
+  @DisplayName("Benchmark: listing lock hold time, inline side effects vs outbox")
+  void benchmarkLockHold() throws Exception {
+    when(paymentService.processPayment(anyLong(), anyString(), any()))
+        .thenAnswer(inv -> Payment.builder().status(PayStatus.SUCCESS).build());
+    TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+    // Lượt đầu để JIT và connection pool ấm lên
+    run("inline", 200, req -> tx.executeWithoutResult(s -> {
+      var created = transactionService.create(req);
+      invoiceService.issueInvoice(created.getId());
+      notificationService.notifyBuyer(req.getBuyerId(), "Mua thành công " + req.getQty() + " tCO2!");
+    }), false);
+    run("outbox", 200, transactionService::create, false);
+
+    run("inline", PURCHASES, req -> tx.executeWithoutResult(s -> {
+      var created = transactionService.create(req);
+      invoiceService.issueInvoice(created.getId());
+      notificationService.notifyBuyer(req.getBuyerId(), "Mua thành công " + req.getQty() + " tCO2!");
+    }), true);
+    run("outbox", PURCHASES, transactionService::create, true);
+  }
+
+  private interface Purchase {
+    void buy(CreateTransactionRequest req) throws Exception;
+  }
+
+  private void run(String mode, int purchases, Purchase purchase, boolean print) throws Exception {
+    Long listingId = listingRepository.save(Listing.builder()
+        .sellerId(1L)
+        .qty(BigDecimal.valueOf(purchases))
+        .pricePerUnit(BigDecimal.TEN)
+        .type(ListingType.FIXED_PRICE)
+        .status(ListingStatus.APPROVED)
+        .build()).getId();
+    walletRepository.save(EWallet.builder().userId(1L).balance(BigDecimal.ZERO).build());
+    HOLDS.clear();
+
+    ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<Void>> futures = new ArrayList<>();
+    for (int i = 0; i < purchases; i++) {
+      CreateTransactionRequest req = new CreateTransactionRequest();
+      req.setBuyerId(10_000L + i);
+      req.setListingId(listingId);
+      req.setQty(BigDecimal.ONE);
+      Callable<Void> call = () -> {
+        start.await();
+        purchase.buy(req);
+        return null;
+      };
+      futures.add(pool.submit(call));
+    }
+    long begin = System.nanoTime();
+    start.countDown();
+    for (Future<Void> f : futures) {
+      f.get(120, TimeUnit.SECONDS);
+    }
+    long elapsed = System.nanoTime() - begin;
+    pool.shutdown();
+
+    assertThat(listingRepository.findQtyById(listingId)).isEqualByComparingTo("0");
+    awaitOutboxDrained();
+    assertThat(invoiceRepository.count()).isEqualTo(purchases);
+
+    if (print) {
+      long[] holds = HOLDS.stream().mapToLong(Long::longValue).sorted().toArray();
+      System.out.printf("[lock-hold %s] purchases=%d threads=%d throughput=%.0f tx/s "
+              + "hold mean=%.2f ms p50=%.2f ms p99=%.2f ms%n",
+          mode, purchases, THREADS, purchases / (elapsed / 1e9),
+          Arrays.stream(holds).average().orElse(0) / 1e6,
+          holds[holds.length / 2] / 1e6, holds[(int) (holds.length * 0.99)] / 1e6);
+    }
+    clear();
+  }
+
+  private void awaitOutboxDrained() {
+    long deadline = System.nanoTime() + 60_000_000_000L;
+    while (outboxRepository.countByStatus(OutboxStatus.PENDING) > 0 && System.nanoTime() < deadline) {
+      LockSupport.parkNanos(20_000_000L);
+    }
+  }
+
+  private void clear() {
+    outboxRepository.deleteAllInBatch();
+    notificationRepository.deleteAllInBatch();
+    invoiceRepository.deleteAllInBatch();
+    transactionRepository.deleteAllInBatch();
+    listingRepository.deleteAllInBatch();
+    walletRepository.deleteAllInBatch();
+  }
+
+  /**
+   * Bọc ListingRepository: sau mỗi decrementQty thành công (dòng listing đã bị khóa) ghi lại thời điểm,
+   * và đo đến khi transaction commit/rollback (khóa được nhả).
+   */
+  @TestConfiguration
+  static class LockTimer {
+
+    @Bean
+    static BeanPostProcessor listingLockTimer() {
+      return new BeanPostProcessor() {
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+          if (!(bean instanceof ListingRepository target)) {
+            return bean;
+          }
+          return Proxy.newProxyInstance(ListingRepository.class.getClassLoader(),
+              new Class<?>[] {ListingRepository.class}, (proxy, method, args) -> {
+                Object result;
+                try {
+                  result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                  throw e.getCause();
+                }
+                if (method.getName().equals("decrementQty")
+                    && TransactionSynchronizationManager.isSynchronizationActive()) {
+                  long locked = System.nanoTime();
+                  TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                      HOLDS.add(System.nanoTime() - locked);
+                    }
+                  });
+                }
+                return result;
+              });
+        }
+      };
+    }
+  }
+}
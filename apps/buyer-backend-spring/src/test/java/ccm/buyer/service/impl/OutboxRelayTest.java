@@ -0,0 +1,231 @@
+package ccm.buyer.service.impl;
+
+import ccm.buyer.dto.request.CreateTransactionRequest;
+import ccm.buyer.dto.response.TransactionResponse;
+import ccm.buyer.entity.EWallet;
+import ccm.buyer.entity.Invoice;
+import ccm.buyer.entity.Listing;
+import ccm.buyer.entity.OutboxEvent;
+import ccm.buyer.entity.OwnerWalletSummary;
+import ccm.buyer.entity.Payment;
+import ccm.buyer.enums.ListingStatus;
+import ccm.buyer.enums.ListingType;
+import ccm.buyer.enums.OutboxEventType;
+import ccm.buyer.enums.OutboxStatus;
+import ccm.buyer.enums.PayStatus;
+import ccm.buyer.repository.EWalletRepository;
+import ccm.buyer.repository.InvoiceRepository;
+import ccm.buyer.repository.ListingRepository;
+import ccm.buyer.repository.NotificationRepository;
+import ccm.buyer.repository.OutboxEventRepository;
+import ccm.buyer.repository.OwnerWalletSummaryRepository;
+import ccm.buyer.service.OrderBookService;
+import ccm.buyer.service.PaymentService;
+import ccm.buyer.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Outbox cho tác vụ phụ sau khi mua (H2).
+ *
+ * Kiểm tra:
+ * - Mua thành công: transaction mua chỉ ghi outbox; hóa đơn + thông báo xuất hiện sau commit, dòng outbox DONE
+ * - Lượt bán được cộng vào owner_wallet_summaries của người bán (tạo dòng lần đầu, cộng dồn lần sau)
+ * - Sau lượt relay, tín chỉ đã khóa khi đăng bán chuyển sang đã bán, khớp quy tắc backfill V18
+ * - Mua thất bại (rollback): không còn dòng outbox, không có hóa đơn
+ * - Dòng PENDING bị bỏ lỡ (restart) được lượt quét xử lý, đúng một lần
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:buyer-outbox;MODE=MySQL;LOCK_TIMEOUT=10000;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "spring.flyway.enabled=false"
+})
+@Import({PurchaseStackConfig.class, InvoiceServiceImpl.class, InvoiceRenderer.class, NotificationServiceImpl.class,
+    NotificationStreamHub.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxRelayTest {
+
+  @Autowired private TransactionService transactionService;
+  @Autowired private OutboxRelay relay;
+  @Autowired private Outbox outbox;
+  @Autowired private OutboxEventRepository outboxRepository;
+  @Autowired private InvoiceRepository invoiceRepository;
+  @Autowired private NotificationRepository notificationRepository;
+  @Autowired private ListingRepository listingRepository;
+  @Autowired private EWalletRepository walletRepository;
+  @Autowired private OwnerWalletSummaryRepository ownerWalletRepository;
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  @MockitoBean private PaymentService paymentService;
+  @MockitoBean private OrderBookService orderBookService;
+
+  @BeforeEach
+  void setUp() {
+    outboxRepository.deleteAll();
+    invoiceRepository.deleteAll();
+    notificationRepository.deleteAll();
+    ownerWalletRepository.deleteAll();
+    when(paymentService.processPayment(anyLong(), anyString(), any()))
+        .thenAnswer(inv -> Payment.builder().status(PayStatus.SUCCESS).build());
+  }
+
+  @Test
+  @DisplayName("Mua thành công: hóa đơn và thông báo được tạo sau commit, outbox DONE")
+  void purchaseSideEffectsRunAfterCommit() throws Exception {
+    Long listingId = listing(500L, "10").getId();
+    wallet(500L);
+
+    TransactionResponse tx = transactionService.create(request(5000L, listingId, "2"));
+
+    awaitTrue(() -> outboxRepository.countByStatus(OutboxStatus.DONE) == 3, Duration.ofSeconds(5));
+    assertThat(invoiceRepository.findAll()).extracting(Invoice::getTrId).containsExactly(tx.getId());
+    assertThat(notificationRepository.findAll()).hasSize(1)
+        .allMatch(n -> n.getBuyerId().equals(5000L));
+    assertThat(outboxRepository.findAll()).extracting(OutboxEvent::getType)
+        .containsExactlyInAnyOrder(OutboxEventType.INVOICE_ISSUE, OutboxEventType.BUYER_NOTIFY,
+            OutboxEventType.OWNER_SALE);
+
+    // Người bán chưa có dòng: lượt bán đầu tạo dòng, lượt sau cộng dồn
+    OwnerWalletSummary first = ownerWalletRepository.findById(500L).orElseThrow();
+    assertThat(first.getSoldCredits()).isEqualByComparingTo("2");
+    assertThat(first.getLockedCredits()).isEqualByComparingTo("-2");
+    assertThat(first.getTotalEarnings()).isEqualByComparingTo("20");
+
+    transactionService.create(request(5001L, listingId, "3"));
+    awaitTrue(() -> outboxRepository.countByStatus(OutboxStatus.DONE) == 6, Duration.ofSeconds(5));
+    OwnerWalletSummary second = ownerWalletRepository.findById(500L).orElseThrow();
+    assertThat(second.getSoldCredits()).isEqualByComparingTo("5");
+    assertThat(second.getLockedCredits()).isEqualByComparingTo("-5");
+    assertThat(second.getTotalEarnings()).isEqualByComparingTo("50");
+    assertThat(second.getCreditsGenerated()).isEqualByComparingTo("0");
+  }
+
+  @Test
+  @DisplayName("Bán rồi relay: tín chỉ đang khóa chuyển sang đã bán, khớp quy tắc backfill V18")
+  void saleMovesLockedCreditsToSold() throws Exception {
+    Listing listing = listing(800L, "10");
+    wallet(800L);
+    // Owner đã đăng bán 10 tín chỉ: owner service khóa 10 lúc tạo listing
+    ownerWalletRepository.save(OwnerWalletSummary.builder()
+        .userId(800L)
+        .creditsGenerated(new BigDecimal("10"))
+        .lockedCredits(new BigDecimal("10"))
+        .soldCredits(BigDecimal.ZERO)
+        .totalEarnings(BigDecimal.ZERO)
+        .totalWithdrawals(BigDecimal.ZERO)
+        .pendingWithdrawals(BigDecimal.ZERO)
+        .updatedAt(LocalDateTime.now())
+        .build());
+
+    transactionService.create(request(8000L, listing.getId(), "4"));
+    awaitTrue(() -> outboxRepository.countByStatus(OutboxStatus.DONE) == 3, Duration.ofSeconds(5));
+
+    // V18: locked = quantity còn lại của listing đang bán, sold/earnings = tổng giao dịch COMPLETED
+    OwnerWalletSummary summary = ownerWalletRepository.findById(800L).orElseThrow();
+    assertThat(summary.getLockedCredits()).isEqualByComparingTo("6")
+        .isEqualByComparingTo(listingRepository.findQtyById(listing.getId()));
+    assertThat(summary.getSoldCredits()).isEqualByComparingTo("4");
+    assertThat(summary.getTotalEarnings()).isEqualByComparingTo("40");
+    assertThat(summary.getLockedCredits().add(summary.getSoldCredits()))
+        .isEqualByComparingTo(summary.getCreditsGenerated());
+  }
+
+  @Test
+  @DisplayName("Mua thất bại: outbox rollback cùng giao dịch, không có hóa đơn")
+  void rolledBackPurchaseLeavesNoOutboxRows() {
+    Long listingId = listing(600L, "1").getId();
+    wallet(600L);
+
+    assertThatThrownBy(() -> transactionService.create(request(6000L, listingId, "5")))
+        .isInstanceOf(IllegalStateException.class);
+
+    assertThat(outboxRepository.count()).isZero();
+    assertThat(invoiceRepository.count()).isZero();
+  }
+
+  @Test
+  @DisplayName("Dòng PENDING bị bỏ lỡ được lượt quét xử lý đúng một lần")
+  void sweepPicksUpMissedRows() throws Exception {
+    // Ghi thẳng vào bảng (không qua event sau commit), như khi service tắt trước khi worker chạy
+    OutboxEvent missed = new TransactionTemplate(transactionManager).execute(s -> outboxRepository.save(
+        OutboxEvent.builder().type(OutboxEventType.BUYER_NOTIFY).aggregateId(7000L).payload("hello").build()));
+
+    relay.sweep();
+    relay.sweep();
+
+    awaitTrue(() -> outboxRepository.findById(missed.getId()).orElseThrow().getStatus() == OutboxStatus.DONE,
+        Duration.ofSeconds(5));
+    Thread.sleep(200);
+    assertThat(notificationRepository.findAll()).hasSize(1)
+        .allMatch(n -> n.getMessage().equals("hello"));
+  }
+
+  @Test
+  @DisplayName("Ghi outbox ngoài transaction nghiệp vụ bị từ chối")
+  void enqueueRequiresTransaction() {
+    assertThatThrownBy(() -> outbox.notifyBuyer(1L, "x"))
+        .isInstanceOf(IllegalTransactionStateException.class);
+  }
+
+  private static void awaitTrue(BooleanSupplier condition, Duration timeout) throws InterruptedException {
+    long deadline = System.nanoTime() + timeout.toNanos();
+    while (!condition.getAsBoolean()) {
+      if (System.nanoTime() > deadline) {
+        throw new AssertionError("Condition not met within " + timeout);
+      }
+      Thread.sleep(20);
+    }
+  }
+
+  private Listing listing(Long sellerId, String qty) {
+    return listingRepository.save(Listing.builder()
+        .sellerId(sellerId)
+        .qty(new BigDecimal(qty))
+        .pricePerUnit(new BigDecimal("10"))
+        .type(ListingType.FIXED_PRICE)
+        .status(ListingStatus.APPROVED)
+        .build());
+  }
+
+  private void wallet(Long userId) {
+    walletRepository.save(EWallet.builder().userId(userId).balance(BigDecimal.ZERO).build());
+  }
+
+  private CreateTransactionRequest request(Long buyerId, Long listingId, String qty) {
+    CreateTransactionRequest req = new CreateTransactionRequest();
+    req.setBuyerId(buyerId);
+    req.setListingId(listingId);
+    req.setQty(new BigDecimal(qty));
+    return req;
+  }
+}
@@ -0,0 +1,206 @@
+package ccm.buyer.service.impl;
+
+import ccm.buyer.dto.request.CreatePriceAlertRequest;
+import ccm.buyer.entity.Listing;
+import ccm.buyer.entity.PriceAlert;
+import ccm.buyer.enums.ListingStatus;
+import ccm.buyer.enums.ListingType;
+import ccm.buyer.event.ListingOfferedEvent;
+import ccm.buyer.repository.ListingRepository;
+import ccm.buyer.repository.PriceAlertFiringRepository;
+import ccm.buyer.repository.PriceAlertRepository;
+import ccm.buyer.service.NotificationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Cảnh báo giá trên chỉ mục PrioritySearchTree (H2).
+ *
+ * Kiểm tra:
+ * - Kết quả khớp trùng với quét toàn bộ cảnh báo (giá, số lượng, loại listing)
+ * - Listing mới duyệt / đổi giá qua đồng bộ sổ lệnh -> buyer khớp được thông báo đúng một lần
+ * - Giới hạn số cảnh báo mỗi buyer, xoá cảnh báo
+ * - Hai instance khớp cùng một lần chào bán: mỗi buyer chỉ nhận một thông báo
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:buyer-price-alerts;MODE=MySQL;LOCK_TIMEOUT=10000;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "spring.flyway.enabled=false",
+    "app.price-alerts.max-per-buyer=5"
+})
+@Import({PriceAlertServiceImpl.class, OrderBookServiceImpl.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PriceAlertServiceImplTest {
+
+  @Autowired private PriceAlertServiceImpl priceAlertService;
+  @Autowired private OrderBookServiceImpl orderBook;
+  @Autowired private PriceAlertRepository alertRepository;
+  @Autowired private ListingRepository listingRepository;
+  @Autowired private PriceAlertFiringRepository firingRepository;
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  @MockitoBean private NotificationService notificationService;
+
+  @AfterEach
+  void tearDown() {
+    alertRepository.deleteAll();
+    listingRepository.deleteAll();
+    firingRepository.deleteAll();
+    priceAlertService.reload();
+  }
+
+  @Test
+  @DisplayName("Kết quả khớp trùng với quét toàn bộ cảnh báo")
+  void matchesAgreeWithFullScan() {
+    Random random = new Random(45);
+    ListingType[] types = {null, ListingType.FIXED_PRICE, ListingType.AUCTION};
+    for (long buyer = 1; buyer <= 80; buyer++) {
+      for (int i = 0; i < 1 + random.nextInt(5); i++) {
+        priceAlertService.create(alert(buyer, 1 + random.nextInt(50), random.nextInt(20), types[random.nextInt(3)]));
+      }
+    }
+    List<PriceAlert> all = alertRepository.findAll();
+
+    for (int q = 0; q < 300; q++) {
+      ListingType type = types[1 + random.nextInt(2)];
+      BigDecimal price = BigDecimal.valueOf(1 + random.nextInt(50));
+      BigDecimal qty = BigDecimal.valueOf(random.nextInt(25));
+      Set<Long> expected = all.stream()
+          .filter(a -> a.getMaxPrice().compareTo(price) >= 0 && a.getMinQty().compareTo(qty) <= 0)
+          .filter(a -> a.getListingType() == null || a.getListingType() == type)
+          .map(PriceAlert::getBuyerId)
+          .collect(Collectors.toSet());
+      assertThat(priceAlertService.match(type, price, qty)).containsExactlyInAnyOrderElementsOf(expected);
+    }
+  }
+
+  @Test
+  @DisplayName("Listing mới duyệt / đổi giá: buyer khớp được thông báo một lần")
+  void notifiesOnApprovalAndReprice() {
+    Long existing = listing(ListingType.FIXED_PRICE, "12", "50");
+    orderBook.rebuild();
+    priceAlertService.create(alert(1L, 10, 0, null));
+    priceAlertService.create(alert(2L, 15, 0, ListingType.AUCTION));
+    priceAlertService.create(alert(3L, 10, 100, ListingType.FIXED_PRICE));
+
+    // Listing mới được duyệt ở admin: giá 9, 50 tín chỉ
+    Long fresh = listing(ListingType.FIXED_PRICE, "9", "50");
+    orderBook.syncChanges();
+    verify(notificationService).notifyBuyer(eq(1L), contains("#" + fresh));
+    verify(notificationService, never()).notifyBuyer(eq(2L), anyString());
+    verify(notificationService, never()).notifyBuyer(eq(3L), anyString());
+
+    // Đồng bộ lại cùng dữ liệu (cửa sổ lookback) không báo trùng
+    orderBook.syncChanges();
+    verify(notificationService, times(1)).notifyBuyer(anyLong(), anyString());
+
+    // Listing cũ hạ giá 12 -> 10
+    clearInvocations(notificationService);
+    Listing listing = listingRepository.findById(existing).orElseThrow();
+    listing.setPricePerUnit(BigDecimal.TEN);
+    listingRepository.save(listing);
+    orderBook.syncChanges();
+    verify(notificationService).notifyBuyer(eq(1L), contains("#" + existing));
+    verify(notificationService, times(1)).notifyBuyer(anyLong(), anyString());
+  }
+
+  @Test
+  @DisplayName("Giới hạn số cảnh báo mỗi buyer, xoá cảnh báo")
+  void limitsAndDeletes() {
+    for (int i = 0; i < 5; i++) {
+      priceAlertService.create(alert(7L, 10 + i, 0, null));
+    }
+    assertThatThrownBy(() -> priceAlertService.create(alert(7L, 20, 0, null)))
+        .isInstanceOf(IllegalStateException.class);
+    assertThatThrownBy(() -> priceAlertService.create(alert(8L, 0, 0, null)))
+        .isInstanceOf(IllegalArgumentException.class);
+
+    // Cảnh báo mới nhất (maxPrice 14) đứng đầu danh sách
+    Long highest = priceAlertService.list(7L).get(0).getId();
+    assertThatThrownBy(() -> priceAlertService.delete(8L, highest)).isInstanceOf(RuntimeException.class);
+    priceAlertService.delete(7L, highest);
+    assertThat(priceAlertService.list(7L)).hasSize(4);
+    assertThat(priceAlertService.match(ListingType.FIXED_PRICE, BigDecimal.valueOf(13), BigDecimal.ONE))
+        .containsExactly(7L);
+    assertThat(priceAlertService.match(ListingType.FIXED_PRICE, BigDecimal.valueOf(14), BigDecimal.ONE)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Hai instance cùng khớp một lần chào bán: mỗi buyer một thông báo")
+  void instancesDoNotNotifyTwice() {
+    priceAlertService.create(alert(1L, 10, 0, null));
+    priceAlertService.create(alert(1L, 12, 0, ListingType.FIXED_PRICE));
+    priceAlertService.create(alert(2L, 10, 0, null));
+    PriceAlertServiceImpl otherInstance = new PriceAlertServiceImpl(alertRepository, firingRepository,
+        notificationService, transactionManager, 5, Duration.ofDays(1));
+    otherInstance.reload();
+    ListingOfferedEvent offer = new ListingOfferedEvent(900L, ListingType.FIXED_PRICE, new BigDecimal("9.00"), BigDecimal.TEN);
+
+    priceAlertService.onListingOffered(offer);
+    otherInstance.onListingOffered(offer);
+
+    verify(notificationService, times(1)).notifyBuyer(eq(1L), anyString());
+    verify(notificationService, times(1)).notifyBuyer(eq(2L), anyString());
+
+    // Cùng listing chào giá mới: báo lại; dấu cũ quá hạn thì được dọn
+    otherInstance.onListingOffered(new ListingOfferedEvent(900L, ListingType.FIXED_PRICE, new BigDecimal("8.00"), BigDecimal.TEN));
+    verify(notificationService, times(2)).notifyBuyer(eq(1L), anyString());
+    assertThat(firingRepository.count()).isEqualTo(4);
+    new PriceAlertServiceImpl(alertRepository, firingRepository, notificationService, transactionManager, 5,
+        Duration.ofSeconds(-1)).purgeFirings();
+    assertThat(firingRepository.count()).isZero();
+  }
+
+  private Long listing(ListingType type, String price, String qty) {
+    return listingRepository.save(Listing.builder()
+        .sellerId(500L)
+        .qty(new BigDecimal(qty))
+        .pricePerUnit(new BigDecimal(price))
+        .type(type)
+        .status(ListingStatus.APPROVED)
+        .build()).getId();
+  }
+
+  private static CreatePriceAlertRequest alert(Long buyerId, int maxPrice, int minQty, ListingType type) {
+    CreatePriceAlertRequest req = new CreatePriceAlertRequest();
+    req.setBuyerId(buyerId);
+    req.setMaxPrice(BigDecimal.valueOf(maxPrice));
+    req.setMinQty(BigDecimal.valueOf(minQty));
+    req.setListingType(type);
+    return req;
+  }
+}
@@ -0,0 +1,16 @@
+package ccm.buyer.service.impl;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Các bean thật của luồng mua: trừ kho, giữ chỗ, ví/sổ cái, outbox.
+ *
+ * Thêm dependency vào constructor của các service này thì chỉ sửa danh sách ở đây; test cần thêm bean
+ * (hóa đơn, thông báo thật, order book thật...) tự @Import thêm bên cạnh.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+@Import({TransactionServiceImpl.class, ListingServiceImpl.class, Outbox.class, OutboxRelay.class,
+    BuyerDashboardCounters.class, WalletLedger.class, ReservationLedger.class})
+class PurchaseStackConfig {
+}
@@ -0,0 +1,50 @@
+package ccm.buyer.service.impl;
+
+import ccm.buyer.service.InvoiceService;
+import ccm.buyer.service.NotificationService;
+import ccm.buyer.service.OrderBookService;
+import ccm.buyer.service.PaymentService;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Slice JPA cho test luồng mua trên H2 (MODE=MySQL, khóa dòng như InnoDB).
+ *
+ * - Bean thật: {@link PurchaseStackConfig}; thanh toán, hóa đơn, thông báo, order book là mock
+ *   (lấy bằng @Autowired để stub/verify).
+ * - Không bọc test trong transaction: mỗi lời gọi service tự commit như khi chạy thật, test tự dọn dữ liệu.
+ * - Mỗi context có DB riêng (tên ngẫu nhiên); các lớp test cùng cấu hình dùng chung context.
+ *
+ * Test cần thêm thuộc tính thì khai báo @TestPropertySource riêng (được gộp, ưu tiên hơn thuộc tính ở đây);
+ * test cần bean thật thay cho mock thì không dùng annotation này mà @Import {@link PurchaseStackConfig}.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:buyer-${random.uuid};MODE=MySQL;LOCK_TIMEOUT=10000;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "spring.flyway.enabled=false"
+})
+@Import(PurchaseStackConfig.class)
+@MockitoBean(types = {PaymentService.class, InvoiceService.class, NotificationService.class, OrderBookService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@interface PurchaseStackJpaTest {
+}
@@ -0,0 +1,277 @@
+package ccm.buyer.service.impl;
+
+import ccm.buyer.dto.request.CreateTransactionRequest;
+import ccm.buyer.dto.response.ListingHoldResponse;
+import ccm.buyer.entity.EWallet;
+import ccm.buyer.entity.Listing;
+import ccm.buyer.entity.Payment;
+import ccm.buyer.enums.ListingStatus;
+import ccm.buyer.enums.ListingType;
+import ccm.buyer.enums.PayStatus;
+import ccm.buyer.repository.EWalletRepository;
+import ccm.buyer.repository.ListingRepository;
+import ccm.buyer.repository.TransactionRepository;
+import ccm.buyer.repository.WalletLedgerRepository;
+import ccm.buyer.service.ListingService;
+import ccm.buyer.service.PaymentService;
+import ccm.buyer.service.TransactionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Giữ chỗ listing khi checkout (H2).
+ *
+ * Kiểm tra:
+ * - Hold trừ available ngay, hết TTL thì bánh xe nhả
+ * - Mua không có hold không lấy được phần đang giữ; mua bằng hold thì tiêu đúng hold
+ * - Mua lỗi sau khi claim: hold trở lại, thử lại cùng hold được
+ * - Người giữ chỗ luôn mua được dù nhiều người mua tự do cùng lúc
+ * - Listing hết hold / lượt mua đang chạy thì sổ không còn giữ Stock của nó
+ */
+@PurchaseStackJpaTest
+@TestPropertySource(properties = "app.reservations.ttl=PT1M")
+class ReservationLedgerTest {
+
+  private static final long SELLER = 900L;
+
+  @Autowired private ListingService listingService;
+  @Autowired private TransactionService transactionService;
+  @Autowired private ReservationLedger reservations;
+  @Autowired private ListingRepository listingRepository;
+  @Autowired private EWalletRepository walletRepository;
+  @Autowired private TransactionRepository transactionRepository;
+  @Autowired private WalletLedgerRepository ledgerRepository;
+
+  @Autowired private PaymentService paymentService;
+
+  @BeforeEach
+  void setUp() {
+    when(paymentService.processPayment(anyLong(), anyString(), any()))
+        .thenAnswer(inv -> Payment.builder().status(PayStatus.SUCCESS).build());
+    walletRepository.save(EWallet.builder().userId(SELLER).balance(BigDecimal.ZERO).build());
+  }
+
+  @AfterEach
+  void tearDown() {
+    transactionRepository.deleteAll();
+    listingRepository.deleteAll();
+    walletRepository.deleteAll();
+    ledgerRepository.deleteAll();
+  }
+
+  @Test
+  @DisplayName("Hold trừ available ngay, hết TTL thì được nhả")
+  void holdsReduceAvailabilityUntilExpiry() {
+    Long listingId = listing("10");
+
+    ListingHoldResponse hold = listingService.reserve(listingId, 1L, new BigDecimal("4"));
+    assertThat(hold.getAvailable()).isEqualByComparingTo("6");
+    assertThat(listingService.available(listingId)).isEqualByComparingTo("6");
+    assertThatThrownBy(() -> listingService.reserve(listingId, 2L, new BigDecimal("7")))
+        .isInstanceOf(IllegalStateException.class);
+
+    // Nhả tay: chỉ chủ hold
+    assertThatThrownBy(() -> listingService.release(hold.getHoldId(), 2L))
+        .isInstanceOf(IllegalStateException.class);
+    listingService.release(hold.getHoldId(), 1L);
+    assertThat(listingService.available(listingId)).isEqualByComparingTo("10");
+
+    // Hết hạn: sổ riêng để quay bánh xe tới tương lai không ảnh hưởng bean dùng chung
+    ReservationLedger ledger = new ReservationLedger(listingRepository, Duration.ofMinutes(1), Duration.ofSeconds(1));
+    ledger.reserve(listingId, 1L, new BigDecimal("4"));
+    ledger.reserve(listingId, 2L, new BigDecimal("6"));
+    assertThat(ledger.available(listingId)).isEqualByComparingTo("0");
+    assertThat(ledger.expire(System.currentTimeMillis())).isZero();
+    assertThat(ledger.expire(System.currentTimeMillis() + 61_000L)).isEqualTo(2);
+    assertThat(ledger.available(listingId)).isEqualByComparingTo("10");
+    assertThat(ledger.activeHolds()).isZero();
+    assertThat(ledger.trackedListings()).isZero();
+  }
+
+  @Test
+  @DisplayName("Mua tự do không lấy phần đang giữ; mua bằng hold tiêu đúng hold")
+  void purchasesRespectHolds() {
+    Long listingId = listing("10");
+    ListingHoldResponse hold = listingService.reserve(listingId, 1L, new BigDecimal("6"));
+
+    assertThatThrownBy(() -> transactionService.create(request(2L, listingId, "5", null)))
+        .isInstanceOf(IllegalStateException.class);
+    assertThat(listingRepository.findQtyById(listingId)).isEqualByComparingTo("10");
+
+    transactionService.create(request(2L, listingId, "4", null));
+    assertThat(listingService.available(listingId)).isEqualByComparingTo("0");
+
+    // Hold của người khác hoặc sai số lượng bị từ chối
+    assertThatThrownBy(() -> transactionService.create(request(3L, listingId, "6", hold.getHoldId())))
+        .isInstanceOf(IllegalStateException.class);
+    assertThatThrownBy(() -> transactionService.create(request(1L, listingId, "5", hold.getHoldId())))
+        .isInstanceOf(IllegalStateException.class);
+
+    transactionService.create(request(1L, listingId, "6", hold.getHoldId()));
+    Listing after = listingRepository.findById(listingId).orElseThrow();
+    assertThat(after.getQty()).isEqualByComparingTo("0");
+    assertThat(after.getStatus()).isEqualTo(ListingStatus.SOLD);
+    assertThat(reservations.activeHolds()).isZero();
+    assertThat(walletRepository.balanceOf(SELLER)).isEqualByComparingTo("100");
+  }
+
+  @Test
+  @DisplayName("Mua lỗi sau khi claim: hold trở lại, thử lại cùng hold được")
+  void failedCheckoutKeepsHold() {
+    long orphanSeller = 901L;
+    Long listingId = listingRepository.save(Listing.builder()
+        .sellerId(orphanSeller)
+        .qty(new BigDecimal("5"))
+        .pricePerUnit(BigDecimal.TEN)
+        .type(ListingType.FIXED_PRICE)
+        .status(ListingStatus.APPROVED)
+        .build()).getId();
+    ListingHoldResponse hold = listingService.reserve(listingId, 1L, new BigDecimal("3"));
+
+    // Người bán chưa có ví: cộng tiền lỗi sau khi đã trừ kho + claim -> rollback
+    assertThatThrownBy(() -> transactionService.create(request(1L, listingId, "3", hold.getHoldId())))
+        .isInstanceOf(RuntimeException.class);
+    assertThat(listingRepository.findQtyById(listingId)).isEqualByComparingTo("5");
+    assertThat(listingService.available(listingId)).isEqualByComparingTo("2");
+
+    walletRepository.save(EWallet.builder().userId(orphanSeller).balance(BigDecimal.ZERO).build());
+    transactionService.create(request(1L, listingId, "3", hold.getHoldId()));
+    assertThat(listingRepository.findQtyById(listingId)).isEqualByComparingTo("2");
+    assertThat(reservations.activeHolds()).isZero();
+    assertThat(reservations.trackedListings()).isZero();
+  }
+
+  @Test
+  @DisplayName("Người giữ chỗ luôn mua được dù nhiều người mua tự do cùng lúc")
+  void holdersAlwaysGetTheirShare() throws Exception {
+    Long listingId = listing("50");
+    List<Long> holds = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      holds.add(listingService.reserve(listingId, 100L + i, new BigDecimal("3")).getHoldId());
+    }
+
+    AtomicInteger free = new AtomicInteger();
+    AtomicInteger held = new AtomicInteger();
+    ExecutorService pool = Executors.newFixedThreadPool(16);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<Void>> futures = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      int index = i;
+      Callable<Void> call = () -> {
+        start.await();
+        if (index < holds.size()) {
+          transactionService.create(request(100L + index, listingId, "3", holds.get(index)));
+          held.incrementAndGet();
+        } else {
+          try {
+            transactionService.create(request(1000L + index, listingId, "1", null));
+            free.incrementAndGet();
+          } catch (IllegalStateException e) {
+            // hết phần chưa bị giữ
+          }
+        }
+        return null;
+      };
+      futures.add(pool.submit(call));
+    }
+    start.countDown();
+    for (Future<Void> f : futures) {
+      f.get(30, TimeUnit.SECONDS);
+    }
+    pool.shutdown();
+
+    assertThat(held.get()).isEqualTo(10);
+    assertThat(free.get()).isEqualTo(20);
+    assertThat(listingRepository.findQtyById(listingId)).isEqualByComparingTo("0");
+    assertThat(reservations.activeHolds()).isZero();
+    assertThat(reservations.trackedListings()).isZero();
+  }
+
+  @Test
+  @DisplayName("Listing không còn hold hay lượt mua đang chạy thì Stock bị gỡ khỏi sổ")
+  void idleListingsAreNotTracked() throws Exception {
+    List<Long> listingIds = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      listingIds.add(listing("5"));
+    }
+
+    // Nhiều luồng giữ rồi nhả / mua tự do trên cùng các listing: Stock bị gỡ giữa chừng phải được tạo lại
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<Void>> futures = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      long buyer = 200L + i;
+      futures.add(pool.submit(() -> {
+        start.await();
+        for (int round = 0; round < 50; round++) {
+          Long listingId = listingIds.get((int) ((buyer + round) % listingIds.size()));
+          ListingHoldResponse hold = listingService.reserve(listingId, buyer, BigDecimal.ONE);
+          listingService.release(hold.getHoldId(), buyer);
+        }
+        return null;
+      }));
+    }
+    start.countDown();
+    for (Future<Void> f : futures) {
+      f.get(30, TimeUnit.SECONDS);
+    }
+    pool.shutdown();
+
+    assertThat(reservations.activeHolds()).isZero();
+    assertThat(reservations.trackedListings()).isZero();
+    for (Long listingId : listingIds) {
+      assertThat(listingService.available(listingId)).isEqualByComparingTo("5");
+    }
+
+    // Mua tự do và mua bằng hold cũng không để lại Stock
+    Long listingId = listingIds.get(0);
+    ListingHoldResponse hold = listingService.reserve(listingId, 1L, new BigDecimal("2"));
+    assertThat(reservations.trackedListings()).isEqualTo(1);
+    transactionService.create(request(2L, listingId, "3", null));
+    transactionService.create(request(1L, listingId, "2", hold.getHoldId()));
+    assertThat(reservations.trackedListings()).isZero();
+    assertThat(listingRepository.findQtyById(listingId)).isEqualByComparingTo("0");
+  }
+
+  private Long listing(String qty) {
+    return listingRepository.save(Listing.builder()
+        .sellerId(SELLER)
+        .qty(new BigDecimal(qty))
+        .pricePerUnit(BigDecimal.TEN)
+        .type(ListingType.FIXED_PRICE)
+        .status(ListingStatus.APPROVED)
+        .build()).getId();
+  }
+
+  private static CreateTransactionRequest request(Long buyerId, Long listingId, String qty, Long holdId) {
+    CreateTransactionRequest req = new CreateTransactionRequest();
+    req.setBuyerId(buyerId);
+    req.setListingId(listingId);
+    req.setQty(new BigDecimal(qty));
+    req.setHoldId(holdId);
+    return req;
+  }
+}
@@ -0,0 +1,162 @@
+package ccm.buyer.service.impl;
+
+import ccm.buyer.entity.EWallet;
+import ccm.buyer.entity.Listing;
+import ccm.buyer.enums.ListingStatus;
+import ccm.buyer.enums.ListingType;
+import ccm.buyer.enums.OutboxStatus;
+import ccm.buyer.repository.EWalletRepository;
+import ccm.buyer.repository.InvoiceRepository;
+import ccm.buyer.repository.ListingRepository;
+import ccm.buyer.repository.NotificationRepository;
+import ccm.buyer.repository.OutboxEventRepository;
+import ccm.buyer.repository.PaymentRepository;
+import ccm.buyer.repository.TransactionRepository;
+import ccm.buyer.service.TransactionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.h2.tools.Server;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark mua hàng loạt (createBulk) qua H2 TCP: mỗi câu lệnh là một round trip thật,
+ * nên số câu lệnh JDBC quyết định thông lượng giống như với MySQL.
+ *
+ * Chạy thủ công: mvn test -pl apps/buyer-backend-spring -am -Dtest=TransactionBulkBenchmarkTest
+ *   -Dsurefire.failIfNoSpecifiedTests=false -Dbenchmark=true
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Import({PurchaseStackConfig.class, OrderBookServiceImpl.class, PaymentServiceImpl.class, InvoiceServiceImpl.class,
+    InvoiceRenderer.class, NotificationServiceImpl.class, NotificationStreamHub.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TransactionBulkBenchmarkTest {
+
+  private static final int LISTINGS = 1_000;
+  private static final int SELLERS = 50;
+
+  private static Server server;
+
+  @Autowired private TransactionService transactionService;
+  @Autowired private OrderBookServiceImpl orderBook;
+  @Autowired private ListingRepository listingRepository;
+  @Autowired private EWalletRepository walletRepository;
+  @Autowired private TransactionRepository transactionRepository;
+  @Autowired private PaymentRepository paymentRepository;
+  @Autowired private InvoiceRepository invoiceRepository;
+  @Autowired private NotificationRepository notificationRepository;
+  @Autowired private OutboxEventRepository outboxRepository;
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  @DynamicPropertySource
+  static void datasource(DynamicPropertyRegistry registry) throws SQLException {
+    server = Server.createTcpServer("-tcpPort", "0", "-tcpDaemon", "-ifNotExists").start();
+    registry.add("spring.datasource.url", () -> "jdbc:h2:tcp://localhost:" + server.getPort()
+        + "/mem:buyer-bench;MODE=MySQL;DB_CLOSE_DELAY=-1");
+    registry.add("spring.datasource.driver-class-name", () -> "org.h2.Driver");
+    registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+    registry.add("spring.jpa.show-sql", () -> "false");
+    registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> "true");
+    registry.add("spring.flyway.enabled", () -> "false");
+  }
+
+  @AfterAll
+  static void stopServer() {
+    server.stop();
+  }
+
+  @Test
+  @DisplayName("Benchmark: createBulk over 1,000 listings")
+  void benchmarkBulkBuy() {
+    Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+    // Lượt đầu để JIT và connection pool ấm lên
+    run(stats, 200);
+    Result r = run(stats, LISTINGS);
+
+    System.out.printf("[createBulk] listings=%d elapsed=%d ms throughput=%.0f listings/s "
+            + "statements=%d (%.1f per listing)%n",
+        LISTINGS, r.elapsedMillis(), LISTINGS / (r.elapsedMillis() / 1000.0),
+        r.statements(), r.statements() / (double) LISTINGS);
+  }
+
+  private Result run(Statistics stats, int listings) {
+    seed(listings);
+    orderBook.rebuild();
+
+    stats.clear();
+    long start = System.nanoTime();
+    var results = transactionService.createBulk(1L, BigDecimal.valueOf(listings));
+    long elapsed = (System.nanoTime() - start) / 1_000_000;
+
+    assertThat(results).hasSize(listings);
+    assertThat(listingRepository.findAll()).allMatch(l -> l.getStatus() == ListingStatus.SOLD);
+    Result result = new Result(elapsed, stats.getPrepareStatementCount());
+    awaitOutboxDrained();
+    clear();
+    return result;
+  }
+
+  private void seed(int listings) {
+    List<EWallet> wallets = new ArrayList<>();
+    for (long seller = 1; seller <= SELLERS; seller++) {
+      wallets.add(EWallet.builder().userId(1000L + seller).balance(BigDecimal.ZERO).build());
+    }
+    walletRepository.saveAll(wallets);
+
+    List<Listing> rows = new ArrayList<>();
+    for (int i = 0; i < listings; i++) {
+      rows.add(Listing.builder()
+          .sellerId(1001L + i % SELLERS)
+          .qty(BigDecimal.ONE)
+          .pricePerUnit(BigDecimal.valueOf(10 + i % 7))
+          .type(ListingType.FIXED_PRICE)
+          .status(ListingStatus.APPROVED)
+          .build());
+    }
+    listingRepository.saveAll(rows);
+  }
+
+  // Hóa đơn/thông báo chạy sau commit trên worker outbox; chờ xong trước khi xóa dữ liệu
+  private void awaitOutboxDrained() {
+    long deadline = System.nanoTime() + 60_000_000_000L;
+    while (outboxRepository.countByStatus(OutboxStatus.PENDING) > 0 && System.nanoTime() < deadline) {
+      LockSupport.parkNanos(20_000_000L);
+    }
+  }
+
+  private void clear() {
+    outboxRepository.deleteAllInBatch();
+    notificationRepository.deleteAllInBatch();
+    invoiceRepository.deleteAllInBatch();
+    paymentRepository.deleteAllInBatch();
+    transactionRepository.deleteAllInBatch();
+    listingRepository.deleteAllInBatch();
+    walletRepository.deleteAllInBatch();
+  }
+
+  private record Result(long elapsedMillis, long statements) {}
+}
@@ -0,0 +1,136 @@
+package ccm.buyer.service.impl;
+
+import ccm.buyer.dto.request.TransactionHistoryQuery;
+import ccm.buyer.dto.response.TransactionPageResponse;
+import ccm.buyer.dto.response.TransactionResponse;
+import ccm.buyer.entity.Transaction;
+import ccm.buyer.enums.TrStatus;
+import ccm.buyer.repository.TransactionRepository;
+import ccm.buyer.service.PaymentService;
+import ccm.buyer.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Lịch sử giao dịch phân trang và xuất NDJSON (H2).
+ *
+ * Kiểm tra:
+ * - Đi hết các trang với bộ lọc trạng thái + khoảng ngày: đúng tập dòng, mới nhất trước, không trùng
+ * - Xuất toàn bộ theo lô: đủ dòng, đúng thứ tự, tiếp tục được từ cursor
+ * - Bắt buộc buyerId (không còn trả cả sàn)
+ */
+@PurchaseStackJpaTest
+class TransactionHistoryTest {
+
+  private static final long BUYER = 500L;
+  private static final long OTHER_BUYER = 501L;
+  private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+  @Autowired private TransactionService transactionService;
+  @Autowired private TransactionRepository transactionRepository;
+
+  @Autowired private PaymentService paymentService;
+
+  @BeforeEach
+  void setUp() {
+    transactionRepository.deleteAllInBatch();
+  }
+
+  @Test
+  @DisplayName("Đi hết các trang có lọc trạng thái + khoảng ngày: đúng tập dòng, mới nhất trước")
+  void pagesThroughFilteredHistory() {
+    // 300 giao dịch, 3 dòng chung một created_at để kiểm tra tie-break theo id
+    List<Transaction> mine = seed(BUYER, 300);
+    seed(OTHER_BUYER, 50);
+    LocalDateTime from = BASE.plusHours(20);
+    LocalDateTime to = BASE.plusHours(80);
+    List<Long> expected = mine.stream()
+        .filter(t -> t.getStatus() == TrStatus.COMPLETED)
+        .filter(t -> !t.getCreatedAt().isBefore(from) && t.getCreatedAt().isBefore(to))
+        .sorted(Comparator.comparing(Transaction::getCreatedAt).thenComparing(Transaction::getId).reversed())
+        .map(Transaction::getId)
+        .toList();
+
+    List<Long> seen = new ArrayList<>();
+    String cursor = null;
+    do {
+      TransactionPageResponse page = transactionService.history(
+          TransactionHistoryQuery.of(BUYER, TrStatus.COMPLETED, from, to, cursor, 25));
+      assertThat(page.getItems()).hasSizeLessThanOrEqualTo(25)
+          .allMatch(t -> t.getBuyerId() == BUYER && t.getStatus() == TrStatus.COMPLETED);
+      page.getItems().forEach(t -> seen.add(t.getId()));
+      cursor = page.getNextCursor();
+    } while (cursor != null);
+
+    assertThat(expected).hasSizeGreaterThan(25);
+    assertThat(seen).containsExactlyElementsOf(expected);
+  }
+
+  @Test
+  @DisplayName("Xuất toàn bộ theo lô: đủ 1.203 dòng đúng thứ tự, tiếp tục được từ cursor")
+  void exportsWholeHistoryInBatches() {
+    seed(BUYER, 1_203);
+
+    List<TransactionResponse> exported = new ArrayList<>();
+    List<Integer> batchSizes = new ArrayList<>();
+    transactionService.exportHistory(TransactionHistoryQuery.of(BUYER, null, null, null, null, null), batch -> {
+      batchSizes.add(batch.size());
+      exported.addAll(batch);
+    });
+
+    assertThat(exported).hasSize(1_203);
+    assertThat(batchSizes).allMatch(size -> size <= 500);
+    for (int i = 1; i < exported.size(); i++) {
+      TransactionResponse prev = exported.get(i - 1);
+      TransactionResponse cur = exported.get(i);
+      assertThat(prev.getCreatedAt().isAfter(cur.getCreatedAt())
+          || (prev.getCreatedAt().isEqual(cur.getCreatedAt()) && prev.getId() > cur.getId())).isTrue();
+    }
+
+    // Kết nối đứt sau dòng 700: tiếp tục từ cursor của dòng đó
+    String cursor = TransactionHistoryQuery.cursorOf(exported.get(699));
+    List<TransactionResponse> resumed = new ArrayList<>();
+    transactionService.exportHistory(TransactionHistoryQuery.of(BUYER, null, null, null, cursor, null), resumed::addAll);
+    assertThat(resumed).extracting(TransactionResponse::getId)
+        .containsExactlyElementsOf(exported.subList(700, exported.size()).stream().map(TransactionResponse::getId).toList());
+  }
+
+  @Test
+  @DisplayName("buyerId bắt buộc; khoảng ngày ngược bị từ chối")
+  void rejectsInvalidQueries() {
+    assertThatThrownBy(() -> TransactionHistoryQuery.of(null, null, null, null, null, null))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> TransactionHistoryQuery.of(BUYER, null, BASE.plusDays(1), BASE, null, null))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> TransactionHistoryQuery.of(BUYER, null, null, null, "not-a-cursor", null))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private List<Transaction> seed(long buyerId, int count) {
+    TrStatus[] statuses = TrStatus.values();
+    List<Transaction> rows = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      // Không đặt transactionCode: @PrePersist sinh mã, hàng nghìn dòng trong vài ms không được trùng (unique)
+      rows.add(Transaction.builder()
+          .buyerId(buyerId)
+          .listingId(1L)
+          .qty(BigDecimal.ONE)
+          .amount(BigDecimal.TEN)
+          .status(statuses[i % statuses.length])
+          .createdAt(BASE.plusMinutes(20L * (i / 3)))
+          .build());
+    }
+    return transactionRepository.saveAll(rows);
+  }
+}
@@ -0,0 +1,227 @@
+package ccm.buyer.service.impl;
+
+import ccm.buyer.dto.request.CreateTransactionRequest;
+import ccm.buyer.entity.EWallet;
+import ccm.buyer.entity.Listing;
+import ccm.buyer.entity.Payment;
+import ccm.buyer.enums.ListingStatus;
+import ccm.buyer.enums.ListingType;
+import ccm.buyer.enums.PayStatus;
+import ccm.buyer.enums.TrStatus;
+import ccm.buyer.repository.EWalletRepository;
+import ccm.buyer.repository.ListingRepository;
+import ccm.buyer.repository.TransactionRepository;
+import ccm.buyer.repository.WalletLedgerRepository;
+import ccm.buyer.service.PaymentService;
+import ccm.buyer.service.TransactionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Stress test mua đồng thời trên DB thật (H2, khóa dòng như InnoDB).
+ *
+ * Kiểm tra:
+ * - Nhiều người mua cùng một listing: không bán vượt, ví người bán không mất tiền
+ * - buyListing (mua đứt) đồng thời: đúng một người thắng, tiền chỉ chuyển một lần
+ * - Mua hai listing khác nhau không chặn nhau
+ */
+@PurchaseStackJpaTest
+class TransactionServiceConcurrencyTest {
+
+  private static final int THREADS = 16;
+
+  @Autowired private TransactionService transactionService;
+  @Autowired private ListingRepository listingRepository;
+  @Autowired private EWalletRepository walletRepository;
+  @Autowired private TransactionRepository transactionRepository;
+  @Autowired private WalletLedgerRepository ledgerRepository;
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  @Autowired private PaymentService paymentService;
+
+  @BeforeEach
+  void setUp() {
+    when(paymentService.processPayment(anyLong(), anyString(), any()))
+        .thenAnswer(inv -> Payment.builder().status(PayStatus.SUCCESS).build());
+  }
+
+  @AfterEach
+  void tearDown() {
+    transactionRepository.deleteAll();
+    listingRepository.deleteAll();
+    walletRepository.deleteAll();
+    ledgerRepository.deleteAll();
+  }
+
+  @Test
+  @DisplayName("Concurrent buys of one listing never oversell or lose seller credits")
+  void concurrentBuysNeverOversell() throws Exception {
+    // Given: 20 tín chỉ giá 10, 60 lệnh mua 1 tín chỉ cùng lúc
+    Long listingId = listing(100L, "20", "10").getId();
+    wallet(100L, "0");
+
+    AtomicInteger completed = new AtomicInteger();
+    AtomicInteger rejected = new AtomicInteger();
+    runConcurrently(60, i -> {
+      try {
+        transactionService.create(request(1000L + i, listingId, "1"));
+        completed.incrementAndGet();
+      } catch (IllegalStateException e) {
+        rejected.incrementAndGet();
+      }
+    });
+
+    // Then
+    Listing after = listingRepository.findById(listingId).orElseThrow();
+    assertThat(completed.get()).isEqualTo(20);
+    assertThat(rejected.get()).isEqualTo(40);
+    assertThat(after.getQty()).isEqualByComparingTo("0");
+    assertThat(after.getStatus()).isEqualTo(ListingStatus.SOLD);
+    assertThat(walletRepository.balanceOf(100L)).isEqualByComparingTo("200");
+    assertThat(transactionRepository.findAll())
+        .filteredOn(t -> t.getStatus() == TrStatus.COMPLETED).hasSize(20);
+  }
+
+  @Test
+  @DisplayName("Concurrent buy-all of one listing has exactly one winner")
+  void concurrentBuyListingSingleWinner() throws Exception {
+    // Given: listing 5 tín chỉ x 10, 10 người mua đủ tiền
+    Long listingId = listing(200L, "5", "10").getId();
+    wallet(200L, "0");
+    for (int i = 0; i < 10; i++) {
+      wallet(2000L + i, "1000");
+    }
+
+    AtomicInteger winners = new AtomicInteger();
+    runConcurrently(10, i -> {
+      try {
+        transactionService.buyListing(2000L + i, listingId, null);
+        winners.incrementAndGet();
+      } catch (IllegalStateException e) {
+        // listing đã bị người khác mua
+      }
+    });
+
+    // Then: tiền chỉ chuyển đúng một lần
+    BigDecimal buyersTotal = walletRepository.findAll().stream()
+        .filter(w -> w.getUserId() >= 2000L)
+        .map(EWallet::getBalance)
+        .reduce(BigDecimal.ZERO, BigDecimal::add);
+    assertThat(winners.get()).isEqualTo(1);
+    assertThat(buyersTotal).isEqualByComparingTo("9950");
+    assertThat(walletRepository.balanceOf(200L)).isEqualByComparingTo("50");
+    assertThat(listingRepository.findById(listingId).orElseThrow().getStatus()).isEqualTo(ListingStatus.SOLD);
+  }
+
+  @Test
+  @DisplayName("A purchase holding one listing's row lock does not block another listing")
+  void differentListingsDoNotBlock() throws Exception {
+    // Given: hai listing của hai người bán khác nhau
+    Long listingA = listing(300L, "10", "10").getId();
+    Long listingB = listing(301L, "10", "10").getId();
+    wallet(300L, "0");
+    wallet(301L, "0");
+
+    // Transaction 1 giữ khóa dòng listing A và chưa commit
+    CountDownLatch locked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService holder = Executors.newSingleThreadExecutor();
+    Future<?> holding = holder.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(s -> {
+      listingRepository.decrementQty(listingA, BigDecimal.ONE, LocalDateTime.now());
+      locked.countDown();
+      await(release);
+    }));
+    assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+
+    // When: mua listing B trong lúc A đang bị khóa
+    ExecutorService buyer = Executors.newSingleThreadExecutor();
+    Future<?> purchase = buyer.submit(() -> transactionService.create(request(3000L, listingB, "2")));
+
+    // Then: hoàn tất ngay, không phải chờ transaction giữ A
+    purchase.get(3, TimeUnit.SECONDS);
+    release.countDown();
+    holding.get(5, TimeUnit.SECONDS);
+    holder.shutdown();
+    buyer.shutdown();
+
+    assertThat(listingRepository.findById(listingB).orElseThrow().getQty()).isEqualByComparingTo("8");
+    assertThat(listingRepository.findById(listingA).orElseThrow().getQty()).isEqualByComparingTo("9");
+  }
+
+  private interface Task {
+    void run(int index) throws Exception;
+  }
+
+  private void runConcurrently(int tasks, Task task) throws Exception {
+    ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<Void>> futures = new ArrayList<>();
+    for (int i = 0; i < tasks; i++) {
+      int index = i;
+      Callable<Void> call = () -> {
+        start.await();
+        task.run(index);
+        return null;
+      };
+      futures.add(pool.submit(call));
+    }
+    start.countDown();
+    for (Future<Void> f : futures) {
+      f.get(30, TimeUnit.SECONDS);
+    }
+    pool.shutdown();
+  }
+
+  private Listing listing(Long sellerId, String qty, String price) {
+    return listingRepository.save(Listing.builder()
+        .sellerId(sellerId)
+        .qty(new BigDecimal(qty))
+        .pricePerUnit(new BigDecimal(price))
+        .type(ListingType.FIXED_PRICE)
+        .status(ListingStatus.APPROVED)
+        .build());
+  }
+
+  private void wallet(Long userId, String balance) {
+    walletRepository.save(EWallet.builder().userId(userId).balance(new BigDecimal(balance)).build());
+  }
+
+  private CreateTransactionRequest request(Long buyerId, Long listingId, String qty) {
+    CreateTransactionRequest req = new CreateTransactionRequest();
+    req.setBuyerId(buyerId);
+    req.setListingId(listingId);
+    req.setQty(new BigDecimal(qty));
+    return req;
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,247 @@
+package ccm.buyer.service.impl;
+
+import ccm.buyer.entity.EWallet;
+import ccm.buyer.entity.WalletLedgerEntry;
+import ccm.buyer.enums.WalletEntryType;
+import ccm.buyer.repository.EWalletRepository;
+import ccm.buyer.repository.WalletLedgerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sổ cái ví + snapshot (H2, khóa dòng như InnoDB).
+ *
+ * Kiểm tra:
+ * - Gộp snapshot lấy mọi khoản cộng đã commit; số dư không đổi trước/sau gộp, snapshot khớp sổ cái
+ * - Khoản cộng commit sau một lượt gộp với created_at cũ vẫn được tính và được gộp ở lượt sau
+ * - Cộng tiền không chờ khóa dòng ví đang bị giữ
+ * - Trừ tiền song song không làm âm quỹ, tính cả khoản cộng chưa gộp
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:buyer-wallet-ledger;MODE=MySQL;LOCK_TIMEOUT=10000;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "spring.flyway.enabled=false"
+})
+@Import(WalletLedger.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class WalletLedgerTest {
+
+  @Autowired private WalletLedger walletLedger;
+  @Autowired private EWalletRepository walletRepository;
+  @Autowired private WalletLedgerRepository ledgerRepository;
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  @AfterEach
+  void tearDown() {
+    ledgerRepository.deleteAll();
+    walletRepository.deleteAll();
+  }
+
+  @Test
+  @DisplayName("Gộp snapshot: mọi khoản cộng đã commit, số dư không đổi, snapshot khớp sổ cái")
+  void compactionFoldsCommittedCredits() {
+    LocalDateTime now = LocalDateTime.now();
+    long user = 10L;
+    wallet(user, "100", now.minusHours(1));
+    entry(user, "40", now.minusMinutes(30));
+    entry(user, "15", now.minusMinutes(10));
+    entry(user, "7", now);
+    // Khoản trừ đã nằm trong snapshot ngay khi ghi
+    TransactionTemplate tx = new TransactionTemplate(transactionManager);
+    Boolean debited = tx.execute(s -> walletLedger.debit(user, new BigDecimal("20"), WalletEntryType.PURCHASE, 1L, now));
+    assertThat(debited).isTrue();
+
+    assertThat(walletLedger.balanceOf(user)).isEqualByComparingTo("142");
+    assertThat(walletRepository.findByUserId(user).orElseThrow().getBalance()).isEqualByComparingTo("80");
+
+    assertThat(walletLedger.compact()).isEqualTo(1);
+
+    EWallet after = walletRepository.findByUserId(user).orElseThrow();
+    assertThat(walletLedger.balanceOf(user)).isEqualByComparingTo("142");
+    assertThat(after.getBalance()).isEqualByComparingTo("142");
+    assertThat(ledgerRepository.findAll()).allMatch(WalletLedgerEntry::isCompacted);
+    // Lần gộp tiếp theo không cộng lại
+    assertThat(walletLedger.compact()).isZero();
+    assertThat(walletRepository.findByUserId(user).orElseThrow().getBalance()).isEqualByComparingTo("142");
+
+    // Snapshot = số dư mở + mọi bút toán đã đánh dấu
+    BigDecimal folded = ledgerRepository.findAll().stream()
+        .filter(e -> e.getUserId() == user && e.isCompacted())
+        .map(WalletLedgerEntry::getAmount)
+        .reduce(new BigDecimal("100"), BigDecimal::add);
+    assertThat(after.getBalance()).isEqualByComparingTo(folded);
+  }
+
+  @Test
+  @DisplayName("Khoản cộng commit sau lượt gộp với created_at cũ không bị mất")
+  void lateCommittedCreditIsNotLost() throws Exception {
+    long seller = 40L;
+    wallet(seller, "10", LocalDateTime.now().minusDays(2));
+    entry(seller, "5", LocalDateTime.now().minusHours(1));
+
+    // Transaction cộng tiền bắt đầu từ hôm qua (created_at cũ) và chưa commit khi lượt gộp chạy
+    CountDownLatch inserted = new CountDownLatch(1);
+    CountDownLatch commit = new CountDownLatch(1);
+    ExecutorService writer = Executors.newSingleThreadExecutor();
+    Future<?> late = writer.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(s -> {
+      entry(seller, "30", LocalDateTime.now().minusDays(1));
+      inserted.countDown();
+      await(commit);
+    }));
+    assertThat(inserted.await(5, TimeUnit.SECONDS)).isTrue();
+
+    assertThat(walletLedger.compact()).isEqualTo(1);
+    assertThat(walletRepository.findByUserId(seller).orElseThrow().getBalance()).isEqualByComparingTo("15");
+
+    commit.countDown();
+    late.get(5, TimeUnit.SECONDS);
+    writer.shutdown();
+
+    // Đã tính vào số dư và trừ được dù created_at nằm trước lần gộp
+    assertThat(walletLedger.balanceOf(seller)).isEqualByComparingTo("45");
+    Boolean debited = new TransactionTemplate(transactionManager).execute(s ->
+        walletLedger.debit(seller, new BigDecimal("40"), WalletEntryType.PURCHASE, 2L, LocalDateTime.now()));
+    assertThat(debited).isTrue();
+    assertThat(walletLedger.balanceOf(seller)).isEqualByComparingTo("5");
+
+    assertThat(walletLedger.compact()).isEqualTo(1);
+    assertThat(walletRepository.findByUserId(seller).orElseThrow().getBalance()).isEqualByComparingTo("5");
+    assertThat(walletLedger.balanceOf(seller)).isEqualByComparingTo("5");
+  }
+
+  @Test
+  @DisplayName("Cộng tiền không chờ transaction đang giữ khóa dòng ví")
+  void creditsDoNotWaitForWalletRowLock() throws Exception {
+    long seller = 20L;
+    wallet(seller, "0", LocalDateTime.now().minusMinutes(1));
+
+    // Transaction 1 giữ khóa dòng ví người bán (một lệnh trừ chưa commit)
+    CountDownLatch locked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService holder = Executors.newSingleThreadExecutor();
+    Future<?> holding = holder.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(s -> {
+      walletRepository.debit(seller, BigDecimal.ZERO, LocalDateTime.now());
+      locked.countDown();
+      await(release);
+    }));
+    assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+
+    // 50 khoản cộng vào đúng ví đó vẫn commit ngay
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    List<Future<Boolean>> credits = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      long ref = i;
+      credits.add(pool.submit(() -> new TransactionTemplate(transactionManager).execute(s ->
+          walletLedger.credit(seller, BigDecimal.ONE, WalletEntryType.SALE, ref))));
+    }
+    for (Future<Boolean> f : credits) {
+      assertThat(f.get(3, TimeUnit.SECONDS)).isTrue();
+    }
+    release.countDown();
+    holding.get(5, TimeUnit.SECONDS);
+    holder.shutdown();
+    pool.shutdown();
+
+    assertThat(walletLedger.balanceOf(seller)).isEqualByComparingTo("50");
+  }
+
+  @Test
+  @DisplayName("Trừ tiền song song không âm quỹ, tính cả khoản cộng chưa gộp")
+  void concurrentDebitsNeverOverdraw() throws Exception {
+    long buyer = 30L;
+    wallet(buyer, "60", LocalDateTime.now().minusMinutes(1));
+    new TransactionTemplate(transactionManager).executeWithoutResult(s ->
+        walletLedger.credit(buyer, new BigDecimal("40"), WalletEntryType.CVA_CREDIT, null));
+
+    AtomicInteger succeeded = new AtomicInteger();
+    ExecutorService pool = Executors.newFixedThreadPool(16);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<Void>> futures = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      long ref = i;
+      Callable<Void> call = () -> {
+        start.await();
+        Boolean ok = new TransactionTemplate(transactionManager).execute(s ->
+            walletLedger.debit(buyer, new BigDecimal("3"), WalletEntryType.PURCHASE, ref, LocalDateTime.now()));
+        if (Boolean.TRUE.equals(ok)) {
+          succeeded.incrementAndGet();
+        }
+        return null;
+      };
+      futures.add(pool.submit(call));
+    }
+    start.countDown();
+    for (Future<Void> f : futures) {
+      f.get(30, TimeUnit.SECONDS);
+    }
+    pool.shutdown();
+
+    // 100 / 3 = 33 lệnh trừ
+    assertThat(succeeded.get()).isEqualTo(33);
+    assertThat(walletLedger.balanceOf(buyer)).isEqualByComparingTo("1");
+    assertThat(ledgerRepository.findAll()).filteredOn(e -> e.getType() == WalletEntryType.PURCHASE).hasSize(33);
+    Boolean overdraw = new TransactionTemplate(transactionManager).execute(s ->
+        walletLedger.debit(buyer, new BigDecimal("2"), WalletEntryType.PURCHASE, null, LocalDateTime.now()));
+    assertThat(overdraw).isFalse();
+
+    // Gộp hết: số dư giữ nguyên
+    walletLedger.compact();
+    assertThat(walletRepository.findByUserId(buyer).orElseThrow().getBalance()).isEqualByComparingTo("1");
+    assertThat(walletLedger.balanceOf(buyer)).isEqualByComparingTo("1");
+  }
+
+  private void wallet(long userId, String balance, LocalDateTime snapshotAt) {
+    walletRepository.save(EWallet.builder()
+        .userId(userId)
+        .balance(new BigDecimal(balance))
+        .snapshotAt(snapshotAt)
+        .build());
+  }
+
+  private void entry(long userId, String amount, LocalDateTime createdAt) {
+    ledgerRepository.save(WalletLedgerEntry.builder()
+        .userId(userId)
+        .type(WalletEntryType.SALE)
+        .amount(new BigDecimal(amount))
+        .createdAt(createdAt)
+        .build());
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package ccm.cva.config;
+
+import ccm.common.ratelimit.InMemoryRateLimitStore;
+import ccm.common.ratelimit.JdbcRateLimitStore;
+import ccm.common.ratelimit.PrefetchingRateLimiter;
+import ccm.common.ratelimit.RateLimitStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+public class RateLimitConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.rate-limit.store", havingValue = "jdbc")
+    public RateLimitStore jdbcRateLimitStore(JdbcTemplate jdbcTemplate) {
+        return new JdbcRateLimitStore(jdbcTemplate);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.rate-limit.store", havingValue = "local", matchIfMissing = true)
+    public RateLimitStore localRateLimitStore() {
+        return new InMemoryRateLimitStore();
+    }
+
+    @Bean
+    public PrefetchingRateLimiter prefetchingRateLimiter(RateLimitStore store, RateLimitProperties properties) {
+        return new PrefetchingRateLimiter(store, properties.getPrefetch());
+    }
+}
@@ -10,6 +10,8 @@ public class RateLimitProperties {
     private RateRule reject = RateRule.of(10, Duration.ofMinutes(1));
     private RateRule report = RateRule.of(6, Duration.ofMinutes(1));
     private RateRule defaultRule = RateRule.of(30, Duration.ofMinutes(1));
+    private String store = "local";
+    private int prefetch = 20;
 
     public RateRule approve() {
         return approve;
@@ -43,6 +45,22 @@ public class RateLimitProperties {
         this.defaultRule = defaultRule;
     }
 
+    public String getStore() {
+        return store;
+    }
+
+    public void setStore(String store) {
+        this.store = store;
+    }
+
+    public int getPrefetch() {
+        return prefetch;
+    }
+
+    public void setPrefetch(int prefetch) {
+        this.prefetch = prefetch;
+    }
+
     public RateRule resolve(String name) {
         return switch (name) {
             case "approve" -> approve;
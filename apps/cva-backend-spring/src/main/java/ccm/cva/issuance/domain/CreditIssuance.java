@@ -1,6 +1,7 @@
 package ccm.cva.issuance.domain;
 
 import ccm.cva.verification.domain.VerificationRequest;
+import ccm.common.id.PooledId;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -25,7 +26,7 @@ import java.time.LocalDateTime; // Dùng LocalDateTime cho đồng bộ
 public class CreditIssuance {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY) // SỬA: Dùng ID tự tăng (Long)
+    @PooledId
     private Long id;
 
     @OneToOne(fetch = FetchType.LAZY, optional = false)
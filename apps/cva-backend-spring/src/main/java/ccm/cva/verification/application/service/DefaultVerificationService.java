@@ -131,6 +131,7 @@ public class DefaultVerificationService implements VerificationService {
             if (request.getStatus() != VerificationStatus.APPROVED) {
                 request.setStatus(VerificationStatus.APPROVED);
                 request.setVerifiedAt(LocalDateTime.now());
+                repository.addVerifiedCredits(request.getId(), request.getVerifiedAt());
             }
             request.setVerifierId(command.verifierId());
             if (StringUtils.hasText(command.notes())) {
@@ -150,6 +151,7 @@ public class DefaultVerificationService implements VerificationService {
         if (StringUtils.hasText(command.notes())) {
             request.setNotes(command.notes());
         }
+        repository.addVerifiedCredits(request.getId(), request.getVerifiedAt());
 
         Map<String, Object> auditPayload = new HashMap<>();
         auditPayload.put("requestId", request.getId());
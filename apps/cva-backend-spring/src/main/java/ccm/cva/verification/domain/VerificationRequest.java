@@ -1,6 +1,7 @@
 package ccm.cva.verification.domain;
 
 import ccm.cva.issuance.domain.CreditIssuance; // 1. Import class này
+import ccm.common.id.PooledId;
 import jakarta.persistence.*;
 import lombok.*;
 import java.math.BigDecimal;
@@ -13,7 +14,7 @@ import java.time.LocalDateTime;
 public class VerificationRequest {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     private Long id;
 
     @Column(name = "user_id", nullable = false)
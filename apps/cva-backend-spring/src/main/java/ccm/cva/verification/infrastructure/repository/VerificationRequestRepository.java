@@ -1,14 +1,18 @@
 package ccm.cva.verification.infrastructure.repository;
 
 import ccm.cva.verification.domain.VerificationRequest;
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -27,4 +31,21 @@ public interface VerificationRequestRepository extends JpaRepository<Verificatio
     @Override
     @EntityGraph(attributePaths = "creditIssuance")
     Page<VerificationRequest> findAll(Specification<VerificationRequest> spec, Pageable pageable);
+
+    /**
+     * Adds the journey's credits to its owner's row in owner_wallet_summaries (the owner wallet read
+     * model). Call once, in the transaction that moves the journey to VERIFIED.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO owner_wallet_summaries (user_id, credits_generated, locked_credits, sold_credits,
+                                                total_earnings, total_withdrawals, pending_withdrawals, updated_at)
+            SELECT j.user_id, COALESCE(j.credits_generated, 0), 0, 0, 0, 0, 0, :now
+            FROM journeys j
+            WHERE j.id = :journeyId
+            ON DUPLICATE KEY UPDATE
+                credits_generated = credits_generated + VALUES(credits_generated),
+                updated_at = VALUES(updated_at)
+            """, nativeQuery = true)
+    int addVerifiedCredits(@Param("journeyId") Long journeyId, @Param("now") LocalDateTime now);
 }
@@ -1,5 +1,6 @@
 package ccm.owner.credit.entity;
 
+import ccm.common.id.PooledId;
 import jakarta.persistence.*;
 import lombok.*;
 import java.math.BigDecimal;
@@ -11,7 +12,7 @@ import ccm.admin.credit.entity.CarbonCredit;
 @Getter @Setter
 @NoArgsConstructor @AllArgsConstructor @Builder
 public class Listing {
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Id @PooledId
     private Long id;
 
     @OneToOne
@@ -1,7 +1,9 @@
 package ccm.owner.journey.controller;
 
 import ccm.owner.journey.dto.request.JourneySubmissionRequest;
+import ccm.owner.journey.dto.response.JourneyImportResponse;
 import ccm.owner.journey.dto.response.JourneyResponse;
+import ccm.owner.journey.service.JourneyImportService;
 import ccm.owner.journey.service.OwnerJourneyService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
@@ -30,6 +32,7 @@ import java.util.List;
 public class OwnerJourneyController {
 
     private final OwnerJourneyService journeyService;
+    private final JourneyImportService importService;
     private final ObjectMapper objectMapper;
 
     @Operation(
@@ -95,6 +98,33 @@ public class OwnerJourneyController {
         }
     }
 
+    @Operation(
+            summary = "Bulk Import Journeys (NDJSON/CSV)",
+            description = "Import many journeys from one NDJSON (.ndjson/.jsonl, one JSON object per line) or CSV "
+                    + "file with header journeyDate,startLocation,endLocation,distanceKm,energyUsedKwh[,vehicleId,notes]. "
+                    + "Invalid records are reported per record and skipped. If the job ends FAILED, upload the same "
+                    + "file again with its jobId to resume after the last committed record."
+    )
+    @PostMapping("/import")
+    public ResponseEntity<JourneyImportResponse> importJourneys(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "jobId", required = false) Long jobId) {
+
+        log.info("Received journey import file: {} (jobId={})", file.getOriginalFilename(), jobId);
+
+        JourneyImportResponse response = importService.importJourneys(file, jobId);
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(
+            summary = "Get Import Job",
+            description = "Progress, counts and the first per-record errors of a bulk journey import"
+    )
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<JourneyImportResponse> getImportJob(@PathVariable Long jobId) {
+        return ResponseEntity.ok(importService.getJob(jobId));
+    }
+
     @Operation(
             summary = "Get My Journeys",
             description = "Retrieve all journeys submitted by the authenticated EV Owner"
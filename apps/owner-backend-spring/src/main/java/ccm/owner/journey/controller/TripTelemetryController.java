@@ -0,0 +1,76 @@
+package ccm.owner.journey.controller;
+
+import ccm.owner.journey.dto.request.CloseTripRequest;
+import ccm.owner.journey.dto.response.TripResponse;
+import ccm.owner.journey.service.TripTelemetryService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/owner/trips")
+@RequiredArgsConstructor
+@Slf4j
+@PreAuthorize("hasRole('EV_OWNER')")
+@Tag(name = "EV Owner - Trip Telemetry", description = "Journeys measured from vehicle GPS/energy telemetry")
+/**
+ * Controller for trips recorded from vehicle telemetry
+ */
+public class TripTelemetryController {
+
+    private final TripTelemetryService telemetryService;
+
+    @Operation(
+            summary = "Open Trip",
+            description = "Start a telemetry trip; send its samples to /{tripId}/samples and close it when done"
+    )
+    @PostMapping
+    public ResponseEntity<TripResponse> openTrip() {
+        return ResponseEntity.status(HttpStatus.CREATED).body(telemetryService.openTrip());
+    }
+
+    @Operation(
+            summary = "Ingest Telemetry Samples",
+            description = "Append a batch of samples in order. application/x-ndjson: one "
+                    + "{\"t\":epochMillis,\"lat\":..,\"lon\":..,\"kwh\":cumulativeMeter} per line. "
+                    + "application/octet-stream: 32-byte big-endian records (long t, double lat, double lon, "
+                    + "double kwh or NaN). Out-of-order or implausible samples are counted as rejected."
+    )
+    @PostMapping(value = "/{tripId}/samples", consumes = {"application/x-ndjson", "application/octet-stream"})
+    public ResponseEntity<TripResponse> ingestSamples(
+            @PathVariable Long tripId,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+        return ResponseEntity.ok(telemetryService.ingest(tripId, contentType, body));
+    }
+
+    @Operation(
+            summary = "Close Trip",
+            description = "Finish the trip and submit its measured distance and energy as a journey"
+    )
+    @PostMapping("/{tripId}/close")
+    public ResponseEntity<TripResponse> closeTrip(
+            @PathVariable Long tripId,
+            @Valid @RequestBody(required = false) CloseTripRequest request) {
+        log.info("Closing trip {}", tripId);
+        return ResponseEntity.ok(telemetryService.closeTrip(tripId, request));
+    }
+
+    @Operation(
+            summary = "Get Trip",
+            description = "Running totals of a telemetry trip"
+    )
+    @GetMapping("/{tripId}")
+    public ResponseEntity<TripResponse> getTrip(@PathVariable Long tripId) {
+        return ResponseEntity.ok(telemetryService.getTrip(tripId));
+    }
+}
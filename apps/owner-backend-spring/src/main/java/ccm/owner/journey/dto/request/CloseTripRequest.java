@@ -0,0 +1,21 @@
+package ccm.owner.journey.dto.request;
+
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+/**
+ * Request DTO for closing a telemetry trip
+ * Locations are optional; without them the first/last recorded coordinates are used
+ */
+public class CloseTripRequest {
+
+    @Size(max = 255, message = "Start location must not exceed 255 characters")
+    private String startLocation;
+
+    @Size(max = 255, message = "End location must not exceed 255 characters")
+    private String endLocation;
+}
@@ -0,0 +1,42 @@
+package ccm.owner.journey.dto.response;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+/**
+ * Response DTO for a bulk journey import job
+ * A FAILED job can be resumed by uploading the same file again with its jobId
+ */
+public class JourneyImportResponse {
+
+    private Long jobId;
+    private String fileName;
+    private String format;
+    private String status;
+    private long recordsCommitted;
+    private long importedCount;
+    private long failedCount;
+    private String lastError;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    /**
+     * First rejected records in file order (at most 100)
+     */
+    private List<RecordError> errors;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RecordError {
+        private long recordNo;
+        private String message;
+    }
+}
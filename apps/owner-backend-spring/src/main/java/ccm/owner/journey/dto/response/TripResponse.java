@@ -0,0 +1,36 @@
+package ccm.owner.journey.dto.response;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+/**
+ * Response DTO for a telemetry trip (running totals, and the journey once closed)
+ */
+public class TripResponse {
+
+    private Long tripId;
+    private String status;
+    private long sampleCount;
+    private long rejectedCount;
+    private BigDecimal distanceKm;
+    private BigDecimal energyUsedKwh;
+    private LocalDateTime firstSampleAt;
+    private LocalDateTime lastSampleAt;
+    private LocalDateTime createdAt;
+    private LocalDateTime closedAt;
+    private Long journeyId;
+
+    /**
+     * Samples accepted / rejected from the batch just ingested (null outside ingestion)
+     */
+    private Integer batchAccepted;
+    private Integer batchRejected;
+
+    private String message;
+}
@@ -0,0 +1,34 @@
+package ccm.owner.journey.entity;
+
+import ccm.common.id.PooledId;
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "journey_import_errors")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+/**
+ * JourneyImportError - Entity - One rejected record of a bulk journey import
+ */
+public class JourneyImportError {
+
+    @Id
+    @PooledId
+    private Long id;
+
+    @Column(name = "job_id", nullable = false)
+    private Long jobId;
+
+    /**
+     * 1-based data record number in the uploaded file (CSV header not counted)
+     */
+    @Column(name = "record_no", nullable = false)
+    private long recordNo;
+
+    @Column(name = "message", nullable = false, length = 500)
+    private String message;
+}
@@ -0,0 +1,79 @@
+package ccm.owner.journey.entity;
+
+import ccm.common.id.PooledId;
+import ccm.owner.journey.entity.enums.ImportFormat;
+import ccm.owner.journey.entity.enums.ImportStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "journey_import_jobs")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+/**
+ * JourneyImportJob - Entity - Progress of one bulk journey upload, used to resume it
+ */
+public class JourneyImportJob {
+
+    @Id
+    @PooledId
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "file_name", length = 255)
+    private String fileName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "format", nullable = false, length = 16)
+    private ImportFormat format;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private ImportStatus status;
+
+    /**
+     * Data records (header excluded) whose outcome is committed; a resumed upload skips this many
+     */
+    @Column(name = "records_committed", nullable = false)
+    private long recordsCommitted;
+
+    @Column(name = "imported_count", nullable = false)
+    private long importedCount;
+
+    @Column(name = "failed_count", nullable = false)
+    private long failedCount;
+
+    /**
+     * Why the last run stopped early (I/O or database error); null once completed
+     */
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
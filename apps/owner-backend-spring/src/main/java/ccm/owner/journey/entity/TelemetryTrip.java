@@ -0,0 +1,101 @@
+package ccm.owner.journey.entity;
+
+import ccm.common.id.PooledId;
+import ccm.owner.journey.entity.enums.TripStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "telemetry_trips")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+/**
+ * TelemetryTrip - Entity - Running totals of a trip reported by vehicle telemetry
+ */
+public class TelemetryTrip {
+
+    @Id
+    @PooledId
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private TripStatus status;
+
+    /**
+     * Samples folded into the totals
+     */
+    @Column(name = "sample_count", nullable = false)
+    private long sampleCount;
+
+    /**
+     * Samples dropped as out of order or physically implausible
+     */
+    @Column(name = "rejected_count", nullable = false)
+    private long rejectedCount;
+
+    @Column(name = "distance_m", nullable = false)
+    private double distanceM;
+
+    @Column(name = "energy_used_kwh", nullable = false)
+    private double energyUsedKwh;
+
+    @Column(name = "first_sample_ms")
+    private Long firstSampleMs;
+
+    @Column(name = "first_lat")
+    private Double firstLat;
+
+    @Column(name = "first_lon")
+    private Double firstLon;
+
+    /**
+     * Last accepted sample: the next batch continues distance and energy from here
+     */
+    @Column(name = "last_sample_ms")
+    private Long lastSampleMs;
+
+    @Column(name = "last_lat")
+    private Double lastLat;
+
+    @Column(name = "last_lon")
+    private Double lastLon;
+
+    /**
+     * Last cumulative energy meter reading (kWh), null until a sample carried one
+     */
+    @Column(name = "last_energy_kwh")
+    private Double lastEnergyKwh;
+
+    /**
+     * Journey created when the trip was closed
+     */
+    @Column(name = "journey_id")
+    private Long journeyId;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "closed_at")
+    private LocalDateTime closedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (status == null) {
+            status = TripStatus.OPEN;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package ccm.owner.journey.entity.enums;
+
+/**
+ * Enum - File formats accepted by the bulk journey import
+ */
+public enum ImportFormat {
+    NDJSON,
+    CSV
+}
@@ -0,0 +1,11 @@
+package ccm.owner.journey.entity.enums;
+
+/**
+ * Enum - Lifecycle of a bulk journey import job
+ * RUNNING -> COMPLETED, or RUNNING -> FAILED -> (resume) RUNNING
+ */
+public enum ImportStatus {
+    RUNNING,
+    FAILED,
+    COMPLETED
+}
@@ -0,0 +1,9 @@
+package ccm.owner.journey.entity.enums;
+
+/**
+ * Enum - Lifecycle of a telemetry trip: samples are accepted while OPEN, CLOSED trips are final
+ */
+public enum TripStatus {
+    OPEN,
+    CLOSED
+}
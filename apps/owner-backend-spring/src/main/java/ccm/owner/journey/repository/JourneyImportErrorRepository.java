@@ -0,0 +1,14 @@
+package ccm.owner.journey.repository;
+
+import ccm.owner.journey.entity.JourneyImportError;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface JourneyImportErrorRepository extends JpaRepository<JourneyImportError, Long> {
+
+    /** First rejected records of a job, in file order (uses idx_journey_import_errors_job) */
+    List<JourneyImportError> findTop100ByJobIdOrderByRecordNoAsc(Long jobId);
+}
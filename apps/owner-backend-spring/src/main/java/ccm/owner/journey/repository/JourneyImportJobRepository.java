@@ -0,0 +1,13 @@
+package ccm.owner.journey.repository;
+
+import ccm.owner.journey.entity.JourneyImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface JourneyImportJobRepository extends JpaRepository<JourneyImportJob, Long> {
+
+    Optional<JourneyImportJob> findByIdAndUserId(Long id, Long userId);
+}
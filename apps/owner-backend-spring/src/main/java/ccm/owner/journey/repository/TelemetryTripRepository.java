@@ -0,0 +1,13 @@
+package ccm.owner.journey.repository;
+
+import ccm.owner.journey.entity.TelemetryTrip;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface TelemetryTripRepository extends JpaRepository<TelemetryTrip, Long> {
+
+    Optional<TelemetryTrip> findByIdAndUserId(Long id, Long userId);
+}
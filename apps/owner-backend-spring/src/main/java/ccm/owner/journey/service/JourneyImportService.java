@@ -0,0 +1,327 @@
+package ccm.owner.journey.service;
+
+import ccm.admin.journey.entity.Journey;
+import ccm.admin.journey.entity.enums.JourneyStatus;
+import ccm.admin.journey.repository.JourneyRepository;
+import ccm.admin.user.entity.User;
+import ccm.admin.user.repository.UserRepository;
+import ccm.owner.journey.dto.request.JourneySubmissionRequest;
+import ccm.owner.journey.dto.response.JourneyImportResponse;
+import ccm.owner.journey.entity.JourneyImportError;
+import ccm.owner.journey.entity.JourneyImportJob;
+import ccm.owner.journey.entity.enums.ImportFormat;
+import ccm.owner.journey.entity.enums.ImportStatus;
+import ccm.owner.journey.repository.JourneyImportErrorRepository;
+import ccm.owner.journey.repository.JourneyImportJobRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+/**
+ * Service for bulk journey import (fleet owners uploading thousands of trips at once)
+ *
+ * The upload is parsed record by record (JourneyRecordReader) and never held in memory. Valid records
+ * become PENDING journeys exactly like single submissions; invalid ones are stored as per-record errors.
+ * Every chunk of {@code batchSize} records commits in one transaction together with the job's progress,
+ * inserted as JDBC batches of the same size, so a job that stops (broken upload, database error) is
+ * resumed by sending the same file with its jobId: the first records_committed records are skipped.
+ */
+public class JourneyImportService {
+
+    private static final int MAX_MESSAGE_LENGTH = 500;
+
+    private final JourneyRepository journeyRepository;
+    private final UserRepository userRepository;
+    private final JourneyImportJobRepository jobRepository;
+    private final JourneyImportErrorRepository errorRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectReader jsonReader;
+    private final int batchSize;
+    private final int maxStoredErrors;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public JourneyImportService(JourneyRepository journeyRepository,
+                                UserRepository userRepository,
+                                JourneyImportJobRepository jobRepository,
+                                JourneyImportErrorRepository errorRepository,
+                                PlatformTransactionManager transactionManager,
+                                Validator validator,
+                                ObjectMapper objectMapper,
+                                @Value("${app.journey-import.batch-size:500}") int batchSize,
+                                @Value("${app.journey-import.max-stored-errors:1000}") int maxStoredErrors) {
+        this.journeyRepository = journeyRepository;
+        this.userRepository = userRepository;
+        this.jobRepository = jobRepository;
+        this.errorRepository = errorRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.jsonReader = objectMapper.readerFor(JourneySubmissionRequest.class);
+        this.batchSize = batchSize;
+        this.maxStoredErrors = maxStoredErrors;
+    }
+
+    /**
+     * Import an NDJSON or CSV file, or resume job {@code jobId} with the same file.
+     * Returns the job report; status FAILED means the run stopped early and can be resumed.
+     */
+    public JourneyImportResponse importJourneys(MultipartFile file, Long jobId) {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("File is empty");
+        }
+        // No surrounding transaction (chunks commit on their own): read the lazy role while a session is open
+        User currentUser = transactionTemplate.execute(status -> {
+            User user = getCurrentUser();
+            if (user.getRole() == null || !"EV_OWNER".equals(user.getRole().getName())) {
+                throw new IllegalStateException("Only EV Owners can submit journeys");
+            }
+            return user;
+        });
+        ImportFormat format = detectFormat(file);
+
+        JourneyImportJob job = jobId == null
+                ? startJob(currentUser.getId(), file.getOriginalFilename(), format)
+                : resumeJob(currentUser.getId(), jobId, format);
+        log.info("Journey import {} {}: file={}, format={}, skipping {} committed records",
+                job.getId(), jobId == null ? "started" : "resumed", file.getOriginalFilename(), format,
+                job.getRecordsCommitted());
+
+        try (InputStream in = file.getInputStream();
+             JourneyRecordReader records = open(format, in)) {
+            job = run(job, records);
+        } catch (IOException | DataAccessException | IllegalArgumentException e) {
+            if (e instanceof ObjectOptimisticLockingFailureException) {
+                throw new IllegalStateException("Import job " + job.getId() + " is being resumed by another upload");
+            }
+            job = stop(job, e.getMessage());
+            log.warn("Journey import {} stopped after {} records: {}", job.getId(), job.getRecordsCommitted(),
+                    job.getLastError());
+        }
+        return toResponse(job);
+    }
+
+    /**
+     * Current report of one of the caller's import jobs
+     */
+    public JourneyImportResponse getJob(Long jobId) {
+        User currentUser = getCurrentUser();
+        JourneyImportJob job = jobRepository.findByIdAndUserId(jobId, currentUser.getId())
+                .orElseThrow(() -> new jakarta.persistence.EntityNotFoundException(
+                        "Import job not found with id: " + jobId));
+        return toResponse(job);
+    }
+
+    // ===== PRIVATE HELPER METHODS =====
+
+    private JourneyImportJob run(JourneyImportJob job, JourneyRecordReader records) throws IOException {
+        for (long i = 0; i < job.getRecordsCommitted(); i++) {
+            if (!records.skip()) {
+                throw new IllegalArgumentException("File has fewer records than already committed ("
+                        + job.getRecordsCommitted() + "); upload the same file to resume");
+            }
+        }
+
+        List<Journey> journeys = new ArrayList<>(batchSize);
+        List<JourneyImportError> errors = new ArrayList<>();
+        int consumed = 0;
+        long storedErrors = Math.min(job.getFailedCount(), maxStoredErrors);
+        JourneyRecordReader.Parsed record;
+        while ((record = records.next()) != null) {
+            consumed++;
+            String error = record.error() != null ? record.error() : validate(record.request());
+            if (error == null) {
+                journeys.add(toJourney(job.getUserId(), record.request()));
+            } else if (storedErrors + errors.size() < maxStoredErrors) {
+                errors.add(JourneyImportError.builder()
+                        .jobId(job.getId())
+                        .recordNo(record.recordNo())
+                        .message(truncate(error))
+                        .build());
+            }
+            if (consumed == batchSize) {
+                job = commitChunk(job, consumed, journeys, errors);
+                storedErrors += errors.size();
+                journeys.clear();
+                errors.clear();
+                consumed = 0;
+            }
+        }
+        job.setStatus(ImportStatus.COMPLETED);
+        job.setLastError(null);
+        return commitChunk(job, consumed, journeys, errors);
+    }
+
+    private JourneyImportJob commitChunk(JourneyImportJob job, int consumed,
+                                         List<Journey> journeys, List<JourneyImportError> errors) {
+        return transactionTemplate.execute(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            journeyRepository.saveAll(journeys);
+            errorRepository.saveAll(errors);
+            job.setRecordsCommitted(job.getRecordsCommitted() + consumed);
+            job.setImportedCount(job.getImportedCount() + journeys.size());
+            job.setFailedCount(job.getFailedCount() + consumed - journeys.size());
+            // merge checks the version: a second upload resuming this job fails here instead of double-importing
+            return jobRepository.save(job);
+        });
+    }
+
+    private JourneyImportJob startJob(Long userId, String fileName, ImportFormat format) {
+        return jobRepository.save(JourneyImportJob.builder()
+                .userId(userId)
+                .fileName(fileName)
+                .format(format)
+                .status(ImportStatus.RUNNING)
+                .build());
+    }
+
+    private JourneyImportJob resumeJob(Long userId, Long jobId, ImportFormat format) {
+        JourneyImportJob job = jobRepository.findByIdAndUserId(jobId, userId)
+                .orElseThrow(() -> new jakarta.persistence.EntityNotFoundException(
+                        "Import job not found with id: " + jobId));
+        if (job.getStatus() == ImportStatus.COMPLETED) {
+            throw new IllegalStateException("Import job " + jobId + " is already completed");
+        }
+        if (job.getFormat() != format) {
+            throw new IllegalArgumentException("Import job " + jobId + " was started with a " + job.getFormat() + " file");
+        }
+        job.setStatus(ImportStatus.RUNNING);
+        try {
+            return jobRepository.save(job);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new IllegalStateException("Import job " + jobId + " is being resumed by another upload");
+        }
+    }
+
+    private JourneyImportJob stop(JourneyImportJob job, String reason) {
+        try {
+            // Reload: the in-memory copy may carry counts of a chunk that rolled back
+            JourneyImportJob stored = jobRepository.findById(job.getId()).orElse(job);
+            stored.setStatus(ImportStatus.FAILED);
+            stored.setLastError(truncate(reason != null ? reason : "Import interrupted"));
+            return jobRepository.save(stored);
+        } catch (DataAccessException e) {
+            // Progress up to the last committed chunk is already stored; the job stays resumable
+            log.error("Could not mark journey import {} as failed", job.getId(), e);
+            job.setStatus(ImportStatus.FAILED);
+            return job;
+        }
+    }
+
+    private JourneyRecordReader open(ImportFormat format, InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        return format == ImportFormat.CSV
+                ? JourneyRecordReader.csv(reader)
+                : JourneyRecordReader.ndjson(reader, jsonReader);
+    }
+
+    private static ImportFormat detectFormat(MultipartFile file) {
+        String name = file.getOriginalFilename() != null
+                ? file.getOriginalFilename().toLowerCase(Locale.ROOT) : "";
+        String contentType = file.getContentType() != null ? file.getContentType() : "";
+        if (name.endsWith(".csv") || contentType.startsWith("text/csv")) {
+            return ImportFormat.CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")
+                || contentType.startsWith("application/x-ndjson")) {
+            return ImportFormat.NDJSON;
+        }
+        throw new IllegalArgumentException("File must be NDJSON (.ndjson, .jsonl) or CSV (.csv)");
+    }
+
+    private String validate(JourneySubmissionRequest request) {
+        Set<ConstraintViolation<JourneySubmissionRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static Journey toJourney(Long userId, JourneySubmissionRequest request) {
+        return Journey.builder()
+                .userId(userId)
+                .journeyDate(request.getJourneyDate())
+                .startLocation(request.getStartLocation())
+                .endLocation(request.getEndLocation())
+                .distanceKm(request.getDistanceKm())
+                .energyUsedKwh(request.getEnergyUsedKwh())
+                .creditsGenerated(OwnerJourneyService.calculateCarbonCredits(request.getDistanceKm()))
+                .status(JourneyStatus.PENDING)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= MAX_MESSAGE_LENGTH ? message : message.substring(0, MAX_MESSAGE_LENGTH);
+    }
+
+    private JourneyImportResponse toResponse(JourneyImportJob job) {
+        List<JourneyImportResponse.RecordError> errors = errorRepository
+                .findTop100ByJobIdOrderByRecordNoAsc(job.getId()).stream()
+                .map(e -> JourneyImportResponse.RecordError.builder()
+                        .recordNo(e.getRecordNo())
+                        .message(e.getMessage())
+                        .build())
+                .toList();
+        return JourneyImportResponse.builder()
+                .jobId(job.getId())
+                .fileName(job.getFileName())
+                .format(job.getFormat().name())
+                .status(job.getStatus().name())
+                .recordsCommitted(job.getRecordsCommitted())
+                .importedCount(job.getImportedCount())
+                .failedCount(job.getFailedCount())
+                .lastError(job.getLastError())
+                .createdAt(job.getCreatedAt())
+                .updatedAt(job.getUpdatedAt())
+                .errors(errors)
+                .build();
+    }
+
+    /**
+     * Get currently authenticated user
+     */
+    private User getCurrentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || auth.getName() == null) {
+            throw new IllegalStateException("User not authenticated");
+        }
+
+        String email = auth.getName();
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new jakarta.persistence.EntityNotFoundException(
+                        "User not found: " + email));
+    }
+}
@@ -0,0 +1,215 @@
+package ccm.owner.journey.service;
+
+import ccm.owner.journey.dto.request.JourneySubmissionRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvValidationException;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads journey records one at a time from an uploaded NDJSON or CSV stream.
+ *
+ * Only the current line (or CSV record) is held in memory. A record that cannot be parsed comes back
+ * with an error message instead of a request, so one bad line never stops the import. Record numbers
+ * are 1-based and count data records only (blank NDJSON lines and the CSV header are not records).
+ */
+abstract class JourneyRecordReader implements Closeable {
+
+    /** One data record: the parsed request, or why it could not be parsed */
+    record Parsed(long recordNo, JourneySubmissionRequest request, String error) {
+    }
+
+    protected long recordNo;
+
+    /** Next record, or null at end of input */
+    abstract Parsed next() throws IOException;
+
+    /** Consumes one record without parsing it (used to resume); false at end of input */
+    abstract boolean skip() throws IOException;
+
+    static JourneyRecordReader ndjson(Reader reader, ObjectReader json) {
+        return new Ndjson(reader, json);
+    }
+
+    static JourneyRecordReader csv(Reader reader) throws IOException {
+        return new Csv(reader);
+    }
+
+    private static final class Ndjson extends JourneyRecordReader {
+
+        private final BufferedReader in;
+        private final ObjectReader json;
+
+        private Ndjson(Reader reader, ObjectReader json) {
+            this.in = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+            this.json = json;
+        }
+
+        @Override
+        Parsed next() throws IOException {
+            String line = nextLine();
+            if (line == null) {
+                return null;
+            }
+            try {
+                return new Parsed(recordNo, json.readValue(line), null);
+            } catch (JsonProcessingException e) {
+                return new Parsed(recordNo, null, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+
+        @Override
+        boolean skip() throws IOException {
+            return nextLine() != null;
+        }
+
+        private String nextLine() throws IOException {
+            String line;
+            do {
+                line = in.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+            recordNo++;
+            return line;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    private static final class Csv extends JourneyRecordReader {
+
+        private static final String[] REQUIRED = {
+                "journeyDate", "startLocation", "endLocation", "distanceKm", "energyUsedKwh"};
+
+        private final CSVReader in;
+        private final int date;
+        private final int start;
+        private final int end;
+        private final int distance;
+        private final int energy;
+        private final int vehicle;
+        private final int notes;
+
+        private Csv(Reader reader) throws IOException {
+            this.in = new CSVReader(reader);
+            String[] header = readRecord();
+            if (header == null) {
+                throw new IllegalArgumentException("CSV file is empty");
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.length; i++) {
+                String name = header[i].replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+                columns.putIfAbsent(name, i);
+            }
+            for (String column : REQUIRED) {
+                if (!columns.containsKey(column.toLowerCase(Locale.ROOT))) {
+                    throw new IllegalArgumentException("CSV header must contain columns " + String.join(",", REQUIRED));
+                }
+            }
+            this.date = columns.get("journeydate");
+            this.start = columns.get("startlocation");
+            this.end = columns.get("endlocation");
+            this.distance = columns.get("distancekm");
+            this.energy = columns.get("energyusedkwh");
+            this.vehicle = columns.getOrDefault("vehicleid", -1);
+            this.notes = columns.getOrDefault("notes", -1);
+        }
+
+        @Override
+        Parsed next() throws IOException {
+            String[] row = nextRow();
+            if (row == null) {
+                return null;
+            }
+            try {
+                return new Parsed(recordNo, JourneySubmissionRequest.builder()
+                        .journeyDate(parseDate(field(row, date)))
+                        .startLocation(field(row, start))
+                        .endLocation(field(row, end))
+                        .distanceKm(parseDecimal("distanceKm", field(row, distance)))
+                        .energyUsedKwh(parseDecimal("energyUsedKwh", field(row, energy)))
+                        .vehicleId(field(row, vehicle))
+                        .notes(field(row, notes))
+                        .build(), null);
+            } catch (IllegalArgumentException e) {
+                return new Parsed(recordNo, null, e.getMessage());
+            }
+        }
+
+        @Override
+        boolean skip() throws IOException {
+            return nextRow() != null;
+        }
+
+        private String[] nextRow() throws IOException {
+            String[] row;
+            do {
+                row = readRecord();
+                if (row == null) {
+                    return null;
+                }
+            } while (row.length == 1 && row[0].isBlank());
+            recordNo++;
+            return row;
+        }
+
+        private String[] readRecord() throws IOException {
+            try {
+                return in.readNext();
+            } catch (CsvValidationException e) {
+                throw new IOException("Malformed CSV near line " + e.getLineNumber(), e);
+            }
+        }
+
+        private static String field(String[] row, int index) {
+            if (index < 0 || index >= row.length) {
+                return null;
+            }
+            String value = row[index].trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        private static LocalDate parseDate(String value) {
+            if (value == null) {
+                return null;
+            }
+            try {
+                return LocalDate.parse(value);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid journeyDate '" + value + "' (expected yyyy-MM-dd)");
+            }
+        }
+
+        private static BigDecimal parseDecimal(String column, String value) {
+            if (value == null) {
+                return null;
+            }
+            try {
+                return new BigDecimal(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid " + column + " '" + value + "'");
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
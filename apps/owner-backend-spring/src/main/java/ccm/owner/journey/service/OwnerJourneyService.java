@@ -129,8 +129,9 @@ public class OwnerJourneyService {
      * Calculate carbon credits based on distance
      * Formula: CO2 saved (kg) = distance (km) * 0.12 kg/km
      *          Credits = CO2 saved / 1000 (1 credit = 1 ton CO2)
+     * Shared with JourneyImportService so bulk and single submissions estimate alike
      */
-    private BigDecimal calculateCarbonCredits(BigDecimal distanceKm) {
+    static BigDecimal calculateCarbonCredits(BigDecimal distanceKm) {
         BigDecimal co2SavedKg = distanceKm.multiply(CO2_SAVED_PER_KM);
         BigDecimal credits = co2SavedKg.multiply(CREDIT_CONVERSION_RATE);
         return credits.setScale(2, RoundingMode.HALF_UP);
@@ -0,0 +1,240 @@
+package ccm.owner.journey.service;
+
+import ccm.owner.journey.entity.TelemetryTrip;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * One batch of trip telemetry samples, decoded straight into parallel primitive arrays.
+ *
+ * A sample is (epoch millis, latitude, longitude, cumulative energy meter kWh or NaN). Two wire forms:
+ * - NDJSON: one {"t":..,"lat":..,"lon":..,"kwh":..} object per line, read with the Jackson streaming
+ *   parser (no object per sample)
+ * - binary (application/octet-stream): 32-byte big-endian records: long t, double lat, double lon,
+ *   double kwh (NaN when the vehicle has no meter reading)
+ *
+ * {@link #applyTo} folds the batch into a trip's running totals in one pass: haversine distance between
+ * consecutive accepted positions and the sum of positive meter deltas.
+ */
+final class TelemetryBatch {
+
+    static final int BINARY_SAMPLE_BYTES = 32;
+
+    private static final double EARTH_RADIUS_M = 6_371_008.8;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private long[] timeMs;
+    private double[] lat;
+    private double[] lon;
+    private double[] kwh;
+    private int size;
+    private final int maxSamples;
+
+    private TelemetryBatch(int maxSamples) {
+        this.maxSamples = maxSamples;
+        int capacity = Math.min(INITIAL_CAPACITY, maxSamples);
+        this.timeMs = new long[capacity];
+        this.lat = new double[capacity];
+        this.lon = new double[capacity];
+        this.kwh = new double[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    static TelemetryBatch fromNdjson(InputStream in, JsonFactory factory, int maxSamples) throws IOException {
+        TelemetryBatch batch = new TelemetryBatch(maxSamples);
+        try (JsonParser parser = factory.createParser(in)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw new IllegalArgumentException("Sample " + (batch.size + 1) + " is not a JSON object");
+                }
+                long t = Long.MIN_VALUE;
+                double la = Double.NaN;
+                double lo = Double.NaN;
+                double k = Double.NaN;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if (value == JsonToken.VALUE_NULL) {
+                        continue;
+                    }
+                    switch (field) {
+                        case "t" -> t = parser.getLongValue();
+                        case "lat" -> la = parser.getDoubleValue();
+                        case "lon" -> lo = parser.getDoubleValue();
+                        case "kwh" -> k = parser.getDoubleValue();
+                        default -> parser.skipChildren();
+                    }
+                }
+                if (t == Long.MIN_VALUE || Double.isNaN(la) || Double.isNaN(lo)) {
+                    throw new IllegalArgumentException("Sample " + (batch.size + 1) + " needs t, lat and lon");
+                }
+                batch.add(t, la, lo, k);
+            }
+        }
+        return batch;
+    }
+
+    static TelemetryBatch fromBinary(InputStream in, int maxSamples) throws IOException {
+        TelemetryBatch batch = new TelemetryBatch(maxSamples);
+        byte[] record = new byte[BINARY_SAMPLE_BYTES];
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        int read;
+        while ((read = in.readNBytes(record, 0, BINARY_SAMPLE_BYTES)) == BINARY_SAMPLE_BYTES) {
+            buffer.clear();
+            batch.add(buffer.getLong(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+        }
+        if (read != 0) {
+            throw new IllegalArgumentException("Binary telemetry must be a multiple of "
+                    + BINARY_SAMPLE_BYTES + " bytes");
+        }
+        return batch;
+    }
+
+    /**
+     * Folds the samples into the trip, continuing from its last accepted sample. A sample is dropped
+     * (counted in rejectedCount) when its coordinates are invalid, it is not newer than the previous
+     * accepted sample, or reaching it would need more than {@code maxSpeedMps}. A meter reading lower
+     * than the previous one is taken as a reset and only re-baselines. Returns the accepted count.
+     *
+     * The trip's first point is only trusted once a later sample agrees with it. Until then, two samples
+     * in a row that agree with each other but not with it mark the first point as the glitch: it is
+     * dropped and the trip restarts from the earlier of the two.
+     */
+    int applyTo(TelemetryTrip trip, double maxSpeedMps) {
+        boolean hasLast = trip.getLastSampleMs() != null;
+        long firstT = hasLast ? trip.getFirstSampleMs() : 0L;
+        long lastT = hasLast ? trip.getLastSampleMs() : 0L;
+        double lastLatDeg = hasLast ? trip.getLastLat() : 0.0;
+        double lastLonDeg = hasLast ? trip.getLastLon() : 0.0;
+        double lastPhi = Math.toRadians(lastLatDeg);
+        double lastCosPhi = Math.cos(lastPhi);
+        double lastKwh = trip.getLastEnergyKwh() != null ? trip.getLastEnergyKwh() : Double.NaN;
+        double distance = trip.getDistanceM();
+        double energy = trip.getEnergyUsedKwh();
+        int accepted = 0;
+        int droppedFirst = 0;
+        // Latest sample rejected as too fast while the first point is still unconfirmed
+        int candidate = -1;
+
+        for (int i = 0; i < size; i++) {
+            double la = lat[i];
+            double lo = lon[i];
+            long t = timeMs[i];
+            // Written so that NaN fails too
+            if (!(la >= -90.0 && la <= 90.0 && lo >= -180.0 && lo <= 180.0)) {
+                continue;
+            }
+            double phi = Math.toRadians(la);
+            double cosPhi = Math.cos(phi);
+            if (hasLast) {
+                if (t <= lastT) {
+                    continue;
+                }
+                double segment = segmentM(lastPhi, lastCosPhi, lastLonDeg, phi, cosPhi, lo);
+                if (segment > maxSpeedMps * (t - lastT) / 1000.0) {
+                    if (lastT != firstT) {
+                        continue;
+                    }
+                    double fromCandidate = Double.NaN;
+                    if (candidate >= 0 && t > timeMs[candidate]) {
+                        double candidatePhi = Math.toRadians(lat[candidate]);
+                        fromCandidate = segmentM(candidatePhi, Math.cos(candidatePhi), lon[candidate], phi, cosPhi, lo);
+                    }
+                    // Written so that NaN (no usable candidate) fails too
+                    if (!(fromCandidate <= maxSpeedMps * (t - timeMs[Math.max(candidate, 0)]) / 1000.0)) {
+                        candidate = i;
+                        continue;
+                    }
+                    // The first point was the glitch: restart the trip from the candidate
+                    firstT = timeMs[candidate];
+                    trip.setFirstSampleMs(firstT);
+                    trip.setFirstLat(lat[candidate]);
+                    trip.setFirstLon(lon[candidate]);
+                    if (!Double.isNaN(kwh[candidate])) {
+                        lastKwh = kwh[candidate];
+                    }
+                    lastT = firstT;
+                    lastLatDeg = lat[candidate];
+                    lastLonDeg = lon[candidate];
+                    lastPhi = Math.toRadians(lat[candidate]);
+                    lastCosPhi = Math.cos(lastPhi);
+                    droppedFirst++;
+                    accepted++;
+                    segment = fromCandidate;
+                }
+                distance += segment;
+            } else {
+                firstT = t;
+                trip.setFirstSampleMs(t);
+                trip.setFirstLat(la);
+                trip.setFirstLon(lo);
+            }
+            double k = kwh[i];
+            if (!Double.isNaN(k)) {
+                if (!Double.isNaN(lastKwh) && k > lastKwh) {
+                    energy += k - lastKwh;
+                }
+                lastKwh = k;
+            }
+            hasLast = true;
+            lastT = t;
+            lastLatDeg = la;
+            lastLonDeg = lo;
+            lastPhi = phi;
+            lastCosPhi = cosPhi;
+            accepted++;
+        }
+
+        if (hasLast) {
+            trip.setLastSampleMs(lastT);
+            trip.setLastLat(lastLatDeg);
+            trip.setLastLon(lastLonDeg);
+        }
+        if (!Double.isNaN(lastKwh)) {
+            trip.setLastEnergyKwh(lastKwh);
+        }
+        accepted -= droppedFirst;
+        trip.setDistanceM(distance);
+        trip.setEnergyUsedKwh(energy);
+        trip.setSampleCount(trip.getSampleCount() + accepted);
+        trip.setRejectedCount(trip.getRejectedCount() + size - accepted);
+        return accepted;
+    }
+
+    /** Haversine distance in metres; latitudes passed as radians with their cosine, longitudes in degrees */
+    private static double segmentM(double phi1, double cosPhi1, double lon1Deg,
+                                   double phi2, double cosPhi2, double lon2Deg) {
+        double sinHalfDPhi = Math.sin((phi2 - phi1) * 0.5);
+        double sinHalfDLambda = Math.sin(Math.toRadians(lon2Deg - lon1Deg) * 0.5);
+        double a = sinHalfDPhi * sinHalfDPhi + cosPhi1 * cosPhi2 * sinHalfDLambda * sinHalfDLambda;
+        return 2.0 * EARTH_RADIUS_M * Math.asin(Math.sqrt(Math.min(1.0, a)));
+    }
+
+    private void add(long t, double la, double lo, double k) {
+        if (size == timeMs.length) {
+            if (size >= maxSamples) {
+                throw new IllegalArgumentException("Batch exceeds " + maxSamples + " samples");
+            }
+            int capacity = (int) Math.min((long) size * 2, maxSamples);
+            timeMs = Arrays.copyOf(timeMs, capacity);
+            lat = Arrays.copyOf(lat, capacity);
+            lon = Arrays.copyOf(lon, capacity);
+            kwh = Arrays.copyOf(kwh, capacity);
+        }
+        timeMs[size] = t;
+        lat[size] = la;
+        lon[size] = lo;
+        kwh[size] = k;
+        size++;
+    }
+}
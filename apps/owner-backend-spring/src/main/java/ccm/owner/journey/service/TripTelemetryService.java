@@ -0,0 +1,249 @@
+package ccm.owner.journey.service;
+
+import ccm.admin.journey.entity.Journey;
+import ccm.admin.journey.entity.enums.JourneyStatus;
+import ccm.admin.journey.repository.JourneyRepository;
+import ccm.admin.user.entity.User;
+import ccm.admin.user.repository.UserRepository;
+import ccm.owner.journey.dto.request.CloseTripRequest;
+import ccm.owner.journey.dto.response.TripResponse;
+import ccm.owner.journey.entity.TelemetryTrip;
+import ccm.owner.journey.entity.enums.TripStatus;
+import ccm.owner.journey.repository.TelemetryTripRepository;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Locale;
+
+@Service
+@Slf4j
+/**
+ * Service for trips recorded from vehicle telemetry instead of a self-reported distance
+ *
+ * A trip is opened, receives any number of sample batches (NDJSON or 32-byte binary records, see
+ * TelemetryBatch) and is closed into a PENDING journey. Samples are never stored: a batch is decoded
+ * into primitive arrays before any transaction starts, then folded into the trip row in one short
+ * transaction (read, update). The trip's version column rejects two batches of one trip applied at once,
+ * since distance depends on sample order.
+ */
+public class TripTelemetryService {
+
+    private static final BigDecimal MIN_DISTANCE_KM = new BigDecimal("0.1");
+    private static final BigDecimal MAX_DISTANCE_KM = new BigDecimal("10000");
+    private static final BigDecimal MAX_ENERGY_KWH = new BigDecimal("1000");
+
+    private final TelemetryTripRepository tripRepository;
+    private final JourneyRepository journeyRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JsonFactory jsonFactory;
+    private final double maxSpeedMps;
+    private final int maxBatchSamples;
+
+    public TripTelemetryService(TelemetryTripRepository tripRepository,
+                                JourneyRepository journeyRepository,
+                                UserRepository userRepository,
+                                PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper,
+                                @Value("${app.telemetry.max-speed-kmh:250}") double maxSpeedKmh,
+                                @Value("${app.telemetry.max-batch-samples:50000}") int maxBatchSamples) {
+        this.tripRepository = tripRepository;
+        this.journeyRepository = journeyRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jsonFactory = objectMapper.getFactory();
+        this.maxSpeedMps = maxSpeedKmh / 3.6;
+        this.maxBatchSamples = maxBatchSamples;
+    }
+
+    /**
+     * Open a new trip for the current EV Owner
+     */
+    @Transactional
+    public TripResponse openTrip() {
+        User currentUser = getCurrentUser();
+        if (currentUser.getRole() == null || !"EV_OWNER".equals(currentUser.getRole().getName())) {
+            throw new IllegalStateException("Only EV Owners can record trips");
+        }
+        TelemetryTrip trip = tripRepository.save(TelemetryTrip.builder()
+                .userId(currentUser.getId())
+                .status(TripStatus.OPEN)
+                .build());
+        log.info("Trip {} opened for user {}", trip.getId(), currentUser.getEmail());
+        return toResponse(trip, null, null, "Trip opened");
+    }
+
+    /**
+     * Decode one batch of samples and fold it into the trip's totals
+     */
+    public TripResponse ingest(Long tripId, String contentType, InputStream body) {
+        Long userId = getCurrentUser().getId();
+        TelemetryBatch batch;
+        try {
+            batch = isBinary(contentType)
+                    ? TelemetryBatch.fromBinary(body, maxBatchSamples)
+                    : TelemetryBatch.fromNdjson(body, jsonFactory, maxBatchSamples);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not read telemetry batch: " + e.getMessage());
+        }
+
+        try {
+            return transactionTemplate.execute(status -> {
+                TelemetryTrip trip = findOwnTrip(tripId, userId);
+                if (trip.getStatus() != TripStatus.OPEN) {
+                    throw new IllegalStateException("Trip " + tripId + " is already closed");
+                }
+                int accepted = batch.applyTo(trip, maxSpeedMps);
+                TelemetryTrip saved = tripRepository.saveAndFlush(trip);
+                return toResponse(saved, accepted, batch.size() - accepted, null);
+            });
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new IllegalStateException("Trip " + tripId + " received another batch at the same time; "
+                    + "send batches of one trip one after another");
+        }
+    }
+
+    /**
+     * Close the trip and turn its totals into a journey awaiting CVA verification
+     * Trips shorter than the minimum journey distance are closed without a journey
+     */
+    @Transactional
+    public TripResponse closeTrip(Long tripId, CloseTripRequest request) {
+        User currentUser = getCurrentUser();
+        TelemetryTrip trip = findOwnTrip(tripId, currentUser.getId());
+        if (trip.getStatus() != TripStatus.OPEN) {
+            throw new IllegalStateException("Trip " + tripId + " is already closed");
+        }
+        trip.setStatus(TripStatus.CLOSED);
+        trip.setClosedAt(LocalDateTime.now());
+
+        BigDecimal distanceKm = kilometres(trip);
+        if (trip.getSampleCount() < 2 || distanceKm.compareTo(MIN_DISTANCE_KM) < 0) {
+            tripRepository.save(trip);
+            log.info("Trip {} closed without a journey: {} samples, {} km", tripId, trip.getSampleCount(), distanceKm);
+            return toResponse(trip, null, null, "Trip closed. Too short to generate a journey (minimum "
+                    + MIN_DISTANCE_KM + " km).");
+        }
+        if (distanceKm.compareTo(MAX_DISTANCE_KM) > 0) {
+            throw new IllegalStateException("Trip " + tripId + " exceeds " + MAX_DISTANCE_KM + " km");
+        }
+        BigDecimal energyKwh = kilowattHours(trip);
+        if (energyKwh != null && energyKwh.compareTo(MAX_ENERGY_KWH) > 0) {
+            throw new IllegalStateException("Trip " + tripId + " exceeds " + MAX_ENERGY_KWH + " kWh");
+        }
+
+        String startLocation = request != null && request.getStartLocation() != null
+                ? request.getStartLocation() : coordinates(trip.getFirstLat(), trip.getFirstLon());
+        String endLocation = request != null && request.getEndLocation() != null
+                ? request.getEndLocation() : coordinates(trip.getLastLat(), trip.getLastLon());
+        Journey journey = journeyRepository.save(Journey.builder()
+                .userId(currentUser.getId())
+                .journeyDate(toDateTime(trip.getFirstSampleMs()).toLocalDate())
+                .startLocation(startLocation)
+                .endLocation(endLocation)
+                .distanceKm(distanceKm)
+                .energyUsedKwh(energyKwh)
+                .creditsGenerated(OwnerJourneyService.calculateCarbonCredits(distanceKm))
+                .status(JourneyStatus.PENDING)
+                .createdAt(LocalDateTime.now())
+                .build());
+        trip.setJourneyId(journey.getId());
+        tripRepository.save(trip);
+
+        log.info("Trip {} closed into journey {}: {} km, {} kWh from {} samples",
+                tripId, journey.getId(), distanceKm, energyKwh, trip.getSampleCount());
+        return toResponse(trip, null, null,
+                "Trip closed. Journey submitted and awaiting verification from Carbon Verification Authority.");
+    }
+
+    /**
+     * Current totals of one of the caller's trips
+     */
+    @Transactional(readOnly = true)
+    public TripResponse getTrip(Long tripId) {
+        return toResponse(findOwnTrip(tripId, getCurrentUser().getId()), null, null, null);
+    }
+
+    // ===== PRIVATE HELPER METHODS =====
+
+    private TelemetryTrip findOwnTrip(Long tripId, Long userId) {
+        return tripRepository.findByIdAndUserId(tripId, userId)
+                .orElseThrow(() -> new jakarta.persistence.EntityNotFoundException(
+                        "Trip not found with id: " + tripId));
+    }
+
+    private static boolean isBinary(String contentType) {
+        return contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith("application/octet-stream");
+    }
+
+    private static BigDecimal kilometres(TelemetryTrip trip) {
+        return BigDecimal.valueOf(trip.getDistanceM() / 1000.0).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal kilowattHours(TelemetryTrip trip) {
+        if (trip.getEnergyUsedKwh() <= 0) {
+            return null;
+        }
+        return BigDecimal.valueOf(trip.getEnergyUsedKwh()).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static String coordinates(Double lat, Double lon) {
+        return lat == null || lon == null ? null : String.format(Locale.ROOT, "%.5f,%.5f", lat, lon);
+    }
+
+    private static LocalDateTime toDateTime(Long epochMillis) {
+        return epochMillis == null ? null
+                : LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private TripResponse toResponse(TelemetryTrip trip, Integer batchAccepted, Integer batchRejected,
+                                    String message) {
+        return TripResponse.builder()
+                .tripId(trip.getId())
+                .status(trip.getStatus().name())
+                .sampleCount(trip.getSampleCount())
+                .rejectedCount(trip.getRejectedCount())
+                .distanceKm(kilometres(trip))
+                .energyUsedKwh(BigDecimal.valueOf(trip.getEnergyUsedKwh()).setScale(2, RoundingMode.HALF_UP))
+                .firstSampleAt(toDateTime(trip.getFirstSampleMs()))
+                .lastSampleAt(toDateTime(trip.getLastSampleMs()))
+                .createdAt(trip.getCreatedAt())
+                .closedAt(trip.getClosedAt())
+                .journeyId(trip.getJourneyId())
+                .batchAccepted(batchAccepted)
+                .batchRejected(batchRejected)
+                .message(message)
+                .build();
+    }
+
+    /**
+     * Get currently authenticated user
+     */
+    private User getCurrentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || auth.getName() == null) {
+            throw new IllegalStateException("User not authenticated");
+        }
+
+        String email = auth.getName();
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new jakarta.persistence.EntityNotFoundException(
+                        "User not found: " + email));
+    }
+}
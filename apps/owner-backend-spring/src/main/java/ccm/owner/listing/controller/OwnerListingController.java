@@ -8,6 +8,7 @@ import ccm.admin.journey.repository.JourneyRepository;
 import ccm.admin.journey.entity.Journey;
 // Import Enum Status của Journey để lọc hành trình đã duyệt
 import ccm.admin.journey.entity.enums.JourneyStatus; 
+import ccm.admin.wallet.service.OwnerWalletProjection;
 
 import ccm.owner.listing.dto.CreateListingRequest;
 import ccm.owner.listing.repository.OwnerCreditRepository;
@@ -41,6 +42,7 @@ public class OwnerListingController {
     private final UserRepository userRepository;
     private final JourneyRepository journeyRepository;
     private final OwnerWalletService walletService;
+    private final OwnerWalletProjection ownerWallets;
 
     // --- [PHẦN 1: MỚI] API lấy danh sách bài đăng của tôi ---
     // (Frontend cần cái này để tính toán số lượng đang bị khóa/Locked)
@@ -114,6 +116,8 @@ public class OwnerListingController {
                 .build();
         
         listingRepository.save(listing);
+        // Tín chỉ đang rao bán bị khóa ngay trong transaction tạo listing
+        ownerWallets.creditsListed(owner.getId(), request.getAmount());
 
         return ResponseEntity.ok("Tạo bài đăng bán thành công! Đang chờ duyệt.");
     }
@@ -1,6 +1,7 @@
 package ccm.owner.listing.entity;
 
 import ccm.admin.user.entity.User; // Sử dụng User từ Admin module (Shared)
+import ccm.common.id.PooledId;
 import jakarta.persistence.*;
 import lombok.*;
 import java.math.BigDecimal;
@@ -13,7 +14,7 @@ import java.time.LocalDateTime;
 public class Listing {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     private Long id;
 
     @Column(name = "carbon_credit_id", nullable = false)
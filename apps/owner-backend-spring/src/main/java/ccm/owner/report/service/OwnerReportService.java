@@ -4,23 +4,27 @@ import ccm.owner.report.dto.response.OwnerReportSummaryResponse;
 import ccm.owner.report.dto.response.OwnerMonthlyReportResponse;
 import ccm.admin.journey.repository.JourneyRepository;
 import ccm.admin.journey.entity.enums.JourneyStatus;
+import ccm.admin.journey.repository.projection.JourneyMonthlyStatsProjection;
 import ccm.admin.transaction.repository.TransactionRepository;
+import ccm.admin.transaction.repository.projection.SellerMonthlyEarningsProjection;
 import ccm.admin.user.entity.User;
 import ccm.admin.user.repository.UserRepository;
 import ccm.admin.payout.repository.PayoutRepository;
 import ccm.admin.payout.entity.enums.PayoutStatus;
+import ccm.common.concurrent.FanOut;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.Month;
+import java.time.YearMonth;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
@@ -31,40 +35,56 @@ public class OwnerReportService {
         private final TransactionRepository transactionRepository;
         private final PayoutRepository payoutRepository;
         private final UserRepository userRepository;
+        private final FanOut fanOut;
 
-        @Transactional(readOnly = true)
+        // No outer transaction: the eight aggregates below each borrow a connection on their own
+        // virtual thread, and this thread must not pin one while it waits for them
         public OwnerReportSummaryResponse getSummary() {
                 User currentUser = getCurrentUser();
                 log.info("Generating summary report for user: {}", currentUser.getEmail());
-
-                // Journey statistics
-                long totalJourneys = journeyRepository.countByUserId(currentUser.getId());
-                long verifiedJourneys = journeyRepository.countByUserIdAndStatus(currentUser.getId(),
-                                JourneyStatus.VERIFIED);
-                long pendingJourneys = journeyRepository.countByUserIdAndStatus(currentUser.getId(),
-                                JourneyStatus.PENDING);
-                long rejectedJourneys = journeyRepository.countByUserIdAndStatus(currentUser.getId(),
-                                JourneyStatus.REJECTED);
-
-                // Credits generated
-                BigDecimal totalCreditsGenerated = journeyRepository.sumCreditsByUserId(currentUser.getId());
-                if (totalCreditsGenerated == null)
-                        totalCreditsGenerated = BigDecimal.ZERO;
-
-                // Financial statistics
-                BigDecimal totalEarnings = transactionRepository.sumEarningsBySellerEmail(currentUser.getEmail());
-                if (totalEarnings == null)
-                        totalEarnings = BigDecimal.ZERO;
-
-                // Payout statistics
-                BigDecimal totalWithdrawals = payoutRepository
-                                .calculateTotalAmountByUserIdAndStatus(currentUser.getId(), PayoutStatus.COMPLETED);
-                if (totalWithdrawals == null)
-                        totalWithdrawals = BigDecimal.ZERO;
-
-                BigDecimal pendingWithdrawals = payoutRepository.sumPendingAmountByUserId(currentUser.getId());
-                if (pendingWithdrawals == null)
-                        pendingWithdrawals = BigDecimal.ZERO;
+                Long userId = currentUser.getId();
+
+                long totalJourneys;
+                long verifiedJourneys;
+                long pendingJourneys;
+                long rejectedJourneys;
+                BigDecimal totalCreditsGenerated;
+                BigDecimal totalEarnings;
+                BigDecimal totalWithdrawals;
+                BigDecimal pendingWithdrawals;
+                try (FanOut.Scope scope = fanOut.open()) {
+                        // Journey statistics
+                        Supplier<Long> total = scope.fork(() -> journeyRepository.countByUserId(userId));
+                        Supplier<Long> verified = scope.fork(
+                                        () -> journeyRepository.countByUserIdAndStatus(userId, JourneyStatus.VERIFIED));
+                        Supplier<Long> pending = scope.fork(
+                                        () -> journeyRepository.countByUserIdAndStatus(userId, JourneyStatus.PENDING));
+                        Supplier<Long> rejected = scope.fork(
+                                        () -> journeyRepository.countByUserIdAndStatus(userId, JourneyStatus.REJECTED));
+
+                        // Credits generated
+                        Supplier<BigDecimal> credits = scope.fork(() -> journeyRepository.sumCreditsByUserId(userId));
+
+                        // Financial statistics
+                        Supplier<BigDecimal> earnings = scope.fork(
+                                        () -> transactionRepository.sumEarningsBySellerEmail(currentUser.getEmail()));
+
+                        // Payout statistics
+                        Supplier<BigDecimal> withdrawn = scope.fork(() -> payoutRepository
+                                        .calculateTotalAmountByUserIdAndStatus(userId, PayoutStatus.COMPLETED));
+                        Supplier<BigDecimal> pendingPayouts = scope.fork(
+                                        () -> payoutRepository.sumPendingAmountByUserId(userId));
+                        scope.join();
+
+                        totalJourneys = total.get();
+                        verifiedJourneys = verified.get();
+                        pendingJourneys = pending.get();
+                        rejectedJourneys = rejected.get();
+                        totalCreditsGenerated = orZero(credits.get());
+                        totalEarnings = orZero(earnings.get());
+                        totalWithdrawals = orZero(withdrawn.get());
+                        pendingWithdrawals = orZero(pendingPayouts.get());
+                }
 
                 // Calculate averages
                 double averageCreditsPerJourney = verifiedJourneys > 0
@@ -94,59 +114,48 @@ public class OwnerReportService {
                                 .build();
         }
 
-        @Transactional(readOnly = true)
+        // Same as getSummary: the two grouped queries run side by side, each on its own connection
         public OwnerMonthlyReportResponse getMonthlyReport(int year) {
                 User currentUser = getCurrentUser();
                 log.info("Generating monthly report for user: {}, year: {}", currentUser.getEmail(), year);
+                Long userId = currentUser.getId();
+                LocalDate from = LocalDate.of(year, 1, 1);
+                LocalDate to = from.plusYears(1);
+
+                List<JourneyMonthlyStatsProjection> journeyRows;
+                List<SellerMonthlyEarningsProjection> earningRows;
+                try (FanOut.Scope scope = fanOut.open()) {
+                        // At most 12 rows each: the database groups the year by month
+                        Supplier<List<JourneyMonthlyStatsProjection>> journeys = scope.fork(
+                                        () -> journeyRepository.findVerifiedMonthlyStatsByUserId(userId, from, to));
+                        Supplier<List<SellerMonthlyEarningsProjection>> earnings = scope.fork(
+                                        () -> transactionRepository.findMonthlyEarningsBySellerId(userId,
+                                                        from.atStartOfDay(), to.atStartOfDay()));
+                        scope.join();
+
+                        journeyRows = journeys.get();
+                        earningRows = earnings.get();
+                }
 
                 Map<String, Long> journeysByMonth = new LinkedHashMap<>();
                 Map<String, BigDecimal> creditsByMonth = new LinkedHashMap<>();
                 Map<String, BigDecimal> earningsByMonth = new LinkedHashMap<>();
+                String[] monthKeys = new String[13];
 
                 // Initialize all months
                 for (int month = 1; month <= 12; month++) {
-                        String monthKey = String.format("%d-%02d", year, month);
-                        journeysByMonth.put(monthKey, 0L);
-                        creditsByMonth.put(monthKey, BigDecimal.ZERO);
-                        earningsByMonth.put(monthKey, BigDecimal.ZERO);
+                        monthKeys[month] = YearMonth.of(year, month).toString();
+                        journeysByMonth.put(monthKeys[month], 0L);
+                        creditsByMonth.put(monthKeys[month], BigDecimal.ZERO);
+                        earningsByMonth.put(monthKeys[month], BigDecimal.ZERO);
                 }
 
-                // Get all verified journeys for the year
-                var journeys = journeyRepository.findAll((root, query, cb) -> cb.and(
-                                cb.equal(root.get("userId"), currentUser.getId()),
-                                cb.equal(root.get("status"), JourneyStatus.VERIFIED),
-                                cb.between(root.get("journeyDate"),
-                                                LocalDate.of(year, 1, 1),
-                                                LocalDate.of(year, 12, 31))));
-
-                // Aggregate by month
-                for (var journey : journeys) {
-                        LocalDate date = journey.getJourneyDate();
-                        String monthKey = String.format("%d-%02d", date.getYear(), date.getMonthValue());
-
-                        journeysByMonth.merge(monthKey, 1L, Long::sum);
-
-                        BigDecimal credits = journey.getCreditsGenerated() != null
-                                        ? journey.getCreditsGenerated()
-                                        : BigDecimal.ZERO;
-                        creditsByMonth.merge(monthKey, credits, BigDecimal::add);
+                for (JourneyMonthlyStatsProjection row : journeyRows) {
+                        journeysByMonth.put(monthKeys[row.getMonth()], row.getJourneyCount());
+                        creditsByMonth.put(monthKeys[row.getMonth()], orZero(row.getCredits()));
                 }
-
-                // Get earnings by month (from transactions)
-                var transactions = transactionRepository.findAll((root, query, cb) -> cb.and(
-                                cb.equal(root.get("sellerEmail"), currentUser.getEmail()),
-                                cb.between(root.get("createdAt"),
-                                                LocalDate.of(year, 1, 1).atStartOfDay(),
-                                                LocalDate.of(year, 12, 31).atTime(23, 59, 59))));
-
-                for (var transaction : transactions) {
-                        LocalDate date = transaction.getCreatedAt().toLocalDate();
-                        String monthKey = String.format("%d-%02d", date.getYear(), date.getMonthValue());
-
-                        BigDecimal amount = transaction.getTotalPrice() != null
-                                        ? transaction.getTotalPrice()
-                                        : BigDecimal.ZERO;
-                        earningsByMonth.merge(monthKey, amount, BigDecimal::add);
+                for (SellerMonthlyEarningsProjection row : earningRows) {
+                        earningsByMonth.put(monthKeys[row.getMonth()], orZero(row.getEarnings()));
                 }
 
                 log.info("Monthly report generated for year {} with data for all 12 months", year);
@@ -159,6 +168,10 @@ public class OwnerReportService {
                                 .build();
         }
 
+        private static BigDecimal orZero(BigDecimal value) {
+                return value != null ? value : BigDecimal.ZERO;
+        }
+
         private User getCurrentUser() {
                 Authentication auth = SecurityContextHolder.getContext().getAuthentication();
                 if (auth == null || auth.getName() == null) {
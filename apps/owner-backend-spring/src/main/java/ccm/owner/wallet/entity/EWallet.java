@@ -1,6 +1,7 @@
 package ccm.owner.wallet.entity;
 
 import ccm.owner.wallet.entity.enums.WalletStatus;
+import ccm.common.id.PooledId;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -20,7 +21,7 @@ import java.time.LocalDateTime;
 public class EWallet {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId
     private Long id;
 
     @Column(name = "user_id", nullable = false, unique = true)
@@ -39,9 +40,19 @@ public class EWallet {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    /**
+     * balance covers every wallet_ledger entry flagged compacted; credits stay only in the ledger until
+     * the buyer service compacts them. This is the time of the last compaction
+     */
+    @Column(name = "snapshot_at", nullable = false)
+    private LocalDateTime snapshotAt;
+
     @PrePersist
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        if (snapshotAt == null) {
+            snapshotAt = updatedAt;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package ccm.owner.wallet.entity;
+
+import ccm.owner.wallet.entity.enums.WalletEntryType;
+import ccm.common.id.PooledId;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "wallet_ledger")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+/**
+ * WalletLedgerEntry - Entity - One append-only wallet movement (credits > 0, debits < 0)
+ */
+public class WalletLedgerEntry {
+
+    @Id
+    @PooledId
+    private Long id;
+
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false, updatable = false, length = 32)
+    private WalletEntryType type;
+
+    @Column(name = "amount", nullable = false, updatable = false, precision = 15, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "reference_id", updatable = false)
+    private Long referenceId;
+
+    /**
+     * True once the amount is inside e_wallets.balance: debits are written that way, credits are
+     * flagged by the buyer service's compaction in the same transaction that adds them to the balance
+     */
+    @Column(name = "compacted", nullable = false)
+    private boolean compacted;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
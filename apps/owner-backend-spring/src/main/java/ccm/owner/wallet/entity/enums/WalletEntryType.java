@@ -0,0 +1,12 @@
+package ccm.owner.wallet.entity.enums;
+
+/**
+ * Enum - Wallet ledger entry types (wallet_ledger is shared with the buyer service)
+ */
+public enum WalletEntryType {
+    OPENING,     // Balance carried over when the ledger was introduced
+    SALE,        // Seller credited for a completed purchase
+    PURCHASE,    // Buyer debited for a purchase
+    CVA_CREDIT,  // Credits issued by the CVA for a verified journey
+    WITHDRAWAL   // Payout requested by the owner
+}
@@ -2,8 +2,13 @@ package ccm.owner.wallet.repository;
 
 import ccm.owner.wallet.entity.EWallet;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
@@ -21,4 +26,22 @@ public interface EWalletRepository extends JpaRepository<EWallet, Long> {
      * Check if wallet exists for user
      */
     boolean existsByUserId(Long userId);
+
+    /**
+     * Current balance: snapshot plus ledger credits not yet compacted (null if the wallet does not exist)
+     */
+    @Query("SELECT w.balance + COALESCE((SELECT SUM(l.amount) FROM WalletLedgerEntry l " +
+           "WHERE l.userId = w.userId AND l.compacted = false), 0) " +
+           "FROM EWallet w WHERE w.userId = :userId")
+    BigDecimal balanceOf(@Param("userId") Long userId);
+
+    /**
+     * Atomically debit the snapshot if snapshot plus pending credits covers the amount.
+     * Returns 0 when funds are insufficient or the wallet does not exist.
+     */
+    @Modifying
+    @Query("UPDATE EWallet w SET w.balance = w.balance - :amount, w.updatedAt = :now " +
+           "WHERE w.userId = :userId AND w.balance + COALESCE((SELECT SUM(l.amount) FROM WalletLedgerEntry l " +
+           "WHERE l.userId = :userId AND l.compacted = false), 0) >= :amount")
+    int debit(@Param("userId") Long userId, @Param("amount") BigDecimal amount, @Param("now") LocalDateTime now);
 }
\ No newline at end of file
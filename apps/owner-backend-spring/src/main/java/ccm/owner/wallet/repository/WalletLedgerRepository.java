@@ -0,0 +1,12 @@
+package ccm.owner.wallet.repository;
+
+import ccm.owner.wallet.entity.WalletLedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+/**
+ * Repository for wallet ledger entries (append-only)
+ */
+public interface WalletLedgerRepository extends JpaRepository<WalletLedgerEntry, Long> {
+}
@@ -3,21 +3,18 @@ package ccm.owner.wallet.service;
 import ccm.owner.payout.dto.request.WithdrawalRequest;
 import ccm.owner.wallet.dto.response.WalletBalanceResponse;
 import ccm.owner.wallet.entity.EWallet;
+import ccm.owner.wallet.entity.WalletLedgerEntry;
+import ccm.owner.wallet.entity.enums.WalletEntryType;
 import ccm.owner.wallet.repository.EWalletRepository;
+import ccm.owner.wallet.repository.WalletLedgerRepository;
 import ccm.admin.payout.entity.Payout;
 import ccm.admin.payout.entity.enums.PayoutStatus;
 import ccm.admin.payout.repository.PayoutRepository;
-import ccm.admin.journey.entity.Journey;
-import ccm.admin.journey.repository.JourneyRepository;
-import ccm.admin.transaction.repository.TransactionRepository;
 import ccm.admin.user.entity.User;
 import ccm.admin.user.repository.UserRepository;
-import ccm.owner.listing.repository.OwnerListingRepository;
-import ccm.owner.listing.entity.ListingStatus;
-import ccm.owner.listing.entity.Listing;
-import ccm.admin.transaction.entity.Transaction;
-
-import java.util.List;
+import ccm.admin.wallet.entity.OwnerWalletSummary;
+import ccm.admin.wallet.repository.OwnerWalletSummaryRepository;
+import ccm.admin.wallet.service.OwnerWalletProjection;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -28,7 +25,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.Optional;
 
 
 @Service
@@ -40,11 +36,11 @@ import java.util.Optional;
 public class OwnerWalletService {
 
     private final EWalletRepository eWalletRepository;
+    private final WalletLedgerRepository walletLedgerRepository;
     private final UserRepository userRepository;
-    private final JourneyRepository journeyRepository;
-    private final TransactionRepository transactionRepository;
     private final PayoutRepository payoutRepository;
-    private final OwnerListingRepository listingRepository;
+    private final OwnerWalletSummaryRepository summaryRepository;
+    private final OwnerWalletProjection ownerWallets;
 
     /**
      * Get wallet balance for the current user
@@ -58,90 +54,31 @@ public class OwnerWalletService {
         EWallet wallet = eWalletRepository.findByUserId(userId)
                 .orElseGet(() -> createWalletForUser(userId));
 
-        // 2. Tính toán Credits
-        
-        // A. Tổng tín chỉ kiếm được (Total Generated)
-        // Lấy danh sách hành trình đã được duyệt (bao gồm cả VERIFIED và APPROVED)
-        List<Journey> verifiedJourneys = journeyRepository.findAll((root, query, cb) -> 
-            cb.and(
-                cb.equal(root.get("userId"), userId),
-                cb.or(
-                    cb.equal(root.get("status").as(String.class), "VERIFIED"),
-                    cb.equal(root.get("status").as(String.class), "APPROVED")
-                )
-            )
-        );
-        
-        BigDecimal totalCreditsGenerated = java.util.Optional.ofNullable(
-            journeyRepository.sumCreditsByUserId(userId)
-        ).orElse(BigDecimal.ZERO);
-
-        // B. [FIX QUAN TRỌNG] Lấy tất cả Listing để dùng cho cả tính Locked và Earnings
-        List<Listing> allListings = listingRepository.findAll((root, query, cb) -> 
-            cb.equal(root.get("owner"), currentUser)
-        );
+        // 2. Số liệu tín chỉ / thu nhập / rút tiền: một dòng owner_wallet_summaries theo khóa chính,
+        //    do các service cộng dồn khi duyệt hành trình, đăng/gỡ listing, bán và xử lý rút tiền
+        OwnerWalletSummary summary = summaryRepository.findById(userId)
+                .orElseGet(() -> OwnerWalletSummary.empty(userId));
 
-        // C. Tính Locked Credits từ danh sách trên (Lọc bằng Java Stream)
-        BigDecimal lockedCredits = allListings.stream()
-            .filter(l -> l.getStatus() == ListingStatus.PENDING || 
-                         l.getStatus() == ListingStatus.APPROVED || 
-                         l.getStatus() == ListingStatus.OPEN)
-            .map(Listing::getQuantity)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // D. Tổng Đã Bán (Sold via Transactions)
-        BigDecimal soldCredits = java.util.Optional.ofNullable(
-            transactionRepository.sumSoldQuantityBySellerEmail(currentUser.getEmail())
-        ).orElse(BigDecimal.ZERO);
-
-        // E. Tính Available
-        BigDecimal availableCredits = totalCreditsGenerated
-                .subtract(lockedCredits)
-                .subtract(soldCredits);
-        
+        BigDecimal availableCredits = summary.getCreditsGenerated()
+                .subtract(summary.getLockedCredits())
+                .subtract(summary.getSoldCredits());
         if (availableCredits.compareTo(BigDecimal.ZERO) < 0) availableCredits = BigDecimal.ZERO;
 
-        // 3. Tính tiền kiếm được (Total Earnings)
-        BigDecimal totalEarnings = BigDecimal.ZERO;
-        try {
-            // Lấy list ID các bài đăng của user từ biến allListings đã khai báo ở trên
-            List<Long> myListingIds = allListings.stream().map(Listing::getId).toList();
-            
-            if (!myListingIds.isEmpty()) {
-                // Tìm transaction liên quan
-                List<Transaction> transactions = transactionRepository.findAll(); 
-                
-                totalEarnings = transactions.stream()
-                    .filter(t -> myListingIds.contains(t.getListingId()))
-                    .filter(t -> "COMPLETED".equalsIgnoreCase(t.getStatus().name()))
-                    .map(t -> t.getAmount() != null ? t.getAmount() : BigDecimal.ZERO)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            }
-        } catch (Exception e) {
-            log.error("Error calculating earnings: {}", e.getMessage());
-        }
-
-        // 4. Các thông số rút tiền
-        BigDecimal approvedPayouts = Optional.ofNullable(payoutRepository.sumApprovedAmountByUserId(userId)).orElse(BigDecimal.ZERO);
-        BigDecimal completedPayouts = Optional.ofNullable(payoutRepository.sumAmountByUserIdAndStatus(userId, PayoutStatus.COMPLETED)).orElse(BigDecimal.ZERO);
-        BigDecimal totalWithdrawals = approvedPayouts.add(completedPayouts);
-        BigDecimal pendingWithdrawals = Optional.ofNullable(payoutRepository.sumPendingAmountByUserId(userId)).orElse(BigDecimal.ZERO);
-
         return WalletBalanceResponse.builder()
                 .walletId(wallet.getId())
                 .userId(wallet.getUserId())
                 .userEmail(currentUser.getEmail())
-                .balance(wallet.getBalance())
+                .balance(eWalletRepository.balanceOf(userId))
                 .currency(wallet.getCurrency())
                 .status(wallet.getStatus().name())
                 .lastUpdated(wallet.getUpdatedAt())
-                .totalCreditsGenerated(totalCreditsGenerated)
+                .totalCreditsGenerated(summary.getCreditsGenerated())
                 .availableCredits(availableCredits)
-                .lockedCredits(lockedCredits)
-                .soldCredits(soldCredits)
-                .totalEarnings(totalEarnings)
-                .totalWithdrawals(totalWithdrawals)
-                .pendingWithdrawals(pendingWithdrawals)
+                .lockedCredits(summary.getLockedCredits())
+                .soldCredits(summary.getSoldCredits())
+                .totalEarnings(summary.getTotalEarnings())
+                .totalWithdrawals(summary.getTotalWithdrawals())
+                .pendingWithdrawals(summary.getPendingWithdrawals())
                 .build();
     }
 
@@ -159,16 +96,17 @@ public class OwnerWalletService {
         EWallet wallet = eWalletRepository.findByUserId(currentUser.getId())
                 .orElseThrow(() -> new IllegalStateException("Wallet not found for user"));
 
-        // Validate balance
-        if (wallet.getBalance().compareTo(request.getAmount()) < 0) {
+        // Validate balance (snapshot + ledger credits not yet compacted)
+        BigDecimal balance = eWalletRepository.balanceOf(currentUser.getId());
+        if (balance.compareTo(request.getAmount()) < 0) {
             throw new IllegalStateException(
                     String.format("Insufficient balance. Available: $%.2f, Requested: $%.2f",
-                            wallet.getBalance(), request.getAmount()));
+                            balance, request.getAmount()));
         }
         
         // Check for pending withdrawals
         BigDecimal pendingAmount = payoutRepository.sumPendingAmountByUserId(currentUser.getId());
-        BigDecimal availableBalance = wallet.getBalance().subtract(pendingAmount);
+        BigDecimal availableBalance = balance.subtract(pendingAmount);
 
         if (availableBalance.compareTo(request.getAmount()) < 0) {
             throw new IllegalStateException(
@@ -176,8 +114,10 @@ public class OwnerWalletService {
                             availableBalance, request.getAmount()));
         }
 
-        wallet.setBalance(wallet.getBalance().subtract(request.getAmount()));
-        eWalletRepository.save(wallet);
+        // Conditional UPDATE: a concurrent withdrawal or purchase cannot overdraw the wallet
+        if (eWalletRepository.debit(currentUser.getId(), request.getAmount(), LocalDateTime.now()) == 0) {
+            throw new IllegalStateException("Insufficient balance");
+        }
 
         // Create payout request
         Payout payout = Payout.builder()
@@ -192,6 +132,9 @@ public class OwnerWalletService {
                 .build();
 
         Payout savedPayout = payoutRepository.save(payout);
+        ownerWallets.payoutRequested(currentUser.getId(), request.getAmount());
+        appendLedger(currentUser.getId(), WalletEntryType.WITHDRAWAL, request.getAmount().negate(), savedPayout.getId(),
+                true);
 
         log.info("Withdrawal request created: id={}, user={}, amount=${}",
                 savedPayout.getId(), currentUser.getEmail(), request.getAmount());
@@ -215,20 +158,30 @@ public class OwnerWalletService {
     public void addCredits(Long userId, BigDecimal amount) {
         log.info("Processing credit addition: userId={}, amount={}", userId, amount);
         
-        EWallet wallet = eWalletRepository.findByUserId(userId)
-                .orElseGet(() -> createWalletForUser(userId));
+        if (!eWalletRepository.existsByUserId(userId)) {
+            createWalletForUser(userId);
+        }
 
-        // Cộng dồn số dư tiền (USD)
-        wallet.setBalance(wallet.getBalance().add(amount));
-        wallet.setUpdatedAt(LocalDateTime.now());
-        
-        eWalletRepository.save(wallet);
-        
-        log.info("Wallet credited successfully. New balance: {}", wallet.getBalance());
+        // Cộng tiền (USD): chỉ một bút toán wallet_ledger, không khóa dòng ví
+        appendLedger(userId, WalletEntryType.CVA_CREDIT, amount, null, false);
+
+        log.info("Wallet credited successfully: userId={}, amount={}", userId, amount);
     }
 
     // ===== PRIVATE HELPER METHODS =====
 
+    // compacted = the amount is already inside e_wallets.balance (debits apply to the snapshot directly)
+    private void appendLedger(Long userId, WalletEntryType type, BigDecimal amount, Long referenceId,
+                              boolean compacted) {
+        walletLedgerRepository.save(WalletLedgerEntry.builder()
+                .userId(userId)
+                .type(type)
+                .amount(amount)
+                .referenceId(referenceId)
+                .compacted(compacted)
+                .build());
+    }
+
     private User getCurrentUser() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         if (auth == null || auth.getName() == null) {
@@ -0,0 +1,250 @@
+package ccm.owner.journey.service;
+
+import ccm.admin.journey.entity.Journey;
+import ccm.admin.journey.entity.enums.JourneyStatus;
+import ccm.admin.journey.repository.JourneyRepository;
+import ccm.admin.user.entity.Role;
+import ccm.admin.user.entity.User;
+import ccm.admin.user.repository.RoleRepository;
+import ccm.admin.user.repository.UserRepository;
+import ccm.owner.journey.dto.response.JourneyImportResponse;
+import ccm.owner.journey.repository.JourneyImportErrorRepository;
+import ccm.owner.journey.repository.JourneyImportJobRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for JourneyImportService against H2 (MySQL mode), batch size 3
+ *
+ * Verifies:
+ * - Every chunk commits its journeys, record errors and job counts together
+ * - An upload that breaks mid-file leaves the job FAILED with only whole chunks committed
+ * - Resuming with the same file and jobId imports the rest without duplicating journeys
+ * - Resuming with a shorter file fails without changing the committed counts
+ * The service commits its own chunks, so the test methods run without a surrounding transaction.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:owner-import;MODE=MySQL;DB_CLOSE_DELAY=-1;NON_KEYWORDS=VALUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false",
+        "app.journey-import.batch-size=3"
+})
+@ContextConfiguration(classes = JourneyImportServiceTest.ImportTestConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DisplayName("JourneyImportService Tests")
+class JourneyImportServiceTest {
+
+    private static final String OWNER_EMAIL = "fleet@carbon.local";
+
+    /** The application class scans all of ccm.owner and ccm.admin; keep this slice to the import stack */
+    @Configuration
+    @EntityScan(basePackages = {"ccm.owner", "ccm.admin"})
+    @EnableJpaRepositories(basePackages = {"ccm.owner", "ccm.admin"})
+    @ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+    @Import(JourneyImportService.class)
+    static class ImportTestConfig {
+    }
+
+    @Autowired private JourneyImportService importService;
+    @Autowired private JourneyRepository journeyRepository;
+    @Autowired private JourneyImportJobRepository jobRepository;
+    @Autowired private JourneyImportErrorRepository errorRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private RoleRepository roleRepository;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        Role role = roleRepository.save(new Role(null, "EV_OWNER", null, LocalDateTime.now()));
+        owner = userRepository.save(User.builder()
+                .email(OWNER_EMAIL)
+                .passwordHash("x")
+                .role(role)
+                .build());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(OWNER_EMAIL, null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        journeyRepository.deleteAll();
+        errorRepository.deleteAll();
+        jobRepository.deleteAll();
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should commit journeys and record errors chunk by chunk")
+    void testChunkAccounting() {
+        // Given: 8 records, record 3 does not parse and record 6 fails validation
+        String csv = """
+                journeyDate,startLocation,endLocation,distanceKm,energyUsedKwh
+                2025-03-01,A,B,10,2
+                2025-03-02,A,B,11,2
+                2025-03-xx,A,B,12,2
+                2025-03-04,A,B,13,2
+                2025-03-05,A,B,14,2
+                2025-03-06,A,B,0,2
+                2025-03-07,A,B,16,2
+                2025-03-08,A,B,17,2
+                """;
+
+        // When
+        JourneyImportResponse response = importService.importJourneys(csvFile(csv), null);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo("COMPLETED");
+        assertThat(response.getRecordsCommitted()).isEqualTo(8);
+        assertThat(response.getImportedCount()).isEqualTo(6);
+        assertThat(response.getFailedCount()).isEqualTo(2);
+        assertThat(response.getErrors())
+                .extracting(JourneyImportResponse.RecordError::getRecordNo)
+                .containsExactly(3L, 6L);
+        assertThat(response.getErrors().get(1).getMessage()).isEqualTo("Distance must be at least 0.1 km");
+        assertThat(journeyRepository.countByUserId(owner.getId())).isEqualTo(6);
+        assertThat(journeyRepository.findAll())
+                .extracting(Journey::getStatus)
+                .containsOnly(JourneyStatus.PENDING);
+    }
+
+    @Test
+    @DisplayName("Should stop on a broken upload after whole chunks and resume without duplicates")
+    void testInterruptedUploadResumes() {
+        // Given: the upload breaks in the middle of record 7, after two chunks of 3
+        String ndjson = ndjson(8);
+        int breakAt = ndjson.indexOf("2025-04-07") + 3;
+
+        // When
+        JourneyImportResponse stopped = importService.importJourneys(
+                new BrokenUpload("trips.ndjson", ndjson.getBytes(StandardCharsets.UTF_8), breakAt), null);
+
+        // Then
+        assertThat(stopped.getStatus()).isEqualTo("FAILED");
+        assertThat(stopped.getLastError()).isEqualTo("Connection reset");
+        assertThat(stopped.getRecordsCommitted()).isEqualTo(6);
+        assertThat(stopped.getImportedCount()).isEqualTo(6);
+        assertThat(journeyRepository.countByUserId(owner.getId())).isEqualTo(6);
+
+        // When: the same file is sent again with the jobId
+        JourneyImportResponse resumed = importService.importJourneys(
+                ndjsonFile(ndjson), stopped.getJobId());
+
+        // Then
+        assertThat(resumed.getJobId()).isEqualTo(stopped.getJobId());
+        assertThat(resumed.getStatus()).isEqualTo("COMPLETED");
+        assertThat(resumed.getLastError()).isNull();
+        assertThat(resumed.getRecordsCommitted()).isEqualTo(8);
+        assertThat(resumed.getImportedCount()).isEqualTo(8);
+        assertThat(resumed.getFailedCount()).isZero();
+        assertThat(journeyRepository.findAll())
+                .extracting(Journey::getJourneyDate)
+                .extracting(Object::toString)
+                .doesNotHaveDuplicates()
+                .hasSize(8);
+    }
+
+    @Test
+    @DisplayName("Should fail a resume with fewer records than already committed")
+    void testResumeWithShorterFile() {
+        // Given
+        String ndjson = ndjson(8);
+        JourneyImportResponse stopped = importService.importJourneys(
+                new BrokenUpload("trips.ndjson", ndjson.getBytes(StandardCharsets.UTF_8),
+                        ndjson.indexOf("2025-04-07")), null);
+
+        // When
+        JourneyImportResponse resumed = importService.importJourneys(ndjsonFile(ndjson(4)), stopped.getJobId());
+
+        // Then
+        assertThat(resumed.getStatus()).isEqualTo("FAILED");
+        assertThat(resumed.getLastError()).startsWith("File has fewer records than already committed (6)");
+        assertThat(resumed.getRecordsCommitted()).isEqualTo(6);
+        assertThat(journeyRepository.countByUserId(owner.getId())).isEqualTo(6);
+    }
+
+    private static String ndjson(int records) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 1; i <= records; i++) {
+            sb.append(String.format("{\"journeyDate\":\"2025-04-%02d\",\"startLocation\":\"A\",\"endLocation\":\"B\","
+                    + "\"distanceKm\":%d,\"energyUsedKwh\":2}%n", i, 10 + i));
+        }
+        return sb.toString();
+    }
+
+    private static MockMultipartFile csvFile(String content) {
+        return new MockMultipartFile("file", "trips.csv", "text/csv", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static MockMultipartFile ndjsonFile(String content) {
+        return new MockMultipartFile("file", "trips.ndjson", "application/x-ndjson",
+                content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** An upload whose stream delivers {@code breakAt} bytes and then fails like a dropped connection */
+    private static class BrokenUpload extends MockMultipartFile {
+
+        private final byte[] content;
+        private final int breakAt;
+
+        BrokenUpload(String fileName, byte[] content, int breakAt) {
+            super("file", fileName, null, content);
+            this.content = content;
+            this.breakAt = breakAt;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            InputStream delivered = new ByteArrayInputStream(content, 0, breakAt);
+            return new InputStream() {
+                @Override
+                public int read() throws IOException {
+                    byte[] one = new byte[1];
+                    return read(one, 0, 1) == -1 ? -1 : one[0] & 0xff;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int n = delivered.read(b, off, len);
+                    if (n == -1) {
+                        throw new IOException("Connection reset");
+                    }
+                    return n;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package ccm.owner.journey.service;
+
+import ccm.owner.journey.dto.request.JourneySubmissionRequest;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for JourneyRecordReader
+ *
+ * Verifies:
+ * - CSV header matching ignores case, order and a UTF-8 BOM; quoted fields keep commas and quotes
+ * - A missing required column or an empty file rejects the whole upload
+ * - A malformed record becomes a per-record error and reading continues with the next record
+ * - Record numbers count data records only, and skip() consumes records the same way next() does
+ */
+@DisplayName("JourneyRecordReader Tests")
+class JourneyRecordReaderTest {
+
+    private static final ObjectReader JSON = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .build()
+            .readerFor(JourneySubmissionRequest.class);
+
+    @Test
+    @DisplayName("Should map CSV columns by header name and keep quoted commas and quotes")
+    void testCsvHeaderAndQuoting() throws IOException {
+        // Given: BOM, mixed-case reordered header, optional vehicleId column missing
+        String csv = "\uFEFF" + """
+                EndLocation,journeydate,DistanceKm,startLocation,energyUsedKWh,notes
+                "Hanoi, Ba Dinh",2026-01-05,12.5,Noi Bai,3.2,"said ""hi"", left"
+                """;
+
+        try (JourneyRecordReader reader = JourneyRecordReader.csv(new StringReader(csv))) {
+            // When
+            JourneyRecordReader.Parsed parsed = reader.next();
+
+            // Then
+            assertThat(parsed.error()).isNull();
+            assertThat(parsed.recordNo()).isEqualTo(1);
+            JourneySubmissionRequest request = parsed.request();
+            assertThat(request.getJourneyDate()).isEqualTo(LocalDate.of(2026, 1, 5));
+            assertThat(request.getStartLocation()).isEqualTo("Noi Bai");
+            assertThat(request.getEndLocation()).isEqualTo("Hanoi, Ba Dinh");
+            assertThat(request.getDistanceKm()).isEqualByComparingTo("12.5");
+            assertThat(request.getEnergyUsedKwh()).isEqualByComparingTo("3.2");
+            assertThat(request.getNotes()).isEqualTo("said \"hi\", left");
+            assertThat(request.getVehicleId()).isNull();
+            assertThat(reader.next()).isNull();
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject a CSV without the required columns or without a header")
+    void testCsvHeaderRequired() {
+        assertThatThrownBy(() -> JourneyRecordReader.csv(new StringReader("journeyDate,startLocation\n")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("CSV header must contain columns");
+        assertThatThrownBy(() -> JourneyRecordReader.csv(new StringReader("")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("CSV file is empty");
+    }
+
+    @Test
+    @DisplayName("Should turn a malformed CSV record into a per-record error and keep reading")
+    void testCsvMalformedRecord() throws IOException {
+        // Given: record 2 has a bad date, record 3 a bad number, blank lines are not records
+        String csv = """
+                journeyDate,startLocation,endLocation,distanceKm,energyUsedKwh
+                2026-01-05,A,B,10,2
+
+                05/01/2026,A,B,10,2
+                2026-01-06,A,B,ten,2
+                2026-01-07,A,B,11,2
+                """;
+
+        try (JourneyRecordReader reader = JourneyRecordReader.csv(new StringReader(csv))) {
+            // When
+            JourneyRecordReader.Parsed first = reader.next();
+            JourneyRecordReader.Parsed badDate = reader.next();
+            JourneyRecordReader.Parsed badNumber = reader.next();
+            JourneyRecordReader.Parsed last = reader.next();
+
+            // Then
+            assertThat(first.error()).isNull();
+            assertThat(badDate.recordNo()).isEqualTo(2);
+            assertThat(badDate.request()).isNull();
+            assertThat(badDate.error()).isEqualTo("Invalid journeyDate '05/01/2026' (expected yyyy-MM-dd)");
+            assertThat(badNumber.recordNo()).isEqualTo(3);
+            assertThat(badNumber.error()).isEqualTo("Invalid distanceKm 'ten'");
+            assertThat(last.recordNo()).isEqualTo(4);
+            assertThat(last.request().getJourneyDate()).isEqualTo(LocalDate.of(2026, 1, 7));
+            assertThat(reader.next()).isNull();
+        }
+    }
+
+    @Test
+    @DisplayName("Should turn an invalid NDJSON line into a per-record error and skip blank lines")
+    void testNdjsonMalformedLine() throws IOException {
+        String ndjson = """
+                {"journeyDate":"2026-01-05","startLocation":"A","endLocation":"B","distanceKm":10,"energyUsedKwh":2}
+
+                {"journeyDate":"2026-01-06",
+                {"journeyDate":"2026-01-07","startLocation":"A","endLocation":"B","distanceKm":11,"energyUsedKwh":2}
+                """;
+
+        try (JourneyRecordReader reader = JourneyRecordReader.ndjson(new StringReader(ndjson), JSON)) {
+            assertThat(reader.next().error()).isNull();
+            JourneyRecordReader.Parsed broken = reader.next();
+            assertThat(broken.recordNo()).isEqualTo(2);
+            assertThat(broken.request()).isNull();
+            assertThat(broken.error()).startsWith("Invalid JSON: ");
+            JourneyRecordReader.Parsed last = reader.next();
+            assertThat(last.recordNo()).isEqualTo(3);
+            assertThat(last.request().getDistanceKm()).isEqualByComparingTo("11");
+            assertThat(reader.next()).isNull();
+        }
+    }
+
+    @Test
+    @DisplayName("Should skip already committed records on resume without parsing them")
+    void testSkipOnResume() throws IOException {
+        // Given: the skipped records are malformed, which must not matter when resuming past them
+        String csv = """
+                journeyDate,startLocation,endLocation,distanceKm,energyUsedKwh
+                not-a-date,A,B,10,2
+
+                2026-01-06,A,B,not-a-number,2
+                2026-01-07,A,B,12,2
+                """;
+
+        try (JourneyRecordReader reader = JourneyRecordReader.csv(new StringReader(csv))) {
+            // When
+            assertThat(reader.skip()).isTrue();
+            assertThat(reader.skip()).isTrue();
+            JourneyRecordReader.Parsed resumed = reader.next();
+
+            // Then
+            assertThat(resumed.recordNo()).isEqualTo(3);
+            assertThat(resumed.error()).isNull();
+            assertThat(resumed.request().getDistanceKm()).isEqualByComparingTo("12");
+            assertThat(reader.skip()).isFalse();
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package ccm.owner.journey.service;
+
+import ccm.owner.journey.entity.TelemetryTrip;
+import ccm.owner.journey.entity.enums.TripStatus;
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit tests for TelemetryBatch
+ *
+ * Verifies:
+ * - Haversine distance between accepted positions
+ * - Out-of-order, invalid (NaN, out of range) and over-speed samples are rejected and counted
+ * - A meter reset re-baselines without adding energy
+ * - A second batch continues from the trip's last accepted sample
+ * - A bad first sample is dropped once two later samples agree with each other, but a confirmed
+ *   trip never jumps to a glitch
+ * - A truncated binary record rejects the whole batch
+ */
+@DisplayName("TelemetryBatch Tests")
+class TelemetryBatchTest {
+
+    private static final double MAX_SPEED_MPS = 250 / 3.6;
+    private static final int MAX_SAMPLES = 1000;
+    /** One degree of a great circle with the mean Earth radius used by TelemetryBatch */
+    private static final double ONE_DEGREE_M = 6_371_008.8 * Math.PI / 180.0;
+    /** Northward step of a vehicle doing 10 m/s, one sample every 10 s */
+    private static final double STEP_DEG = 100.0 / ONE_DEGREE_M;
+
+    @Test
+    @DisplayName("Should measure the haversine distance between accepted positions")
+    void testHaversineDistance() throws IOException {
+        // Given: one degree north along a meridian, then one degree east along the equator
+        TelemetryBatch batch = binary(
+                sample(0, 0.0, 0.0, Double.NaN),
+                sample(3_600_000, 1.0, 0.0, Double.NaN),
+                sample(7_200_000, 0.0, 0.0, Double.NaN),
+                sample(10_800_000, 0.0, 1.0, Double.NaN));
+        TelemetryTrip trip = openTrip();
+
+        // When
+        int accepted = batch.applyTo(trip, MAX_SPEED_MPS);
+
+        // Then
+        assertThat(accepted).isEqualTo(4);
+        assertThat(trip.getDistanceM()).isCloseTo(3 * ONE_DEGREE_M, within(0.01));
+        assertThat(ONE_DEGREE_M).isCloseTo(111_195.08, within(0.01));
+    }
+
+    @Test
+    @DisplayName("Should reject out-of-order, invalid and over-speed samples")
+    void testRejectedSamples() throws IOException {
+        // Given
+        TelemetryBatch batch = binary(
+                sample(0, 21.0, 105.8, Double.NaN),
+                sample(10_000, 21.0 + STEP_DEG, 105.8, Double.NaN),
+                sample(10_000, 21.0 + 2 * STEP_DEG, 105.8, Double.NaN),   // same time as the last accepted
+                sample(5_000, 21.0 + 2 * STEP_DEG, 105.8, Double.NaN),    // older
+                sample(20_000, Double.NaN, 105.8, Double.NaN),
+                sample(20_000, 21.0 + 2 * STEP_DEG, 180.5, Double.NaN),
+                sample(20_000, 22.0, 105.8, Double.NaN),                  // 111 km in 10 s
+                sample(20_000, 21.0 + 2 * STEP_DEG, 105.8, Double.NaN));
+        TelemetryTrip trip = openTrip();
+
+        // When
+        int accepted = batch.applyTo(trip, MAX_SPEED_MPS);
+
+        // Then
+        assertThat(accepted).isEqualTo(3);
+        assertThat(trip.getSampleCount()).isEqualTo(3);
+        assertThat(trip.getRejectedCount()).isEqualTo(5);
+        assertThat(trip.getDistanceM()).isCloseTo(200.0, within(0.001));
+        assertThat(trip.getLastSampleMs()).isEqualTo(20_000L);
+    }
+
+    @Test
+    @DisplayName("Should add no energy for a meter reset")
+    void testMeterReset() throws IOException {
+        // Given: +2 kWh, reset to 0.5, +1 kWh; a sample without a reading keeps the baseline
+        TelemetryBatch batch = binary(
+                sample(0, 21.0, 105.8, 10.0),
+                sample(10_000, 21.0 + STEP_DEG, 105.8, 12.0),
+                sample(20_000, 21.0 + 2 * STEP_DEG, 105.8, 0.5),
+                sample(30_000, 21.0 + 3 * STEP_DEG, 105.8, Double.NaN),
+                sample(40_000, 21.0 + 4 * STEP_DEG, 105.8, 1.5));
+        TelemetryTrip trip = openTrip();
+
+        // When
+        batch.applyTo(trip, MAX_SPEED_MPS);
+
+        // Then
+        assertThat(trip.getEnergyUsedKwh()).isCloseTo(3.0, within(1e-9));
+        assertThat(trip.getLastEnergyKwh()).isEqualTo(1.5);
+    }
+
+    @Test
+    @DisplayName("Should continue from the trip's last sample across batches")
+    void testContinuationAcrossBatches() throws IOException {
+        // Given: the same track in one batch and split over an NDJSON and a binary batch
+        double[][] track = track(6, 5.0);
+        TelemetryTrip whole = openTrip();
+        binary(track).applyTo(whole, MAX_SPEED_MPS);
+
+        TelemetryTrip split = openTrip();
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 3; i++) {
+            ndjson.append(String.format("{\"t\":%d,\"lat\":%s,\"lon\":%s,\"kwh\":%s}%n",
+                    (long) track[i][0], track[i][1], track[i][2], track[i][3]));
+        }
+        TelemetryBatch first = TelemetryBatch.fromNdjson(
+                new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)),
+                new JsonFactory(), MAX_SAMPLES);
+        // The second batch repeats the last sample of the first one
+        TelemetryBatch second = binary(track[2], track[3], track[4], track[5]);
+
+        // When
+        first.applyTo(split, MAX_SPEED_MPS);
+        int accepted = second.applyTo(split, MAX_SPEED_MPS);
+
+        // Then
+        assertThat(accepted).isEqualTo(3);
+        assertThat(split.getSampleCount()).isEqualTo(6);
+        assertThat(split.getRejectedCount()).isEqualTo(1);
+        assertThat(split.getDistanceM()).isCloseTo(whole.getDistanceM(), within(1e-6));
+        assertThat(split.getDistanceM()).isCloseTo(500.0, within(0.001));
+        assertThat(split.getEnergyUsedKwh()).isCloseTo(whole.getEnergyUsedKwh(), within(1e-9));
+        assertThat(split.getFirstSampleMs()).isEqualTo(0L);
+        assertThat(split.getLastSampleMs()).isEqualTo(50_000L);
+    }
+
+    @Test
+    @DisplayName("Should drop a glitched first sample once two later samples agree")
+    void testFirstSampleGlitch() throws IOException {
+        // Given: the first fix is 0,0 and the vehicle is actually in Hanoi
+        double[][] track = track(5, 5.0);
+        TelemetryBatch batch = binary(
+                sample(-10_000, 0.0, 0.0, 1.0), track[0], track[1], track[2], track[3], track[4]);
+        TelemetryTrip trip = openTrip();
+
+        // When
+        int accepted = batch.applyTo(trip, MAX_SPEED_MPS);
+
+        // Then
+        assertThat(accepted).isEqualTo(5);
+        assertThat(trip.getSampleCount()).isEqualTo(5);
+        assertThat(trip.getRejectedCount()).isEqualTo(1);
+        assertThat(trip.getFirstSampleMs()).isEqualTo(0L);
+        assertThat(trip.getFirstLat()).isEqualTo(21.0);
+        assertThat(trip.getDistanceM()).isCloseTo(400.0, within(0.001));
+        assertThat(trip.getEnergyUsedKwh()).isCloseTo(0.4, within(1e-9));
+    }
+
+    @Test
+    @DisplayName("Should drop a glitched first sample that arrived in an earlier batch")
+    void testFirstSampleGlitchInEarlierBatch() throws IOException {
+        // Given
+        TelemetryTrip trip = openTrip();
+        binary(sample(-10_000, 0.0, 0.0, Double.NaN)).applyTo(trip, MAX_SPEED_MPS);
+
+        // When
+        int accepted = binary(track(4, 5.0)).applyTo(trip, MAX_SPEED_MPS);
+
+        // Then
+        assertThat(accepted).isEqualTo(3);
+        assertThat(trip.getSampleCount()).isEqualTo(4);
+        assertThat(trip.getRejectedCount()).isEqualTo(1);
+        assertThat(trip.getFirstLat()).isEqualTo(21.0);
+        assertThat(trip.getDistanceM()).isCloseTo(300.0, within(0.001));
+    }
+
+    @Test
+    @DisplayName("Should not move a confirmed trip to samples that only agree with each other")
+    void testNoJumpAfterConfirmedStart() throws IOException {
+        // Given: two consistent fixes, then two fixes 111 km away that agree with each other
+        TelemetryBatch batch = binary(
+                sample(0, 21.0, 105.8, Double.NaN),
+                sample(10_000, 21.0 + STEP_DEG, 105.8, Double.NaN),
+                sample(20_000, 22.0, 105.8, Double.NaN),
+                sample(30_000, 22.0 + STEP_DEG, 105.8, Double.NaN),
+                sample(40_000, 21.0 + 2 * STEP_DEG, 105.8, Double.NaN));
+        TelemetryTrip trip = openTrip();
+
+        // When
+        int accepted = batch.applyTo(trip, MAX_SPEED_MPS);
+
+        // Then
+        assertThat(accepted).isEqualTo(3);
+        assertThat(trip.getRejectedCount()).isEqualTo(2);
+        assertThat(trip.getFirstSampleMs()).isEqualTo(0L);
+        assertThat(trip.getDistanceM()).isCloseTo(200.0, within(0.001));
+    }
+
+    @Test
+    @DisplayName("Should reject a binary batch that ends in a partial record")
+    void testTruncatedBinary() {
+        byte[] body = new byte[2 * TelemetryBatch.BINARY_SAMPLE_BYTES + 5];
+
+        assertThatThrownBy(() -> TelemetryBatch.fromBinary(new ByteArrayInputStream(body), MAX_SAMPLES))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Binary telemetry must be a multiple of 32 bytes");
+    }
+
+    private static TelemetryTrip openTrip() {
+        return TelemetryTrip.builder()
+                .userId(1L)
+                .status(TripStatus.OPEN)
+                .build();
+    }
+
+    /** Northbound from 21.0, 105.8 at 10 m/s, one sample every 10 s, 0.1 kWh per sample on top of {@code kwh} */
+    private static double[][] track(int samples, double kwh) {
+        double[][] track = new double[samples][];
+        for (int i = 0; i < samples; i++) {
+            track[i] = sample(i * 10_000L, 21.0 + i * STEP_DEG, 105.8, kwh + i * 0.1);
+        }
+        return track;
+    }
+
+    private static double[] sample(long t, double lat, double lon, double kwh) {
+        return new double[] {t, lat, lon, kwh};
+    }
+
+    private static TelemetryBatch binary(double[]... samples) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(samples.length * TelemetryBatch.BINARY_SAMPLE_BYTES);
+        for (double[] s : samples) {
+            buffer.putLong((long) s[0]).putDouble(s[1]).putDouble(s[2]).putDouble(s[3]);
+        }
+        return TelemetryBatch.fromBinary(new ByteArrayInputStream(buffer.array()), MAX_SAMPLES);
+    }
+}
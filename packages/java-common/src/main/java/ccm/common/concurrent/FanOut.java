@@ -0,0 +1,199 @@
+package ccm.common.concurrent;
+
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent read-only calls (dashboard aggregates, counts) in parallel on virtual threads, so a
+ * request costs roughly its slowest query instead of the sum of all of them.
+ *
+ * <p>Usage is structured: every task forked in a {@link Scope} has finished (or been cancelled) by the
+ * time the scope closes, so no query outlives the request that started it.
+ * <pre>{@code
+ * try (FanOut.Scope scope = fanOut.open()) {
+ *     Supplier<Long> total = scope.fork(repository::count);
+ *     Supplier<Long> pending = scope.fork(() -> repository.countByStatus(PENDING));
+ *     scope.join();
+ *     return new Stats(total.get(), pending.get());
+ * }
+ * }</pre>
+ *
+ * <p>One {@code FanOut} is shared by the whole application: at most {@code maxConcurrent} forked tasks
+ * run at once across all scopes, which caps how many pool connections fan-out work can hold. The caller
+ * should not keep a connection of its own while it waits in {@link Scope#join()} (no surrounding
+ * transaction), otherwise callers and their tasks can exhaust the pool between them.
+ *
+ * <p>The {@link TaskDecorator} is applied on the calling thread at fork time; use it to carry
+ * thread-bound state such as the security context into the task.
+ */
+public final class FanOut {
+
+    private final Semaphore permits;
+    private final TaskDecorator decorator;
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    public FanOut(int maxConcurrent, TaskDecorator decorator) {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("maxConcurrent must be positive");
+        }
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.decorator = decorator != null ? decorator : runnable -> runnable;
+    }
+
+    public Scope open() {
+        return new Scope();
+    }
+
+    /** Permits not held by a running task right now. */
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * A group of forked tasks. Not thread-safe: fork, join and close from the thread that opened it.
+     */
+    public final class Scope implements AutoCloseable {
+
+        private final List<Task<?>> tasks = new ArrayList<>();
+        private int pending;
+        private Throwable failure;
+        private boolean joined;
+
+        private Scope() {
+        }
+
+        /** Starts the task; the returned supplier yields its result once {@link #join()} has returned. */
+        public <T> Supplier<T> fork(Callable<? extends T> call) {
+            if (joined) {
+                throw new IllegalStateException("Scope already joined");
+            }
+            Task<T> task = new Task<>(call);
+            Runnable body = decorator.decorate(task::run);
+            synchronized (this) {
+                pending++;
+            }
+            task.thread = Thread.ofVirtual()
+                    .name("fan-out-" + sequence.incrementAndGet())
+                    .start(body);
+            tasks.add(task);
+            return task;
+        }
+
+        /**
+         * Waits for every forked task. If one fails, the others are interrupted and the first failure is
+         * rethrown: runtime exceptions and errors as they are, checked exceptions wrapped in
+         * {@link CompletionException}. An interrupted caller cancels the tasks, keeps its interrupt flag
+         * and gets a {@link CancellationException}.
+         */
+        public void join() {
+            joined = true;
+            try {
+                synchronized (this) {
+                    while (pending > 0 && failure == null) {
+                        wait();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while waiting for forked tasks");
+            } finally {
+                cancelAndAwait();
+            }
+            Throwable cause;
+            synchronized (this) {
+                cause = failure;
+            }
+            if (cause instanceof RuntimeException e) {
+                throw e;
+            }
+            if (cause instanceof Error e) {
+                throw e;
+            }
+            if (cause != null) {
+                throw new CompletionException(cause);
+            }
+        }
+
+        /** Interrupts anything still running (e.g. after an exception before join) and waits for it. */
+        @Override
+        public void close() {
+            joined = true;
+            cancelAndAwait();
+        }
+
+        private void cancelAndAwait() {
+            boolean interrupted = false;
+            for (Task<?> task : tasks) {
+                if (!task.done) {
+                    task.thread.interrupt();
+                }
+            }
+            for (Task<?> task : tasks) {
+                while (true) {
+                    try {
+                        task.thread.join();
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private synchronized void finished(Throwable error) {
+            if (error != null && failure == null) {
+                failure = error;
+            }
+            pending--;
+            notifyAll();
+        }
+
+        private final class Task<T> implements Supplier<T> {
+
+            private final Callable<? extends T> call;
+            private Thread thread;
+            private volatile boolean done;
+            private T result;
+
+            private Task(Callable<? extends T> call) {
+                this.call = call;
+            }
+
+            private void run() {
+                Throwable error = null;
+                try {
+                    permits.acquire();
+                    try {
+                        result = call.call();
+                    } finally {
+                        permits.release();
+                    }
+                } catch (Throwable t) {
+                    error = t;
+                } finally {
+                    done = true;
+                    finished(error);
+                }
+            }
+
+            @Override
+            public T get() {
+                if (!done) {
+                    throw new IllegalStateException("Task has not completed; call join() first");
+                }
+                return result;
+            }
+        }
+    }
+}
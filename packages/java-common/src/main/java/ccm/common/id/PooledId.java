@@ -0,0 +1,27 @@
+package ccm.common.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Marks an {@code @Id} as generated by {@link PooledIdGenerator}: ids are handed out in memory from
+ * blocks of {@link PooledIdGenerator#BLOCK_SIZE}, so the database no longer assigns the key on INSERT
+ * and Hibernate can batch inserts (it cannot with {@code GenerationType.IDENTITY}).
+ *
+ * <pre>
+ * &#64;Id
+ * &#64;PooledId
+ * private Long id;
+ * </pre>
+ */
+@IdGeneratorType(PooledIdGenerator.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface PooledId {
+}
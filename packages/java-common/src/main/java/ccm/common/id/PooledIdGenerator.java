@@ -0,0 +1,155 @@
+package ccm.common.id;
+
+import org.hibernate.HibernateException;
+import org.hibernate.boot.model.relational.Database;
+import org.hibernate.boot.model.relational.SimpleAuxiliaryDatabaseObject;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+import org.hibernate.mapping.RootClass;
+
+import java.lang.reflect.Member;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Hi/lo id generator shared by all services.
+ *
+ * <p>MySQL has no sequences, so block numbers come from the AUTO_INCREMENT table {@code id_blocks}:
+ * reserving a block is one INSERT (plus a DELETE of that same row) on the caller's own connection.
+ * Unlike an {@code UPDATE counter} row, this never holds a lock other transactions wait on, and unlike
+ * a separate "isolated" connection it cannot deadlock when every pooled connection is blocked behind
+ * a row lock held by the thread that needs ids. Block {@code b} covers ids
+ * {@code [b * BLOCK_SIZE, (b + 1) * BLOCK_SIZE)}; AUTO_INCREMENT values are never reused, even on
+ * rollback, so blocks are unique across instances, services and tables.
+ *
+ * <p>Before the first block for a table, AUTO_INCREMENT is seeded past {@code MAX(id)} with an
+ * {@code INSERT IGNORE} of the block below it, so rows created under the previous IDENTITY columns are
+ * never reissued. The block itself still comes from AUTO_INCREMENT: instances seeding at the same time
+ * move the counter to the same place but never receive the same block. Ids stay below 2^53 and remain
+ * exact as JSON numbers.
+ */
+public class PooledIdGenerator implements IdentifierGenerator {
+
+    public static final String TABLE = "id_blocks";
+
+    /** Fixed for every entity: services mapping the same table (e.g. listings) must agree on it */
+    public static final int BLOCK_SIZE = 100;
+
+    private static final int MAX_ATTEMPTS = 5;
+
+    private static final String NEXT_BLOCK_SQL = "INSERT INTO " + TABLE + " (block) VALUES (DEFAULT)";
+    private static final String SEED_BLOCK_SQL = "INSERT IGNORE INTO " + TABLE + " (block) VALUES (?)";
+    private static final String DELETE_BLOCK_SQL = "DELETE FROM " + TABLE + " WHERE block = ?";
+
+    private final String entityName;
+    private final String maxIdSql;
+
+    private boolean seeded;
+    private long next;
+    private long limit;
+
+    public PooledIdGenerator(PooledId config, Member member, CustomIdGeneratorCreationContext context) {
+        RootClass entity = context.getRootClass();
+        this.entityName = entity.getEntityName();
+        this.maxIdSql = "SELECT MAX(" + entity.getIdentifier().getColumns().get(0).getName() + ") FROM "
+                + entity.getTable().getName();
+    }
+
+    @Override
+    public synchronized Object generate(SharedSessionContractImplementor session, Object entity) {
+        if (next >= limit) {
+            Connection connection = session.getJdbcCoordinator().getLogicalConnection().getPhysicalConnection();
+            long block;
+            try {
+                block = nextBlock(connection);
+            } catch (SQLException e) {
+                throw session.getJdbcServices().getSqlExceptionHelper()
+                        .convert(e, "Could not reserve an id block for " + entityName);
+            }
+            next = block * BLOCK_SIZE;
+            limit = next + BLOCK_SIZE;
+        }
+        return next++;
+    }
+
+    /** Lets ddl-auto (tests, local H2) create the table; MySQL gets it from Flyway V7 */
+    @Override
+    public void registerExportables(Database database) {
+        database.addAuxiliaryDatabaseObject(new SimpleAuxiliaryDatabaseObject(
+                database.getDefaultNamespace(),
+                "CREATE TABLE IF NOT EXISTS " + TABLE + " (block BIGINT AUTO_INCREMENT PRIMARY KEY)",
+                "DROP TABLE IF EXISTS " + TABLE,
+                null));
+    }
+
+    private long nextBlock(Connection connection) throws SQLException {
+        if (!seeded) {
+            seed(connection);
+        }
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            Long block = insert(connection, NEXT_BLOCK_SQL);
+            if (block != null) {
+                delete(connection, block);
+                seeded = true;
+                return block;
+            }
+        }
+        throw new HibernateException("Could not reserve an id block for " + entityName);
+    }
+
+    /**
+     * Moves AUTO_INCREMENT past the table's existing ids. MySQL moves the counter past an explicit
+     * value; if another instance holds the same seed row the INSERT waits for it and then inserts or
+     * ignores, and the counter is past it either way. The seed is never handed out as a block.
+     */
+    private void seed(Connection connection) throws SQLException {
+        long minBlock = minBlock(connection);
+        if (minBlock <= 1) {
+            // Empty table: nothing to skip, and an explicit 0 would mean "next value" to MySQL
+            return;
+        }
+        long seedBlock = minBlock - 1;
+        try (PreparedStatement ps = connection.prepareStatement(SEED_BLOCK_SQL)) {
+            ps.setLong(1, seedBlock);
+            ps.executeUpdate();
+        }
+        delete(connection, seedBlock);
+    }
+
+    private long minBlock(Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(maxIdSql);
+             ResultSet rs = ps.executeQuery()) {
+            long maxId = rs.next() ? rs.getLong(1) : 0;
+            return maxId / BLOCK_SIZE + 1;
+        }
+    }
+
+    /** Returns the inserted block, or null if it was taken concurrently (duplicate key) */
+    private Long insert(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            ps.executeUpdate();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                keys.next();
+                return keys.getLong(1);
+            }
+        } catch (SQLException e) {
+            // 23000 (MySQL) / 23505 (H2): duplicate key, only the failed statement is rolled back
+            if (e.getSQLState() != null && e.getSQLState().startsWith("23")) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    /** The row only exists to advance AUTO_INCREMENT; removing it keeps id_blocks empty */
+    private void delete(Connection connection, long block) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(DELETE_BLOCK_SQL)) {
+            ps.setLong(1, block);
+            ps.executeUpdate();
+        }
+    }
+}
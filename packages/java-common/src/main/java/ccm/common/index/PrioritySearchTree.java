@@ -0,0 +1,119 @@
+package ccm.common.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Static priority search tree over points {@code (x, y)}: answers the three-sided query
+ * "{@code x >= xMin} and {@code y <= yMax}" in O(log n + k) for k reported points.
+ *
+ * <p>Each node holds the point with the smallest {@code y} of its subtree (heap order), and the
+ * remaining points are split at the median {@code x} into the left and right subtrees (search
+ * order). A query walks down the search path for {@code xMin} and only enters a subtree when its
+ * root still satisfies {@code y <= yMax}, so every extra node visited is either on that path or
+ * reported.
+ *
+ * <p>The tree is immutable and built in O(n log n); callers that change the point set rebuild it
+ * and publish the new instance (copy-on-write), so queries need no locking.
+ */
+public final class PrioritySearchTree<X extends Comparable<? super X>, Y extends Comparable<? super Y>, V> {
+
+    /** One point and the value reported for it. */
+    public record Point<X, Y, V>(X x, Y y, V value) {}
+
+    private static final PrioritySearchTree<?, ?, ?> EMPTY = new PrioritySearchTree<>(null, 0);
+
+    private final Node<X, Y, V> root;
+    private final int size;
+
+    private PrioritySearchTree(Node<X, Y, V> root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <X extends Comparable<? super X>, Y extends Comparable<? super Y>, V>
+            PrioritySearchTree<X, Y, V> empty() {
+        return (PrioritySearchTree<X, Y, V>) EMPTY;
+    }
+
+    public static <X extends Comparable<? super X>, Y extends Comparable<? super Y>, V>
+            PrioritySearchTree<X, Y, V> of(List<Point<X, Y, V>> points) {
+        if (points.isEmpty()) {
+            return empty();
+        }
+        List<Point<X, Y, V>> sorted = new ArrayList<>(points);
+        sorted.sort(Comparator.comparing(Point::x));
+        return new PrioritySearchTree<>(build(sorted, 0, sorted.size()), sorted.size());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Reports every point with {@code x >= xMin} and {@code y <= yMax}, in no particular order. */
+    public void query(X xMin, Y yMax, Consumer<? super V> sink) {
+        query(root, xMin, yMax, sink);
+    }
+
+    private static <X extends Comparable<? super X>, Y extends Comparable<? super Y>, V> void query(
+            Node<X, Y, V> node, X xMin, Y yMax, Consumer<? super V> sink) {
+        while (node != null && node.point.y().compareTo(yMax) <= 0) {
+            if (node.point.x().compareTo(xMin) >= 0) {
+                sink.accept(node.point.value());
+            }
+            if (node.split == null) {
+                return;
+            }
+            if (node.split.compareTo(xMin) >= 0) {
+                // Whole right subtree has x >= split >= xMin: only the heap bound can stop it
+                reportAll(node.right, yMax, sink);
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+    }
+
+    private static <X, Y extends Comparable<? super Y>, V> void reportAll(
+            Node<X, Y, V> node, Y yMax, Consumer<? super V> sink) {
+        if (node == null || node.point.y().compareTo(yMax) > 0) {
+            return;
+        }
+        sink.accept(node.point.value());
+        reportAll(node.left, yMax, sink);
+        reportAll(node.right, yMax, sink);
+    }
+
+    // sorted[from, to) is ordered by x; pulls out the min-y point and splits the rest at the median
+    private static <X extends Comparable<? super X>, Y extends Comparable<? super Y>, V> Node<X, Y, V> build(
+            List<Point<X, Y, V>> sorted, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int top = from;
+        for (int i = from + 1; i < to; i++) {
+            if (sorted.get(i).y().compareTo(sorted.get(top).y()) < 0) {
+                top = i;
+            }
+        }
+        Point<X, Y, V> point = sorted.get(top);
+        List<Point<X, Y, V>> rest = new ArrayList<>(to - from - 1);
+        for (int i = from; i < to; i++) {
+            if (i != top) {
+                rest.add(sorted.get(i));
+            }
+        }
+        if (rest.isEmpty()) {
+            return new Node<>(point, null, null, null);
+        }
+        // Left gets x <= split, right gets x >= split; equal keys may fall on either side
+        int mid = (rest.size() - 1) / 2;
+        X split = rest.get(mid).x();
+        return new Node<>(point, split, build(rest, 0, mid + 1), build(rest, mid + 1, rest.size()));
+    }
+
+    private record Node<X, Y, V>(Point<X, Y, V> point, X split, Node<X, Y, V> left, Node<X, Y, V> right) {}
+}
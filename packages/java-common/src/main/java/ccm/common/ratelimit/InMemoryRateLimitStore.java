@@ -0,0 +1,44 @@
+package ccm.common.ratelimit;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Embedded {@link RateLimitStore} backed by a map in the current JVM.
+ * Used by tests and single-node setups; counters are not shared between instances.
+ */
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+    private static final int PURGE_THRESHOLD = 10_000;
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Clock clock;
+
+    public InMemoryRateLimitStore() {
+        this(Clock.systemUTC());
+    }
+
+    public InMemoryRateLimitStore(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public long increment(String key, long delta, Duration ttl) {
+        long now = clock.millis();
+        if (counters.size() > PURGE_THRESHOLD) {
+            counters.values().removeIf(c -> c.expiresAt <= now);
+        }
+
+        Counter counter = counters.compute(key, (k, existing) -> {
+            if (existing == null || existing.expiresAt <= now) {
+                return new Counter(delta, now + ttl.toMillis());
+            }
+            return new Counter(existing.value + delta, existing.expiresAt);
+        });
+        return counter.value;
+    }
+
+    private record Counter(long value, long expiresAt) {}
+}
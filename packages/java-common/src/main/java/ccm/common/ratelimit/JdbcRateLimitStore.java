@@ -0,0 +1,73 @@
+package ccm.common.ratelimit;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link RateLimitStore} backed by the shared MySQL database (table {@code rate_limit_counters}).
+ *
+ * <p>The increment is a single upsert that stores the new total in {@code LAST_INSERT_ID(expr)},
+ * which is then read back on the same connection, so no row lock is held between statements.
+ * Expired rows are purged opportunistically, at most once per {@link #PURGE_INTERVAL}.
+ */
+public class JdbcRateLimitStore implements RateLimitStore {
+
+    private static final Duration PURGE_INTERVAL = Duration.ofMinutes(5);
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO rate_limit_counters (bucket_key, counter, expires_at) VALUES (?, LAST_INSERT_ID(?), ?) "
+                    + "ON DUPLICATE KEY UPDATE counter = LAST_INSERT_ID(counter + ?)";
+    private static final String PURGE_SQL = "DELETE FROM rate_limit_counters WHERE expires_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+    private final AtomicLong nextPurgeAt = new AtomicLong();
+
+    public JdbcRateLimitStore(JdbcTemplate jdbcTemplate) {
+        this(jdbcTemplate, Clock.systemUTC());
+    }
+
+    public JdbcRateLimitStore(JdbcTemplate jdbcTemplate, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = clock;
+    }
+
+    @Override
+    public long increment(String key, long delta, Duration ttl) {
+        Instant now = clock.instant();
+        purgeExpiredIfDue(now);
+
+        Timestamp expiresAt = Timestamp.from(now.plus(ttl));
+        Long total = jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+            try (PreparedStatement ps = con.prepareStatement(UPSERT_SQL)) {
+                ps.setString(1, key);
+                ps.setLong(2, delta);
+                ps.setTimestamp(3, expiresAt);
+                ps.setLong(4, delta);
+                ps.executeUpdate();
+            }
+            try (PreparedStatement ps = con.prepareStatement("SELECT LAST_INSERT_ID()");
+                 ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : delta;
+            }
+        });
+        return total != null ? total : delta;
+    }
+
+    private void purgeExpiredIfDue(Instant now) {
+        long due = nextPurgeAt.get();
+        if (now.toEpochMilli() < due
+                || !nextPurgeAt.compareAndSet(due, now.plus(PURGE_INTERVAL).toEpochMilli())) {
+            return;
+        }
+        jdbcTemplate.update(PURGE_SQL, Timestamp.from(now));
+    }
+}
@@ -0,0 +1,122 @@
+package ccm.common.ratelimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed-window rate limiter whose counters live in a shared {@link RateLimitStore}.
+ *
+ * <p>To keep the store off the request hot path each node leases tokens in batches:
+ * a request first takes a token from the local lease, and only when the lease is empty
+ * does the node reserve the next batch from the store. The store total is the sum of all
+ * reservations in the cluster, so a node only keeps the part of a batch that still fits
+ * under the limit. Unused leased tokens expire with their window, which can only make
+ * the limiter stricter, never looser.
+ *
+ * <p>The batch size is {@code limit / 10}, capped at {@code maxPrefetch} and at least 1.
+ * Quotas of 20 or more per window make one store call per batch. Smaller quotas (e.g. 5 logins/min,
+ * 10 approvals/min) get a batch of 1 so they stay exact: every <em>allowed</em> request is one store
+ * call. Once the store reports the window full, the key is marked exhausted locally and further
+ * requests in that window are rejected without touching the store.
+ *
+ * <p>If the store fails, the limiter falls back to counting in this JVM only (a per-instance quota)
+ * and logs a warning, so an unavailable store degrades the limit instead of failing the request.
+ */
+public class PrefetchingRateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(PrefetchingRateLimiter.class);
+
+    private static final int PURGE_THRESHOLD = 10_000;
+    private static final long WARN_INTERVAL_MILLIS = 60_000L;
+
+    private final RateLimitStore store;
+    private final RateLimitStore fallback;
+    private final int maxPrefetch;
+    private final Clock clock;
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+    private final AtomicLong nextWarnAt = new AtomicLong();
+
+    public PrefetchingRateLimiter(RateLimitStore store, int maxPrefetch) {
+        this(store, maxPrefetch, Clock.systemUTC());
+    }
+
+    public PrefetchingRateLimiter(RateLimitStore store, int maxPrefetch, Clock clock) {
+        this.store = store;
+        this.fallback = new InMemoryRateLimitStore(clock);
+        this.maxPrefetch = Math.max(maxPrefetch, 1);
+        this.clock = clock;
+    }
+
+    /**
+     * Try to take one token for {@code key}.
+     *
+     * @param key Limiter key (e.g. client IP or principal)
+     * @param limit Max requests per window across the cluster
+     * @param window Window length
+     * @return true if the request is allowed
+     */
+    public boolean tryConsume(String key, int limit, Duration window) {
+        long windowMillis = window.toMillis() > 0 ? window.toMillis() : 60_000L;
+        long windowId = clock.millis() / windowMillis;
+
+        if (leases.size() > PURGE_THRESHOLD) {
+            leases.values().removeIf(l -> l.windowId < windowId);
+        }
+
+        Lease lease = leases.compute(key, (k, existing) ->
+                existing == null || existing.windowId != windowId ? new Lease(windowId) : existing);
+
+        synchronized (lease) {
+            if (lease.tokens > 0) {
+                lease.tokens--;
+                return true;
+            }
+            if (lease.exhausted) {
+                return false;
+            }
+
+            int batch = batchSize(limit);
+            long total = reserve(key + ":" + windowId, batch, Duration.ofMillis(windowMillis * 2));
+            long granted = Math.min(batch, limit - (total - batch));
+            if (granted <= 0) {
+                lease.exhausted = true;
+                return false;
+            }
+            lease.tokens = (int) granted - 1;
+            return true;
+        }
+    }
+
+    private long reserve(String bucket, long delta, Duration ttl) {
+        try {
+            return store.increment(bucket, delta, ttl);
+        } catch (RuntimeException e) {
+            long now = clock.millis();
+            long due = nextWarnAt.get();
+            if (now >= due && nextWarnAt.compareAndSet(due, now + WARN_INTERVAL_MILLIS)) {
+                log.warn("Rate limit store unavailable, counting on this instance only: {}", e.toString());
+            }
+            return fallback.increment(bucket, delta, ttl);
+        }
+    }
+
+    private int batchSize(int limit) {
+        return Math.max(1, Math.min(maxPrefetch, limit / 10));
+    }
+
+    private static final class Lease {
+        private final long windowId;
+        private int tokens;
+        private boolean exhausted;
+
+        private Lease(long windowId) {
+            this.windowId = windowId;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package ccm.common.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * Shared counter backend for rate limiting.
+ * Every service instance pointed at the same store sees the same counters, so a quota
+ * is enforced once for the whole cluster instead of once per node.
+ *
+ * <p>Implementations must make {@link #increment} atomic: concurrent callers on any node
+ * observe strictly increasing totals for the same key.
+ */
+public interface RateLimitStore {
+
+    /**
+     * Atomically add {@code delta} to the counter stored under {@code key}.
+     * A missing (or expired) counter starts from zero and lives for {@code ttl}.
+     *
+     * @param key Counter key (callers include the window id, e.g. "login:10.0.0.1:28391")
+     * @param delta Amount to add (&gt; 0)
+     * @param ttl How long the counter must be kept after it is created
+     * @return Counter value after the increment
+     */
+    long increment(String key, long delta, Duration ttl);
+}
@@ -0,0 +1,152 @@
+package ccm.common.time;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hierarchical timing wheel keyed by {@code K}: O(1) schedule, reschedule and cancel, and an
+ * {@link #advance(long)} whose cost depends on the entries that expire rather than on the number
+ * of pending deadlines.
+ *
+ * <p>Level 0 has {@code wheelSize} slots of one tick each; level {@code n} has slots of
+ * {@code wheelSize^n} ticks and is created on demand. A deadline is parked in the coarsest level
+ * that still distinguishes it and moves down one level each time its slot comes round, so it
+ * fires on the first tick at or after the deadline: never early, at most one tick late.
+ *
+ * <p>The wheel does not own a thread; the caller drives it with the current time. All methods are
+ * synchronized, so deadlines can be changed from request threads while a ticker advances it.
+ */
+public class TimingWheel<K> {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final List<List<Set<Entry<K>>>> levels = new ArrayList<>();
+    private final Set<Entry<K>> overdue = new LinkedHashSet<>();
+    private final Map<K, Entry<K>> entries = new HashMap<>();
+    private long currentTick;
+
+    public TimingWheel(Duration tick, int wheelSize, long startMs) {
+        if (tick.toMillis() <= 0 || wheelSize < 2) {
+            throw new IllegalArgumentException("tick must be >= 1ms and wheelSize >= 2");
+        }
+        this.tickMs = tick.toMillis();
+        this.wheelSize = wheelSize;
+        this.currentTick = Math.floorDiv(startMs, tickMs);
+    }
+
+    /** Schedules {@code key} at {@code deadlineMs}, replacing any deadline it already had. */
+    public synchronized void schedule(K key, long deadlineMs) {
+        Entry<K> previous = entries.remove(key);
+        if (previous != null) {
+            previous.bucket.remove(previous);
+        }
+        Entry<K> entry = new Entry<>(key, Math.ceilDiv(deadlineMs, tickMs));
+        entries.put(key, entry);
+        place(entry);
+    }
+
+    public synchronized boolean cancel(K key) {
+        Entry<K> entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        entry.bucket.remove(entry);
+        return true;
+    }
+
+    public synchronized boolean contains(K key) {
+        return entries.containsKey(key);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /** Moves the wheel up to {@code nowMs} and returns the keys whose deadline has passed, in expiry order. */
+    public synchronized List<K> advance(long nowMs) {
+        List<K> expired = new ArrayList<>();
+        drain(overdue, expired);
+        long target = Math.floorDiv(nowMs, tickMs);
+        while (currentTick < target) {
+            currentTick++;
+            // Higher levels first: their entries may land in the level-0 slot expiring on this tick
+            for (int level = levels.size() - 1; level >= 1; level--) {
+                long span = span(level);
+                if (currentTick % span == 0) {
+                    Set<Entry<K>> bucket = levels.get(level).get(slot(currentTick, level));
+                    List<Entry<K>> cascading = new ArrayList<>(bucket);
+                    bucket.clear();
+                    cascading.forEach(this::place);
+                }
+            }
+            if (!levels.isEmpty()) {
+                drain(levels.get(0).get(slot(currentTick, 0)), expired);
+            }
+            drain(overdue, expired);
+        }
+        return expired;
+    }
+
+    private void place(Entry<K> entry) {
+        long delta = entry.expiryTick - currentTick;
+        if (delta <= 0) {
+            entry.bucket = overdue;
+            overdue.add(entry);
+            return;
+        }
+        int level = 0;
+        while (delta >= span(level + 1)) {
+            level++;
+        }
+        while (levels.size() <= level) {
+            List<Set<Entry<K>>> wheel = new ArrayList<>(wheelSize);
+            for (int i = 0; i < wheelSize; i++) {
+                wheel.add(new LinkedHashSet<>());
+            }
+            levels.add(wheel);
+        }
+        Set<Entry<K>> bucket = levels.get(level).get(slot(entry.expiryTick, level));
+        entry.bucket = bucket;
+        bucket.add(entry);
+    }
+
+    private void drain(Set<Entry<K>> bucket, List<K> expired) {
+        for (Entry<K> entry : bucket) {
+            entries.remove(entry.key);
+            expired.add(entry.key);
+        }
+        bucket.clear();
+    }
+
+    // Ticks covered by one slot of the given level (wheelSize^level), saturating instead of overflowing
+    private long span(int level) {
+        long span = 1;
+        for (int i = 0; i < level; i++) {
+            if (span > Long.MAX_VALUE / wheelSize) {
+                return Long.MAX_VALUE;
+            }
+            span *= wheelSize;
+        }
+        return span;
+    }
+
+    private int slot(long tick, int level) {
+        return (int) ((tick / span(level)) % wheelSize);
+    }
+
+    private static final class Entry<K> {
+        private final K key;
+        private final long expiryTick;
+        private Set<Entry<K>> bucket;
+
+        private Entry(K key, long expiryTick) {
+            this.key = key;
+            this.expiryTick = expiryTick;
+        }
+    }
+}